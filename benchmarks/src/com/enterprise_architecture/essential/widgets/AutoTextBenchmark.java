@@ -0,0 +1,171 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.stanford.smi.protege.model.Cls;
+import edu.stanford.smi.protege.model.Instance;
+import edu.stanford.smi.protege.model.KnowledgeBase;
+import edu.stanford.smi.protege.model.Project;
+import edu.stanford.smi.protege.model.Slot;
+import edu.stanford.smi.protege.model.ValueType;
+
+/**
+ * Benchmark AutoTextWidget.createAutoText(), which builds the auto-text from the values of up to five slots of 
+ * the instance on the form, each time one of them changes. 
+ * <br/>
+ * The widget is not put on a Protege form. Instead, the instance and its class are created in an in-memory 
+ * knowledge base, and a subclass of the widget returns them from getInstance() and getCls(), as the form would.
+ * The configuration that would be loaded from the widget properties is set directly. The template uses all 
+ * five slots: three strings, an integer and an instance.
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AutoTextBenchmark 
+{
+	private Project itsProject;
+	private FormlessAutoTextWidget itsWidget;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception
+	{
+		Collection<Object> anErrors = new ArrayList<Object>();
+		itsProject = Project.createNewProject(null, anErrors);
+		KnowledgeBase aKB = itsProject.getKnowledgeBase();
+		
+		Cls aCls = aKB.createCls("Application_Provider", aKB.getRootClses());
+		Slot aName = createSlot(aKB, aCls, "name", ValueType.STRING);
+		Slot aVersion = createSlot(aKB, aCls, "version", ValueType.STRING);
+		Slot aVendor = createSlot(aKB, aCls, "vendor", ValueType.STRING);
+		Slot aUsers = createSlot(aKB, aCls, "user_count", ValueType.INTEGER);
+		Slot aHost = createSlot(aKB, aCls, "hosted_on", ValueType.INSTANCE);
+		aHost.setAllowedClses(Collections.singleton(aCls));
+		
+		Instance aHostInstance = aKB.createInstance("EAS_Host", aCls);
+		aHostInstance.setDirectOwnSlotValue(aName, "Data Centre 1");
+		Instance anInstance = aKB.createInstance("EAS_Application", aCls);
+		anInstance.setDirectOwnSlotValue(aName, "Customer Relationship Management");
+		anInstance.setDirectOwnSlotValue(aVersion, "12.4");
+		anInstance.setDirectOwnSlotValue(aVendor, "Example Software Ltd");
+		anInstance.setDirectOwnSlotValue(aUsers, Integer.valueOf(2500));
+		anInstance.setDirectOwnSlotValue(aHost, aHostInstance);
+		
+		itsWidget = new FormlessAutoTextWidget(aCls, anInstance);
+		configure("itsPrefix", "App: ");
+		configure("itsSlot1", aName);
+		configure("itsSeparator1", " v");
+		configure("itsSlot2", aVersion);
+		configure("itsSeparator2", " (");
+		configure("itsSlot3", aVendor);
+		configure("itsSeparator3", ", ");
+		configure("itsSlot4", aUsers);
+		configure("itsSeparator4", " users) on ");
+		configure("itsSlot5", aHost);
+		configure("itsSuffix", "");
+		
+		if(!anErrors.isEmpty())
+		{
+			throw new IllegalStateException("Unable to create the knowledge base: " + anErrors);
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		itsProject.dispose();
+	}
+	
+	/**
+	 * Build the auto-text
+	 * @return the auto-text
+	 */
+	@Benchmark
+	public String createAutoText()
+	{
+		return itsWidget.createAutoText();
+	}
+	
+	private static Slot createSlot(KnowledgeBase theKB, Cls theCls, String theName, ValueType theType)
+	{
+		Slot aSlot = theKB.createSlot(theName);
+		aSlot.setValueType(theType);
+		theCls.addDirectTemplateSlot(aSlot);
+		return aSlot;
+	}
+	
+	/**
+	 * Set a member of the AutoText configuration, as loadFromProperties() would
+	 */
+	private void configure(String theField, Object theValue) throws Exception
+	{
+		Field aField = AutoTextWidget.class.getDeclaredField(theField);
+		aField.setAccessible(true);
+		aField.set(itsWidget, theValue);
+	}
+	
+	/**
+	 * An AutoTextWidget for an instance and class that are not shown on a form
+	 */
+	private static class FormlessAutoTextWidget extends AutoTextWidget
+	{
+		private final Cls itsCls;
+		private final Instance itsInstance;
+		
+		FormlessAutoTextWidget(Cls theCls, Instance theInstance)
+		{
+			itsCls = theCls;
+			itsInstance = theInstance;
+		}
+		
+		@Override
+		public Cls getCls()
+		{
+			return itsCls;
+		}
+		
+		@Override
+		public Instance getInstance()
+		{
+			return itsInstance;
+		}
+	}
+}
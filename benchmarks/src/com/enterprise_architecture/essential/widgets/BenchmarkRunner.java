@@ -0,0 +1,109 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the publish benchmarks. Takes the usual JMH command line options, but unless told otherwise writes 
+ * the results as JSON to jmh-result-&lt;version&gt;.json, named for the version of essential-widgets that 
+ * was measured, so that the results of two releases can be compared.
+ * <br/>
+ * e.g. java -jar target/benchmarks.jar, or java -jar target/benchmarks.jar Compress -p payloadMB=10
+ * @version 1.0
+ */
+public class BenchmarkRunner 
+{
+	private static final String VERSION_RESOURCE = "/benchmark.properties";
+	private static final String VERSION_PROP = "essential-widgets.version";
+	private static final String RESULT_FILE_PREFIX = "jmh-result-";
+	
+	public static void main(String[] theArgs) throws Exception
+	{
+		CommandLineOptions aCommandLine;
+		try
+		{
+			aCommandLine = new CommandLineOptions(theArgs);
+		}
+		catch(CommandLineOptionException aCmdEx)
+		{
+			System.err.println("Error parsing command line: " + aCmdEx.getMessage());
+			System.exit(1);
+			return;
+		}
+		if(aCommandLine.shouldHelp())
+		{
+			aCommandLine.showHelp();
+			return;
+		}
+		if(aCommandLine.shouldList())
+		{
+			new Runner(aCommandLine).list();
+			return;
+		}
+		
+		ChainedOptionsBuilder anOptions = new OptionsBuilder().parent(aCommandLine);
+		if(!aCommandLine.getResultFormat().hasValue())
+		{
+			anOptions.resultFormat(ResultFormatType.JSON);
+		}
+		if(!aCommandLine.getResult().hasValue())
+		{
+			anOptions.result(RESULT_FILE_PREFIX + getVersion() + ".json");
+		}
+		new Runner(anOptions.build()).run();
+	}
+	
+	/**
+	 * @return the version of essential-widgets that the benchmarks were built against
+	 */
+	private static String getVersion()
+	{
+		Properties aProperties = new Properties();
+		try
+		{
+			InputStream anInput = BenchmarkRunner.class.getResourceAsStream(VERSION_RESOURCE);
+			if(anInput != null)
+			{
+				try
+				{
+					aProperties.load(anInput);
+				}
+				finally
+				{
+					anInput.close();
+				}
+			}
+		}
+		catch(IOException anIOEx)
+		{
+			System.out.println("Unable to read the benchmark version: " + anIOEx);
+		}
+		return aProperties.getProperty(VERSION_PROP, "unknown");
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark the compression of the repository snapshot to its spool file, by HttpReportServiceClient.compressXML(),
+ * at a range of snapshot sizes. compressXML() is private, so it is called by reflection, which costs nothing 
+ * beside the compression of a snapshot. The compression at each of the levels that the CompressionAdvisor 
+ * chooses from is measured as well.
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressBenchmark 
+{
+	private static final int BYTES_PER_MB = 1024 * 1024;
+	
+	/**
+	 * The size of the snapshot, in megabytes of XML
+	 */
+	@Param({"1", "10", "50"})
+	public int payloadMB;
+	
+	private String itsReportXML;
+	private File itsSpoolDirectory;
+	private HttpReportServiceClient itsService;
+	private Method itsCompressXML;
+	private Method itsInitialiseCompressedXML;
+	
+	/**
+	 * The compression level, for #compressAtLevel only
+	 */
+	@State(Scope.Thread)
+	public static class CompressionLevel
+	{
+		@Param({"1", "6", "9"})
+		public int level;
+	}
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception
+	{
+		itsReportXML = SnapshotXMLFactory.createSnapshot(payloadMB * BYTES_PER_MB);
+		itsSpoolDirectory = new File(System.getProperty("java.io.tmpdir"), "essential-benchmark-spool");
+		itsService = new HttpReportServiceClient();
+		itsService.setItsReportXML(itsReportXML);
+		itsService.setItsSpoolDirectory(itsSpoolDirectory);
+		itsCompressXML = HttpReportServiceClient.class.getDeclaredMethod("compressXML");
+		itsCompressXML.setAccessible(true);
+		itsInitialiseCompressedXML = HttpReportServiceClient.class.getDeclaredMethod("initialiseCompressedXML");
+		itsInitialiseCompressedXML.setAccessible(true);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception
+	{
+		// Remove the last spool file
+		itsInitialiseCompressedXML.invoke(itsService);
+	}
+	
+	/**
+	 * Compress the snapshot as a publish does. Each call deletes the spool file of the call before.
+	 */
+	@Benchmark
+	public void compressXML() throws Exception
+	{
+		itsCompressXML.invoke(itsService);
+	}
+	
+	/**
+	 * Compress the snapshot to a spool file at the level given by the level parameter
+	 * @param theLevel the compression level
+	 * @return the length of the spool file
+	 */
+	@Benchmark
+	public long compressAtLevel(CompressionLevel theLevel) throws Exception
+	{
+		SnapshotSpool aSpool = SnapshotSpool.create(itsReportXML, itsSpoolDirectory, theLevel.level);
+		long aLength = aSpool.getItsLength();
+		aSpool.delete();
+		return aLength;
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLReaderFactory;
+
+/**
+ * Benchmark the parse of history.xml by the ServiceHistoryParser, as the EasReportTab does when it opens, 
+ * with the same SAX parser. The history is written as EasReportTab.renderXML() writes it, with the 
+ * given number of URLs and as many targets.
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistoryParseBenchmark 
+{
+	private static final String SAX_PARSER = "com.sun.org.apache.xerces.internal.parsers.SAXParser";
+	
+	/**
+	 * The number of URLs in the history, and of targets in the target set
+	 */
+	@Param({"10", "100", "1000"})
+	public int entries;
+	
+	private String itsHistoryXML;
+	
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		StringBuilder aHistory = new StringBuilder();
+		aHistory.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<history>\n");
+		for(int i = 0; i < entries; i++)
+		{
+			aHistory.append("\t<url index=\"").append(i).append("\">http://viewer").append(i).append(".example.com:8080/essential_viewer/reportService</url>\n");
+		}
+		aHistory.append("\t<layout>Hierarchical</layout>\n");
+		for(int i = 0; i < entries; i++)
+		{
+			aHistory.append("\t<target user=\"publisher").append(i).append("\">https://viewer").append(i).append(".example.com/essential_viewer/reportService?a=1&amp;b=2</target>\n");
+		}
+		aHistory.append("\t<coordinated>true</coordinated>\n</history>\n");
+		itsHistoryXML = aHistory.toString();
+	}
+	
+	/**
+	 * Parse the history
+	 * @return the parser, holding the parsed history
+	 */
+	@Benchmark
+	public ServiceHistoryParser parseHistory() throws SAXException, IOException
+	{
+		XMLReader aReader = XMLReaderFactory.createXMLReader(SAX_PARSER);
+		ServiceHistoryParser aParser = new ServiceHistoryParser();
+		aReader.setContentHandler(aParser);
+		aReader.parse(new InputSource(new StringReader(itsHistoryXML)));
+		return aParser;
+	}
+}
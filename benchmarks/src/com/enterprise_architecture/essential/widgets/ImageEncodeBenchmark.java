@@ -0,0 +1,149 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark the PNG encoding of a graph image, as HttpReportServiceClient.sendGraphImage() does before the image 
+ * is sent. The image is drawn as a GraphWidget diagram is - labelled boxes joined by lines on a white 
+ * background - at a range of sizes, so that it encodes much as a real diagram does. Drawing the image is 
+ * not measured.
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageEncodeBenchmark 
+{
+	private static final String IMAGE_TYPE = "png";
+	private static final int BOX_WIDTH = 140;
+	private static final int BOX_HEIGHT = 50;
+	
+	/**
+	 * The size of the diagram, width x height in pixels
+	 */
+	@Param({"800x600", "2000x1500", "4000x3000"})
+	public String size;
+	
+	private BufferedImage itsImage;
+	
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		String[] aDimensions = size.split("x");
+		itsImage = drawDiagram(Integer.parseInt(aDimensions[0]), Integer.parseInt(aDimensions[1]));
+	}
+	
+	/**
+	 * Encode the diagram as a PNG
+	 * @return the encoded image
+	 */
+	@Benchmark
+	public byte[] encodePNG() throws IOException
+	{
+		ByteArrayOutputStream anImageOut = new ByteArrayOutputStream();
+		ImageIO.write(itsImage, IMAGE_TYPE, anImageOut);
+		return anImageOut.toByteArray();
+	}
+	
+	/**
+	 * Draw a diagram of labelled boxes, one for about every 200x150 pixels, each joined to one or two others
+	 * @param theWidth the width of the diagram
+	 * @param theHeight the height of the diagram
+	 * @return the diagram
+	 */
+	private static BufferedImage drawDiagram(int theWidth, int theHeight)
+	{
+		BufferedImage anImage = new BufferedImage(theWidth, theHeight, BufferedImage.TYPE_INT_RGB);
+		Graphics2D aGraphics = anImage.createGraphics();
+		try
+		{
+			aGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			aGraphics.setColor(Color.WHITE);
+			aGraphics.fillRect(0, 0, theWidth, theHeight);
+			aGraphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+			
+			Random aRandom = new Random(theWidth * 31 + theHeight);
+			int aColumns = Math.max(1, theWidth / 200);
+			int aRows = Math.max(1, theHeight / 150);
+			int[] aX = new int[aColumns * aRows];
+			int[] aY = new int[aColumns * aRows];
+			for(int i = 0; i < aX.length; i++)
+			{
+				aX[i] = (i % aColumns) * 200 + 20 + aRandom.nextInt(30);
+				aY[i] = (i / aColumns) * 150 + 20 + aRandom.nextInt(60);
+			}
+			
+			// The lines first, so that the boxes are drawn over them
+			aGraphics.setColor(Color.DARK_GRAY);
+			aGraphics.setStroke(new BasicStroke(1.5f));
+			for(int i = 1; i < aX.length; i++)
+			{
+				int aLinks = 1 + aRandom.nextInt(2);
+				for(int j = 0; j < aLinks; j++)
+				{
+					int aTarget = aRandom.nextInt(i);
+					aGraphics.drawLine(aX[i] + BOX_WIDTH / 2, aY[i] + BOX_HEIGHT / 2, aX[aTarget] + BOX_WIDTH / 2, aY[aTarget] + BOX_HEIGHT / 2);
+				}
+			}
+			for(int i = 0; i < aX.length; i++)
+			{
+				aGraphics.setColor(new Color(0xDDEEFF));
+				aGraphics.fillRoundRect(aX[i], aY[i], BOX_WIDTH, BOX_HEIGHT, 10, 10);
+				aGraphics.setColor(new Color(0x336699));
+				aGraphics.drawRoundRect(aX[i], aY[i], BOX_WIDTH, BOX_HEIGHT, 10, 10);
+				aGraphics.setColor(Color.BLACK);
+				aGraphics.drawString("Application " + i, aX[i] + 10, aY[i] + 30);
+			}
+		}
+		finally
+		{
+			aGraphics.dispose();
+		}
+		return anImage;
+	}
+}
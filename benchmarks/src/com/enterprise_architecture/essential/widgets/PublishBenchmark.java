@@ -0,0 +1,153 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end benchmark of a publish by ReportServiceClient, from compressing the snapshot to the Report Service 
+ * acknowledging it, against a StandInReportService in the same process. No Viewer is needed, so the benchmark 
+ * runs on any machine. The stand-in requires the form login, and adds the latency, bandwidth limit and errors 
+ * given by the parameters. The time of each publish is sampled, so that the results give its distribution as 
+ * well as the throughput.
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class PublishBenchmark 
+{
+	private static final int BYTES_PER_MB = 1024 * 1024;
+	private static final int BYTES_PER_KB = 1024;
+	private static final String SERVICE_PATH = "/essential_viewer/reportService";
+	private static final String USER = "publisher";
+	private static final String PASSWORD = "benchmark";
+	private static final long POLL_INTERVAL = 1;
+	
+	/**
+	 * The size of the snapshot, in megabytes of XML
+	 */
+	@Param({"1", "10"})
+	public int payloadMB;
+	
+	/**
+	 * The latency added to each request, in milliseconds
+	 */
+	@Param({"0", "50"})
+	public long latencyMs;
+	
+	/**
+	 * The bandwidth of the link to the stand-in, in kilobytes per second, 0 for no limit
+	 */
+	@Param({"0", "1024"})
+	public long bandwidthKB;
+	
+	/**
+	 * The proportion of the requests answered with 503 Service Unavailable
+	 */
+	@Param({"0", "0.1"})
+	public double errorRate;
+	
+	private String itsReportXML;
+	private File itsDirectory;
+	private StandInReportService itsService;
+	private String itsURL;
+	private PublishProgressListener itsListener;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws IOException
+	{
+		itsReportXML = SnapshotXMLFactory.createSnapshot(payloadMB * BYTES_PER_MB);
+		itsDirectory = new File(System.getProperty("java.io.tmpdir"), "essential-benchmark-standin");
+		itsService = new StandInReportService(0, new File(itsDirectory, "received"));
+		itsService.setFormLogin(USER, PASSWORD);
+		itsService.setItsLatency(latencyMs);
+		itsService.setItsBandwidth(bandwidthKB * BYTES_PER_KB);
+		itsService.setErrorInjection(errorRate, 503, Long.valueOf(payloadMB));
+		itsService.start();
+		itsURL = "http://localhost:" + itsService.getPort() + SERVICE_PATH;
+		itsListener = new PublishProgressListener()
+		{
+			public void updatePublishProgress(PublishProgressEvent theEvent)
+			{
+			}
+		};
+	}
+	
+	@TearDown(Level.Iteration)
+	public void removeReceived()
+	{
+		// The stand-in keeps every snapshot it receives
+		File[] aFiles = new File(itsDirectory, "received").listFiles();
+		for(int i = 0; aFiles != null && i < aFiles.length; i++)
+		{
+			aFiles[i].delete();
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		itsService.stop();
+		removeReceived();
+	}
+	
+	/**
+	 * Publish the snapshot, as the Publish button does, and wait for it to finish
+	 * @return the measured upload rate
+	 */
+	@Benchmark
+	public double publish() throws InterruptedException
+	{
+		ReportServiceClient aClient = new ReportServiceClient(itsURL, itsReportXML, itsListener);
+		aClient.setItsUID(USER);
+		aClient.setItsPassword(PASSWORD);
+		aClient.setItsSpoolDirectory(new File(itsDirectory, "spool"));
+		aClient.setItIsSkippingUnchanged(false);
+		aClient.start();
+		while(!aClient.isItIsFinished())
+		{
+			Thread.sleep(POLL_INTERVAL);
+		}
+		if(!aClient.isItIsSuccess())
+		{
+			throw new IllegalStateException("Publish failed with code " + aClient.getItsReturnCode());
+		}
+		return aClient.getItsUploadRate();
+	}
+}
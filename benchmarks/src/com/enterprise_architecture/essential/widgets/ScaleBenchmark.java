@@ -0,0 +1,158 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.enterprise_architecture.essential.xml.XMLRenderer;
+
+import edu.stanford.smi.protege.model.Project;
+
+/**
+ * Benchmark how the render and publish of a repository scale, on synthetic repositories of 10 thousand to 
+ * 1 million instances built by the SyntheticRepositoryGenerator. The render is as the Publish button and 
+ * HeadlessPublisher do it, digesting the content as it is written. The publish sends the rendered snapshot 
+ * through ReportServiceClient to a StandInReportService in the same process.
+ * <br/>
+ * Each render or publish is timed once per iteration, as the larger repositories take many seconds. The 1 million 
+ * instance repository needs a large heap, e.g. -jvmArgs -Xmx8g.
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ScaleBenchmark 
+{
+	private static final String SERVICE_PATH = "/essential_viewer/reportService";
+	private static final long POLL_INTERVAL = 5;
+	
+	/**
+	 * The number of instances in the repository
+	 */
+	@Param({"10000", "100000", "1000000"})
+	public int instances;
+	
+	/**
+	 * The number of values of each instance slot
+	 */
+	@Param({"3"})
+	public int fanOut;
+	
+	private Project itsProject;
+	private String itsReportXML;
+	private File itsDirectory;
+	private StandInReportService itsService;
+	private PublishProgressListener itsListener;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception
+	{
+		SyntheticRepositoryGenerator aGenerator = new SyntheticRepositoryGenerator();
+		aGenerator.setItsInstanceCount(instances);
+		aGenerator.setItsFanOut(fanOut);
+		itsProject = aGenerator.generate();
+		itsReportXML = render();
+		
+		itsDirectory = new File(System.getProperty("java.io.tmpdir"), "essential-benchmark-scale");
+		itsService = new StandInReportService(0, new File(itsDirectory, "received"));
+		itsService.start();
+		itsListener = new PublishProgressListener()
+		{
+			public void updatePublishProgress(PublishProgressEvent theEvent)
+			{
+			}
+		};
+	}
+	
+	@TearDown(Level.Iteration)
+	public void removeReceived()
+	{
+		File[] aFiles = new File(itsDirectory, "received").listFiles();
+		for(int i = 0; aFiles != null && i < aFiles.length; i++)
+		{
+			aFiles[i].delete();
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		itsService.stop();
+		removeReceived();
+		itsProject.dispose();
+	}
+	
+	/**
+	 * Render the repository to snapshot XML
+	 * @return the snapshot XML
+	 */
+	@Benchmark
+	public String render() throws Exception
+	{
+		StringWriter anXMLString = new StringWriter();
+		SnapshotDigestWriter aDigestWriter = new SnapshotDigestWriter(anXMLString);
+		XMLRenderer anXMLRender = new XMLRenderer(itsProject.getKnowledgeBase(), new CancellableWriter(aDigestWriter, new AtomicBoolean(false)));
+		anXMLRender.render();
+		aDigestWriter.getDigest();
+		return anXMLString.toString();
+	}
+	
+	/**
+	 * Publish the rendered snapshot and wait for the stand-in to acknowledge it
+	 * @return the measured upload rate
+	 */
+	@Benchmark
+	public double publish() throws IOException, InterruptedException
+	{
+		ReportServiceClient aClient = new ReportServiceClient("http://localhost:" + itsService.getPort() + SERVICE_PATH, itsReportXML, itsListener);
+		aClient.setItsSpoolDirectory(new File(itsDirectory, "spool"));
+		aClient.setItIsSkippingUnchanged(false);
+		aClient.start();
+		while(!aClient.isItIsFinished())
+		{
+			Thread.sleep(POLL_INTERVAL);
+		}
+		if(!aClient.isItIsSuccess())
+		{
+			throw new IllegalStateException("Publish failed with code " + aClient.getItsReturnCode());
+		}
+		return aClient.getItsUploadRate();
+	}
+}
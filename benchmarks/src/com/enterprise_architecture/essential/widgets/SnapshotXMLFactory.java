@@ -0,0 +1,80 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.util.Random;
+
+/**
+ * Builds repository snapshot XML of a given size for the benchmarks. The snapshot has the shape of a real one - 
+ * simple instances with slot values, with names, types and text repeated as in a real repository - so that 
+ * it compresses much as a real snapshot does. The same seed always gives the same snapshot.
+ * @version 1.0
+ */
+public class SnapshotXMLFactory 
+{
+	private static final long SEED = 1L;
+	
+	private static final String[] CLASSES = {"Business_Process", "Application_Provider", "Technology_Node", 
+											 "Information_Representation", "Group_Actor", "Business_Capability"};
+	private static final String[] SLOTS = {"name", "description", "realises_business_capability", 
+										   "supporting_app_providers", "deployment_of", "external_repository_instance_reference"};
+	private static final String[] WORDS = {"customer", "order", "payment", "service", "platform", "data", "process", 
+										   "management", "system", "support", "core", "regional", "finance", "report"};
+	
+	/**
+	 * Build a snapshot of at least the specified length
+	 * @param theLength the length of the snapshot, in characters
+	 * @return the snapshot XML
+	 */
+	public static String createSnapshot(int theLength)
+	{
+		Random aRandom = new Random(SEED);
+		StringBuilder aSnapshot = new StringBuilder(theLength + 1024);
+		aSnapshot.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<knowledge_base>\n<timestamp>2026-10-19T09:00:00</timestamp>\n");
+		int anInstance = 0;
+		while(aSnapshot.length() < theLength)
+		{
+			String aClass = CLASSES[aRandom.nextInt(CLASSES.length)];
+			aSnapshot.append("<simple_instance>\n\t<name>EAS_Instance_").append(anInstance++).append("</name>\n");
+			aSnapshot.append("\t<type>").append(aClass).append("</type>\n");
+			int aSlotCount = 2 + aRandom.nextInt(SLOTS.length - 1);
+			for(int i = 0; i < aSlotCount; i++)
+			{
+				aSnapshot.append("\t<own_slot_value>\n\t\t<slot_reference>").append(SLOTS[i]).append("</slot_reference>\n");
+				if(i < 2)
+				{
+					aSnapshot.append("\t\t<value value_type=\"string\">");
+					int aWordCount = (i == 0) ? 2 : 8 + aRandom.nextInt(24);
+					for(int j = 0; j < aWordCount; j++)
+					{
+						aSnapshot.append(j > 0 ? " " : "").append(WORDS[aRandom.nextInt(WORDS.length)]);
+					}
+				}
+				else
+				{
+					aSnapshot.append("\t\t<value value_type=\"simple_instance\">EAS_Instance_").append(aRandom.nextInt(anInstance));
+				}
+				aSnapshot.append("</value>\n\t</own_slot_value>\n");
+			}
+			aSnapshot.append("</simple_instance>\n");
+		}
+		aSnapshot.append("</knowledge_base>\n");
+		return aSnapshot.toString();
+	}
+}
@@ -0,0 +1,393 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import edu.stanford.smi.protege.model.Cls;
+import edu.stanford.smi.protege.model.Instance;
+import edu.stanford.smi.protege.model.KnowledgeBase;
+import edu.stanford.smi.protege.model.Project;
+import edu.stanford.smi.protege.model.Slot;
+import edu.stanford.smi.protege.model.ValueType;
+import edu.stanford.smi.protege.widget.ClsWidget;
+
+/**
+ * Builds a synthetic Essential repository, as an in-memory Protege project, for testing how the render and 
+ * publish scale without sharing a real repository. 
+ * <br/>
+ * The repository has an EA_Class hierarchy of #setItsClassCount classes, each with #setItsBranching subclasses, 
+ * like the Essential meta model. There are #setItsSlotCount slots: half are string slots, such as a name or 
+ * description, and half are instance slots that relate one instance to others, each with #setItsFanOut values. 
+ * Every class has #setItsSlotsPerClass of the slots of its own, and inherits those of its superclasses. The #setItsInstanceCount instances are spread evenly over 
+ * the classes.
+ * <br/>
+ * #setItsDiagramClassCount of the classes have a diagram slot shown on their form with the GraphWidget, as 
+ * the Essential model views are, so that the images are sent for them. The diagram of each of their instances 
+ * holds #setItsDiagramSize other instances as its nodes.
+ * <br/>
+ * The same settings and #setItsSeed always build the same repository.
+ * <br/>
+ * Usage: SyntheticRepositoryGenerator [-classes 100] [-slots 40] [-instances 10000] [-fanout 3] 
+ * [-diagramclasses 5] [-diagramsize 20] [-seed n] -out repository.pprj
+ * <br/>
+ * saves the repository as a Protege project that can be opened in Protege, or published with HeadlessPublisher.
+ * @version 1.0
+ */
+public class SyntheticRepositoryGenerator 
+{
+	public static final String ROOT_CLASS = "EA_Class";
+	public static final String GRAPH_WIDGET = "edu.stanford.smi.protegex.widget.graph.GraphWidget";
+	
+	private static final String CLASS_PREFIX = "Synthetic_Class_";
+	private static final String STRING_SLOT_PREFIX = "synthetic_text_";
+	private static final String INSTANCE_SLOT_PREFIX = "synthetic_relation_";
+	private static final String DIAGRAM_SLOT = "synthetic_diagram";
+	private static final String INSTANCE_PREFIX = "EAS_Synthetic_";
+	private static final String[] WORDS = {"customer", "order", "payment", "service", "platform", "data", "process", 
+										   "management", "system", "support", "core", "regional", "finance", "report"};
+	
+	private int itsClassCount = 100;
+	private int itsBranching = 5;
+	private int itsSlotCount = 40;
+	private int itsSlotsPerClass = 8;
+	private int itsInstanceCount = 10000;
+	private int itsFanOut = 3;
+	private int itsDiagramClassCount = 5;
+	private int itsDiagramSize = 20;
+	private long itsSeed = 1L;
+	
+	/**
+	 * Generate a repository from the command line and save it as a Protege project
+	 * @param theArgs the settings, see the class description
+	 * @throws Exception if the repository cannot be saved
+	 */
+	public static void main(String[] theArgs) throws Exception
+	{
+		SyntheticRepositoryGenerator aGenerator = new SyntheticRepositoryGenerator();
+		File anOutput = null;
+		for(int i = 0; i + 1 < theArgs.length; i += 2)
+		{
+			String aValue = theArgs[i + 1];
+			if(theArgs[i].equals("-classes"))
+			{
+				aGenerator.setItsClassCount(Integer.parseInt(aValue));
+			}
+			else if(theArgs[i].equals("-slots"))
+			{
+				aGenerator.setItsSlotCount(Integer.parseInt(aValue));
+			}
+			else if(theArgs[i].equals("-instances"))
+			{
+				aGenerator.setItsInstanceCount(Integer.parseInt(aValue));
+			}
+			else if(theArgs[i].equals("-fanout"))
+			{
+				aGenerator.setItsFanOut(Integer.parseInt(aValue));
+			}
+			else if(theArgs[i].equals("-diagramclasses"))
+			{
+				aGenerator.setItsDiagramClassCount(Integer.parseInt(aValue));
+			}
+			else if(theArgs[i].equals("-diagramsize"))
+			{
+				aGenerator.setItsDiagramSize(Integer.parseInt(aValue));
+			}
+			else if(theArgs[i].equals("-seed"))
+			{
+				aGenerator.setItsSeed(Long.parseLong(aValue));
+			}
+			else if(theArgs[i].equals("-out"))
+			{
+				anOutput = new File(aValue);
+			}
+		}
+		if(anOutput == null)
+		{
+			System.out.println("Usage: SyntheticRepositoryGenerator [-classes n] [-slots n] [-instances n] [-fanout n] "
+							   + "[-diagramclasses n] [-diagramsize n] [-seed n] -out repository.pprj");
+			System.exit(1);
+		}
+		
+		long aStartTime = System.currentTimeMillis();
+		Project aProject = aGenerator.generate();
+		System.out.println("Generated " + aProject.getKnowledgeBase().getFrameCount() + " frames in " 
+						   + (System.currentTimeMillis() - aStartTime) + "ms");
+		Collection<Object> anErrors = new ArrayList<Object>();
+		aProject.setProjectURI(anOutput.getAbsoluteFile().toURI());
+		aProject.save(anErrors);
+		for(Object anError : anErrors)
+		{
+			System.out.println("  " + anError);
+		}
+		aProject.dispose();
+		System.exit(anErrors.isEmpty() ? 0 : 1);
+	}
+	
+	/**
+	 * Build the repository
+	 * @return the project holding the repository, which the caller should dispose of when done
+	 */
+	public Project generate()
+	{
+		Collection<Object> anErrors = new ArrayList<Object>();
+		Project aProject = Project.createNewProject(null, anErrors);
+		if(!anErrors.isEmpty())
+		{
+			throw new IllegalStateException("Unable to create the project: " + anErrors);
+		}
+		KnowledgeBase aKB = aProject.getKnowledgeBase();
+		Random aRandom = new Random(itsSeed);
+		
+		// Nothing is listening yet, so save the cost of the events
+		boolean wasGeneratingEvents = aKB.setGenerateEventsEnabled(false);
+		try
+		{
+			List<Cls> aClasses = createClasses(aKB);
+			List<Slot> aSlots = createSlots(aKB, aClasses);
+			Slot aDiagramSlot = createDiagramSlot(aProject, aClasses);
+			List<Instance> anInstances = createInstances(aKB, aClasses);
+			setSlotValues(anInstances, aSlots, aDiagramSlot, aRandom);
+		}
+		finally
+		{
+			aKB.setGenerateEventsEnabled(wasGeneratingEvents);
+		}
+		return aProject;
+	}
+	
+	/**
+	 * Create the EA_Class hierarchy, breadth first, each class with itsBranching subclasses
+	 * @return the classes below EA_Class
+	 */
+	private List<Cls> createClasses(KnowledgeBase theKB)
+	{
+		Cls aRoot = theKB.createCls(ROOT_CLASS, Collections.singleton(theKB.getRootCls()));
+		aRoot.setAbstract(true);
+		List<Cls> aClasses = new ArrayList<Cls>(itsClassCount);
+		for(int i = 0; i < itsClassCount; i++)
+		{
+			Cls aParent = (i < itsBranching) ? aRoot : aClasses.get((i / itsBranching) - 1);
+			aClasses.add(theKB.createCls(CLASS_PREFIX + i, Collections.singleton(aParent)));
+		}
+		return aClasses;
+	}
+	
+	/**
+	 * Create the string and instance slots, and give each class itsSlotsPerClass of them, in turn
+	 * @return the slots
+	 */
+	private List<Slot> createSlots(KnowledgeBase theKB, List<Cls> theClasses)
+	{
+		List<Slot> aSlots = new ArrayList<Slot>(itsSlotCount);
+		for(int i = 0; i < itsSlotCount; i++)
+		{
+			Slot aSlot;
+			if(i % 2 == 0)
+			{
+				aSlot = theKB.createSlot(STRING_SLOT_PREFIX + i);
+				aSlot.setValueType(ValueType.STRING);
+			}
+			else
+			{
+				aSlot = theKB.createSlot(INSTANCE_SLOT_PREFIX + i);
+				aSlot.setValueType(ValueType.INSTANCE);
+				aSlot.setAllowedClses(Collections.singleton(theKB.getCls(ROOT_CLASS)));
+				aSlot.setAllowsMultipleValues(true);
+			}
+			aSlots.add(aSlot);
+		}
+		
+		int aNext = 0;
+		for(Cls aClass : theClasses)
+		{
+			for(int i = 0; i < Math.min(itsSlotsPerClass, aSlots.size()); i++)
+			{
+				aClass.addDirectTemplateSlot(aSlots.get(aNext++ % aSlots.size()));
+			}
+		}
+		return aSlots;
+	}
+	
+	/**
+	 * Add the diagram slot to the first itsDiagramClassCount classes and show it with the GraphWidget
+	 * @return the diagram slot, or null if no class has a diagram
+	 */
+	private Slot createDiagramSlot(Project theProject, List<Cls> theClasses)
+	{
+		int aDiagramClassCount = Math.min(itsDiagramClassCount, theClasses.size());
+		if(aDiagramClassCount <= 0)
+		{
+			return null;
+		}
+		KnowledgeBase aKB = theProject.getKnowledgeBase();
+		Slot aDiagramSlot = aKB.createSlot(DIAGRAM_SLOT);
+		aDiagramSlot.setValueType(ValueType.INSTANCE);
+		aDiagramSlot.setAllowedClses(Collections.singleton(aKB.getCls(ROOT_CLASS)));
+		aDiagramSlot.setAllowsMultipleValues(true);
+		for(int i = 0; i < aDiagramClassCount; i++)
+		{
+			Cls aClass = theClasses.get(i);
+			aClass.addDirectTemplateSlot(aDiagramSlot);
+			ClsWidget aForm = theProject.getDesignTimeClsWidget(aClass);
+			aForm.replaceWidget(aDiagramSlot, GRAPH_WIDGET);
+		}
+		return aDiagramSlot;
+	}
+	
+	/**
+	 * Create the instances, spread evenly over the classes
+	 * @return the instances
+	 */
+	private List<Instance> createInstances(KnowledgeBase theKB, List<Cls> theClasses)
+	{
+		List<Instance> anInstances = new ArrayList<Instance>(itsInstanceCount);
+		for(int i = 0; i < itsInstanceCount; i++)
+		{
+			anInstances.add(theKB.createInstance(INSTANCE_PREFIX + i, theClasses.get(i % theClasses.size())));
+		}
+		return anInstances;
+	}
+	
+	/**
+	 * Fill in the slots of every instance: text for the string slots, itsFanOut other instances for the 
+	 * instance slots and itsDiagramSize for a diagram
+	 */
+	@SuppressWarnings("unchecked")
+	private void setSlotValues(List<Instance> theInstances, List<Slot> theSlots, Slot theDiagramSlot, Random theRandom)
+	{
+		if(theInstances.isEmpty())
+		{
+			return;
+		}
+		Set<Slot> aSlots = new HashSet<Slot>(theSlots);
+		for(Instance anInstance : theInstances)
+		{
+			Iterator<Slot> aSlotIt = anInstance.getDirectType().getTemplateSlots().iterator();
+			while(aSlotIt.hasNext())
+			{
+				Slot aSlot = aSlotIt.next();
+				if(aSlot.equals(theDiagramSlot))
+				{
+					anInstance.setOwnSlotValues(aSlot, pickInstances(theInstances, itsDiagramSize, theRandom));
+				}
+				else if(aSlot.getValueType() == ValueType.INSTANCE)
+				{
+					anInstance.setOwnSlotValues(aSlot, pickInstances(theInstances, itsFanOut, theRandom));
+				}
+				else if(aSlot.getValueType() == ValueType.STRING && aSlots.contains(aSlot))
+				{
+					anInstance.setOwnSlotValue(aSlot, createText(theRandom));
+				}
+			}
+		}
+	}
+	
+	private static List<Instance> pickInstances(List<Instance> theInstances, int theCount, Random theRandom)
+	{
+		List<Instance> aPicked = new ArrayList<Instance>(theCount);
+		for(int i = 0; i < theCount; i++)
+		{
+			aPicked.add(theInstances.get(theRandom.nextInt(theInstances.size())));
+		}
+		return aPicked;
+	}
+	
+	private static String createText(Random theRandom)
+	{
+		StringBuilder aText = new StringBuilder();
+		int aWordCount = 2 + theRandom.nextInt(20);
+		for(int i = 0; i < aWordCount; i++)
+		{
+			aText.append(i > 0 ? " " : "").append(WORDS[theRandom.nextInt(WORDS.length)]);
+		}
+		return aText.toString();
+	}
+
+	/**
+	 * @param itsClassCount the number of classes below EA_Class
+	 */
+	public void setItsClassCount(int itsClassCount) {
+		this.itsClassCount = itsClassCount;
+	}
+
+	/**
+	 * @param itsBranching the number of subclasses of each class
+	 */
+	public void setItsBranching(int itsBranching) {
+		this.itsBranching = Math.max(1, itsBranching);
+	}
+
+	/**
+	 * @param itsSlotCount the number of slots, half string and half instance
+	 */
+	public void setItsSlotCount(int itsSlotCount) {
+		this.itsSlotCount = itsSlotCount;
+	}
+
+	/**
+	 * @param itsSlotsPerClass the number of the slots given to each class
+	 */
+	public void setItsSlotsPerClass(int itsSlotsPerClass) {
+		this.itsSlotsPerClass = itsSlotsPerClass;
+	}
+
+	/**
+	 * @param itsInstanceCount the number of instances
+	 */
+	public void setItsInstanceCount(int itsInstanceCount) {
+		this.itsInstanceCount = itsInstanceCount;
+	}
+
+	/**
+	 * @param itsFanOut the number of values of each instance slot
+	 */
+	public void setItsFanOut(int itsFanOut) {
+		this.itsFanOut = itsFanOut;
+	}
+
+	/**
+	 * @param itsDiagramClassCount the number of classes whose form shows a diagram with the GraphWidget
+	 */
+	public void setItsDiagramClassCount(int itsDiagramClassCount) {
+		this.itsDiagramClassCount = itsDiagramClassCount;
+	}
+
+	/**
+	 * @param itsDiagramSize the number of nodes in each diagram
+	 */
+	public void setItsDiagramSize(int itsDiagramSize) {
+		this.itsDiagramSize = itsDiagramSize;
+	}
+
+	/**
+	 * @param itsSeed the seed from which the repository is built
+	 */
+	public void setItsSeed(long itsSeed) {
+		this.itsSeed = itsSeed;
+	}
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.entity.mime.MultipartEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark the streams and entities through which the snapshot and images are written to the connection: 
+ * CountingOutputStream, CountingByteArrayEntity and a multipart entity holding a ByteArrayBody, as used to 
+ * send an image. The bytes are written to a stream that discards them, so that only the cost of the publish 
+ * code is measured. A listener that does nothing with the progress events is registered, as a publish always 
+ * has one.
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferBenchmark 
+{
+	private static final int BYTES_PER_KB = 1024;
+	
+	/**
+	 * The size of the content, in kilobytes
+	 */
+	@Param({"64", "1024", "16384"})
+	public int payloadKB;
+	
+	private byte[] itsContent;
+	private OutputStream itsSink;
+	private PublishProgressListener itsListener;
+	
+	/**
+	 * The size of each write to the CountingOutputStream, in bytes, for #countingOutputStream only. 
+	 * The HTTP client writes in blocks of 4KB.
+	 */
+	@State(Scope.Thread)
+	public static class WriteSize
+	{
+		@Param({"1", "4096", "65536"})
+		public int writeSize;
+	}
+	
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		// Compressed content looks random
+		itsContent = new byte[payloadKB * BYTES_PER_KB];
+		new Random(payloadKB).nextBytes(itsContent);
+		itsSink = new DiscardingOutputStream();
+		itsListener = new PublishProgressListener()
+		{
+			public void updatePublishProgress(PublishProgressEvent theEvent)
+			{
+			}
+		};
+	}
+	
+	/**
+	 * Write the content through a CountingOutputStream, writeSize bytes at a time
+	 * @param theWriteSize the size of each write
+	 * @return the number of bytes counted
+	 */
+	@Benchmark
+	public long countingOutputStream(WriteSize theWriteSize) throws IOException
+	{
+		int aWriteSize = theWriteSize.writeSize;
+		CountingOutputStream aStream = new CountingOutputStream(itsSink, itsContent.length, itsListener, PublishPhase.UPLOAD_XML);
+		if(aWriteSize == 1)
+		{
+			for(int i = 0; i < itsContent.length; i++)
+			{
+				aStream.write(itsContent[i]);
+			}
+		}
+		else
+		{
+			for(int anOffset = 0; anOffset < itsContent.length; anOffset += aWriteSize)
+			{
+				aStream.write(itsContent, anOffset, Math.min(aWriteSize, itsContent.length - anOffset));
+			}
+		}
+		return aStream.getTransferredCount();
+	}
+	
+	/**
+	 * Write the content as a CountingByteArrayEntity, as the HTTP client does
+	 * @return the number of bytes counted
+	 */
+	@Benchmark
+	public long countingByteArrayEntity() throws IOException
+	{
+		CountingByteArrayEntity anEntity = new CountingByteArrayEntity(itsContent, itsListener);
+		anEntity.writeTo(itsSink);
+		return anEntity.getTransferredCount();
+	}
+	
+	/**
+	 * Write the content as an image in a multipart entity, as HttpReportServiceClient.sendGraphImage() does
+	 * @return the length of the entity
+	 */
+	@Benchmark
+	public long byteArrayBodyMultipart() throws IOException
+	{
+		ByteArrayBody aBody = new ByteArrayBody(itsContent, "image/png", "benchmark.png");
+		MultipartEntity anEntity = new MultipartEntity();
+		anEntity.addPart("image", aBody);
+		anEntity.writeTo(itsSink);
+		return anEntity.getContentLength();
+	}
+	
+	/**
+	 * An output stream that discards what is written to it
+	 */
+	private static class DiscardingOutputStream extends OutputStream
+	{
+		@Override
+		public void write(int theInt)
+		{
+		}
+		
+		@Override
+		public void write(byte[] theBytes, int theOffset, int theLength)
+		{
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Durable record, in the spool directory, of the content digest of the snapshot that each Report Service URL
+ * last acknowledged. A publish whose snapshot has the same content digest as the one last acknowledged by its 
+ * URL can skip the upload and the images.
+ * <br/>
+ * The record only knows what was published from this spool directory, so it is out of date once the Viewer is 
+ * redeployed or restored, or another user publishes to the URL. It is therefore only used if #LOCAL_SKIP_PROP 
+ * is set, and then only when the Report Service cannot answer the offset query that tells the client whether 
+ * it holds the content.
+ * <br/>
+ * The record is shared by every client that publishes from the same spool directory, so it is read and 
+ * written whole, under a lock, on each access.
+ * @version 1.1 - Only used if switched on<br/>
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.SnapshotDigestWriter SnapshotDigestWriter
+ */
+public class AcknowledgedDigests 
+{
+	public static final String LOCAL_SKIP_PROP = "reporttab.skipunchanged.local";
+	
+	private static final String DIGESTS_FILE = "acknowledged-digests.properties";
+	private static final Object LOCK = new Object();
+	
+	/**
+	 * Get the content digest last acknowledged by the specified URL
+	 * @param theDirectory the spool directory
+	 * @param theURL the URL of the Report Service
+	 * @return the digest, or null if no snapshot has been acknowledged by the URL
+	 */
+	public static String getAcknowledged(File theDirectory, String theURL)
+	{
+		synchronized(LOCK)
+		{
+			return load(theDirectory).getProperty(theURL);
+		}
+	}
+	
+	/**
+	 * Record the content digest acknowledged by the specified URL
+	 * @param theDirectory the spool directory
+	 * @param theURL the URL of the Report Service
+	 * @param theDigest the content digest of the snapshot it acknowledged
+	 */
+	public static void acknowledge(File theDirectory, String theURL, String theDigest)
+	{
+		synchronized(LOCK)
+		{
+			Properties aDigests = load(theDirectory);
+			aDigests.setProperty(theURL, theDigest);
+			save(theDirectory, aDigests);
+		}
+	}
+	
+	/**
+	 * Forget the content digest acknowledged by the specified URL, e.g. because what it holds is no longer known
+	 * @param theDirectory the spool directory
+	 * @param theURL the URL of the Report Service
+	 */
+	public static void forget(File theDirectory, String theURL)
+	{
+		synchronized(LOCK)
+		{
+			Properties aDigests = load(theDirectory);
+			if(aDigests.remove(theURL) != null)
+			{
+				save(theDirectory, aDigests);
+			}
+		}
+	}
+	
+	private static Properties load(File theDirectory)
+	{
+		Properties aDigests = new Properties();
+		File aFile = new File(theDirectory, DIGESTS_FILE);
+		if(!aFile.isFile())
+		{
+			return aDigests;
+		}
+		try
+		{
+			InputStream anInput = new FileInputStream(aFile);
+			try
+			{
+				aDigests.load(anInput);
+			}
+			finally
+			{
+				anInput.close();
+			}
+		}
+		catch(IOException anIOEx)
+		{
+			System.out.println("Unable to read the acknowledged snapshot digests: " + anIOEx);
+		}
+		return aDigests;
+	}
+	
+	private static void save(File theDirectory, Properties theDigests)
+	{
+		// Write and rename so that a partly written file is never read
+		File aFile = new File(theDirectory, DIGESTS_FILE);
+		File aTempFile = new File(theDirectory, DIGESTS_FILE + ".tmp");
+		try
+		{
+			if(!theDirectory.isDirectory() && !theDirectory.mkdirs())
+			{
+				throw new IOException("Unable to create spool directory: " + theDirectory);
+			}
+			OutputStream anOutput = new FileOutputStream(aTempFile);
+			try
+			{
+				theDigests.store(anOutput, "Content digest of the snapshot last acknowledged by each Report Service");
+			}
+			finally
+			{
+				anOutput.close();
+			}
+			aFile.delete();
+			if(!aTempFile.renameTo(aFile))
+			{
+				throw new IOException("Unable to rename " + aTempFile);
+			}
+		}
+		catch(IOException anIOEx)
+		{
+			System.out.println("Unable to save the acknowledged snapshot digests: " + anIOEx);
+		}
+	}
+}
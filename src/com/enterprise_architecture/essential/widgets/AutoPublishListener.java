@@ -0,0 +1,40 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+/**
+ * Interface that clients of the AutoPublishScheduler implement to publish the repository when the scheduler
+ * decides that it is time to. Calls are made on the Swing event dispatch thread.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.AutoPublishScheduler AutoPublishScheduler
+ */
+public interface AutoPublishListener 
+{
+	/**
+	 * Is a publish, started by the user or by the scheduler, in progress?
+	 * @return true if a publish is in progress, in which case no other is started
+	 */
+	public boolean isPublishing();
+	
+	/**
+	 * Start a publish of the repository. The client calls AutoPublishScheduler#published once it has
+	 * succeeded.
+	 */
+	public void autoPublish();
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.Properties;
+
+import javax.swing.Timer;
+
+/**
+ * Publishes the repository automatically once it has changed, so that Essential Viewer tracks it without 
+ * anyone having to press Publish.
+ * <br/>
+ * The RepositoryChangeCounter marks the repository as changed. A publish is started once no change has been 
+ * made for the quiet period, and no sooner than the minimum interval after the last automatic publish. If 
+ * many changes arrive at once, as in a bulk edit or import, the longer bulk quiet period must pass instead, 
+ * so that a half-finished bulk edit is not published. No publish is started while another is in progress. 
+ * The publish itself skips the upload if the content has not changed.
+ * <br/>
+ * The scheduler runs on a Swing Timer, so the listener is called on the event dispatch thread, as it would be
+ * for the Publish button.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.AutoPublishListener AutoPublishListener
+ */
+public class AutoPublishScheduler implements ActionListener
+{
+	public static final String ENABLED_PROP = "reporttab.autopublish.enabled";
+	public static final String QUIET_PROP = "reporttab.autopublish.quiet";
+	public static final String INTERVAL_PROP = "reporttab.autopublish.interval";
+	public static final String BULK_CHANGES_PROP = "reporttab.autopublish.bulkchanges";
+	public static final String BULK_QUIET_PROP = "reporttab.autopublish.bulkquiet";
+	
+	private static final int TICK = 1000;
+	
+	private final RepositoryChangeCounter itsChangeCounter;
+	private final AutoPublishListener itsListener;
+	private final Timer itsTimer;
+	
+	/**
+	 * Quiet period, minimum interval between publishes and bulk quiet period, in milliseconds, and the 
+	 * number of changes within one tick that marks a bulk edit
+	 */
+	private long itsQuietPeriod = 120000;
+	private long itsMinInterval = 600000;
+	private long itsBulkQuietPeriod = 600000;
+	private long itsBulkChanges = 500;
+	
+	/**
+	 * The change count last published, the change count at the last tick, when the last automatic publish
+	 * was started, and whether the changes since include a bulk edit
+	 */
+	private long itsPublishedCount = 0;
+	private long itsTickCount = 0;
+	private long itsLastPublishTime = 0;
+	private boolean itIsBulkEdit = false;
+	
+	/**
+	 * Create a scheduler that publishes the changes counted by the specified counter
+	 * @param theChangeCounter the counter of changes to the repository
+	 * @param theListener the client that publishes the repository
+	 */
+	public AutoPublishScheduler(RepositoryChangeCounter theChangeCounter, AutoPublishListener theListener)
+	{
+		itsChangeCounter = theChangeCounter;
+		itsListener = theListener;
+		itsTimer = new Timer(TICK, this);
+	}
+	
+	/**
+	 * Read the periods from the tab properties, keeping the defaults for any that are not set
+	 * @param theProperties the tab properties
+	 */
+	public void configure(Properties theProperties)
+	{
+		itsQuietPeriod = readLong(theProperties, QUIET_PROP, itsQuietPeriod);
+		itsMinInterval = readLong(theProperties, INTERVAL_PROP, itsMinInterval);
+		itsBulkQuietPeriod = Math.max(itsQuietPeriod, readLong(theProperties, BULK_QUIET_PROP, itsBulkQuietPeriod));
+		itsBulkChanges = Math.max(1, readLong(theProperties, BULK_CHANGES_PROP, itsBulkChanges));
+	}
+	
+	/**
+	 * Start publishing changes. Changes made before the scheduler is started are not published until 
+	 * there is another.
+	 */
+	public void start()
+	{
+		itsPublishedCount = itsChangeCounter.getChangeCount();
+		itsTickCount = itsPublishedCount;
+		itIsBulkEdit = false;
+		itsTimer.start();
+	}
+	
+	/**
+	 * Stop publishing changes. A publish already started is not affected.
+	 */
+	public void stop()
+	{
+		itsTimer.stop();
+	}
+	
+	/**
+	 * @return true if the scheduler is publishing changes
+	 */
+	public boolean isRunning()
+	{
+		return itsTimer.isRunning();
+	}
+	
+	/**
+	 * Record that a publish, automatic or not, has succeeded, so that the changes it included are not
+	 * published again
+	 * @param theChangeCount the change count when the published snapshot was rendered
+	 */
+	public void published(long theChangeCount)
+	{
+		itsPublishedCount = Math.max(itsPublishedCount, theChangeCount);
+	}
+	
+	/**
+	 * Check on each tick whether it is time to publish
+	 * @param theEvent the timer event
+	 */
+	public void actionPerformed(ActionEvent theEvent)
+	{
+		long aChangeCount = itsChangeCounter.getChangeCount();
+		if(aChangeCount - itsTickCount >= itsBulkChanges)
+		{
+			itIsBulkEdit = true;
+		}
+		itsTickCount = aChangeCount;
+		if(aChangeCount == itsPublishedCount)
+		{
+			itIsBulkEdit = false;
+			return;
+		}
+		
+		long aNow = System.currentTimeMillis();
+		long aQuietPeriod = itIsBulkEdit ? itsBulkQuietPeriod : itsQuietPeriod;
+		if(aNow - itsChangeCounter.getLastChangeTime() < aQuietPeriod 
+		   || aNow - itsLastPublishTime < itsMinInterval 
+		   || itsListener.isPublishing())
+		{
+			return;
+		}
+		
+		// A publish that fails is tried again after the minimum interval
+		itsLastPublishTime = aNow;
+		itIsBulkEdit = false;
+		itsListener.autoPublish();
+	}
+	
+	/**
+	 * Read a non-negative long property, falling back to the default if it is missing or not valid
+	 */
+	private static long readLong(Properties theProperties, String theName, long theDefault)
+	{
+		try
+		{
+			long aValue = Long.parseLong(theProperties.getProperty(theName, String.valueOf(theDefault)).trim());
+			return (aValue >= 0) ? aValue : theDefault;
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			System.out.println("Invalid value for property " + theName + ". Using default: " + theDefault);
+			return theDefault;
+		}
+	}
+}
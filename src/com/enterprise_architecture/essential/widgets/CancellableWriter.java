@@ -0,0 +1,99 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * FilterWriter that stops the rendering of the repository snapshot once a publish has been cancelled.
+ * The XMLRenderer has no means of being stopped, so every write checks the cancel flag and throws a 
+ * PublishCancelledException once it has been set.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishCancelledException PublishCancelledException
+ */
+public class CancellableWriter extends FilterWriter 
+{
+	/**
+	 * The flag that is set when the publish is cancelled
+	 */
+	private final AtomicBoolean itsCancelFlag;
+	
+	/**
+	 * Constructor
+	 * @param theWriter the writer to which the rendered XML is written
+	 * @param theCancelFlag the flag that is set when the publish is cancelled
+	 */
+	public CancellableWriter(Writer theWriter, AtomicBoolean theCancelFlag)
+	{
+		super(theWriter);
+		itsCancelFlag = theCancelFlag;
+	}
+
+	/**
+	 * Write a single character, unless cancelled
+	 * @param theChar the character to write
+	 */
+	@Override
+	public void write(int theChar) throws IOException 
+	{
+		checkCancelled();
+		out.write(theChar);
+	}
+
+	/**
+	 * Write a portion of an array of characters, unless cancelled
+	 * @param theChars the characters to write
+	 * @param theOffset the offset from which to start
+	 * @param theLength the number of characters to write
+	 */
+	@Override
+	public void write(char[] theChars, int theOffset, int theLength) throws IOException 
+	{
+		checkCancelled();
+		out.write(theChars, theOffset, theLength);
+	}
+
+	/**
+	 * Write a portion of a string, unless cancelled
+	 * @param theString the string to write
+	 * @param theOffset the offset from which to start
+	 * @param theLength the number of characters to write
+	 */
+	@Override
+	public void write(String theString, int theOffset, int theLength) throws IOException 
+	{
+		checkCancelled();
+		out.write(theString, theOffset, theLength);
+	}
+	
+	/**
+	 * Throw a PublishCancelledException if the publish has been cancelled
+	 * @throws PublishCancelledException if the cancel flag has been set
+	 */
+	private void checkCancelled() throws PublishCancelledException
+	{
+		if(itsCancelFlag.get())
+		{
+			throw new PublishCancelledException("Repository rendering cancelled");
+		}
+	}
+}
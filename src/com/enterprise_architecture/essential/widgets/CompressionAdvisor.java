@@ -0,0 +1,294 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Properties;
+
+/**
+ * Chooses the GZIP compression level of a snapshot to minimise the time to compress and upload it. On a fast 
+ * link compressing is the bottleneck, and a low level is quicker overall; on a slow link the upload dominates, 
+ * and a high level that sends fewer bytes is quicker.
+ * <br/>
+ * The advisor keeps, in the spool directory, a smoothed estimate of the upload throughput to each Report Service 
+ * URL, and of the speed and ratio of compression at each level on this machine. Before each publish it predicts 
+ * the total time at each of the #CANDIDATE_LEVELS and chooses the quickest. For a publish to several URLs in 
+ * parallel, the slowest URL decides. If no upload to a URL has yet been measured, the #DEFAULT_LEVEL is used.
+ * The choice and its prediction are returned as a Choice, which the publish records with the measured time in its
+ * PublishTrace, so that the choices can be checked.
+ * <br/>
+ * The codec is always GZIP, since that is what the Report Service expects.
+ * @version 1.1 - The choice is recorded in the PublishTrace rather than on the console<br/>
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.SnapshotSpool SnapshotSpool
+ */
+public class CompressionAdvisor 
+{
+	public static final String ADAPTIVE_PROP = "reporttab.compression.adaptive";
+	public static final int DEFAULT_LEVEL = 6;
+	public static final int[] CANDIDATE_LEVELS = {1, 3, 6, 9};
+	
+	/**
+	 * Starting estimates of the compression speed, in characters per second, and ratio at each of the 
+	 * candidate levels, for XML, until they have been measured on this machine
+	 */
+	private static final double[] SEED_SPEEDS = {40e6, 25e6, 12e6, 4e6};
+	private static final double[] SEED_RATIOS = {0.14, 0.12, 0.10, 0.095};
+	
+	/**
+	 * Weight of the newest measurement in each smoothed estimate
+	 */
+	private static final double SMOOTHING = 0.3;
+	
+	private static final String ESTIMATES_FILE = "compression-estimates.properties";
+	private static final String UPLOAD_PREFIX = "upload.";
+	private static final String SPEED_PREFIX = "speed.";
+	private static final String RATIO_PREFIX = "ratio.";
+	private static final Object LOCK = new Object();
+	
+	/**
+	 * @return the choice of the #DEFAULT_LEVEL, without a prediction, for a publish that does not choose its level
+	 * @since 1.1
+	 */
+	public static Choice getDefaultChoice()
+	{
+		return new Choice(DEFAULT_LEVEL, PublishProgressEvent.UNKNOWN, -1, -1);
+	}
+	
+	/**
+	 * Choose the compression level for a snapshot
+	 * @param theDirectory the spool directory
+	 * @param theURLs the URLs of the Report Services to which the snapshot will be uploaded
+	 * @param theLength the length of the snapshot, in characters
+	 * @return the compression level, with the predicted times to compress and upload at that level
+	 */
+	public static Choice chooseLevel(File theDirectory, Collection<String> theURLs, long theLength)
+	{
+		Properties anEstimates;
+		synchronized(LOCK)
+		{
+			anEstimates = load(theDirectory);
+		}
+		
+		// The slowest link decides
+		double anUploadRate = Double.MAX_VALUE;
+		for(String aURL : theURLs)
+		{
+			anUploadRate = Math.min(anUploadRate, getEstimate(anEstimates, UPLOAD_PREFIX + aURL, -1));
+		}
+		if(anUploadRate <= 0 || anUploadRate == Double.MAX_VALUE)
+		{
+			// No upload measured yet
+			return getDefaultChoice();
+		}
+		
+		Choice aBest = null;
+		double aBestTime = Double.MAX_VALUE;
+		for(int i = 0; i < CANDIDATE_LEVELS.length; i++)
+		{
+			int aLevel = CANDIDATE_LEVELS[i];
+			double aCompressTime = theLength / getEstimate(anEstimates, SPEED_PREFIX + aLevel, SEED_SPEEDS[i]);
+			double anUploadTime = theLength * getEstimate(anEstimates, RATIO_PREFIX + aLevel, SEED_RATIOS[i]) / anUploadRate;
+			if(aCompressTime + anUploadTime < aBestTime)
+			{
+				aBestTime = aCompressTime + anUploadTime;
+				aBest = new Choice(aLevel, anUploadRate, Math.round(aCompressTime * 1000), Math.round(anUploadTime * 1000));
+			}
+		}
+		return aBest;
+	}
+	
+	/**
+	 * Record the measured speed and ratio of compression at a level
+	 * @param theDirectory the spool directory
+	 * @param theLevel the compression level
+	 * @param theLength the length of the snapshot, in characters
+	 * @param theCompressedLength the length of the compressed snapshot, in bytes
+	 * @param theElapsedTime the time taken to compress the snapshot, in milliseconds
+	 */
+	public static void recordCompression(File theDirectory, int theLevel, long theLength, long theCompressedLength, long theElapsedTime)
+	{
+		if(theLength <= 0 || theElapsedTime <= 0)
+		{
+			return;
+		}
+		double aSpeed = theLength / (theElapsedTime / 1000.0);
+		double aRatio = (double)theCompressedLength / theLength;
+		synchronized(LOCK)
+		{
+			Properties anEstimates = load(theDirectory);
+			smooth(anEstimates, SPEED_PREFIX + theLevel, aSpeed);
+			smooth(anEstimates, RATIO_PREFIX + theLevel, aRatio);
+			save(theDirectory, anEstimates);
+		}
+	}
+	
+	/**
+	 * Record the measured upload throughput to a URL
+	 * @param theDirectory the spool directory
+	 * @param theURL the URL of the Report Service
+	 * @param theUploadRate the upload throughput, in bytes per second
+	 */
+	public static void recordUpload(File theDirectory, String theURL, double theUploadRate)
+	{
+		if(theUploadRate <= 0)
+		{
+			return;
+		}
+		synchronized(LOCK)
+		{
+			Properties anEstimates = load(theDirectory);
+			smooth(anEstimates, UPLOAD_PREFIX + theURL, theUploadRate);
+			save(theDirectory, anEstimates);
+		}
+	}
+	
+	/**
+	 * A compression level, with the estimated upload throughput from which it was chosen and the predicted 
+	 * times to compress and upload the snapshot at that level
+	 * @since 1.1
+	 */
+	public static class Choice
+	{
+		private final int itsLevel;
+		private final double itsUploadRate;
+		private final long itsPredictedCompressTime;
+		private final long itsPredictedUploadTime;
+		
+		Choice(int theLevel, double theUploadRate, long thePredictedCompressTime, long thePredictedUploadTime)
+		{
+			itsLevel = theLevel;
+			itsUploadRate = theUploadRate;
+			itsPredictedCompressTime = thePredictedCompressTime;
+			itsPredictedUploadTime = thePredictedUploadTime;
+		}
+
+		/**
+		 * @return the compression level
+		 */
+		public int getItsLevel() {
+			return itsLevel;
+		}
+
+		/**
+		 * @return the estimated upload throughput to the slowest URL, in bytes per second, or PublishProgressEvent#UNKNOWN
+		 */
+		public double getItsUploadRate() {
+			return itsUploadRate;
+		}
+
+		/**
+		 * @return the predicted time to compress the snapshot, in milliseconds, or -1 if no prediction was made
+		 */
+		public long getItsPredictedCompressTime() {
+			return itsPredictedCompressTime;
+		}
+
+		/**
+		 * @return the predicted time to upload the compressed snapshot, in milliseconds, or -1 if no prediction was made
+		 */
+		public long getItsPredictedUploadTime() {
+			return itsPredictedUploadTime;
+		}
+	}
+	
+	private static double getEstimate(Properties theEstimates, String theKey, double theDefault)
+	{
+		try
+		{
+			return Double.parseDouble(theEstimates.getProperty(theKey, String.valueOf(theDefault)));
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			return theDefault;
+		}
+	}
+	
+	private static void smooth(Properties theEstimates, String theKey, double theValue)
+	{
+		double anEstimate = getEstimate(theEstimates, theKey, -1);
+		double aSmoothed = (anEstimate <= 0) ? theValue : (SMOOTHING * theValue) + ((1 - SMOOTHING) * anEstimate);
+		theEstimates.setProperty(theKey, String.valueOf(aSmoothed));
+	}
+	
+	private static Properties load(File theDirectory)
+	{
+		Properties anEstimates = new Properties();
+		File aFile = new File(theDirectory, ESTIMATES_FILE);
+		if(!aFile.isFile())
+		{
+			return anEstimates;
+		}
+		try
+		{
+			InputStream anInput = new FileInputStream(aFile);
+			try
+			{
+				anEstimates.load(anInput);
+			}
+			finally
+			{
+				anInput.close();
+			}
+		}
+		catch(IOException anIOEx)
+		{
+			System.out.println("Unable to read the compression estimates: " + anIOEx);
+		}
+		return anEstimates;
+	}
+	
+	private static void save(File theDirectory, Properties theEstimates)
+	{
+		// Write and rename so that a partly written file is never read
+		File aFile = new File(theDirectory, ESTIMATES_FILE);
+		File aTempFile = new File(theDirectory, ESTIMATES_FILE + ".tmp");
+		try
+		{
+			if(!theDirectory.isDirectory() && !theDirectory.mkdirs())
+			{
+				throw new IOException("Unable to create spool directory: " + theDirectory);
+			}
+			OutputStream anOutput = new FileOutputStream(aTempFile);
+			try
+			{
+				theEstimates.store(anOutput, "Upload throughput to each Report Service, and compression speed and ratio at each level");
+			}
+			finally
+			{
+				anOutput.close();
+			}
+			aFile.delete();
+			if(!aTempFile.renameTo(aFile))
+			{
+				throw new IOException("Unable to rename " + aTempFile);
+			}
+		}
+		catch(IOException anIOEx)
+		{
+			System.out.println("Unable to save the compression estimates: " + anIOEx);
+		}
+	}
+}
@@ -37,7 +37,12 @@ public class CountingByteArrayEntity extends ByteArrayEntity
 	/**
 	 * Listener for progress updates
 	 */
-	private ProgressListener itsListener;
+	private PublishProgressListener itsListener;
+	
+	/**
+	 * The counting stream used by the most recent write, retained to report the transfer rate
+	 */
+	private CountingOutputStream itsCountingStream = null;
 	
 	/**
 	 * Default constructor that includes the listener that requires sending progress updates.
@@ -45,6 +50,16 @@ public class CountingByteArrayEntity extends ByteArrayEntity
 	 * @param theListener the listener that is waiting for update events.
 	 */
 	public CountingByteArrayEntity(byte[] theByteArray, ProgressListener theListener) 
+	{
+		this(theByteArray, ProgressListenerAdapter.adapt(theListener));
+	}
+	
+	/**
+	 * Constructor that includes the listener that requires typed progress events.
+	 * @param theByteArray the compressed XML repository snapshot
+	 * @param theListener the listener that is waiting for progress events.
+	 */
+	public CountingByteArrayEntity(byte[] theByteArray, PublishProgressListener theListener) 
 	{
 		super(theByteArray);
 		itsListener = theListener;		
@@ -57,6 +72,32 @@ public class CountingByteArrayEntity extends ByteArrayEntity
 	@Override
 	public void writeTo(OutputStream theOutStream) throws IOException
 	{
-		super.writeTo(new CountingOutputStream(theOutStream, getContentLength(), itsListener));
+		itsCountingStream = new CountingOutputStream(theOutStream, getContentLength(), itsListener, PublishPhase.UPLOAD_XML);
+		super.writeTo(itsCountingStream);
+	}
+	
+	/**
+	 * Get the moving average transfer rate of the most recent write of this entity
+	 * @return the transfer rate in bytes per second, or PublishProgressEvent.UNKNOWN if the entity has not been written
+	 */
+	public double getTransferRate()
+	{
+		if(itsCountingStream == null)
+		{
+			return PublishProgressEvent.UNKNOWN;
+		}
+		return itsCountingStream.getTransferRate();
+	}
+	
+	/**
+	 * @return the number of bytes written by the most recent write of this entity
+	 */
+	public long getTransferredCount()
+	{
+		if(itsCountingStream == null)
+		{
+			return 0;
+		}
+		return itsCountingStream.getTransferredCount();
 	}
 }
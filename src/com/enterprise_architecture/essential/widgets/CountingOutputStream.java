@@ -27,7 +27,13 @@ import java.io.OutputStream;
 /**
  * FilterOutputStream that counts the number of bytes that have been written, enabling progress to be
  * tracked when sending the repository snapshot to Essential Viewer via HTTP Post.
+ * <br/>
+ * From version 2, bulk writes are passed straight to the underlying stream in blocks of #BLOCK_SIZE bytes,
+ * rather than one byte at a time, and progress is reported once both #UPDATE_INTERVAL milliseconds
+ * and #UPDATE_SIZE bytes have passed since the last update. An exponentially weighted moving average of the 
+ * transfer rate is maintained at each update.
  * @author Jonathan Carter
+ * @version 2 - Bulk write path and transfer rate metering
  * @version 1
  * @see com.enterprise_architecture.essential.widgets.CountingByteArrayEntity CountingByteArrayEntity
  *
@@ -35,10 +41,15 @@ import java.io.OutputStream;
 public class CountingOutputStream extends FilterOutputStream 
 {
 	/**
-	 * The count of the total number of bytes written
+	 * The count of the total number of bytes written, including the initial count
 	 */
 	private long itsTransferredCount;
 	
+	/**
+	 * The number of bytes that had already been transferred, e.g. by earlier chunks, when this stream was created
+	 */
+	private final long itsInitialCount;
+	
 	/**
 	 * The number of bytes that are to be sent / transmitted
 	 */
@@ -52,12 +63,50 @@ public class CountingOutputStream extends FilterOutputStream
 	/**
 	 * The listener that will receive progress update messages
 	 */
-	private final ProgressListener itsListener;
+	private final PublishProgressListener itsListener;
+	
+	/**
+	 * The publish phase that this stream is reporting progress against
+	 */
+	private final PublishPhase itsPhase;
+	
+	/**
+	 * The time at which the stream was created, used to measure elapsed time
+	 */
+	private final long itsStartTime;
+	
+	/**
+	 * The time at which the last update was sent
+	 */
+	private long itsLastUpdateTime;
+	
+	/**
+	 * Moving average of the transfer rate in bytes per second. Negative until the first sample is taken.
+	 */
+	private double itsTransferRate = PublishProgressEvent.UNKNOWN;
 	
 	/**
-	 * The number of bytes transferred between each update message.
+	 * The minimum number of bytes transferred between each update message.
 	 */
-	private static final int UPDATE_SIZE = 10000;
+	private static final int UPDATE_SIZE = 64 * 1024;
+	
+	/**
+	 * The minimum time, in milliseconds, between each update message.
+	 */
+	private static final long UPDATE_INTERVAL = 250;
+	
+	/**
+	 * The largest block that is written to the underlying stream in one call, so that progress
+	 * can be reported during a single large write.
+	 */
+	private static final int BLOCK_SIZE = 64 * 1024;
+	
+	/**
+	 * Weight given to the latest sample in the moving average of the transfer rate
+	 */
+	private static final double RATE_SMOOTHING = 0.3;
+	
+	private static final double MILLIS_PER_SECOND = 1000.0;
 	
 	/**
 	 * Constructor. Hand all stream processing off to the superclass but track the content length and the 
@@ -68,12 +117,42 @@ public class CountingOutputStream extends FilterOutputStream
 	 */
 	public CountingOutputStream(OutputStream theOutStream, long theContentLength, ProgressListener theListener) 
 	{
-		// TODO Auto-generated constructor stub
+		this(theOutStream, theContentLength, ProgressListenerAdapter.adapt(theListener), PublishPhase.UPLOAD_XML);
+	}
+	
+	/**
+	 * Constructor. Hand all stream processing off to the superclass but track the content length and the 
+	 * listener to use.
+	 * @param theOutStream the stream to write the content to
+	 * @param theContentLength the number of bytes that will be transferred
+	 * @param theListener the listener to which progress events should be sent.
+	 * @param thePhase the publish phase that the progress events should report against
+	 */
+	public CountingOutputStream(OutputStream theOutStream, long theContentLength, PublishProgressListener theListener, PublishPhase thePhase) 
+	{
+		this(theOutStream, 0, theContentLength, theListener, thePhase);
+	}
+	
+	/**
+	 * Constructor for a stream that carries part of a larger transfer, such as one chunk of the snapshot. 
+	 * Progress is reported against the whole transfer.
+	 * @param theOutStream the stream to write the content to
+	 * @param theInitialCount the number of bytes of the transfer that have already been sent
+	 * @param theContentLength the number of bytes in the whole transfer
+	 * @param theListener the listener to which progress events should be sent.
+	 * @param thePhase the publish phase that the progress events should report against
+	 */
+	public CountingOutputStream(OutputStream theOutStream, long theInitialCount, long theContentLength, PublishProgressListener theListener, PublishPhase thePhase) 
+	{
 		super(theOutStream);
-		itsTransferredCount = 0;
+		itsInitialCount = theInitialCount;
+		itsTransferredCount = theInitialCount;
 		itsContentLength = theContentLength;
 		itsByteCount = 0;
 		itsListener = theListener;
+		itsPhase = thePhase;
+		itsStartTime = System.currentTimeMillis();
+		itsLastUpdateTime = itsStartTime;
 	}
 
 	/**
@@ -84,30 +163,137 @@ public class CountingOutputStream extends FilterOutputStream
 	@Override
 	public void write(int theInt) throws IOException 
 	{
-		// TODO Auto-generated method stub
-		super.write(theInt);
-		itsTransferredCount++;
-		itsByteCount++;
-		update();		
+		out.write(theInt);
+		count(1);
+	}
+	
+	/**
+	 * Write the specified bytes to the underlying stream in blocks of up to #BLOCK_SIZE bytes, 
+	 * updating the counters after each block. The FilterOutputStream implementation is not used as it
+	 * writes one byte at a time.
+	 * @param theBytes the data to write
+	 * @param theOffset the start offset in theBytes
+	 * @param theLength the number of bytes to write
+	 */
+	@Override
+	public void write(byte[] theBytes, int theOffset, int theLength) throws IOException 
+	{
+		if((theOffset | theLength | (theBytes.length - (theLength + theOffset)) | (theOffset + theLength)) < 0)
+		{
+			throw new IndexOutOfBoundsException();
+		}
+		
+		int aWritten = 0;
+		while(aWritten < theLength)
+		{
+			int aBlock = Math.min(BLOCK_SIZE, theLength - aWritten);
+			out.write(theBytes, theOffset + aWritten, aBlock);
+			aWritten += aBlock;
+			count(aBlock);
+		}
+	}
+	
+	/**
+	 * Update the counters for the specified number of bytes that have been written 
+	 * @param theCount the number of bytes written
+	 */
+	private void count(int theCount)
+	{
+		itsTransferredCount += theCount;
+		itsByteCount += theCount;
+		update();
 	}
 		
 	/**
 	 * Update the registered listener with progress for the transfer of the compressed XML.
-	 * Only send updates every #UPDATE_SIZE bytes to improve performance.
-	 * Progress is calculated as (itsTransferredCount / itsContentLength) * 100
+	 * Only send updates when at least #UPDATE_SIZE bytes and #UPDATE_INTERVAL milliseconds have passed since the
+	 * last update, or when the transfer is complete, to improve performance. The moving average of the transfer
+	 * rate is updated at the same time.
+	 * Progress is reported as itsTransferredCount of itsContentLength bytes
 	 */
 	protected void update()
 	{	
-		// Only report if we're at the end or every 1000 bytes.
-		if((itsTransferredCount == itsContentLength) || (itsByteCount > UPDATE_SIZE))
+		boolean isComplete = itsTransferredCount == itsContentLength;
+		if(!isComplete && itsByteCount < UPDATE_SIZE)
+		{
+			return;
+		}
+		
+		long aNow = System.currentTimeMillis();
+		long anInterval = aNow - itsLastUpdateTime;
+		if(!isComplete && anInterval < UPDATE_INTERVAL)
+		{
+			return;
+		}
+		
+		updateTransferRate(itsByteCount, anInterval);
+		if(itsListener != null)
+		{
+			long anElapsedTime = aNow - itsStartTime;
+			itsListener.updatePublishProgress(PublishProgressEvent.forBytes(itsPhase, itsTransferredCount, itsContentLength, anElapsedTime, itsTransferRate));
+		}
+		itsByteCount = 0;
+		itsLastUpdateTime = aNow;
+	}
+	
+	/**
+	 * Add a sample to the moving average of the transfer rate.
+	 * @param theBytes the number of bytes transferred in the sample
+	 * @param theInterval the duration of the sample in milliseconds
+	 */
+	private void updateTransferRate(long theBytes, long theInterval)
+	{
+		if(theInterval <= 0)
 		{
-			float aProgressPercent = ((float)itsTransferredCount / (float)itsContentLength ) * 100;
-			if(itsListener != null)
-			{
-				itsListener.updateProgress("", (int)aProgressPercent);
-			}
-			itsByteCount = 0;
-		}		
+			return;
+		}
+		
+		double aSampleRate = theBytes / (theInterval / MILLIS_PER_SECOND);
+		if(itsTransferRate < 0)
+		{
+			itsTransferRate = aSampleRate;
+		}
+		else
+		{
+			itsTransferRate = (RATE_SMOOTHING * aSampleRate) + ((1 - RATE_SMOOTHING) * itsTransferRate);
+		}
+	}
+	
+	/**
+	 * Get the moving average of the transfer rate. If fewer than two samples have been taken,
+	 * the average rate since the stream was created is returned.
+	 * @return the transfer rate in bytes per second, or PublishProgressEvent.UNKNOWN if nothing has been transferred
+	 */
+	public double getTransferRate()
+	{
+		if(itsTransferRate >= 0)
+		{
+			return itsTransferRate;
+		}
+		
+		long anElapsedTime = System.currentTimeMillis() - itsStartTime;
+		long aWritten = getTransferredCount();
+		if(aWritten == 0 || anElapsedTime <= 0)
+		{
+			return PublishProgressEvent.UNKNOWN;
+		}
+		return aWritten / (anElapsedTime / MILLIS_PER_SECOND);
+	}
+	
+	/**
+	 * @return the total number of bytes written to the stream, excluding the initial count
+	 */
+	public long getTransferredCount()
+	{
+		return itsTransferredCount - itsInitialCount;
+	}
+	
+	/**
+	 * @return the time, in milliseconds, since the stream was created
+	 */
+	public long getElapsedTime()
+	{
+		return System.currentTimeMillis() - itsStartTime;
 	}
 
 }
@@ -0,0 +1,242 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.stanford.smi.protege.model.KnowledgeBase;
+
+/**
+ * Run a publish of a rendered snapshot without sending anything, to measure how fast this workstation renders,
+ * compresses and produces the images, e.g. to tune the JVM settings or to compare machines, without touching a 
+ * Viewer. The snapshot is compressed, and the GraphWidget images rendered and encoded, by an 
+ * HttpReportServiceClient in its dry run mode, which makes no login or request.
+ * <br/>
+ * The throughput of each phase is then available from #getSummary: frames rendered per second, megabytes of 
+ * the snapshot compressed per second and images produced per second. The render itself is done by the caller, 
+ * and recorded with #setRender.
+ * <br/>
+ * Nothing is recorded in the PublishMetrics, the CompressionAdvisor or the publish trace, so that a dry run 
+ * neither shows as a publish to #DRY_RUN_URL nor makes any difference to the next publish.
+ * <br/>
+ * Used by the EasReportTab and the HeadlessPublisher
+ * @version 1.1 - Not recorded in the PublishMetrics or the publish trace<br/>
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.HttpReportServiceClient HttpReportServiceClient
+ */
+public class DryRunPublisher 
+{
+	/**
+	 * The URL given to the HttpReportServiceClient of a dry run
+	 */
+	public static final String DRY_RUN_URL = "dry-run";
+	
+	private static final double MEGABYTE = 1024 * 1024;
+	private static final double MILLIS_PER_SECOND = 1000.0;
+	
+	private PublishProgressListener itsListener;
+	private File itsSpoolDirectory = SnapshotSpool.getDefaultDirectory();
+	
+	// Images
+	private boolean itIsSendingImages = false;
+	private String itsAutoLayout = "";
+	private KnowledgeBase itsKBRef = null;
+	
+	// The heap use and allocation of the phases
+	private PhaseMemoryProfile itsMemoryProfile = new PhaseMemoryProfile();
+	
+	// The service running the dry run, and whether it has been cancelled
+	private volatile HttpReportServiceClient itsActiveService = null;
+	private volatile boolean itIsCancelled = false;
+	
+	// What was measured
+	private int itsFrameCount = 0;
+	private long itsRenderTime = 0;
+	private long itsSnapshotLength = 0;
+	private long itsCompressTime = 0;
+	private long itsCompressedLength = 0;
+	private int itsImageCount = 0;
+	private long itsImageTime = 0;
+	private long itsImageBytes = 0;
+	
+	/**
+	 * Constructor
+	 * @param theListener the listener for progress events
+	 */
+	public DryRunPublisher(PublishProgressListener theListener)
+	{
+		itsListener = theListener;
+	}
+	
+	/**
+	 * Compress the snapshot, and render and encode the images if #itIsSendingImages, without sending anything
+	 * @param theReportXML the snapshot XML
+	 * @return true if the snapshot was compressed and every image produced
+	 */
+	public boolean run(String theReportXML)
+	{
+		HttpReportServiceClient aService = new HttpReportServiceClient(DRY_RUN_URL, theReportXML, itsListener);
+		aService.setItIsDryRun(true);
+		aService.setItsSpoolDirectory(itsSpoolDirectory);
+		aService.setItsMemoryProfile(itsMemoryProfile);
+		aService.setItsImagesURL(DRY_RUN_URL);
+		aService.setItsAutoLayout(itsAutoLayout);
+		aService.setItsKBRef(itsKBRef);
+		itsActiveService = aService;
+		if(itIsCancelled)
+		{
+			aService.cancel();
+		}
+		
+		try
+		{
+			boolean isSuccess = aService.sendReportXML();
+			itsSnapshotLength = aService.getItsUncompressedLength();
+			itsCompressTime = aService.getItsCompressTime();
+			itsCompressedLength = aService.getItsCompressedLength();
+			if(isSuccess && itIsSendingImages && !itIsCancelled)
+			{
+				long aStartTime = System.currentTimeMillis();
+				isSuccess = aService.sendImages();
+				itsImageTime = System.currentTimeMillis() - aStartTime;
+				itsImageCount = aService.getItsImageSentCount();
+				itsImageBytes = aService.getItsImageEncodedBytes();
+			}
+			isSuccess = isSuccess && !itIsCancelled;
+			return isSuccess;
+		}
+		finally
+		{
+			itsActiveService = null;
+		}
+	}
+	
+	/**
+	 * Cancel the dry run, stopping at the next image
+	 */
+	public void cancel()
+	{
+		itIsCancelled = true;
+		HttpReportServiceClient aService = itsActiveService;
+		if(aService != null)
+		{
+			aService.cancel();
+		}
+	}
+	
+	/**
+	 * Record the render of the snapshot, which the caller performs
+	 * @param theFrameCount the number of frames in the repository that was rendered
+	 * @param theRenderTime the time, in milliseconds, taken to render the snapshot
+	 */
+	public void setRender(int theFrameCount, long theRenderTime)
+	{
+		itsFrameCount = theFrameCount;
+		itsRenderTime = theRenderTime;
+	}
+	
+	/**
+	 * Describe the throughput of each phase that was run
+	 * @param theRenderPrefix the text before the render throughput
+	 * @param theCompressPrefix the text before the compression throughput
+	 * @param theImagesPrefix the text before the image throughput
+	 * @return a line for each phase
+	 */
+	public List<String> getSummary(String theRenderPrefix, String theCompressPrefix, String theImagesPrefix)
+	{
+		List<String> aSummary = new ArrayList<String>();
+		if(itsRenderTime > 0)
+		{
+			aSummary.add(theRenderPrefix + String.format("%d frames in %.1f s, %.0f frames/s", 
+										   itsFrameCount, itsRenderTime / MILLIS_PER_SECOND, perSecond(itsFrameCount, itsRenderTime)));
+		}
+		if(itsCompressedLength > 0)
+		{
+			aSummary.add(theCompressPrefix + String.format("%.1f MB to %.1f MB in %.1f s, %.1f MB/s", 
+										     itsSnapshotLength / MEGABYTE, itsCompressedLength / MEGABYTE, itsCompressTime / MILLIS_PER_SECOND, 
+										     perSecond(itsSnapshotLength / MEGABYTE, itsCompressTime)));
+		}
+		if(itIsSendingImages && itsImageTime > 0)
+		{
+			aSummary.add(theImagesPrefix + String.format("%d images, %.1f MB encoded, in %.1f s, %.1f images/s", 
+										   itsImageCount, itsImageBytes / MEGABYTE, itsImageTime / MILLIS_PER_SECOND, perSecond(itsImageCount, itsImageTime)));
+		}
+		return aSummary;
+	}
+	
+	/**
+	 * @return the rate per second, 0 if no time was taken
+	 */
+	private static double perSecond(double theAmount, long theMillis)
+	{
+		return (theMillis > 0) ? theAmount * MILLIS_PER_SECOND / theMillis : 0;
+	}
+	
+	/**
+	 * @return true if the dry run has been cancelled
+	 */
+	public boolean isCancelled() {
+		return itIsCancelled;
+	}
+
+	/**
+	 * @param itsSpoolDirectory the directory in which the snapshot is compressed
+	 */
+	public void setItsSpoolDirectory(File itsSpoolDirectory) {
+		this.itsSpoolDirectory = itsSpoolDirectory;
+	}
+
+	/**
+	 * @param itIsSendingImages true to render and encode the images
+	 */
+	public void setItIsSendingImages(boolean itIsSendingImages) {
+		this.itIsSendingImages = itIsSendingImages;
+	}
+
+	/**
+	 * @param itsAutoLayout the layout to apply to the images
+	 */
+	public void setItsAutoLayout(String itsAutoLayout) {
+		this.itsAutoLayout = itsAutoLayout;
+	}
+
+	/**
+	 * @param itsKBRef the repository, from which the images are rendered
+	 */
+	public void setItsKBRef(KnowledgeBase itsKBRef) {
+		this.itsKBRef = itsKBRef;
+	}
+
+	/**
+	 * @return the heap use and allocation of the phases
+	 */
+	public PhaseMemoryProfile getItsMemoryProfile() {
+		return itsMemoryProfile;
+	}
+
+	/**
+	 * @param itsMemoryProfile the heap use and allocation of the phases measured so far, to which the 
+	 * compression and images are added
+	 */
+	public void setItsMemoryProfile(PhaseMemoryProfile itsMemoryProfile) {
+		this.itsMemoryProfile = itsMemoryProfile;
+	}
+}
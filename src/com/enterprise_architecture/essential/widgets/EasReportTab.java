@@ -48,10 +48,14 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -62,12 +66,14 @@ import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JPasswordField;
 import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 import javax.swing.border.Border;
 import javax.swing.border.EtchedBorder;
@@ -97,7 +103,7 @@ import edu.stanford.smi.protege.widget.AbstractTabWidget;
  * @see com.enterprise_architecture.essential.report.EasReportService EasReportService
  *
  */
-public class EasReportTab extends AbstractTabWidget implements ActionListener, ProgressListener, XMLRendererListener
+public class EasReportTab extends AbstractTabWidget implements ActionListener, PublishProgressListener, XMLRendererListener, PublishQueueListener, AutoPublishListener, PublishSchedulerListener
 {	
 	/**
 	 * Serial version ID
@@ -119,6 +125,9 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 	public static final int BAD_PASSWORD = 401;
 	public static final int ACCESS_FORBIDDEN = 403;
 	public static final int BAD_REQUEST = 400;
+	public static final int PUBLISH_CANCELLED = -1;
+	public static final int PUBLISH_ABORTED = -2;
+	public static final int PUBLISH_SUPERSEDED = -3;
 	private static final int STATUS_ROWS = 5;
 	
 	/**
@@ -132,6 +141,12 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 	
 	
 	public final static int ONE_SECOND = 1000;
+	
+	/**
+	 * The longest time, in milliseconds, to wait for a cancelled publish to stop before
+	 * the tab is made ready for the next publish.
+	 */
+	private static final int CANCEL_TIMEOUT = 10 * ONE_SECOND;
 		
 	// Messages and User Interface content controlled by properties with default values
 	private static String READY_STATUS_MESSAGE = "Ready to create and send repository snapshot";
@@ -168,6 +183,56 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 	public static String FINISHING_SEND_MSG = "Finishing send to server...";
 	public static String CHECKING_LOGIN_MSG = "Checking for access...";
 	public static String ACCESS_FORBIDDEN_MESSAGE = "Access forbidden. Your user name and password were correct but you do not have access to publish to this URL.";
+	public static String PROGRESS_ITEMS_UNIT = " items/s";
+	public static String PROGRESS_REMAINING_STRING = " remaining";
+	public static String UPLOAD_RATE_MSG = "Snapshot upload rate: ";
+	private static String CANCEL_BUTTON_TEXT = "Cancel";
+	private static String CANCELLING_MESSAGE = "Cancelling publish...";
+	public static String RETRY_MSG = "Retrying after transient failure: ";
+	public static String RESUME_UPLOAD_MSG = "Resuming snapshot upload at ";
+	public static String IMAGES_RESUMED_MSG = "Images already acknowledged for this snapshot, not resent: ";
+	public static String IMAGE_FAILURES_MSG = "Images that failed to send: ";
+	private static String PUBLISH_CANCELLED_MESSAGE = "Publish cancelled. Nothing further was sent to the Report Service.";
+	private static String RESEND_BUTTON_TEXT = "Resend Last Snapshot";
+	private static String RESENDING_MSG = "Resending the snapshot taken at ";
+	private static String NO_LAST_SNAPSHOT_MSG = "There is no snapshot to resend. Publish the repository instead.";
+	private static String SNAPSHOT_CHANGED_MSG = "The repository may have changed since the last snapshot was taken. Publish the repository instead.";
+	private static String QUEUED_MSG = "The snapshot has been queued and will be sent when the Report Service can be reached.";
+	private static String QUEUE_STATUS_MSG = "Snapshots waiting to be sent: ";
+	public static String QUEUE_SENT_MSG = "queued snapshot sent";
+	public static String QUEUE_UNREACHABLE_MSG = "still unreachable, retrying in ";
+	public static String QUEUE_SUPERSEDED_MSG = "queued snapshot superseded";
+	public static String QUEUE_FAILED_MSG = "queued snapshot rejected, code ";
+	private static String TARGETS_BUTTON_TEXT = "Publish to Targets...";
+	private static String TARGETS_DIALOG_TITLE = "Publish to Targets";
+	private static String TARGET_SUCCESS_MSG = "Published to ";
+	private static String TARGET_FAILED_MSG = "Failed to publish to ";
+	private static String PUBLISH_ABORTED_MESSAGE = "Staged, but not activated because the publish to another target failed. The staged snapshot was discarded.";
+	private static String PUBLISH_SUPERSEDED_MESSAGE = "Not sent, because a newer publish to the same URL was requested before this one could start.";
+	private static String SCHEDULE_RUNNING_MSG = "Publishing: ";
+	private static String SCHEDULE_WAITING_MSG = "Waiting: ";
+	public static String ACTIVATING_MSG = "All targets staged the snapshot. Activating version ";
+	public static String ABORTING_MSG = "Not all targets staged the snapshot. Aborting version ";
+	public static String UNCHANGED_MSG = "The Report Service at this URL already holds this content. The upload was skipped; use Resend Last Snapshot to send it anyway.";
+	private static String AUTO_PUBLISH_LABEL = "Auto-publish changes";
+	private static String AUTO_PUBLISH_TOOLTIP = "Publish to the selected URL automatically once changes to the repository have been quiet for a while";
+	private static String AUTO_PUBLISHING_MSG = "Publishing the changes made to the repository automatically";
+	public static String MEMORY_PROFILE_MSG = "Memory use - ";
+	public static String MEMORY_WARNING_MSG = "Warning: heap use came close to the maximum heap (-Xmx). ";
+	private static String PROFILE_BUTTON_TEXT = "Profile Snapshot";
+	private static String PROFILE_BUTTON_TOOLTIP = "Render the repository and show which classes, slots and instances take the most space in the snapshot, without publishing it";
+	private static String PROFILING_MSG = "Rendering the repository to measure the snapshot. Nothing will be sent to the Report Service.";
+	public static String PROFILE_TOTAL_MSG = "Snapshot size: ";
+	public static String PROFILE_CLASSES_MSG = "Largest classes:";
+	public static String PROFILE_SLOTS_MSG = "Largest slots, over all instances:";
+	public static String PROFILE_FRAMES_MSG = "Largest instances:";
+	private static String DRY_RUN_BUTTON_TEXT = "Dry Run";
+	private static String DRY_RUN_BUTTON_TOOLTIP = "Render and compress the repository, and produce the images if selected, as for a publish, and show how fast each was, without sending anything";
+	private static String DRY_RUN_MSG = "Dry run of a publish. Nothing will be sent to the Report Service.";
+	public static String DRY_RUN_RENDER_MSG = "Dry run render: ";
+	public static String DRY_RUN_COMPRESS_MSG = "Dry run compression: ";
+	public static String DRY_RUN_IMAGES_MSG = "Dry run images: ";
+	public static String NETWORK_TIMING_MSG = "Network timing - ";
 
 	// End of Messages and UI content controlled by properties.
 	
@@ -195,6 +260,102 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 	private JProgressBar itsProgress;
 	private Timer itsTimer;
 	private JButton itsButton;
+	
+	/**
+	 * Button to cancel a publish that is in progress, together with the flag that is set
+	 * when it is pressed and the time at which it was pressed.
+	 * @since 4.4
+	 */
+	private JButton itsCancelButton;
+	private final AtomicBoolean itsCancelFlag = new AtomicBoolean(false);
+	private long itsCancelTime = 0;
+	
+	/**
+	 * Set once the rendered snapshot has been handed to the ReportServiceClient
+	 * @since 4.4
+	 */
+	private boolean itIsSending = false;
+	
+	/**
+	 * Set while a worker is rendering the repository, so that a cancelled publish is not complete
+	 * until the render has stopped
+	 */
+	private boolean itIsRendering = false;
+	
+	/**
+	 * Timeouts and retries for the requests to the Report Service
+	 * @since 4.4
+	 */
+	private TransportPolicy itsTransportPolicy = new TransportPolicy();
+	
+	/**
+	 * Directory for the snapshot spool and image checkpoints
+	 * @since 4.4
+	 */
+	private File itsSpoolDirectory = SnapshotSpool.getDefaultDirectory();
+	private static final String SPOOL_DIRECTORY = "spool";
+	
+	/**
+	 * Button to resend the last snapshot, and the count of repository changes used to tell
+	 * whether the last snapshot is still current
+	 * @since 4.4
+	 */
+	private JButton itsResendButton;
+	private final RepositoryChangeCounter itsChangeCounter = new RepositoryChangeCounter();
+	private long itsRenderChangeCount = 0;
+	
+	/**
+	 * Queue of snapshots waiting for the Report Service to be reachable, and its status
+	 * @since 4.4
+	 */
+	private OfflinePublishQueue itsPublishQueue = null;
+	private JLabel itsQueueStatus;
+	
+	/**
+	 * The priority of the next publish in the process-wide PublishScheduler, and the scheduler's queue
+	 * @since 4.4
+	 */
+	private PublishPriority itsPublishPriority = PublishPriority.INTERACTIVE;
+	private JLabel itsScheduleStatus;
+	private static final String AUTO_PUBLISH_COMMAND = "autopublish";
+	private static final String QUEUE_DIRECTORY = "queue";
+	private static final String QUEUE_ENABLED_PROP = "reporttab.queue.enabled";
+	
+	/**
+	 * Content digest of the last rendered snapshot, leaving out its timestamp, whether the upload is skipped
+	 * when the URL already holds that content, and whether the next send is forced regardless
+	 * @since 4.4
+	 */
+	private String itsContentDigest = null;
+	private boolean itIsSkippingUnchanged = true;
+	private boolean itIsUsingAcknowledged = false;
+	private boolean itIsForcingSend = false;
+	private static final String SKIP_UNCHANGED_PROP = "reporttab.skipunchanged";
+	
+	/**
+	 * Whether the compression level is chosen from the measured upload and compression speeds
+	 * @since 4.4
+	 */
+	private boolean itIsAdaptiveCompression = false;
+	
+	/**
+	 * Publishes the repository automatically once it has changed, and the checkbox that switches it on and off
+	 * @since 4.4
+	 */
+	private AutoPublishScheduler itsAutoPublish;
+	private JCheckBox itsAutoPublishCheckBox;
+	
+	/**
+	 * The saved target set, and the targets of the publish in progress, or null if publishing to the 
+	 * selected URL only
+	 * @since 4.4
+	 */
+	private JButton itsTargetsButton;
+	private final List<PublishTarget> itsTargetSet = new ArrayList<PublishTarget>();
+	private List<PublishTarget> itsPublishTargets = null;
+	private boolean itIsCoordinated = false;
+	private static final String FANOUT_PARALLEL_PROP = "reporttab.fanout.parallel";
+	private int itsMaxParallel = FanOutPublisher.DEFAULT_MAX_PARALLEL;
 	private JTextField itsUserName;
 	private JPasswordField itsPassword;
 	
@@ -223,13 +384,45 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 	protected static String itsDefaultURLService = "/reportService";
 	
 	/**
-	 * Keep a track of how many steps to the process:
+	 * Keep a track of the phases of the publish process:
 	 * 1. Render XML
-	 * 2. Send XML
-	 * 3. (Optional) Send graphical model images
+	 * 2. Compress XML
+	 * 3. Check for and perform login
+	 * 4. Send XML
+	 * 5. (Optional) Send graphical model images
+	 * @since 4.4
+	 */
+	protected List<PublishPhase> itsPublishPhases = new ArrayList<PublishPhase>();
+	
+	/**
+	 * The time at which the rendering of the repository started
+	 * @since 4.4
 	 */
-	protected int itsProcessStepNumber = 3;
-	protected int itsProcessStepCount = 0;
+	protected long itsRenderStartTime = 0;
+	
+	/**
+	 * The heap use and allocation of each phase of the current publish
+	 * @since 4.4
+	 */
+	private PhaseMemoryProfile itsMemoryProfile = new PhaseMemoryProfile();
+	
+	/**
+	 * Render the repository to find what takes the most space in the snapshot, listing the largest
+	 * #itsProfileTopCount of each
+	 * @since 4.4
+	 */
+	private JButton itsProfileButton;
+	private int itsProfileTopCount = SnapshotSizeProfiler.DEFAULT_TOP_COUNT;
+	
+	/**
+	 * Run a publish that sends nothing, to measure its throughput, and the dry run in progress if any
+	 * @since 4.4
+	 */
+	private JButton itsDryRunButton;
+	private volatile DryRunPublisher itsDryRun = null;
+	
+	private static final int KILOBYTE = 1024;
+	private static final int MILLIS_PER_SECOND = 1000;
 	
 	/**
 	 * Initialise the tab widget. Read in properties and the Service URL history.
@@ -323,6 +516,56 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 			FINISHING_SEND_MSG = aProperties.getProperty("reporttab.message.FINISHING_SEND_MSG");
 			CHECKING_LOGIN_MSG = aProperties.getProperty("reporttab.message.CHECKING_LOGIN_MSG");
 			ACCESS_FORBIDDEN_MESSAGE = aProperties.getProperty("reporttab.message.ACCESS_FORBIDDEN_MESSAGE");
+			PROGRESS_ITEMS_UNIT = aProperties.getProperty("reporttab.message.PROGRESS_ITEMS_UNIT", PROGRESS_ITEMS_UNIT);
+			PROGRESS_REMAINING_STRING = aProperties.getProperty("reporttab.message.PROGRESS_REMAINING_STRING", PROGRESS_REMAINING_STRING);
+			UPLOAD_RATE_MSG = aProperties.getProperty("reporttab.message.UPLOAD_RATE_MSG", UPLOAD_RATE_MSG);
+			CANCEL_BUTTON_TEXT = aProperties.getProperty("reporttab.ui.CANCEL_BUTTON_TEXT", CANCEL_BUTTON_TEXT);
+			CANCELLING_MESSAGE = aProperties.getProperty("reporttab.message.CANCELLING_MESSAGE", CANCELLING_MESSAGE);
+			PUBLISH_CANCELLED_MESSAGE = aProperties.getProperty("reporttab.message.PUBLISH_CANCELLED_MESSAGE", PUBLISH_CANCELLED_MESSAGE);
+			RETRY_MSG = aProperties.getProperty("reporttab.message.RETRY_MSG", RETRY_MSG);
+			RESUME_UPLOAD_MSG = aProperties.getProperty("reporttab.message.RESUME_UPLOAD_MSG", RESUME_UPLOAD_MSG);
+			IMAGES_RESUMED_MSG = aProperties.getProperty("reporttab.message.IMAGES_RESUMED_MSG", IMAGES_RESUMED_MSG);
+			IMAGE_FAILURES_MSG = aProperties.getProperty("reporttab.message.IMAGE_FAILURES_MSG", IMAGE_FAILURES_MSG);
+			RESEND_BUTTON_TEXT = aProperties.getProperty("reporttab.ui.RESEND_BUTTON_TEXT", RESEND_BUTTON_TEXT);
+			RESENDING_MSG = aProperties.getProperty("reporttab.message.RESENDING_MSG", RESENDING_MSG);
+			NO_LAST_SNAPSHOT_MSG = aProperties.getProperty("reporttab.message.NO_LAST_SNAPSHOT_MSG", NO_LAST_SNAPSHOT_MSG);
+			SNAPSHOT_CHANGED_MSG = aProperties.getProperty("reporttab.message.SNAPSHOT_CHANGED_MSG", SNAPSHOT_CHANGED_MSG);
+			QUEUED_MSG = aProperties.getProperty("reporttab.message.QUEUED_MSG", QUEUED_MSG);
+			QUEUE_STATUS_MSG = aProperties.getProperty("reporttab.message.QUEUE_STATUS_MSG", QUEUE_STATUS_MSG);
+			QUEUE_SENT_MSG = aProperties.getProperty("reporttab.message.QUEUE_SENT_MSG", QUEUE_SENT_MSG);
+			QUEUE_UNREACHABLE_MSG = aProperties.getProperty("reporttab.message.QUEUE_UNREACHABLE_MSG", QUEUE_UNREACHABLE_MSG);
+			QUEUE_SUPERSEDED_MSG = aProperties.getProperty("reporttab.message.QUEUE_SUPERSEDED_MSG", QUEUE_SUPERSEDED_MSG);
+			QUEUE_FAILED_MSG = aProperties.getProperty("reporttab.message.QUEUE_FAILED_MSG", QUEUE_FAILED_MSG);
+			TARGETS_BUTTON_TEXT = aProperties.getProperty("reporttab.ui.TARGETS_BUTTON_TEXT", TARGETS_BUTTON_TEXT);
+			TARGETS_DIALOG_TITLE = aProperties.getProperty("reporttab.ui.TARGETS_DIALOG_TITLE", TARGETS_DIALOG_TITLE);
+			TARGET_SUCCESS_MSG = aProperties.getProperty("reporttab.message.TARGET_SUCCESS_MSG", TARGET_SUCCESS_MSG);
+			TARGET_FAILED_MSG = aProperties.getProperty("reporttab.message.TARGET_FAILED_MSG", TARGET_FAILED_MSG);
+			PUBLISH_ABORTED_MESSAGE = aProperties.getProperty("reporttab.message.PUBLISH_ABORTED_MESSAGE", PUBLISH_ABORTED_MESSAGE);
+			PUBLISH_SUPERSEDED_MESSAGE = aProperties.getProperty("reporttab.message.PUBLISH_SUPERSEDED_MESSAGE", PUBLISH_SUPERSEDED_MESSAGE);
+			SCHEDULE_RUNNING_MSG = aProperties.getProperty("reporttab.message.SCHEDULE_RUNNING_MSG", SCHEDULE_RUNNING_MSG);
+			SCHEDULE_WAITING_MSG = aProperties.getProperty("reporttab.message.SCHEDULE_WAITING_MSG", SCHEDULE_WAITING_MSG);
+			ACTIVATING_MSG = aProperties.getProperty("reporttab.message.ACTIVATING_MSG", ACTIVATING_MSG);
+			ABORTING_MSG = aProperties.getProperty("reporttab.message.ABORTING_MSG", ABORTING_MSG);
+			UNCHANGED_MSG = aProperties.getProperty("reporttab.message.UNCHANGED_MSG", UNCHANGED_MSG);
+			AUTO_PUBLISH_LABEL = aProperties.getProperty("reporttab.ui.AUTO_PUBLISH_LABEL", AUTO_PUBLISH_LABEL);
+			AUTO_PUBLISH_TOOLTIP = aProperties.getProperty("reporttab.ui.AUTO_PUBLISH_TOOLTIP", AUTO_PUBLISH_TOOLTIP);
+			AUTO_PUBLISHING_MSG = aProperties.getProperty("reporttab.message.AUTO_PUBLISHING_MSG", AUTO_PUBLISHING_MSG);
+			MEMORY_PROFILE_MSG = aProperties.getProperty("reporttab.message.MEMORY_PROFILE_MSG", MEMORY_PROFILE_MSG);
+			MEMORY_WARNING_MSG = aProperties.getProperty("reporttab.message.MEMORY_WARNING_MSG", MEMORY_WARNING_MSG);
+			PROFILE_BUTTON_TEXT = aProperties.getProperty("reporttab.ui.PROFILE_BUTTON_TEXT", PROFILE_BUTTON_TEXT);
+			PROFILE_BUTTON_TOOLTIP = aProperties.getProperty("reporttab.ui.PROFILE_BUTTON_TOOLTIP", PROFILE_BUTTON_TOOLTIP);
+			PROFILING_MSG = aProperties.getProperty("reporttab.message.PROFILING_MSG", PROFILING_MSG);
+			PROFILE_TOTAL_MSG = aProperties.getProperty("reporttab.message.PROFILE_TOTAL_MSG", PROFILE_TOTAL_MSG);
+			PROFILE_CLASSES_MSG = aProperties.getProperty("reporttab.message.PROFILE_CLASSES_MSG", PROFILE_CLASSES_MSG);
+			PROFILE_SLOTS_MSG = aProperties.getProperty("reporttab.message.PROFILE_SLOTS_MSG", PROFILE_SLOTS_MSG);
+			PROFILE_FRAMES_MSG = aProperties.getProperty("reporttab.message.PROFILE_FRAMES_MSG", PROFILE_FRAMES_MSG);
+			DRY_RUN_BUTTON_TEXT = aProperties.getProperty("reporttab.ui.DRY_RUN_BUTTON_TEXT", DRY_RUN_BUTTON_TEXT);
+			DRY_RUN_BUTTON_TOOLTIP = aProperties.getProperty("reporttab.ui.DRY_RUN_BUTTON_TOOLTIP", DRY_RUN_BUTTON_TOOLTIP);
+			DRY_RUN_MSG = aProperties.getProperty("reporttab.message.DRY_RUN_MSG", DRY_RUN_MSG);
+			DRY_RUN_RENDER_MSG = aProperties.getProperty("reporttab.message.DRY_RUN_RENDER_MSG", DRY_RUN_RENDER_MSG);
+			DRY_RUN_COMPRESS_MSG = aProperties.getProperty("reporttab.message.DRY_RUN_COMPRESS_MSG", DRY_RUN_COMPRESS_MSG);
+			DRY_RUN_IMAGES_MSG = aProperties.getProperty("reporttab.message.DRY_RUN_IMAGES_MSG", DRY_RUN_IMAGES_MSG);
+			NETWORK_TIMING_MSG = aProperties.getProperty("reporttab.message.NETWORK_TIMING_MSG", NETWORK_TIMING_MSG);
 			
 		}
 		catch(IOException ioEx)
@@ -356,6 +599,60 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 		}
 		
 		
+		// Timeouts and retries, using defaults for anything not in the properties
+		itsTransportPolicy = TransportPolicy.fromProperties(aProperties);
+		
+		// How many targets of a target set to upload to at the same time
+		try
+		{
+			itsMaxParallel = Math.max(1, Integer.parseInt(aProperties.getProperty(FANOUT_PARALLEL_PROP, String.valueOf(itsMaxParallel)).trim()));
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			System.out.println("Invalid value for property " + FANOUT_PARALLEL_PROP + ". Using default: " + itsMaxParallel);
+		}
+		
+		// How many publishes of all the open projects may run at the same time
+		try
+		{
+			String aMaxWorkers = aProperties.getProperty(PublishScheduler.MAX_WORKERS_PROP, String.valueOf(PublishScheduler.DEFAULT_MAX_WORKERS));
+			PublishScheduler.getInstance().setItsMaxWorkers(Integer.parseInt(aMaxWorkers.trim()));
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			System.out.println("Invalid value for property " + PublishScheduler.MAX_WORKERS_PROP + ". Using default: " + PublishScheduler.getInstance().getItsMaxWorkers());
+		}
+		
+		// How many of the largest classes, slots and instances to list when profiling the snapshot
+		itsProfileTopCount = SnapshotSizeProfiler.getTopCount(aProperties);
+		
+		// Keep the snapshot spool and image checkpoints in the plugin directory
+		itsSpoolDirectory = getSpoolDirectory();
+		configureServiceClient(itsServiceClient);
+		
+		// Count changes to the repository, to know whether the last snapshot is current
+		itsChangeCounter.attach(getKnowledgeBase());
+		
+		// Publish changes automatically, if switched on
+		itsAutoPublish = new AutoPublishScheduler(itsChangeCounter, this);
+		itsAutoPublish.configure(aProperties);
+		boolean isAutoPublishing = Boolean.valueOf(aProperties.getProperty(AutoPublishScheduler.ENABLED_PROP, "false").trim()).booleanValue();
+		// Queue snapshots that cannot reach the Report Service, unless switched off. The queue is shared by the open projects
+		// Queue snapshots that cannot reach the Report Service, unless switched off
+		if(Boolean.valueOf(aProperties.getProperty(QUEUE_ENABLED_PROP, "true").trim()).booleanValue())
+		{
+			itsPublishQueue = OfflinePublishQueue.getInstance(new File(itsSpoolDirectory, QUEUE_DIRECTORY), itsTransportPolicy);
+			itsPublishQueue.setBackoff(aProperties);
+			itsPublishQueue.setItsAcknowledgedDirectory(itsSpoolDirectory);
+		}
+		
+		// Skip the upload of unchanged content, unless switched off
+		itIsSkippingUnchanged = Boolean.valueOf(aProperties.getProperty(SKIP_UNCHANGED_PROP, "true").trim()).booleanValue();
+		itIsUsingAcknowledged = Boolean.valueOf(aProperties.getProperty(AcknowledgedDigests.LOCAL_SKIP_PROP, "false").trim()).booleanValue();
+		
+		// Choose the compression level from the measured link, if switched on
+		itIsAdaptiveCompression = Boolean.valueOf(aProperties.getProperty(CompressionAdvisor.ADAPTIVE_PROP, "false").trim()).booleanValue();
+		
 		// Parse history.xml and load the results into itsURLHistory
 		FileInputStream aHistoryFile = null;
 		try
@@ -375,6 +672,8 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 	        // Set the history object to what has been parsed.
 	        itsURLHistory.addAll(aParser.getItsURLHistory());
 	        itsLastLayout = aParser.getItsLastLayout();
+	        itsTargetSet.addAll(aParser.getItsTargetSet());
+	        itIsCoordinated = aParser.isItIsCoordinated();
 		}
 		catch(SAXException aParseError)
 		{
@@ -442,6 +741,19 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 		// Create the GUI components
 		createURLField();
 		itsButton = createButton();
+		itsCancelButton = new JButton(CANCEL_BUTTON_TEXT);
+		itsCancelButton.addActionListener(this);
+		itsCancelButton.setEnabled(false);
+		itsResendButton = new JButton(RESEND_BUTTON_TEXT);
+		itsResendButton.addActionListener(this);
+		itsTargetsButton = new JButton(TARGETS_BUTTON_TEXT);
+		itsTargetsButton.addActionListener(this);
+		itsProfileButton = new JButton(PROFILE_BUTTON_TEXT);
+		itsProfileButton.setToolTipText(PROFILE_BUTTON_TOOLTIP);
+		itsProfileButton.addActionListener(this);
+		itsDryRunButton = new JButton(DRY_RUN_BUTTON_TEXT);
+		itsDryRunButton.setToolTipText(DRY_RUN_BUTTON_TOOLTIP);
+		itsDryRunButton.addActionListener(this);
 		JLabel aTextFieldLabel = new JLabel(TEXT_FIELD_LABEL);
 		JLabel aUserNameLabel = new JLabel(USER_NAME_LABEL);
 		JLabel aPasswordLabel = new JLabel(PASSWORD_LABEL);
@@ -549,10 +861,46 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
     	aPublishPanel.add(itsSendImage);
     	itsSendImage.setToolTipText(aSendImageTooltip);
     	aPublishPanel.add(Box.createRigidArea(new Dimension(5, 0)));
+    	itsAutoPublishCheckBox = new JCheckBox(AUTO_PUBLISH_LABEL, isAutoPublishing);
+    	itsAutoPublishCheckBox.setToolTipText(AUTO_PUBLISH_TOOLTIP);
+    	itsAutoPublishCheckBox.addActionListener(this);
+    	aPublishPanel.add(itsAutoPublishCheckBox);
+    	aPublishPanel.add(Box.createRigidArea(new Dimension(5, 0)));
     	aPublishPanel.add(itsButton);    	
+    	aPublishPanel.add(Box.createRigidArea(new Dimension(5, 0)));
+    	aPublishPanel.add(itsCancelButton);
+    	aPublishPanel.add(Box.createRigidArea(new Dimension(5, 0)));
+    	aPublishPanel.add(itsResendButton);
+    	aPublishPanel.add(Box.createRigidArea(new Dimension(5, 0)));
+    	aPublishPanel.add(itsTargetsButton);
+    	aPublishPanel.add(Box.createRigidArea(new Dimension(5, 0)));
+    	aPublishPanel.add(itsProfileButton);
+    	aPublishPanel.add(Box.createRigidArea(new Dimension(5, 0)));
+    	aPublishPanel.add(itsDryRunButton);
         aMainPanel.add(aPublishPanel);
     	aMainPanel.add(Box.createRigidArea(new Dimension(0, 10)));
     	
+    	// Status of the offline publish queue
+    	itsQueueStatus = new JLabel(" ");
+    	itsQueueStatus.setAlignmentX(LEFT_ALIGNMENT);
+    	aMainPanel.add(itsQueueStatus);
+    	
+    	// Publishes of all the open projects, running and waiting
+    	itsScheduleStatus = new JLabel(" ");
+    	itsScheduleStatus.setAlignmentX(LEFT_ALIGNMENT);
+    	aMainPanel.add(itsScheduleStatus);
+    	PublishScheduler.getInstance().addListener(this);
+    	aMainPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+    	if(itsPublishQueue != null)
+    	{
+    		itsPublishQueue.addListener(this);
+    		itsPublishQueue.start();
+    	}
+    	if(isAutoPublishing)
+    	{
+    		itsAutoPublish.start();
+    	}
+    	
     	// 19.11.2009 JWC Add the auto layout panel for the GraphWidget images
         // But only if the Protege client is a multi-user client
         isMultiUser = getKnowledgeBase().getProject().isMultiUserClient();  	
@@ -607,26 +955,71 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 	
 	/**
 	 * Handle the action event.
-	 * Generate the XML for the report and send it to the report service
+	 * Generate the XML for the report and send it to the report service, cancel
+	 * the publish that is in progress, or resend the last snapshot.
 	 * @param theEvent the event that happened
 	 */
 	public void actionPerformed(ActionEvent theEvent)
 	{		
-		resetProgress();
-		itIsTaskComplete = false;
-		// If we're sending images, then count = 3, else it's 2
-		if(itsSendImage.isSelected())
+		// Cancel the publish in progress
+		if(theEvent.getSource() == itsCancelButton)
 		{
-			itsProcessStepNumber = 3;
+			cancelPublish();
+			return;
 		}
-		else
+		
+		// Switch auto-publish on or off
+		if(theEvent.getSource() == itsAutoPublishCheckBox)
 		{
-			itsProcessStepNumber = 2;
+			if(itsAutoPublishCheckBox.isSelected())
+			{
+				itsAutoPublish.start();
+			}
+			else
+			{
+				itsAutoPublish.stop();
+			}
+			return;
 		}
 		
-		// Prevent double clicks
-		itsButton.setEnabled(false);
-		itsButton.paint(itsButton.getGraphics());
+		// Publishes started by the user run ahead of automatic ones
+		itsPublishPriority = AUTO_PUBLISH_COMMAND.equals(theEvent.getActionCommand()) ? PublishPriority.SCHEDULED : PublishPriority.INTERACTIVE;
+		
+		// Resend the last snapshot without rendering
+		if(theEvent.getSource() == itsResendButton)
+		{
+			itsPublishTargets = null;
+			resendLastSnapshot();
+			return;
+		}
+		
+		// Measure the snapshot instead of publishing it
+		if(theEvent.getSource() == itsProfileButton)
+		{
+			profileSnapshot();
+			return;
+		}
+		
+		// Measure a publish without sending anything
+		if(theEvent.getSource() == itsDryRunButton)
+		{
+			dryRun();
+			return;
+		}
+		
+		// Publish to a set of targets, or to the selected URL
+		itsPublishTargets = null;
+		if(theEvent.getSource() == itsTargetsButton)
+		{
+			itsPublishTargets = chooseTargets();
+			if(itsPublishTargets == null)
+			{
+				return;
+			}
+		}
+		
+		beginPublish(true);
+		itsRenderChangeCount = itsChangeCounter.getChangeCount();
 		
 		// Generate the XML
 		// Invoke the report generating actions
@@ -636,19 +1029,520 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 		itsURLEntry.hidePopup();
 		itsURLEntry.update(itsURLEntry.getGraphics());
 		
-		boolean isReportReady = generateReport();
-    	if(isReportReady)
-    	{  		
-     		updateProgress(SENDING_TO_REPORT_SERVICE);
-    		sendReportXML();
-    	}
-    	else
-    	{
-    		failedMessage(FAILED_GENERATION);
-    		itIsTaskComplete = true;
-    		updateProgress(100);
-    	}
-    	
+		// Render on a worker thread so that the Cancel button remains live
+		final SwingWorker aRenderWorker = new SwingWorker()
+		{
+			public Object construct()
+			{
+				return Boolean.valueOf(generateReport());
+			}
+			
+			public void finished()
+			{
+				itIsRendering = false;
+				boolean isReportReady = ((Boolean)getValue()).booleanValue();
+				if(itsCancelFlag.get())
+				{
+					// The cancel is reported by the progress timer
+					itsReportXML = new String();
+				}
+				else if(isReportReady)
+		    	{  		
+		     		reportMemoryWarnings();
+		     		updateProgress(SENDING_TO_REPORT_SERVICE);
+		    		sendReportXML();
+		    	}
+		    	else
+		    	{
+		    		failedMessage(FAILED_GENERATION);
+		    		itIsTaskComplete = true;
+		    		updateProgress(100);
+		    	}
+			}
+		};
+		itIsRendering = true;
+		aRenderWorker.start();
+	}
+	
+	/**
+	 * Prepare the tab for a publish: reset the progress and cancel state, set the phases that
+	 * will be reported and disable the buttons that start a publish.
+	 * @param isRendering true if the repository is to be rendered, false if a kept snapshot is being resent
+	 * @since 4.4
+	 */
+	private void beginPublish(boolean isRendering)
+	{
+		resetProgress();
+		itsCancelFlag.set(false);
+		itsCancelTime = 0;
+		itIsSending = false;
+		itIsTaskComplete = false;
+		// Only include the images phase if we're sending images
+		itsPublishPhases.clear();
+		if(isRendering)
+		{
+			itsPublishPhases.add(PublishPhase.RENDER);
+			itsPublishPhases.add(PublishPhase.COMPRESS);
+		}
+		itsPublishPhases.add(PublishPhase.AUTH);
+		itsPublishPhases.add(PublishPhase.UPLOAD_XML);
+		if(itsSendImage.isSelected())
+		{
+			itsPublishPhases.add(PublishPhase.IMAGES);
+		}
+		if(itsPublishTargets != null && itIsCoordinated)
+		{
+			itsPublishPhases.add(PublishPhase.ACTIVATE);
+		}
+		
+		// Prevent double clicks
+		itsButton.setEnabled(false);
+		itsButton.paint(itsButton.getGraphics());
+		itsResendButton.setEnabled(false);
+		itsTargetsButton.setEnabled(false);
+		itsProfileButton.setEnabled(false);
+		itsDryRunButton.setEnabled(false);
+		itsCancelButton.setEnabled(true);
+	}
+	
+	/**
+	 * Render the repository through a SnapshotSizeProfiler, rather than publishing it, and show the size of 
+	 * the snapshot and the classes, slots and instances that take the most space in it. Nothing is kept or sent.
+	 * @since 4.4
+	 */
+	protected void profileSnapshot()
+	{
+		itsPublishTargets = null;
+		beginPublish(true);
+		itsPublishPhases.clear();
+		itsPublishPhases.add(PublishPhase.RENDER);
+		itsStatus.setText(PROFILING_MSG);
+		
+		final SwingWorker aProfileWorker = new SwingWorker()
+		{
+			public Object construct()
+			{
+				return renderProfile();
+			}
+			
+			public void finished()
+			{
+				itIsRendering = false;
+				SnapshotSizeProfiler aProfiler = (SnapshotSizeProfiler)getValue();
+				if(itsCancelFlag.get())
+				{
+					// The cancel is reported by the progress timer
+					return;
+				}
+				if(aProfiler != null)
+				{
+					updateProgress(aProfiler.getReport(PROFILE_TOTAL_MSG, PROFILE_CLASSES_MSG, PROFILE_SLOTS_MSG, PROFILE_FRAMES_MSG));
+				}
+				else
+				{
+					failedMessage(FAILED_GENERATION);
+				}
+				itIsTaskComplete = true;
+				updateProgress(100);
+			}
+		};
+		itIsRendering = true;
+		aProfileWorker.start();
+	}
+	
+	/**
+	 * Render and compress the repository, and render and encode the images if they are selected, as a publish 
+	 * would, but send nothing. The throughput of each is then shown in the status area, with the memory use.
+	 * @since 4.4
+	 */
+	protected void dryRun()
+	{
+		itsPublishTargets = null;
+		beginPublish(true);
+		itsPublishPhases.remove(PublishPhase.AUTH);
+		itsPublishPhases.remove(PublishPhase.UPLOAD_XML);
+		itsStatus.setText(DRY_RUN_MSG);
+		
+		final DryRunPublisher aDryRun = new DryRunPublisher(this);
+		aDryRun.setItsSpoolDirectory(itsSpoolDirectory);
+		aDryRun.setItIsSendingImages(itsSendImage.isSelected());
+		aDryRun.setItsKBRef(getKnowledgeBase());
+		if(itsLayout != null)
+		{
+			aDryRun.setItsAutoLayout(itsLayout.getLayout());
+		}
+		itsDryRun = aDryRun;
+		
+		final SwingWorker aDryRunWorker = new SwingWorker()
+		{
+			public Object construct()
+			{
+				long aStartTime = System.currentTimeMillis();
+				if(!generateReport() || itsCancelFlag.get())
+				{
+					return Boolean.FALSE;
+				}
+				aDryRun.setRender(itsKB.getFrameCount(), System.currentTimeMillis() - aStartTime);
+				aDryRun.setItsMemoryProfile(itsMemoryProfile);
+				boolean isSuccess = aDryRun.run(itsReportXML);
+				itsReportXML = new String();
+				return Boolean.valueOf(isSuccess);
+			}
+			
+			public void finished()
+			{
+				itIsRendering = false;
+				itsDryRun = null;
+				if(itsCancelFlag.get())
+				{
+					// The cancel is reported by the progress timer
+					return;
+				}
+				List<String> aSummary = aDryRun.getSummary(DRY_RUN_RENDER_MSG, DRY_RUN_COMPRESS_MSG, DRY_RUN_IMAGES_MSG);
+				for(String aLine : aSummary)
+				{
+					updateProgress(aLine);
+				}
+				if(aSummary.isEmpty())
+				{
+					failedMessage(FAILED_GENERATION);
+				}
+				reportMemoryProfile();
+				itIsTaskComplete = true;
+				updateProgress(100);
+			}
+		};
+		itIsRendering = true;
+		aDryRunWorker.start();
+	}
+	
+	/**
+	 * Resend the last snapshot that was kept in the spool directory, streaming it to the Report Service 
+	 * at the selected URL without rendering the repository again. The snapshot is only resent if it was 
+	 * taken of this project in this session and the repository has not changed since.
+	 * @since 4.4
+	 */
+	protected void resendLastSnapshot()
+	{
+		SnapshotSpool aSnapshot = SnapshotSpool.load(itsSpoolDirectory, HttpReportServiceClient.LAST_SNAPSHOT);
+		if(aSnapshot == null)
+		{
+			itsStatus.setText(NO_LAST_SNAPSHOT_MSG);
+			return;
+		}
+		if(!isCurrent(aSnapshot))
+		{
+			itsStatus.setText(SNAPSHOT_CHANGED_MSG);
+			return;
+		}
+		
+		beginPublish(false);
+		itsStatus.setText(RESENDING_MSG + new Date(aSnapshot.getTimestamp()) + " (" + aSnapshot.getMetadata(SnapshotSpool.URL_KEY) + ")\n");
+		itsURLEntry.hidePopup();
+		itsServiceClient.setItsResendSnapshot(aSnapshot);
+		itsReportXML = new String();
+		itsMemoryProfile = new PhaseMemoryProfile();
+		
+		// A resend is always sent, even if the URL holds the same content
+		itsContentDigest = aSnapshot.getMetadata(SnapshotSpool.CONTENT_DIGEST_KEY);
+		itIsForcingSend = true;
+		sendReportXML();
+	}
+	
+	/**
+	 * Is the specified snapshot still current? That is, was it taken of this project, in this session, with no
+	 * change to the repository since.
+	 * @param theSnapshot the kept snapshot
+	 * @return true if the snapshot is current
+	 * @since 4.4
+	 */
+	private boolean isCurrent(SnapshotSpool theSnapshot)
+	{
+		return itsChangeCounter.getSessionId().equals(theSnapshot.getMetadata(SnapshotSpool.SESSION_KEY))
+				&& String.valueOf(itsChangeCounter.getChangeCount()).equals(theSnapshot.getMetadata(SnapshotSpool.CHANGE_COUNT_KEY))
+				&& getProjectName().equals(theSnapshot.getMetadata(SnapshotSpool.PROJECT_KEY));
+	}
+	
+	/**
+	 * @return the name of the current project, or an empty string if it has none
+	 * @since 4.4
+	 */
+	private String getProjectName()
+	{
+		String aName = getKnowledgeBase().getProject().getName();
+		return aName == null ? "" : aName;
+	}
+	
+	/**
+	 * Apply the transport policy, spool directory and snapshot keeping to a new service client
+	 * @param theClient the service client
+	 * @since 4.4
+	 */
+	private void configureServiceClient(ReportServiceClient theClient)
+	{
+		theClient.setItsTransportPolicy(itsTransportPolicy);
+		theClient.setItsSpoolDirectory(itsSpoolDirectory);
+		theClient.setItIsKeepingSnapshot(true);
+		theClient.setItsMaxParallel(itsMaxParallel);
+	}
+	
+	/**
+	 * Show the peak heap and allocation of each phase of the publish in the status area
+	 * @since 4.4
+	 */
+	private void reportMemoryProfile()
+	{
+		for(PhaseMemoryProfile.PhaseMemory aPhase : itsMemoryProfile.getPhases())
+		{
+			updateProgress(MEMORY_PROFILE_MSG + aPhase);
+		}
+	}
+	
+	/**
+	 * Warn, in the status area, of each phase measured so far whose heap use came close to the maximum heap
+	 * @since 4.4
+	 */
+	private void reportMemoryWarnings()
+	{
+		for(PhaseMemoryProfile.PhaseMemory aPhase : itsMemoryProfile.getPhases())
+		{
+			if(aPhase.isNearLimit())
+			{
+				updateProgress(MEMORY_WARNING_MSG + aPhase);
+			}
+		}
+	}
+	
+	/**
+	 * Get the message that explains a failed publish
+	 * @param theReturnCode the return code of the publish
+	 * @return the reason for the failure
+	 * @since 4.4
+	 */
+	private String getErrorReason(int theReturnCode)
+	{
+		String anErrorReason = "";
+		switch(theReturnCode)
+		{
+			// JWC 30.05.2009 Added additional error message.
+			case NO_SERVER : anErrorReason = NO_SERVER_MESSAGE; break;
+			case INTERNAL_SERVER_ERROR : anErrorReason = INTERNAL_SERVER_ERROR_MESSAGE; break;
+			case BAD_URL : anErrorReason = BAD_URL_MESSAGE; break;
+			case BAD_PASSWORD : anErrorReason = BAD_PASSWORD_MESSAGE; break;
+			case BAD_REQUEST : anErrorReason = BAD_REQUEST_MESSAGE; break;
+			case ACCESS_FORBIDDEN : anErrorReason = ACCESS_FORBIDDEN_MESSAGE; break;
+			case PUBLISH_CANCELLED : anErrorReason = PUBLISH_CANCELLED_MESSAGE; break;
+			case PUBLISH_ABORTED : anErrorReason = PUBLISH_ABORTED_MESSAGE; break;
+			case PUBLISH_SUPERSEDED : anErrorReason = PUBLISH_SUPERSEDED_MESSAGE; break;
+			default : anErrorReason = SERVER_ERROR_MESSAGE; break;
+		}
+		return anErrorReason;
+	}
+	
+	/**
+	 * Report the result of the publish to each target of the target set. The last snapshot is queued for 
+	 * each target that could not be reached, unless the publish was coordinated, and anything queued for a 
+	 * target that succeeded is removed.
+	 * @since 4.4
+	 */
+	private void reportTargetResults()
+	{
+		for(PublishTarget aTarget : itsPublishTargets)
+		{
+			if(aTarget.isItIsSuccess())
+			{
+				updateProgress(TARGET_SUCCESS_MSG + aTarget.getItsURL());
+				if(itsPublishQueue != null)
+				{
+					itsPublishQueue.remove(aTarget.getItsURL(), aTarget.getItsPassword());
+				}
+			}
+			else
+			{
+				updateProgress(TARGET_FAILED_MSG + aTarget.getItsURL() + " : " + getErrorReason(aTarget.getItsReturnCode()));
+				// A coordinated publish must not be completed on one target alone
+				if(!itIsCoordinated)
+				{
+					queueLastSnapshot(aTarget.getItsURL(), aTarget.getItsUID(), aTarget.getItsPassword(), aTarget.getItsReturnCode());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Show the target set for editing and save it as edited
+	 * @return the targets to publish to, or null if the dialog was cancelled or there are no targets
+	 * @since 4.4
+	 */
+	private List<PublishTarget> chooseTargets()
+	{
+		PublishTargetsPanel aTargetsPanel = new PublishTargetsPanel(itsTargetSet, itsURLHistory, itIsCoordinated);
+		int aChoice = JOptionPane.showConfirmDialog(this, aTargetsPanel.getItsPanel(), TARGETS_DIALOG_TITLE, 
+													JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+		if(aChoice != JOptionPane.OK_OPTION)
+		{
+			return null;
+		}
+		
+		// Save the set as edited. Passwords are only held until the tab is closed
+		List<PublishTarget> aTargets = aTargetsPanel.getTargets();
+		itsTargetSet.clear();
+		itsTargetSet.addAll(aTargets);
+		itIsCoordinated = aTargetsPanel.isCoordinated();
+		if(aTargets.isEmpty())
+		{
+			return null;
+		}
+		
+		// Publish with copies, as the URL of each is completed with the report service
+		List<PublishTarget> aPublishTargets = new ArrayList<PublishTarget>();
+		for(PublishTarget aTarget : aTargets)
+		{
+			aPublishTargets.add(new PublishTarget(aTarget.getItsURL(), aTarget.getItsUID(), aTarget.getItsPassword()));
+		}
+		return aPublishTargets;
+	}
+	
+	/**
+	 * Queue the last snapshot if the publish failed because the Report Service could not be reached, 
+	 * so that the OfflinePublishQueue sends it once the Report Service is back
+	 * @param theURL the URL of the Report Service
+	 * @param theUser the user name with which the snapshot was published
+	 * @param thePassword the password with which the snapshot was published
+	 * @param theReturnCode the return code of the publish
+	 * @since 4.4
+	 */
+	private void queueLastSnapshot(String theURL, String theUser, String thePassword, int theReturnCode)
+	{
+		if(itsPublishQueue == null || !itsPublishQueue.isUnreachable(theReturnCode))
+		{
+			return;
+		}
+		SnapshotSpool aSnapshot = SnapshotSpool.load(itsSpoolDirectory, HttpReportServiceClient.LAST_SNAPSHOT);
+		if(aSnapshot == null)
+		{
+			return;
+		}
+		try
+		{
+			itsPublishQueue.enqueue(aSnapshot, theURL, theUser, thePassword);
+			updateProgress(QUEUED_MSG);
+		}
+		catch(IOException anIOEx)
+		{
+			System.out.println("Unable to queue the snapshot: " + anIOEx);
+		}
+	}
+	
+	/**
+	 * Show the depth and last status of the offline publish queue.
+	 * Called on the queue's drain thread, so the label is updated on the event dispatch thread.
+	 * @param theDepth the number of snapshots waiting to be sent
+	 * @param theLastStatus a description of the last attempt to send a queued snapshot
+	 * @since 4.4
+	 */
+	public void updatePublishQueue(final int theDepth, final String theLastStatus)
+	{
+		SwingUtilities.invokeLater(new Runnable()
+		{
+			public void run()
+			{
+				if(theDepth == 0 && theLastStatus.length() == 0)
+				{
+					itsQueueStatus.setText(" ");
+				}
+				else
+				{
+					itsQueueStatus.setText(QUEUE_STATUS_MSG + theDepth + (theLastStatus.length() > 0 ? " (" + theLastStatus + ")" : ""));
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Show the publishes of all the open projects that are running and waiting
+	 * @param theRunning the descriptions of the running publishes
+	 * @param theWaiting the descriptions of the waiting publishes
+	 * @since 4.4
+	 */
+	public void updatePublishSchedule(final List<String> theRunning, final List<String> theWaiting)
+	{
+		SwingUtilities.invokeLater(new Runnable()
+		{
+			public void run()
+			{
+				StringBuilder aStatus = new StringBuilder();
+				if(!theRunning.isEmpty())
+				{
+					aStatus.append(SCHEDULE_RUNNING_MSG).append(join(theRunning));
+				}
+				if(!theWaiting.isEmpty())
+				{
+					aStatus.append(aStatus.length() > 0 ? "; " : "").append(SCHEDULE_WAITING_MSG).append(join(theWaiting));
+				}
+				itsScheduleStatus.setText(aStatus.length() > 0 ? aStatus.toString() : " ");
+			}
+		});
+	}
+	
+	/**
+	 * @param theItems the items
+	 * @return the items, separated by commas
+	 * @since 4.4
+	 */
+	private static String join(List<String> theItems)
+	{
+		StringBuilder aJoined = new StringBuilder();
+		for(String anItem : theItems)
+		{
+			aJoined.append(aJoined.length() > 0 ? ", " : "").append(anItem);
+		}
+		return aJoined.toString();
+	}
+	
+	/**
+	 * Cancel the publish that is in progress. Rendering stops at the next write of the 
+	 * snapshot and any request to the Report Service is aborted. The progress timer makes the 
+	 * tab ready for the next publish once the render and the publish have stopped. A publish that
+	 * has not stopped after CANCEL_TIMEOUT is abandoned, see ReportServiceClient#abandon().
+	 * @since 4.4
+	 */
+	protected void cancelPublish()
+	{
+		if(itIsTaskComplete || itsCancelFlag.get())
+		{
+			return;
+		}
+		itsCancelFlag.set(true);
+		itsCancelTime = System.currentTimeMillis();
+		itsCancelButton.setEnabled(false);
+		updateProgress(CANCELLING_MESSAGE);
+		itsServiceClient.cancel();
+		DryRunPublisher aDryRun = itsDryRun;
+		if(aDryRun != null)
+		{
+			aDryRun.cancel();
+		}
+	}
+	
+	/**
+	 * Is a publish in progress? The Publish button is disabled from when a publish starts until it completes.
+	 * @return true if a publish is in progress
+	 * @since 4.4
+	 */
+	public boolean isPublishing()
+	{
+		return !itsButton.isEnabled();
+	}
+	
+	/**
+	 * Publish the repository to the selected URL, as if the Publish button had been pressed
+	 * @since 4.4
+	 */
+	public void autoPublish()
+	{
+		actionPerformed(new ActionEvent(itsButton, ActionEvent.ACTION_PERFORMED, AUTO_PUBLISH_COMMAND));
+		updateProgress(AUTO_PUBLISHING_MSG);
 	}
 	
 	/**
@@ -659,6 +1553,18 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 	 */
 	public void close()
 	{
+		// Stop counting repository changes, and publishing them
+		itsChangeCounter.detach(getKnowledgeBase());
+		itsAutoPublish.stop();
+		PublishScheduler.getInstance().removeListener(this);
+		
+		// Stop the publish queue for this tab. It drains while another project is open, otherwise queued snapshots are sent when a tab is next opened
+		if(itsPublishQueue != null)
+		{
+			itsPublishQueue.removeListener(this);
+			itsPublishQueue.stop();
+		}
+		
 		String aHistory = renderXML();
 		FileWriter aHistoryOut = null;
 		try
@@ -700,50 +1606,125 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 	}
 	
 	/**
-	 * Receive a progress update. 
-	 * @param theMessage if not empty, add theMessage to the status panel.
-	 * @param theProgressPercentage use this value to update the overall progress on the progress bar.
+	 * Receive a typed progress event from the report service clients and the XMLRenderer. 
+	 * The overall progress is calculated from the position of the event's phase in the publish
+	 * process and the percentage of that phase that has been completed.
+	 * Called on the render and publish threads, so the progress is shown on the event dispatch thread.
+	 * @param theEvent the progress event. If its message is not empty, the message is added to the status panel.
+	 * @since 4.4
 	 */
-	public void updateProgress(String theMessage, int theProgressPercentage)
+	public void updatePublishProgress(final PublishProgressEvent theEvent)
 	{
-		if(!theMessage.isEmpty())
+		if(!SwingUtilities.isEventDispatchThread())
 		{
-			//itsStatus.setText(theMessage);
-			itsStatus.append("\n" + theMessage);
-			itsStatus.paint(itsStatus.getGraphics());
+			SwingUtilities.invokeLater(new Runnable()
+			{
+				public void run()
+				{
+					updatePublishProgress(theEvent);
+				}
+			});
+			return;
 		}
 		
-		// Calculate the overall progress, based on itsProcessStep count and the percentage.		
-		int anOverallProgress = ((100 * itsProcessStepCount) + theProgressPercentage) / itsProcessStepNumber;
+		updateProgress(theEvent.getMessage());
+		
+		int aPhaseIndex = itsPublishPhases.indexOf(theEvent.getPhase());
+		if(aPhaseIndex < 0)
+		{
+			return;
+		}
+		
+		// Calculate the overall progress, based on the phase and the percentage.
+		int aPhaseCount = itsPublishPhases.size();
+		int aPhasePercentage = theEvent.getProgressPercentage();
+		int anOverallProgress = ((100 * aPhaseIndex) + aPhasePercentage) / aPhaseCount;
 		itsProgress.setValue(anOverallProgress);
-		if(theProgressPercentage > 0)
+		if(aPhasePercentage > 0)
 		{
-			int aRenderedStepCount = itsProcessStepCount + 1;
-			if(aRenderedStepCount > itsProcessStepNumber)
-			{
-				aRenderedStepCount = itsProcessStepNumber;
-			}
-			int aRenderedProcessNumber = itsProcessStepNumber;
-			String aProgressString = PROGRESS_PREFIX_STRING_1 + aRenderedStepCount;
-			aProgressString = aProgressString + PROGRESS_PREFIX_STRING_2 + aRenderedProcessNumber;
-			aProgressString = aProgressString + PROGRESS_PREFIX_STRING_3 + theProgressPercentage + "%";
+			String aProgressString = PROGRESS_PREFIX_STRING_1 + (aPhaseIndex + 1);
+			aProgressString = aProgressString + PROGRESS_PREFIX_STRING_2 + aPhaseCount;
+			aProgressString = aProgressString + PROGRESS_PREFIX_STRING_3 + aPhasePercentage + "%";
+			aProgressString = aProgressString + formatThroughput(theEvent);
 			itsProgress.setString(aProgressString);			
 		}
 		itsProgress.paint(itsProgress.getGraphics());
+	}
+	
+	/**
+	 * Receive a progress update. 
+	 * @param theMessage if not empty, add theMessage to the status panel.
+	 * @param theProgressPercentage use this value to update the overall progress on the progress bar.
+	 */
+	public void updateProgress(final String theMessage, final int theProgressPercentage)
+	{
+		if(!SwingUtilities.isEventDispatchThread())
+		{
+			SwingUtilities.invokeLater(new Runnable()
+			{
+				public void run()
+				{
+					updateProgress(theMessage, theProgressPercentage);
+				}
+			});
+			return;
+		}
+		
+		updateProgress(theMessage);
+		itsProgress.setValue(theProgressPercentage);
+		itsProgress.paint(itsProgress.getGraphics());
+	}
+	
+	/**
+	 * Render the throughput and estimated time remaining of a progress event for the progress bar
+	 * @param theEvent the progress event
+	 * @return the throughput and time remaining, or an empty string if these are not yet known
+	 * @since 4.4
+	 */
+	protected String formatThroughput(PublishProgressEvent theEvent)
+	{
+		double aThroughput = theEvent.getThroughput();
+		if(aThroughput <= 0)
+		{
+			return "";
+		}
 		
-		// Update the process step counter if we've just completed a step
-		if (theProgressPercentage == 100)
+		String aThroughputString = "";
+		if(theEvent.isByteThroughput())
 		{
-			itsProcessStepCount++;
-		}		
+			aThroughputString = String.format("%.1f KB/s", aThroughput / KILOBYTE);
+		}
+		else
+		{
+			aThroughputString = String.format("%.1f", aThroughput) + PROGRESS_ITEMS_UNIT;
+		}
+		
+		long aRemaining = theEvent.getEstimatedTimeRemaining();
+		if(aRemaining > 0)
+		{
+			aThroughputString = aThroughputString + ", " + (aRemaining / MILLIS_PER_SECOND) + "s" + PROGRESS_REMAINING_STRING;
+		}
+		return " (" + aThroughputString + ")";
 	}
 	
 	/**
 	 * Override to allow update of just the message, where no progress has been made
 	 * @param theMessage if not empty, add theMessage to the status panel.
 	 */
-	public void updateProgress(String theMessage)
+	public void updateProgress(final String theMessage)
 	{
+		if(!SwingUtilities.isEventDispatchThread())
+		{
+			SwingUtilities.invokeLater(new Runnable()
+			{
+				public void run()
+				{
+					updateProgress(theMessage);
+				}
+			});
+			return;
+		}
+		
 		if(!theMessage.isEmpty())
 		{
 			itsStatus.append("\n" + theMessage);
@@ -752,15 +1733,35 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 	}
 	
 	/**
-	 * Receive a progress update from the XMLRenderer
+	 * Receive a progress update from the XMLRenderer, on the render thread. The heap is sampled here, and the 
+	 * progress shown on the event dispatch thread by #updatePublishProgress.
 	 * @param theMessage current output from the execution of the XMLRenderer.
 	 * @param theProgressPercentage the percentage of the overall task that has been
 	 * completed.
 	 */
 	public void updateRenderProgress(String theMessage, int theProgressPercentage)
 	{
-		// Leverage the updateProgress method
-		updateProgress(theMessage, theProgressPercentage);
+		// Report as a progress event for the render phase
+		// and sample the heap while rendering
+		itsMemoryProfile.sample();
+		long anElapsedTime = System.currentTimeMillis() - itsRenderStartTime;
+		updatePublishProgress(PublishProgressEvent.forPercentage(PublishPhase.RENDER, theMessage, anElapsedTime, theProgressPercentage));
+	}
+	
+	/**
+	 * Get the directory for the snapshot spool and image checkpoints, in the plugin directory. If the plugin
+	 * directory cannot be found, the default spool directory is used.
+	 * @return the spool directory
+	 * @since 4.4
+	 */
+	protected static File getSpoolDirectory()
+	{
+		File aPluginDir = PluginUtilities.getInstallationDirectory(PLUGIN_CLASS_NAME);
+		if(aPluginDir == null)
+		{
+			return SnapshotSpool.getDefaultDirectory();
+		}
+		return new File(aPluginDir, SPOOL_DIRECTORY);
 	}
 	
 	/** 
@@ -908,6 +1909,7 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 		// Use the XMLRenderer class to get the repository in XML
 		// Create a Writer for XMLRenderer to use.
 		StringWriter anXMLString = new StringWriter();
+		Object aRenderEvent = null;
 		
 		try
 		{
@@ -916,10 +1918,18 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 			
 			// Get the XML representation
 			// Render the Instances in the KnowledgeBase as XML
-			XMLRenderer anXMLRender = new XMLRenderer(itsKB, anXMLString);
+			// via a writer that stops the render if the publish is cancelled
+			// and digests the content as it is written
+			itsContentDigest = null;
+			SnapshotDigestWriter aDigestWriter = new SnapshotDigestWriter(anXMLString);
+			XMLRenderer anXMLRender = new XMLRenderer(itsKB, new CancellableWriter(aDigestWriter, itsCancelFlag));
 			
 			// 23.05.2013 JWC - set the listener
 			anXMLRender.setItsListener(this);
+			itsRenderStartTime = System.currentTimeMillis();
+			aRenderEvent = PublishFlightRecorder.beginPhase(EasReportTab.class.getSimpleName(), PublishPhase.RENDER, null);
+			itsMemoryProfile = new PhaseMemoryProfile();
+			itsMemoryProfile.start(PhaseMemoryProfile.RENDER);
 			
 			// 02.11.2010	JWC - set the datetime format for the timestamp tag
 			if(itsTimeStampFormat != null)
@@ -927,11 +1937,21 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 				anXMLRender.setItsTimeStampFormatString(itsTimeStampFormat);
 			}
 			anXMLRender.render();
+			if(itsCancelFlag.get())
+			{
+				return false;
+			}
+			
+			itsContentDigest = aDigestWriter.getDigest();
+			itsMemoryProfile.end();
 			
 			// Check for errors and read the XML.
 			// Make sure to encode the String correctly as UTF-8
+			itsMemoryProfile.start(PhaseMemoryProfile.COPY);
 			byte[] aRenderedXML = anXMLString.toString().getBytes("UTF8");
 			itsReportXML = new String(aRenderedXML, "UTF8");
+			itsMemoryProfile.end();
+			PublishMetrics.getInstance().recordRender(System.currentTimeMillis() - itsRenderStartTime, itsReportXML.length());
 			
 			if(itsReportXML != null)
 			{
@@ -942,16 +1962,63 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 				isSuccess = false;
 			}
 		}
+		catch(PublishCancelledException aCancelEx)
+		{
+			isSuccess = false;
+		}
 		catch(Exception ex)
 		{
 			System.out.println("Caught the exception:\n" + ex.toString());
 			ex.printStackTrace(System.out);
 			isSuccess = false;
 		}
+		finally
+		{
+			PublishFlightRecorder.endPhase(aRenderEvent);
+		}
 		
 		return isSuccess;
 	}
 	
+	/**
+	 * Render the repository through a SnapshotSizeProfiler
+	 * @return the profiler, or null if the render failed or was cancelled
+	 * @since 4.4
+	 */
+	private SnapshotSizeProfiler renderProfile()
+	{
+		SnapshotSizeProfiler aProfiler = new SnapshotSizeProfiler(itsProfileTopCount);
+		try
+		{
+			itsKB = getKnowledgeBase();
+			XMLRenderer anXMLRender = new XMLRenderer(itsKB, new CancellableWriter(aProfiler, itsCancelFlag));
+			anXMLRender.setItsListener(this);
+			if(itsTimeStampFormat != null)
+			{
+				anXMLRender.setItsTimeStampFormatString(itsTimeStampFormat);
+			}
+			itsRenderStartTime = System.currentTimeMillis();
+			itsMemoryProfile = new PhaseMemoryProfile();
+			anXMLRender.render();
+			if(itsCancelFlag.get())
+			{
+				return null;
+			}
+			aProfiler.finish();
+			return aProfiler;
+		}
+		catch(PublishCancelledException aCancelEx)
+		{
+			return null;
+		}
+		catch(Exception ex)
+		{
+			System.out.println("Caught the exception:\n" + ex.toString());
+			ex.printStackTrace(System.out);
+			return null;
+		}
+	}
+	
 	/**
 	 * Send the XML for the report to the reporting service. This kicks off a thread to
 	 * manage the service request for sending the XML, whilst allowing the UI to update.
@@ -987,8 +2054,46 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 		itsServiceClient.setItsKBRef(itsKB);
 		itsServiceClient.setItsImageURLSuffix(itsImagesURLSuffix);		
 		
+		// Each target needs the full URL of its report service
+		if(itsPublishTargets != null)
+		{
+			for(PublishTarget aTarget : itsPublishTargets)
+			{
+				aTarget.setItsURL(buildPublishURL(aTarget.getItsURL()));
+			}
+		}
+		itsServiceClient.setItsTargets(itsPublishTargets);
+		itsServiceClient.setItIsCoordinated(itIsCoordinated);
+		
+		// Run by the process-wide scheduler, with the other open projects
+		itsServiceClient.setItsPriority(itsPublishPriority);
+		itsServiceClient.setItsDescription(getProjectName());
+		
+		// Metadata kept with the snapshot, to check that it is current before it is resent
+		Properties aMetadata = new Properties();
+		aMetadata.setProperty(SnapshotSpool.CHANGE_COUNT_KEY, String.valueOf(itsRenderChangeCount));
+		aMetadata.setProperty(SnapshotSpool.SESSION_KEY, itsChangeCounter.getSessionId());
+		aMetadata.setProperty(SnapshotSpool.PROJECT_KEY, getProjectName());
+		if(itsContentDigest != null)
+		{
+			aMetadata.setProperty(SnapshotSpool.CONTENT_DIGEST_KEY, itsContentDigest);
+		}
+		itsServiceClient.setItsSnapshotMetadata(aMetadata);
+		
+		// Skip the upload to a URL that already holds this content, unless forced
+		itsServiceClient.setItsContentDigest(itsContentDigest);
+		itsServiceClient.setItIsSkippingUnchanged(itIsSkippingUnchanged && !itIsForcingSend);
+		itsServiceClient.setItIsUsingAcknowledged(itIsUsingAcknowledged);
+		itsServiceClient.setItIsAdaptiveCompression(itIsAdaptiveCompression);
+		itsServiceClient.setItsMemoryProfile(itsMemoryProfile);
+		itIsForcingSend = false;
+		
 		// Start the request
-		itsServiceClient.start();		
+		itIsSending = true;
+		itsServiceClient.start();
+		
+		// The client holds the snapshot now, so release ours
+		itsReportXML = new String();
 	}
 	
 	/**
@@ -1020,7 +2125,6 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 		itsProgress.setStringPainted(true);
 		itsProgress.setString("");
 		itsProgress.setValue(0);
-		itsProcessStepCount = 0;
 		itsProgress.paint(itsProgress.getGraphics());
 		setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
         itsTimer.start();
@@ -1041,8 +2145,20 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 	 * @param theProgressPercent what percent of the report sending has been
 	 * completed.
 	 */
-	public void updateProgress(int theProgressPercent)
+	public void updateProgress(final int theProgressPercent)
 	{
+		if(!SwingUtilities.isEventDispatchThread())
+		{
+			SwingUtilities.invokeLater(new Runnable()
+			{
+				public void run()
+				{
+					updateProgress(theProgressPercent);
+				}
+			});
+			return;
+		}
+		
 		itsProgress.setValue(theProgressPercent);
 		itsProgress.paint(itsProgress.getGraphics());
 		
@@ -1070,30 +2186,57 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
             public void actionPerformed(ActionEvent evt) 
             {         
                 startProgress();
-                if(itsServiceClient.isItIsFinished())
+                
+                // Cancelled before sending started, or a cancelled publish has not stopped in time
+                // A render that has been cancelled stops at its next write, and must stop before the next publish renders
+                boolean isCancelled = itsCancelFlag.get() && !itIsTaskComplete && !itIsRendering;
+                boolean isCancelTimedOut = isCancelled && itIsSending && (System.currentTimeMillis() - itsCancelTime > CANCEL_TIMEOUT);
+                if(isCancelled && (!itIsSending || isCancelTimedOut || itsServiceClient.isItIsFinished()))
                 {
                 	itIsTaskComplete = true;
+                	updateProgress(PUBLISH_CANCELLED_MESSAGE, 0);
+                	if(isCancelTimedOut && !itsServiceClient.isItIsFinished())
+                	{
+                		// Leave the stalled publish behind, detached from this tab and from its URLs, 
+                		// and use a new client for the next one
+                		itsServiceClient.abandon();
+                		itsServiceClient = new ReportServiceClient(EasReportTab.this);
+                		configureServiceClient(itsServiceClient);
+                	}
+                }
+                else if(itIsSending && itsServiceClient.isItIsFinished())
+                {
+                	itIsTaskComplete = true;
+                	
+                	// Report the result of each target of a target set
+                	if(itsPublishTargets != null)
+                	{
+                		reportTargetResults();
+                	}
+                	
                 	if(itsServiceClient.isItIsSuccess())                		
                 	{
                 		//itsStatus.setText(SUCCESS_MESSAGE);
                 		updateProgress(SUCCESS_MESSAGE, 100);
+                		double anUploadRate = itsServiceClient.getItsUploadRate();
+                		if(anUploadRate > 0)
+                		{
+                			updateProgress(UPLOAD_RATE_MSG + String.format("%.1f KB/s", anUploadRate / KILOBYTE));
+                		}
+                	}
+                	else if(itsPublishTargets != null)
+                	{
+                		failedMessage(FAILED_SEND);
                 	}
                 	else
                 	{            		
-                		String anErrorReason = "";
-                		switch(itsServiceClient.getItsReturnCode())
-                		{
-                			// JWC 30.05.2009 Added additional error message.
-                			case NO_SERVER : anErrorReason = NO_SERVER_MESSAGE; break;
-                			case INTERNAL_SERVER_ERROR : anErrorReason = INTERNAL_SERVER_ERROR_MESSAGE; break;
-                			case BAD_URL : anErrorReason = BAD_URL_MESSAGE; break;
-                			case BAD_PASSWORD : anErrorReason = BAD_PASSWORD_MESSAGE; break;
-                			case BAD_REQUEST : anErrorReason = BAD_REQUEST_MESSAGE; break;
-                			case ACCESS_FORBIDDEN : anErrorReason = ACCESS_FORBIDDEN_MESSAGE; break;
-                			default : anErrorReason = SERVER_ERROR_MESSAGE; break;
-                		}
-                		failedMessage(FAILED_SEND + " : \n" + anErrorReason);            		
+                		String anErrorReason = getErrorReason(itsServiceClient.getItsReturnCode());
+                		failedMessage(FAILED_SEND + " : \n" + anErrorReason);
+                		queueLastSnapshot(itsServiceClient.getItsURL(), itsServiceClient.getItsUID(), itsServiceClient.getItsPassword(), itsServiceClient.getItsReturnCode());
                 	}
+                	
+                	// Whatever the outcome, to find which phase used the most memory
+                	reportMemoryProfile();
                 }
                             	
                 if (itIsTaskComplete) 
@@ -1101,10 +2244,27 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
                     itsTimer.stop();
                     setCursor(null); //turn off the wait cursor
                     itsButton.setEnabled(true);
+                    itsResendButton.setEnabled(true);
+                    itsTargetsButton.setEnabled(true);
+                    itsProfileButton.setEnabled(true);
+                    itsDryRunButton.setEnabled(true);
+                    itsCancelButton.setEnabled(false);
+                    itIsSending = false;
                     updateProgress(itsProgress.getMaximum());
                     
-                    if(itsServiceClient.isItIsSuccess())
+                    // The changes rendered into this snapshot need not be published again
+                    if(itsServiceClient.isItIsSuccess() && !itsCancelFlag.get())
                     {
+                    	itsAutoPublish.published(itsRenderChangeCount);
+                    }
+                    
+                    if(itsServiceClient.isItIsSuccess() && !itsCancelFlag.get() && itsPublishTargets == null)
+                    {
+                    	// Anything queued for this URL is older than what was just sent
+                    	if(itsPublishQueue != null)
+                    	{
+                    		itsPublishQueue.remove(itsServiceClient.getItsURL(), itsServiceClient.getItsPassword());
+                    	}
                     	saveURLChoices();
                     }
                 }
@@ -1196,8 +2356,29 @@ public class EasReportTab extends AbstractTabWidget implements ActionListener, P
 			aPrintWriter.println("\t<layout>" + itsLastLayout + "</layout>");
 		}
 		
+		// Save the target set, without the passwords
+		for(PublishTarget aTarget : itsTargetSet)
+		{
+			aPrintWriter.println("\t<target user=\"" + escapeXML(aTarget.getItsUID()) + "\">" + escapeXML(aTarget.getItsURL()) + "</target>");
+		}
+		if(itIsCoordinated)
+		{
+			aPrintWriter.println("\t<coordinated>true</coordinated>");
+		}
+		
 		aPrintWriter.println("</history>");
 		
 		return anXMLString.toString();
 	}
+	
+	/**
+	 * Escape the characters that cannot appear as they are in the text or an attribute of history.xml
+	 * @param theText the text
+	 * @return the escaped text
+	 * @since 4.4
+	 */
+	private static String escapeXML(String theText)
+	{
+		return theText.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
 }
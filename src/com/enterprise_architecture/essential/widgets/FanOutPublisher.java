@@ -0,0 +1,660 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.stanford.smi.protege.model.KnowledgeBase;
+
+/**
+ * Publish one snapshot to a set of Report Service targets. The snapshot is compressed once, to a
+ * single spool, and then uploaded to the targets in parallel, each with its own HttpReportServiceClient,
+ * credentials, progress and result.
+ * <br/>
+ * The GraphWidget images are sent to one target at a time, because rendering them uses the forms
+ * of the open project, which are not safe to use from more than one thread.
+ * <br/>
+ * In coordinated mode, for the nodes of a load-balanced Viewer, the snapshot and images are staged on every
+ * target under a publish version. Only once every target has acknowledged them is the version activated on
+ * all the targets, which is a cheap call. If staging fails on any target, or the publish is cancelled, the
+ * staged version is aborted on all of them and none changes. Activation is not cancelled once started, as
+ * that would leave the nodes on different versions; a target that fails to activate is reported as failed.
+ * If the publishing thread is interrupted before the version is activated or aborted, it is aborted on every
+ * target before the publish returns, so that no staged version is left behind.
+ * <br/>
+ * A target whose Report Service already holds the same content digest is skipped, unless the publish is 
+ * coordinated. Each target that succeeds acknowledges the content digest once the publish is complete.
+ * <br/>
+ * Used by the ReportServiceClient
+ * @version 1.8 - Compression level recorded in the trace of each target<br/>
+ * @version 1.7 - The Report Service decides whether the content is unchanged<br/>
+ * @version 1.6 - Abort the staged version if interrupted<br/>
+ * @version 1.5 - Memory profile of the compression and each target<br/>
+ * @version 1.4 - Compression recorded in the PublishMetrics of each target<br/>
+ * @version 1.3 - Adaptive compression level<br/>
+ * @version 1.2 - Skip unchanged content<br/>
+ * @version 1.1 - Coordinated mode<br/>
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishTarget PublishTarget
+ */
+public class FanOutPublisher 
+{
+	public static final int DEFAULT_MAX_PARALLEL = 4;
+	
+	private PublishProgressListener itsListener;
+	private TransportPolicy itsTransportPolicy = new TransportPolicy();
+	private File itsSpoolDirectory = SnapshotSpool.getDefaultDirectory();
+	private int itsMaxParallel = DEFAULT_MAX_PARALLEL;
+	
+	// Keep the snapshot once sent, or send a kept snapshot
+	private boolean itIsKeepingSnapshot = false;
+	private Properties itsSnapshotMetadata = new Properties();
+	private SnapshotSpool itsKeptSnapshot = null;
+	
+	// Images
+	private boolean itIsSendingImages = false;
+	private String itsImageURLSuffix = "";
+	private String itsAutoLayout = "";
+	private KnowledgeBase itsKBRef = null;
+	private final Object itsImageLock = new Object();
+	
+	// The services currently sending, and whether the publish has been cancelled
+	private final List<HttpReportServiceClient> itsActiveServices = new ArrayList<HttpReportServiceClient>();
+	private volatile boolean itIsCancelled = false;
+	
+	// Stage and then activate on all the targets, and the version of the publish in progress
+	private boolean itIsCoordinated = false;
+	private String itsPublishVersion = null;
+	
+	// Content digest of the snapshot, and whether a target that holds it is skipped
+	private String itsContentDigest = null;
+	private boolean itIsSkippingUnchanged = true;
+	private boolean itIsUsingAcknowledged = false;
+	
+	// Whether the compression level is chosen from the measured upload and compression speeds
+	private boolean itIsAdaptiveCompression = false;
+	
+	// The heap use and allocation of the phases, each target adding its images to a copy
+	private PhaseMemoryProfile itsMemoryProfile = new PhaseMemoryProfile();
+	
+	// The compression level of the snapshot and the time taken to compress it, for the trace of each target
+	private CompressionAdvisor.Choice itsCompression = null;
+	private long itsCompressTime = -1;
+	
+	/**
+	 * Constructor
+	 * @param theListener the listener for progress events, each message prefixed with the URL of its target
+	 */
+	public FanOutPublisher(PublishProgressListener theListener)
+	{
+		itsListener = theListener;
+	}
+	
+	/**
+	 * Compress the snapshot once and publish it to each of the targets. The result of each target is 
+	 * recorded in that PublishTarget.
+	 * @param theReportXML the snapshot XML, ignored if a kept snapshot has been set
+	 * @param theTargets the targets
+	 * @return true if the publish to every target succeeded
+	 */
+	public boolean publish(String theReportXML, List<PublishTarget> theTargets)
+	{
+		for(PublishTarget aTarget : theTargets)
+		{
+			aTarget.reset();
+		}
+		itsCompression = null;
+		
+		SnapshotSpool aSpool = itsKeptSnapshot;
+		boolean isOwningSpool = (aSpool == null);
+		ExecutorService anExecutor = null;
+		boolean isStaging = false;
+		try
+		{
+			if(isOwningSpool)
+			{
+				// The one spool is uploaded to every target, so the slowest of them decides the level
+				List<String> aURLs = new ArrayList<String>();
+				for(PublishTarget aTarget : theTargets)
+				{
+					aURLs.add(aTarget.getItsURL());
+				}
+				CompressionAdvisor.Choice aChoice = CompressionAdvisor.getDefaultChoice();
+				if(itIsAdaptiveCompression)
+				{
+					aChoice = CompressionAdvisor.chooseLevel(itsSpoolDirectory, aURLs, theReportXML.length());
+				}
+				int aLevel = aChoice.getItsLevel();
+				long aStartTime = System.currentTimeMillis();
+				Object aCompressEvent = PublishFlightRecorder.beginPhase(FanOutPublisher.class.getSimpleName(), PublishPhase.COMPRESS, null);
+				itsMemoryProfile.start(PhaseMemoryProfile.COMPRESS);
+				aSpool = SnapshotSpool.create(theReportXML, itsSpoolDirectory, aLevel);
+				PhaseMemoryProfile.PhaseMemory aCompressMemory = itsMemoryProfile.end();
+				if(aCompressMemory.isNearLimit())
+				{
+					sendProgressUpdate(PublishProgressEvent.forPercentage(PublishPhase.COMPRESS, EasReportTab.MEMORY_WARNING_MSG + aCompressMemory, 0, 100));
+				}
+				PublishFlightRecorder.endPhase(aCompressEvent);
+				long aSnapshotLength = aSpool.getUncompressedLength();
+				long aCompressTime = System.currentTimeMillis() - aStartTime;
+				itsCompression = aChoice;
+				itsCompressTime = aCompressTime;
+				CompressionAdvisor.recordCompression(itsSpoolDirectory, aLevel, theReportXML.length(), aSpool.getItsLength(), aCompressTime);
+				PublishMetrics.getInstance().recordCompression(aURLs, aCompressTime, aSnapshotLength, aSpool.getItsLength());
+				sendProgressUpdate(new PublishProgressEvent(PublishPhase.COMPRESS, "", aSnapshotLength, aSnapshotLength, 
+															PublishProgressEvent.UNKNOWN, PublishProgressEvent.UNKNOWN, 
+															System.currentTimeMillis() - aStartTime, 100));
+			}
+			
+			// Upload to each target in parallel, on daemon threads so that a stalled target cannot hold up the exit
+			final SnapshotSpool aSharedSpool = aSpool;
+			itsPublishVersion = itIsCoordinated ? createPublishVersion(aSpool) : null;
+			isStaging = itIsCoordinated;
+			anExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(itsMaxParallel, theTargets.size())), new ThreadFactory()
+			{
+				private final AtomicInteger itsThreadCount = new AtomicInteger();
+				
+				public Thread newThread(Runnable theRunnable)
+				{
+					Thread aThread = new Thread(theRunnable, "Essential Viewer publish " + itsThreadCount.incrementAndGet());
+					aThread.setDaemon(true);
+					return aThread;
+				}
+			});
+			List<Callable<Boolean>> aTasks = new ArrayList<Callable<Boolean>>();
+			for(final PublishTarget aTarget : theTargets)
+			{
+				aTasks.add(new Callable<Boolean>()
+				{
+					public Boolean call()
+					{
+						return Boolean.valueOf(publishToTarget(aSharedSpool, aTarget));
+					}
+				});
+			}
+			anExecutor.invokeAll(aTasks);
+			
+			if(itIsCoordinated)
+			{
+				completeStagedPublish(anExecutor, theTargets);
+				isStaging = false;
+			}
+		}
+		catch(IOException anIOEx)
+		{
+			System.out.println("IOException while compressing report XML: " + anIOEx);
+			sendProgressUpdate(new PublishProgressEvent(PublishPhase.COMPRESS, EasReportTab.SENDING_EXCEPTION, 
+														PublishProgressEvent.UNKNOWN, PublishProgressEvent.UNKNOWN, 
+														PublishProgressEvent.UNKNOWN, PublishProgressEvent.UNKNOWN, 0, 100));
+		}
+		catch(InterruptedException anIntEx)
+		{
+			cancel();
+		}
+		finally
+		{
+			if(anExecutor != null)
+			{
+				anExecutor.shutdown();
+			}
+			if(isStaging)
+			{
+				abortStagedPublish(theTargets);
+			}
+			if(isOwningSpool && aSpool != null)
+			{
+				releaseSnapshotSpool(aSpool, theTargets);
+			}
+			itsKeptSnapshot = null;
+		}
+		
+		boolean isSuccess = !itIsCancelled;
+		for(PublishTarget aTarget : theTargets)
+		{
+			if(!aTarget.isItIsFinished())
+			{
+				aTarget.setResult(false, itIsCancelled ? EasReportTab.PUBLISH_CANCELLED : EasReportTab.NO_SERVER, PublishProgressEvent.UNKNOWN);
+			}
+			isSuccess = isSuccess && aTarget.isItIsSuccess();
+			if(aTarget.isItIsSuccess() && itsContentDigest != null)
+			{
+				AcknowledgedDigests.acknowledge(itsSpoolDirectory, aTarget.getItsURL(), itsContentDigest);
+			}
+		}
+		return isSuccess;
+	}
+	
+	/**
+	 * Send the spooled snapshot, and any images, to one target
+	 * @param theSpool the spooled snapshot, shared by all the targets
+	 * @param theTarget the target
+	 * @return true if the publish to the target succeeded
+	 */
+	private boolean publishToTarget(SnapshotSpool theSpool, final PublishTarget theTarget)
+	{
+		HttpReportServiceClient aService = createService(theTarget);
+		aService.setItsSnapshotSpool(theSpool);
+		aService.setItsMemoryProfile(itsMemoryProfile.copy());
+		if(itsCompression != null)
+		{
+			aService.recordCompression(itsCompression, itsCompressTime);
+		}
+		aService.setItsPublishVersion(itsPublishVersion);
+		aService.setItsContentDigest(itsContentDigest);
+		aService.setItIsSkippingUnchanged(itIsSkippingUnchanged);
+		aService.setItIsUsingAcknowledged(itIsUsingAcknowledged);
+		if(!addActiveService(aService))
+		{
+			theTarget.setResult(false, EasReportTab.PUBLISH_CANCELLED, PublishProgressEvent.UNKNOWN);
+			return false;
+		}
+		
+		try
+		{
+			boolean isASuccess = aService.sendReportXML();
+			if(isASuccess && itIsSendingImages && !aService.isItIsUnchanged())
+			{
+				synchronized(itsImageLock)
+				{
+					aService.setItsImagesURL(theTarget.getItsURL() + itsImageURLSuffix);
+					aService.setItsKBRef(itsKBRef);
+					aService.setItsAutoLayout(itsAutoLayout);
+					isASuccess = aService.sendImages();
+				}
+			}
+			isASuccess = isASuccess && !aService.isCancelled();
+			theTarget.setResult(isASuccess, aService.getItsReturnCode(), aService.getItsUploadRate());
+			aService.writeTrace(isASuccess);
+			return isASuccess;
+		}
+		finally
+		{
+			removeActiveService(aService);
+		}
+	}
+	
+	/**
+	 * Create a service to send to the specified target, reporting progress against that target
+	 * @param theTarget the target
+	 * @return the service
+	 */
+	private HttpReportServiceClient createService(final PublishTarget theTarget)
+	{
+		HttpReportServiceClient aService = new HttpReportServiceClient(new PublishProgressListener()
+		{
+			public void updatePublishProgress(PublishProgressEvent theEvent)
+			{
+				theTarget.setItsLastProgress(theEvent);
+				sendProgressUpdate(forTarget(theTarget, theEvent));
+			}
+		});
+		aService.setItsURL(theTarget.getItsURL());
+		aService.setItsUID(theTarget.getItsUID());
+		aService.setItsPassword(theTarget.getItsPassword());
+		aService.setItsTransportPolicy(itsTransportPolicy);
+		aService.setItsSpoolDirectory(itsSpoolDirectory);
+		return aService;
+	}
+	
+	/**
+	 * Activate the staged version on every target if every target staged it, otherwise abort it on every target
+	 * @param theExecutor the executor with which to call the targets in parallel
+	 * @param theTargets the targets
+	 * @throws InterruptedException if interrupted while waiting for the targets
+	 */
+	private void completeStagedPublish(ExecutorService theExecutor, List<PublishTarget> theTargets) throws InterruptedException
+	{
+		boolean isAllStaged = !itIsCancelled;
+		for(PublishTarget aTarget : theTargets)
+		{
+			isAllStaged = isAllStaged && aTarget.isItIsSuccess();
+		}
+		final String anAction = isAllStaged ? HttpReportServiceClient.ACTIVATE_ACTION : HttpReportServiceClient.ABORT_ACTION;
+		sendProgressUpdate(PublishProgressEvent.forPercentage(PublishPhase.ACTIVATE, 
+								(isAllStaged ? EasReportTab.ACTIVATING_MSG : EasReportTab.ABORTING_MSG) + itsPublishVersion, 0, 0));
+		
+		// Activate or abort with new services, which a cancel does not stop
+		List<Callable<Boolean>> aTasks = new ArrayList<Callable<Boolean>>();
+		for(final PublishTarget aTarget : theTargets)
+		{
+			aTasks.add(new Callable<Boolean>()
+			{
+				public Boolean call()
+				{
+					return Boolean.valueOf(sendPublishAction(aTarget, anAction));
+				}
+			});
+		}
+		theExecutor.invokeAll(aTasks);
+	}
+	
+	/**
+	 * Abort the staged version on every target, one at a time on the calling thread, when the publish was 
+	 * interrupted before it could be activated or aborted. The interrupt is kept for the caller.
+	 * @param theTargets the targets
+	 * @since 1.6
+	 */
+	private void abortStagedPublish(List<PublishTarget> theTargets)
+	{
+		boolean isInterrupted = Thread.interrupted();
+		sendProgressUpdate(PublishProgressEvent.forPercentage(PublishPhase.ACTIVATE, EasReportTab.ABORTING_MSG + itsPublishVersion, 0, 0));
+		for(PublishTarget aTarget : theTargets)
+		{
+			sendPublishAction(aTarget, HttpReportServiceClient.ABORT_ACTION);
+		}
+		if(isInterrupted)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Send the activate or abort action to one target, and update the result of the target
+	 * @param theTarget the target
+	 * @param theAction HttpReportServiceClient.ACTIVATE_ACTION or HttpReportServiceClient.ABORT_ACTION
+	 * @return true if the target performed the action
+	 */
+	private boolean sendPublishAction(PublishTarget theTarget, String theAction)
+	{
+		HttpReportServiceClient aService = createService(theTarget);
+		aService.setItsPublishVersion(itsPublishVersion);
+		boolean isActioned = aService.sendPublishAction(theAction);
+		if(theAction.equals(HttpReportServiceClient.ACTIVATE_ACTION))
+		{
+			if(!isActioned)
+			{
+				theTarget.setResult(false, aService.getItsReturnCode(), theTarget.getItsUploadRate());
+			}
+		}
+		else if(theTarget.isItIsSuccess())
+		{
+			// Staged, but discarded because staging failed elsewhere
+			theTarget.setResult(false, EasReportTab.PUBLISH_ABORTED, theTarget.getItsUploadRate());
+		}
+		return isActioned;
+	}
+	
+	/**
+	 * Create the version under which the snapshot is staged, unique to this publish of this snapshot
+	 * @param theSpool the spooled snapshot
+	 * @return the version
+	 */
+	private static String createPublishVersion(SnapshotSpool theSpool)
+	{
+		return Long.toString(System.currentTimeMillis(), Character.MAX_RADIX) + "-" + theSpool.getItsDigest().substring(0, 16);
+	}
+	
+	/**
+	 * Keep the snapshot that was compressed for this publish as the LAST_SNAPSHOT, or delete it
+	 * @param theSpool the spool
+	 * @param theTargets the targets, the first of which is recorded as the URL of the kept snapshot
+	 */
+	private void releaseSnapshotSpool(SnapshotSpool theSpool, List<PublishTarget> theTargets)
+	{
+		if(itIsKeepingSnapshot)
+		{
+			try
+			{
+				if(!theTargets.isEmpty())
+				{
+					theSpool.setMetadata(SnapshotSpool.URL_KEY, theTargets.get(0).getItsURL());
+				}
+				theSpool.setMetadata(itsSnapshotMetadata);
+				theSpool.keep(itsSpoolDirectory, HttpReportServiceClient.LAST_SNAPSHOT);
+				return;
+			}
+			catch(IOException anIOEx)
+			{
+				System.out.println("Unable to keep the snapshot: " + anIOEx);
+			}
+		}
+		theSpool.delete();
+	}
+	
+	/**
+	 * Cancel the publish to every target. Any request in flight is aborted.
+	 */
+	public void cancel()
+	{
+		List<HttpReportServiceClient> aServices;
+		synchronized(itsActiveServices)
+		{
+			itIsCancelled = true;
+			aServices = new ArrayList<HttpReportServiceClient>(itsActiveServices);
+		}
+		for(HttpReportServiceClient aService : aServices)
+		{
+			aService.cancel();
+		}
+	}
+	
+	/**
+	 * @return true if the publish has been cancelled
+	 */
+	public boolean isCancelled()
+	{
+		return itIsCancelled;
+	}
+	
+	private boolean addActiveService(HttpReportServiceClient theService)
+	{
+		synchronized(itsActiveServices)
+		{
+			if(itIsCancelled)
+			{
+				return false;
+			}
+			itsActiveServices.add(theService);
+			return true;
+		}
+	}
+	
+	private void removeActiveService(HttpReportServiceClient theService)
+	{
+		synchronized(itsActiveServices)
+		{
+			itsActiveServices.remove(theService);
+		}
+	}
+	
+	/**
+	 * Prefix the message of a progress event with the URL of its target
+	 * @param theTarget the target
+	 * @param theEvent the event from the service sending to the target
+	 * @return the event to pass on to the listener
+	 */
+	private static PublishProgressEvent forTarget(PublishTarget theTarget, PublishProgressEvent theEvent)
+	{
+		if(theEvent.getMessage().length() == 0)
+		{
+			return theEvent;
+		}
+		return new PublishProgressEvent(theEvent.getPhase(), "[" + theTarget.getItsURL() + "] " + theEvent.getMessage(), 
+										theEvent.getBytesDone(), theEvent.getBytesTotal(), 
+										theEvent.getItemsDone(), theEvent.getItemsTotal(), 
+										theEvent.getElapsedTime(), theEvent.getProgressPercentage(), theEvent.getThroughput());
+	}
+	
+	private void sendProgressUpdate(PublishProgressEvent theEvent)
+	{
+		if(itsListener != null)
+		{
+			synchronized(itsListener)
+			{
+				itsListener.updatePublishProgress(theEvent);
+			}
+		}
+	}
+
+	/**
+	 * @return the version of the last coordinated publish, or null
+	 */
+	public String getItsPublishVersion() {
+		return itsPublishVersion;
+	}
+
+	/**
+	 * @return true if the snapshot is staged on every target and then activated on all of them
+	 */
+	public boolean isItIsCoordinated() {
+		return itIsCoordinated;
+	}
+
+	/**
+	 * @param itIsCoordinated true to stage the snapshot on every target and then activate it on all of them
+	 */
+	public void setItIsCoordinated(boolean itIsCoordinated) {
+		this.itIsCoordinated = itIsCoordinated;
+	}
+
+	/**
+	 * @param itsTransportPolicy the itsTransportPolicy to set
+	 */
+	public void setItsTransportPolicy(TransportPolicy itsTransportPolicy) {
+		this.itsTransportPolicy = itsTransportPolicy;
+	}
+
+	/**
+	 * @param itsSpoolDirectory the itsSpoolDirectory to set
+	 */
+	public void setItsSpoolDirectory(File itsSpoolDirectory) {
+		this.itsSpoolDirectory = itsSpoolDirectory;
+	}
+
+	/**
+	 * @return the maximum number of targets to which the snapshot is uploaded at the same time
+	 */
+	public int getItsMaxParallel() {
+		return itsMaxParallel;
+	}
+
+	/**
+	 * @param itsMaxParallel the maximum number of targets to which the snapshot is uploaded at the same time
+	 */
+	public void setItsMaxParallel(int itsMaxParallel) {
+		this.itsMaxParallel = itsMaxParallel;
+	}
+
+	/**
+	 * @param itIsKeepingSnapshot true to keep the snapshot as the LAST_SNAPSHOT once sent
+	 */
+	public void setItIsKeepingSnapshot(boolean itIsKeepingSnapshot) {
+		this.itIsKeepingSnapshot = itIsKeepingSnapshot;
+	}
+
+	/**
+	 * @param itsSnapshotMetadata metadata to keep with the snapshot
+	 */
+	public void setItsSnapshotMetadata(Properties itsSnapshotMetadata) {
+		this.itsSnapshotMetadata = itsSnapshotMetadata;
+	}
+
+	/**
+	 * @param itsContentDigest the content digest of the snapshot, leaving out its timestamp, or null if not known
+	 * @since 1.2
+	 */
+	public void setItsContentDigest(String itsContentDigest) {
+		this.itsContentDigest = itsContentDigest;
+	}
+
+	/**
+	 * @param itIsSkippingUnchanged true to skip the targets that already hold the content
+	 * @since 1.2
+	 */
+	public void setItIsSkippingUnchanged(boolean itIsSkippingUnchanged) {
+		this.itIsSkippingUnchanged = itIsSkippingUnchanged;
+	}
+
+	/**
+	 * @param itIsUsingAcknowledged true to skip a target that cannot answer the offset query if it last acknowledged the content
+	 * @since 1.7
+	 */
+	public void setItIsUsingAcknowledged(boolean itIsUsingAcknowledged) {
+		this.itIsUsingAcknowledged = itIsUsingAcknowledged;
+	}
+
+	/**
+	 * @param itIsAdaptiveCompression true to choose the compression level from the measured upload and compression speeds
+	 * @since 1.3
+	 */
+	public void setItIsAdaptiveCompression(boolean itIsAdaptiveCompression) {
+		this.itIsAdaptiveCompression = itIsAdaptiveCompression;
+	}
+
+	/**
+	 * @return the heap use and allocation of the phases measured so far, without the images of any target
+	 * @since 1.5
+	 */
+	public PhaseMemoryProfile getItsMemoryProfile() {
+		return itsMemoryProfile;
+	}
+
+	/**
+	 * @param itsMemoryProfile the profile, holding the phases measured so far, to which the compression is added
+	 * @since 1.5
+	 */
+	public void setItsMemoryProfile(PhaseMemoryProfile itsMemoryProfile) {
+		this.itsMemoryProfile = itsMemoryProfile;
+	}
+
+	/**
+	 * Set a kept snapshot to send by the next publish, rather than compressing the report XML
+	 * @param itsKeptSnapshot the kept snapshot
+	 */
+	public void setItsKeptSnapshot(SnapshotSpool itsKeptSnapshot) {
+		this.itsKeptSnapshot = itsKeptSnapshot;
+	}
+
+	/**
+	 * @param itIsSendingImages true to send the GraphWidget images to each target
+	 */
+	public void setItIsSendingImages(boolean itIsSendingImages) {
+		this.itIsSendingImages = itIsSendingImages;
+	}
+
+	/**
+	 * @param itsImageURLSuffix the suffix added to the URL of each target for its images service
+	 */
+	public void setItsImageURLSuffix(String itsImageURLSuffix) {
+		this.itsImageURLSuffix = itsImageURLSuffix;
+	}
+
+	/**
+	 * @param itsAutoLayout the itsAutoLayout to set
+	 */
+	public void setItsAutoLayout(String itsAutoLayout) {
+		this.itsAutoLayout = itsAutoLayout;
+	}
+
+	/**
+	 * @param itsKBRef the itsKBRef to set
+	 */
+	public void setItsKBRef(KnowledgeBase itsKBRef) {
+		this.itsKBRef = itsKBRef;
+	}
+}
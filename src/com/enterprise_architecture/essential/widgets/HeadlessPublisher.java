@@ -0,0 +1,523 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.enterprise_architecture.essential.xml.XMLRenderer;
+
+import edu.stanford.smi.protege.model.KnowledgeBase;
+import edu.stanford.smi.protege.model.Project;
+
+/**
+ * Publish one or more Protege projects to the Essential Viewer Report Service from the command line, without
+ * the Protege GUI, e.g. nightly from a build agent. Each project is opened, rendered to XML once, and then
+ * compressed once and sent to each of its targets by a FanOutPublisher, with the same transport policy,
+ * spool, skipping of unchanged content and image sending as the Essential Viewer tab.
+ * <br/>
+ * Several projects, each with several targets, can be published in one invocation, so that the JVM and
+ * Protege start up only once. The projects are published one after the other.
+ * <br/>
+ * Usage: HeadlessPublisher [-properties reporttab.properties] [-spool dir] [-parallel n] [-images] [-layout name]
+ * [-coordinated] [-force] [-profile | -dryrun] -project file.pprj [-user name] [-password password | -passwordenv VARIABLE] -target url
+ * [-target url ...] [-project ...]
+ * <br/>
+ * The user and password apply to the targets that follow them. -passwordenv reads the password from an
+ * environment variable, so that it does not show in the list of processes. -force sends the snapshot even to
+ * a target that already holds the same content.
+ * <br/>
+ * -profile renders each project through a SnapshotSizeProfiler and prints the size of its snapshot and the 
+ * classes, slots and instances that take the most space in it, instead of publishing it. -dryrun renders and 
+ * compresses each project, and renders and encodes its images if -images is given, but sends nothing, and prints 
+ * the throughput of each. Neither needs a -target.
+ * <br/>
+ * The exit status is #EXIT_SUCCESS if every project was published to every target, #EXIT_PUBLISH_FAILED if a
+ * publish to any target failed, #EXIT_PROJECT_FAILED if any project could not be opened or rendered, and
+ * #EXIT_USAGE if the arguments were not valid.
+ * <br/>
+ * Unless -images is given, AWT runs headless. The GraphWidget images are rendered from the forms of the project,
+ * so -images needs a display, e.g. a virtual frame buffer on a build agent.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.FanOutPublisher FanOutPublisher
+ */
+public class HeadlessPublisher implements PublishProgressListener
+{
+	public static final int EXIT_SUCCESS = 0;
+	public static final int EXIT_USAGE = 1;
+	public static final int EXIT_PUBLISH_FAILED = 2;
+	public static final int EXIT_PROJECT_FAILED = 3;
+	
+	private static final String USAGE = "Usage: HeadlessPublisher [-properties reporttab.properties] [-spool dir] [-parallel n] [-images] [-layout name]\n" +
+										"        [-coordinated] [-force] [-profile | -dryrun] -project file.pprj [-user name] [-password password | -passwordenv VARIABLE]\n" +
+										"        -target url [-target url ...] [-project ...]";
+	private static final String PROPERTY_FILE = "reporttab.properties";
+	private static final String IMAGES_URL_PROP = "reporttab.images.url";
+	private static final String DATE_TIME_FORMAT_PROP = "reporttab.xml.datetimeformat";
+	private static final String DEFAULT_URL_SERVICE_PROP = "reporttab.url.defaultservice";
+	private static final String FANOUT_PARALLEL_PROP = "reporttab.fanout.parallel";
+	private static final String SKIP_UNCHANGED_PROP = "reporttab.skipunchanged";
+	private static final String DEFAULT_URL_SERVICE = "/reportService";
+	
+	private Properties itsProperties = new Properties();
+	private File itsSpoolDirectory = SnapshotSpool.getDefaultDirectory();
+	private int itsMaxParallel = FanOutPublisher.DEFAULT_MAX_PARALLEL;
+	private boolean itIsSendingImages = false;
+	private String itsAutoLayout = "";
+	private boolean itIsCoordinated = false;
+	private boolean itIsForcingSend = false;
+	private boolean itIsProfiling = false;
+	private boolean itIsDryRun = false;
+	
+	/**
+	 * The projects to publish, each with its targets
+	 */
+	private final List<ProjectJob> itsJobs = new ArrayList<ProjectJob>();
+	
+	/**
+	 * The last progress message printed, so that repeated messages are printed once
+	 */
+	private String itsLastMessage = "";
+	
+	/**
+	 * Publish the projects given on the command line, and exit with the outcome
+	 * @param theArgs the command line arguments
+	 */
+	public static void main(String[] theArgs)
+	{
+		HeadlessPublisher aPublisher = new HeadlessPublisher();
+		int anExitStatus;
+		try
+		{
+			aPublisher.parseArguments(theArgs);
+			if(System.getProperty("java.awt.headless") == null && !aPublisher.itIsSendingImages)
+			{
+				System.setProperty("java.awt.headless", "true");
+			}
+			anExitStatus = aPublisher.publishAll();
+		}
+		catch(IllegalArgumentException anArgEx)
+		{
+			System.err.println(anArgEx.getMessage());
+			System.err.println(USAGE);
+			anExitStatus = EXIT_USAGE;
+		}
+		System.exit(anExitStatus);
+	}
+	
+	/**
+	 * Read the command line arguments, and the properties file
+	 * @param theArgs the command line arguments
+	 * @throws IllegalArgumentException if the arguments are not valid
+	 */
+	public void parseArguments(String[] theArgs)
+	{
+		File aPropertyFile = new File(PROPERTY_FILE);
+		boolean isPropertyFileGiven = false;
+		String aSpoolDirectory = null;
+		String aParallel = null;
+		String aUser = "";
+		String aPassword = "";
+		ProjectJob aJob = null;
+		
+		for(int i = 0; i < theArgs.length; i++)
+		{
+			String anArg = theArgs[i];
+			if(anArg.equals("-images"))
+			{
+				itIsSendingImages = true;
+			}
+			else if(anArg.equals("-coordinated"))
+			{
+				itIsCoordinated = true;
+			}
+			else if(anArg.equals("-force"))
+			{
+				itIsForcingSend = true;
+			}
+			else if(anArg.equals("-profile"))
+			{
+				itIsProfiling = true;
+			}
+			else if(anArg.equals("-dryrun"))
+			{
+				itIsDryRun = true;
+			}
+			else if(i + 1 >= theArgs.length)
+			{
+				throw new IllegalArgumentException("Missing value for " + anArg);
+			}
+			else if(anArg.equals("-properties"))
+			{
+				aPropertyFile = new File(theArgs[++i]);
+				isPropertyFileGiven = true;
+			}
+			else if(anArg.equals("-spool"))
+			{
+				aSpoolDirectory = theArgs[++i];
+			}
+			else if(anArg.equals("-parallel"))
+			{
+				aParallel = theArgs[++i];
+			}
+			else if(anArg.equals("-layout"))
+			{
+				itsAutoLayout = theArgs[++i];
+			}
+			else if(anArg.equals("-project"))
+			{
+				aJob = new ProjectJob(theArgs[++i]);
+				itsJobs.add(aJob);
+			}
+			else if(anArg.equals("-user"))
+			{
+				aUser = theArgs[++i];
+			}
+			else if(anArg.equals("-password"))
+			{
+				aPassword = theArgs[++i];
+			}
+			else if(anArg.equals("-passwordenv"))
+			{
+				String aVariable = theArgs[++i];
+				aPassword = System.getenv(aVariable);
+				if(aPassword == null)
+				{
+					throw new IllegalArgumentException("Environment variable " + aVariable + " is not set");
+				}
+			}
+			else if(anArg.equals("-target"))
+			{
+				if(aJob == null)
+				{
+					throw new IllegalArgumentException("-target " + theArgs[i + 1] + " must follow a -project");
+				}
+				aJob.itsTargets.add(new PublishTarget(theArgs[++i], aUser, aPassword));
+			}
+			else
+			{
+				throw new IllegalArgumentException("Unknown argument " + anArg);
+			}
+		}
+		
+		if(itsJobs.isEmpty())
+		{
+			throw new IllegalArgumentException("No -project given");
+		}
+		for(ProjectJob aProjectJob : itsJobs)
+		{
+			if(aProjectJob.itsTargets.isEmpty() && !itIsProfiling && !itIsDryRun)
+			{
+				throw new IllegalArgumentException("No -target given for " + aProjectJob.itsProjectFile);
+			}
+		}
+		
+		loadProperties(aPropertyFile, isPropertyFileGiven);
+		itsSpoolDirectory = (aSpoolDirectory != null) ? new File(aSpoolDirectory) : SnapshotSpool.getDefaultDirectory();
+		try
+		{
+			String aValue = (aParallel != null) ? aParallel : itsProperties.getProperty(FANOUT_PARALLEL_PROP, String.valueOf(itsMaxParallel));
+			itsMaxParallel = Math.max(1, Integer.parseInt(aValue.trim()));
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			throw new IllegalArgumentException("Invalid number of parallel uploads: " + aParallel);
+		}
+		
+		// Each target needs the full URL of its report service
+		String aService = itsProperties.getProperty(DEFAULT_URL_SERVICE_PROP, DEFAULT_URL_SERVICE);
+		for(ProjectJob aProjectJob : itsJobs)
+		{
+			for(PublishTarget aTarget : aProjectJob.itsTargets)
+			{
+				aTarget.setItsURL(buildPublishURL(aTarget.getItsURL(), aService));
+			}
+		}
+	}
+	
+	/**
+	 * Publish each of the projects in turn
+	 * @return the exit status
+	 */
+	public int publishAll()
+	{
+		int anExitStatus = EXIT_SUCCESS;
+		for(ProjectJob aJob : itsJobs)
+		{
+			anExitStatus = Math.max(anExitStatus, publish(aJob));
+		}
+		return anExitStatus;
+	}
+	
+	/**
+	 * Open, render and publish one project to each of its targets
+	 * @param theJob the project and its targets
+	 * @return the exit status for the project
+	 */
+	private int publish(ProjectJob theJob)
+	{
+		System.out.println("Opening project " + theJob.itsProjectFile);
+		Collection<?> anErrors = new ArrayList<Object>();
+		Project aProject = null;
+		try
+		{
+			aProject = new Project(theJob.itsProjectFile, anErrors);
+			KnowledgeBase aKB = aProject.getKnowledgeBase();
+			if(!anErrors.isEmpty() || aKB == null)
+			{
+				System.out.println("Could not open project " + theJob.itsProjectFile + ":");
+				for(Iterator<?> anErrorIt = anErrors.iterator(); anErrorIt.hasNext(); )
+				{
+					System.out.println("  " + anErrorIt.next());
+				}
+				return EXIT_PROJECT_FAILED;
+			}
+			if(itIsProfiling)
+			{
+				return profile(aKB);
+			}
+			
+			// Render the repository once, digesting the content as it is written
+			long aStartTime = System.currentTimeMillis();
+			StringWriter anXMLString = new StringWriter();
+			SnapshotDigestWriter aDigestWriter = new SnapshotDigestWriter(anXMLString);
+			XMLRenderer anXMLRender = new XMLRenderer(aKB, new CancellableWriter(aDigestWriter, new AtomicBoolean(false)));
+			String aTimeStampFormat = itsProperties.getProperty(DATE_TIME_FORMAT_PROP);
+			if(aTimeStampFormat != null && aTimeStampFormat.length() > 0)
+			{
+				anXMLRender.setItsTimeStampFormatString(aTimeStampFormat);
+			}
+			Object aRenderEvent = PublishFlightRecorder.beginPhase(HeadlessPublisher.class.getSimpleName(), PublishPhase.RENDER, null);
+			PhaseMemoryProfile aMemoryProfile = new PhaseMemoryProfile();
+			aMemoryProfile.start(PhaseMemoryProfile.RENDER);
+			anXMLRender.render();
+			aMemoryProfile.end();
+			PublishFlightRecorder.endPhase(aRenderEvent);
+			String aContentDigest = aDigestWriter.getDigest();
+			aMemoryProfile.start(PhaseMemoryProfile.COPY);
+			String aReportXML = anXMLString.toString();
+			anXMLString = null;
+			aMemoryProfile.end();
+			long aRenderTime = System.currentTimeMillis() - aStartTime;
+			PublishMetrics.getInstance().recordRender(aRenderTime, aReportXML.length());
+			System.out.println("Rendered " + aReportXML.length() + " characters in " + aRenderTime + "ms");
+			if(itIsDryRun)
+			{
+				return dryRun(aKB, aReportXML, aRenderTime, aMemoryProfile);
+			}
+			
+			// Compress once, send to every target
+			FanOutPublisher aFanOut = new FanOutPublisher(this);
+			aFanOut.setItsTransportPolicy(TransportPolicy.fromProperties(itsProperties));
+			aFanOut.setItsSpoolDirectory(itsSpoolDirectory);
+			aFanOut.setItsMaxParallel(itsMaxParallel);
+			aFanOut.setItIsCoordinated(itIsCoordinated);
+			aFanOut.setItsContentDigest(aContentDigest);
+			aFanOut.setItIsSkippingUnchanged(!itIsForcingSend && Boolean.valueOf(itsProperties.getProperty(SKIP_UNCHANGED_PROP, "true").trim()).booleanValue());
+			aFanOut.setItIsUsingAcknowledged(Boolean.valueOf(itsProperties.getProperty(AcknowledgedDigests.LOCAL_SKIP_PROP, "false").trim()).booleanValue());
+			aFanOut.setItIsAdaptiveCompression(Boolean.valueOf(itsProperties.getProperty(CompressionAdvisor.ADAPTIVE_PROP, "false").trim()).booleanValue());
+			aFanOut.setItIsSendingImages(itIsSendingImages);
+			aFanOut.setItsImageURLSuffix(itsProperties.getProperty(IMAGES_URL_PROP, ""));
+			aFanOut.setItsAutoLayout(itsAutoLayout);
+			aFanOut.setItsKBRef(aKB);
+			aFanOut.setItsMemoryProfile(aMemoryProfile);
+			boolean isSuccess = aFanOut.publish(aReportXML, theJob.itsTargets);
+			printMemoryProfile(aMemoryProfile);
+			
+			for(PublishTarget aTarget : theJob.itsTargets)
+			{
+				if(aTarget.isItIsSuccess())
+				{
+					System.out.println("Published " + theJob.itsProjectFile + " to " + aTarget.getItsURL());
+				}
+				else
+				{
+					System.out.println("Failed to publish " + theJob.itsProjectFile + " to " + aTarget.getItsURL() + ", code " + aTarget.getItsReturnCode());
+				}
+			}
+			return isSuccess ? EXIT_SUCCESS : EXIT_PUBLISH_FAILED;
+		}
+		catch(Exception anEx)
+		{
+			System.out.println("Could not publish project " + theJob.itsProjectFile + ": " + anEx);
+			anEx.printStackTrace(System.out);
+			return EXIT_PROJECT_FAILED;
+		}
+		finally
+		{
+			if(aProject != null)
+			{
+				aProject.dispose();
+			}
+		}
+	}
+	
+	/**
+	 * Render the repository through a SnapshotSizeProfiler and print what takes the most space in the snapshot
+	 * @param theKB the repository
+	 * @return the exit status for the project
+	 * @throws Exception if the repository cannot be rendered
+	 */
+	private int profile(KnowledgeBase theKB) throws Exception
+	{
+		SnapshotSizeProfiler aProfiler = new SnapshotSizeProfiler(SnapshotSizeProfiler.getTopCount(itsProperties));
+		XMLRenderer anXMLRender = new XMLRenderer(theKB, aProfiler);
+		String aTimeStampFormat = itsProperties.getProperty(DATE_TIME_FORMAT_PROP);
+		if(aTimeStampFormat != null && aTimeStampFormat.length() > 0)
+		{
+			anXMLRender.setItsTimeStampFormatString(aTimeStampFormat);
+		}
+		anXMLRender.render();
+		aProfiler.finish();
+		System.out.println(aProfiler.getReport(EasReportTab.PROFILE_TOTAL_MSG, EasReportTab.PROFILE_CLASSES_MSG, EasReportTab.PROFILE_SLOTS_MSG, EasReportTab.PROFILE_FRAMES_MSG));
+		return EXIT_SUCCESS;
+	}
+	
+	/**
+	 * Compress the rendered snapshot, and render and encode the images if they are to be sent, without sending
+	 * anything, and print the throughput of each phase
+	 * @param theKB the repository
+	 * @param theReportXML the rendered snapshot
+	 * @param theRenderTime the time, in milliseconds, taken to render it
+	 * @param theMemoryProfile the heap use and allocation of the render
+	 * @return the exit status for the project
+	 */
+	private int dryRun(KnowledgeBase theKB, String theReportXML, long theRenderTime, PhaseMemoryProfile theMemoryProfile)
+	{
+		DryRunPublisher aDryRun = new DryRunPublisher(this);
+		aDryRun.setItsSpoolDirectory(itsSpoolDirectory);
+		aDryRun.setItIsSendingImages(itIsSendingImages);
+		aDryRun.setItsAutoLayout(itsAutoLayout);
+		aDryRun.setItsKBRef(theKB);
+		aDryRun.setItsMemoryProfile(theMemoryProfile);
+		aDryRun.setRender(theKB.getFrameCount(), theRenderTime);
+		boolean isSuccess = aDryRun.run(theReportXML);
+		for(String aLine : aDryRun.getSummary(EasReportTab.DRY_RUN_RENDER_MSG, EasReportTab.DRY_RUN_COMPRESS_MSG, EasReportTab.DRY_RUN_IMAGES_MSG))
+		{
+			System.out.println(aLine);
+		}
+		printMemoryProfile(theMemoryProfile);
+		return isSuccess ? EXIT_SUCCESS : EXIT_PUBLISH_FAILED;
+	}
+	
+	/**
+	 * Print the peak heap and allocation of each phase, warning of any that came close to the maximum heap
+	 * @param theMemoryProfile the phases
+	 */
+	private static void printMemoryProfile(PhaseMemoryProfile theMemoryProfile)
+	{
+		for(PhaseMemoryProfile.PhaseMemory aPhase : theMemoryProfile.getPhases())
+		{
+			System.out.println((aPhase.isNearLimit() ? EasReportTab.MEMORY_WARNING_MSG : EasReportTab.MEMORY_PROFILE_MSG) + aPhase);
+		}
+	}
+	
+	/**
+	 * Print each new progress message
+	 * @param theEvent the progress event
+	 */
+	public synchronized void updatePublishProgress(PublishProgressEvent theEvent)
+	{
+		String aMessage = theEvent.getMessage();
+		if(aMessage != null && aMessage.trim().length() > 0 && !aMessage.equals(itsLastMessage))
+		{
+			System.out.println(aMessage.trim());
+			itsLastMessage = aMessage;
+		}
+	}
+	
+	/**
+	 * Load the tab properties, for the transport policy and the other settings shared with the tab
+	 * @param theFile the properties file
+	 * @param isRequired true if the file was named on the command line, and so must exist
+	 */
+	private void loadProperties(File theFile, boolean isRequired)
+	{
+		if(!theFile.exists() && !isRequired)
+		{
+			return;
+		}
+		FileInputStream aPropFile = null;
+		try
+		{
+			aPropFile = new FileInputStream(theFile);
+			itsProperties.load(aPropFile);
+		}
+		catch(IOException anIOEx)
+		{
+			throw new IllegalArgumentException("Cannot read properties file " + theFile + ": " + anIOEx);
+		}
+		finally
+		{
+			try
+			{
+				if(aPropFile != null)
+				{
+					aPropFile.close();
+				}
+			}
+			catch(IOException anIOEx)
+			{
+				// just continue
+			}
+		}
+	}
+	
+	/**
+	 * Add the Report Service to a URL that does not already name it, as the tab does
+	 * @param theURL the URL given for the target
+	 * @param theService the name of the Report Service
+	 * @return the full URL of the Report Service
+	 */
+	private static String buildPublishURL(String theURL, String theService)
+	{
+		String aCleanURL = theURL.trim();
+		if(aCleanURL.endsWith(theService))
+		{
+			return aCleanURL;
+		}
+		if(aCleanURL.endsWith("/"))
+		{
+			aCleanURL = aCleanURL.substring(0, aCleanURL.length() - 1);
+		}
+		return aCleanURL.concat(theService);
+	}
+	
+	/**
+	 * A project to publish and its targets
+	 */
+	private static class ProjectJob
+	{
+		private final String itsProjectFile;
+		private final List<PublishTarget> itsTargets = new ArrayList<PublishTarget>();
+		
+		private ProjectJob(String theProjectFile)
+		{
+			itsProjectFile = theProjectFile;
+		}
+	}
+}
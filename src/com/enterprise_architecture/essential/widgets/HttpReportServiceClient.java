@@ -36,20 +36,30 @@ package com.enterprise_architecture.essential.widgets;
 import java.awt.Dimension;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.zip.GZIPOutputStream;
+import java.util.Properties;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.imageio.ImageIO;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
@@ -60,12 +70,16 @@ import org.apache.http.auth.AuthScope;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.conn.params.ConnRoutePNames;
-import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.HttpEntityWrapper;
 import org.apache.http.entity.mime.MultipartEntity;
 import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.protocol.HTTP;
+import org.apache.http.util.EntityUtils;
 
 import edu.stanford.smi.protege.model.Cls;
 import edu.stanford.smi.protege.model.KnowledgeBase;
@@ -90,6 +104,24 @@ import com.nwoods.jgo.layout.JGoLayeredDigraphAutoLayout;
  * These phrases are controlled by the itsLoginErrorPhrase and itsFormLoginPhrase attributes that can be controlled by a
  * property in the 'host' application.
  * @author Jonathan W. Carter <jonathan.carter@e-asolutions.com>
+ * @version 3.19 - A dry run is not recorded in the PublishMetrics or the CompressionAdvisor<br/>
+ * @version 3.18 - The deadline of a request starts once its body has been sent<br/>
+ * @version 3.17 - Compression level recorded in the trace<br/>
+ * @version 3.16 - The Report Service decides whether the content is unchanged<br/>
+ * @version 3.15 - Deadline for each request<br/>
+ * @version 3.14 - Network timing of each request<br/>
+ * @version 3.13 - Dry run<br/>
+ * @version 3.12 - Peak heap and allocation per phase<br/>
+ * @version 3.11 - Structured trace of each publish<br/>
+ * @version 3.10 - Java Flight Recorder events<br/>
+ * @version 3.9 - Per-phase timings and counts recorded in the PublishMetrics<br/>
+ * @version 3.8 - Adaptive compression level<br/>
+ * @version 3.7 - Skip the upload of unchanged content<br/>
+ * @version 3.6 - Stage under a publish version, then activate or abort<br/>
+ * @version 3.5 - Keep the last snapshot and resend a kept snapshot<br/>
+ * @version 3.4 - Resumable image phase with a durable checkpoint per snapshot<br/>
+ * @version 3.3 - Resumable, chunked upload of the snapshot from a spool file<br/>
+ * @version 3.2 - Typed progress events for each publish phase<br/>
  * @version 3.1	- Tuned rendering and transmission of images for large sets<br/>
  * @version 3.0 - Added progress tracking and switches on sending of images<br/>
  * @version 2.3 - Fixed empty image bug and included timestamp in XML snapshot (02.11.2010)<br/>
@@ -103,6 +135,39 @@ public class HttpReportServiceClient
 	private static final int SC_OK = 200;
 	public static final int SC_INTERNAL_SERVER_ERROR = 500;
 	public static final int SC_BAD_REQUEST = 400;
+	public static final int SC_ACCEPTED = 202;
+	public static final int SC_CONFLICT = 409;
+	
+	/**
+	 * Headers of the resumable upload protocol. A Report Service that supports resumable uploads answers a GET 
+	 * carrying the #UPLOAD_ID_HEADER with the #UPLOAD_OFFSET_HEADER that it holds. Each chunk is then a POST 
+	 * carrying the upload id, its offset and the #UPLOAD_LENGTH_HEADER of the whole snapshot.
+	 * @since 3.3
+	 */
+	public static final String UPLOAD_ID_HEADER = "X-Upload-Id";
+	public static final String UPLOAD_OFFSET_HEADER = "X-Upload-Offset";
+	public static final String UPLOAD_LENGTH_HEADER = "X-Upload-Length";
+	
+	/**
+	 * Headers and actions of the staged publish protocol. If a publish version is set, every request carries it in the
+	 * #PUBLISH_VERSION_HEADER, and the Report Service stages the snapshot and images under that version rather than 
+	 * making them live. The staged version is made live by #sendPublishAction with #ACTIVATE_ACTION, or discarded 
+	 * with #ABORT_ACTION.
+	 * @since 3.6
+	 */
+	public static final String PUBLISH_VERSION_HEADER = "X-Publish-Version";
+	public static final String PUBLISH_ACTION_HEADER = "X-Publish-Action";
+	public static final String ACTIVATE_ACTION = "activate";
+	public static final String ABORT_ACTION = "abort";
+	
+	/**
+	 * Headers with which the content digest of the snapshot is sent, and the Report Service says that it 
+	 * already holds that content. If the answer to the offset query carries the #SNAPSHOT_UNCHANGED_HEADER, 
+	 * the upload is skipped and the publish reported as #isItIsUnchanged.
+	 * @since 3.7
+	 */
+	public static final String CONTENT_DIGEST_HEADER = "X-Snapshot-Digest";
+	public static final String SNAPSHOT_UNCHANGED_HEADER = "X-Snapshot-Unchanged";
 
 	private String itsURL;
 	private String itsReportXML;
@@ -112,7 +177,104 @@ public class HttpReportServiceClient
 	
 	// 22.10.2009 JWC - Add new member for compression reportXML to prevent passing
 	// 					large amounts of data on the stack.
-	private ByteArrayEntity itsCompressedXML;
+	private SnapshotSpool itsSnapshotSpool = null;
+	
+	/**
+	 * The directory in which the compressed snapshot is spooled
+	 * @since 3.3
+	 */
+	private File itsSpoolDirectory = SnapshotSpool.getDefaultDirectory();
+	
+	/**
+	 * Name under which the last snapshot is kept in the spool directory, whatever the outcome of its publish
+	 * @since 3.5
+	 */
+	public static final String LAST_SNAPSHOT = "last-snapshot";
+	
+	/**
+	 * Is the spool owned by this client, having been compressed from itsReportXML, rather than a kept snapshot
+	 * that is being resent? Should an owned spool be kept as the LAST_SNAPSHOT after it has been sent, and 
+	 * with what metadata?
+	 * @since 3.5
+	 */
+	private boolean itIsOwningSpool = true;
+	private boolean itIsKeepingSnapshot = false;
+	private Properties itsSnapshotMetadata = new Properties();
+	
+	/**
+	 * Identifies the content that the images belong to, and the version under which they are staged, for the image checkpoint.
+	 * It is the content digest, which leaves out the render timestamp, so that a publish of the same content after a 
+	 * failed image phase resumes the images. Without a content digest it is the digest of the compressed snapshot.
+	 * @since 3.4
+	 */
+	private String itsSnapshotId = "";
+	
+	/**
+	 * The version under which the snapshot and images are staged, or null to make them live as they are received
+	 * @since 3.6
+	 */
+	private String itsPublishVersion = null;
+	
+	/**
+	 * The content digest of the snapshot, or null if not known, whether the upload is skipped if the content is 
+	 * unchanged, and whether it was
+	 * @since 3.7
+	 */
+	private String itsContentDigest = null;
+	private boolean itIsSkippingUnchanged = true;
+	private boolean itIsUnchanged = false;
+	
+	/**
+	 * Whether the AcknowledgedDigests are trusted when the Report Service cannot say whether it holds the content
+	 * @since 3.16
+	 */
+	private boolean itIsUsingAcknowledged = false;
+	
+	/**
+	 * Whether the compression level is chosen by the CompressionAdvisor, from the measured upload throughput to 
+	 * the URL and the measured speed of compression, rather than always the default
+	 * @since 3.8
+	 */
+	private boolean itIsAdaptiveCompression = false;
+	
+	/**
+	 * Checkpoint of the images acknowledged for this snapshot, null if no checkpoint is kept. Sending the same 
+	 * snapshot again skips the images already acknowledged.
+	 * @since 3.4
+	 */
+	private ImageCheckpoint itsImageCheckpoint = null;
+	
+	/**
+	 * The images that failed to send, and why, and the number skipped as already acknowledged
+	 * @since 3.4
+	 */
+	private List<String> itsImageFailures = new ArrayList<String>();
+	private String itsImageFailureReason = "";
+	private int itsImageSkippedCount = 0;
+	private static final int MAX_REPORTED_IMAGE_FAILURES = 20;
+	
+	/**
+	 * Time spent, in nanoseconds, rendering, encoding and uploading the images of the image phase, and the bytes 
+	 * of the encoded images uploaded
+	 * @since 3.9
+	 */
+	private long itsImageRenderNanos = 0;
+	private long itsImageEncodeNanos = 0;
+	private long itsImageUploadNanos = 0;
+	private long itsImageUploadedBytes = 0;
+	
+	/**
+	 * Whether this is a dry run, which sends nothing, and the time taken to compress the snapshot, the length of the
+	 * compressed snapshot and the bytes of the encoded images. A dry run makes no login, keeps no spool, writes no 
+	 * image checkpoint and records nothing in the PublishMetrics or the CompressionAdvisor, so it makes no 
+	 * difference to the next publish. It is run by the DryRunPublisher.
+	 * @since 3.13
+	 */
+	private boolean itIsDryRun = false;
+	private long itsCompressTime = 0;
+	private long itsCompressedLength = 0;
+	private long itsUncompressedLength = 0;
+	private long itsImageEncodedBytes = 0;
 	
 	// 19.11.2009 JWC - Added to send the GraphWidget images.
 	private String itsImagesURL;
@@ -122,7 +284,165 @@ public class HttpReportServiceClient
 	private static final String IMAGE_PARAM = "image";
 	
 	// 23.05.2013 JWC - Added listener for progress updates
-	private ProgressListener itsListener = null;
+	private PublishProgressListener itsListener = null;
+	
+	/**
+	 * The publish phase currently being performed and when it started
+	 * @since 3.2
+	 */
+	private PublishPhase itsPhase = PublishPhase.COMPRESS;
+	private long itsPhaseStartTime = System.currentTimeMillis();
+	
+	/**
+	 * The Java Flight Recorder event of the current phase, null if there is none. Each phase, and the rendering, 
+	 * encoding and upload of each graph image, is emitted as an event by the PublishFlightRecorder.
+	 * @since 3.10
+	 */
+	private Object itsPhaseEvent = null;
+	
+	/**
+	 * The record of this publish, with the HTTP status of every request and the notes on its failures, for the 
+	 * PublishTraceLog
+	 * @since 3.11
+	 */
+	private final PublishTrace itsTrace = new PublishTrace();
+	
+	/**
+	 * The heap use and allocation of the phases of this publish, including any measured before it reached this client.
+	 * A warning is shown if a phase comes close to the maximum heap.
+	 * @since 3.12
+	 */
+	private PhaseMemoryProfile itsMemoryProfile = new PhaseMemoryProfile();
+	
+	/**
+	 * The network timing of the requests of this publish: the DNS lookup, TCP connect, TLS handshake, upload, server 
+	 * wait and time to first byte of each. The requests of each kind are summarised in the status area at the end of 
+	 * each phase, and each request, and the totals, are recorded in the PublishTrace.
+	 * @since 3.14
+	 */
+	private final NetworkTiming itsNetworkTiming = new NetworkTiming();
+	private static final int MAX_RESPONSE_EXCERPT = 1000;
+	
+	/**
+	 * Moving average upload rate of the XML snapshot, in bytes per second
+	 * @since 3.2
+	 */
+	private double itsUploadRate = PublishProgressEvent.UNKNOWN;
+	
+	/**
+	 * Set when the publish has been cancelled. The request that is currently executing
+	 * is held so that it can be aborted.
+	 * @since 3.2
+	 */
+	private volatile boolean itIsCancelled = false;
+	private volatile HttpRequestBase itsActiveRequest = null;
+	
+	/**
+	 * Timeouts and retries for the requests, and the number of retries made so far in this publish
+	 * @since 3.2
+	 */
+	private TransportPolicy itsTransportPolicy = new TransportPolicy();
+	private int itsRetryCount = 0;
+	
+	private static final long RETRY_SLEEP_INTERVAL = 100;
+	
+	/**
+	 * Aborts each request that has not received its response by the deadline of the TransportPolicy
+	 */
+	private static final ScheduledThreadPoolExecutor DEADLINE_TIMER = new ScheduledThreadPoolExecutor(1, new ThreadFactory()
+	{
+		public Thread newThread(Runnable theRunnable)
+		{
+			Thread aThread = new Thread(theRunnable, "Essential request deadline");
+			aThread.setDaemon(true);
+			return aThread;
+		}
+	});
+	static
+	{
+		DEADLINE_TIMER.setRemoveOnCancelPolicy(true);
+	}
+	
+	/**
+	 * The deadline of one attempt of a request, which aborts the request if it has not received its response
+	 * in time
+	 * @since 3.18
+	 */
+	private static class RequestDeadline
+	{
+		private final HttpRequestBase itsRequest;
+		private final int itsDeadline;
+		private final AtomicBoolean itIsExpired = new AtomicBoolean(false);
+		private ScheduledFuture<?> itsAbort = null;
+		private boolean itIsStopped = false;
+		
+		private RequestDeadline(HttpRequestBase theRequest, int theDeadline)
+		{
+			itsRequest = theRequest;
+			itsDeadline = theDeadline;
+		}
+		
+		/**
+		 * Start the deadline, unless there is none or the attempt is already over
+		 */
+		private synchronized void start()
+		{
+			if(itsDeadline <= 0 || itIsStopped || itsAbort != null)
+			{
+				return;
+			}
+			itsAbort = DEADLINE_TIMER.schedule(new Runnable()
+			{
+				public void run()
+				{
+					itIsExpired.set(true);
+					itsRequest.abort();
+				}
+			}, itsDeadline, TimeUnit.MILLISECONDS);
+		}
+		
+		/**
+		 * Stop the deadline once the attempt is over
+		 */
+		private synchronized void stop()
+		{
+			itIsStopped = true;
+			if(itsAbort != null)
+			{
+				itsAbort.cancel(false);
+			}
+		}
+		
+		/**
+		 * @return true if the request was aborted because it missed its deadline
+		 */
+		private boolean isExpired()
+		{
+			return itIsExpired.get();
+		}
+	}
+	
+	/**
+	 * The body of a request, which starts the deadline of the request once it has been sent
+	 * @since 3.18
+	 */
+	private static class DeadlineEntity extends HttpEntityWrapper
+	{
+		private final RequestDeadline itsDeadline;
+		
+		private DeadlineEntity(HttpEntity theBody, RequestDeadline theDeadline)
+		{
+			super(theBody);
+			itsDeadline = theDeadline;
+		}
+		
+		@Override
+		public void writeTo(OutputStream theOutput) throws IOException
+		{
+			super.writeTo(theOutput);
+			itsDeadline.start();
+		}
+	}
 	
 	// 13.06.2013 JWC - Added to support proxies
 	private String itsProxyHost = "";
@@ -157,6 +477,16 @@ public class HttpReportServiceClient
 	 * @param theListener the object listening for progress update messages
 	 */
 	public HttpReportServiceClient(ProgressListener theListener)
+	{
+		this(ProgressListenerAdapter.adapt(theListener));
+	}
+	
+	/**
+	 * Simple constructor - initialise everything.
+	 * @param theListener the object listening for progress events
+	 * @since 3.2
+	 */
+	public HttpReportServiceClient(PublishProgressListener theListener)
 	{
 		itsURL = "";
 		itsReportXML = "";
@@ -176,6 +506,18 @@ public class HttpReportServiceClient
 	 * @param theListener the object listening for progress update messages
 	 */
 	public HttpReportServiceClient(String theURL, String theXML, ProgressListener theListener)
+	{
+		this(theURL, theXML, ProgressListenerAdapter.adapt(theListener));
+	}
+	
+	/**
+	 * Construct and intialise with specified parameters
+	 * @param theURL the URL of the ReportService
+	 * @param theXML the XML document containing the knowledgebase
+	 * @param theListener the object listening for progress events
+	 * @since 3.2
+	 */
+	public HttpReportServiceClient(String theURL, String theXML, PublishProgressListener theListener)
 	{
 		itsURL = theURL;
 		itsReportXML = theXML;
@@ -220,29 +562,43 @@ public class HttpReportServiceClient
 		String aReportServiceURL = itsURL;
 		DefaultHttpClient aClient = null;
 		HttpResponse aResult = null;
+		long anUploadedBytes = 0;
 				
 		// Create an HTTP connection using this URL
 		try
 		{
 			// Use the member variable
-			aClient = new DefaultHttpClient();
+			aClient = createHttpClient();
 			
-			// If set, add proxy settings
-			if(itsProxyHost.length() > 0)
+			// Compress the XML - 23.10.2009 JWC
+			// unless resending a kept snapshot
+			if(itIsOwningSpool)
 			{
-				HttpHost aProxyServer = new HttpHost(itsProxyHost, itsProxyPort);
-				aClient.getParams().setParameter(ConnRoutePNames.DEFAULT_PROXY, aProxyServer);
+				startPhase(PublishPhase.COMPRESS);
+				compressXML();
+				long aSnapshotLength = itsSnapshotSpool.getUncompressedLength();
+				sendProgressUpdate(new PublishProgressEvent(PublishPhase.COMPRESS, "", aSnapshotLength, aSnapshotLength, 
+															PublishProgressEvent.UNKNOWN, PublishProgressEvent.UNKNOWN, 
+															getPhaseElapsedTime(), 100));
 			}
+			itsSnapshotId = (itsContentDigest != null ? itsContentDigest : itsSnapshotSpool.getItsDigest()) 
+							+ (itsPublishVersion != null ? "/" + itsPublishVersion : "");
+			itsTrace.setSnapshot(itIsOwningSpool ? itsReportXML.length() : -1, itsSnapshotSpool.getItsLength());
+			checkCancelled();
 			
-			HttpPost aPost = new HttpPost(aReportServiceURL);
+			// A dry run goes no further than the compression
+			if(itIsDryRun)
+			{
+				sendProgressUpdate("", 100);
+				isSuccess = true;
+				return isSuccess;
+			}
 			
-			// Compress the XML - 23.10.2009 JWC
-			compressXML();
+			// The Report Service says whether it holds this content, in its answer to the offset query
+			itIsUnchanged = false;
 			
-			// Put it in the post message
-			aPost.setEntity(itsCompressedXML);
-						
 			// Set authentication if required
+			startPhase(PublishPhase.AUTH);
 			setAuthCredentials(aClient, itsURL);
 			
 			// Test for and if required, do Form login
@@ -260,6 +616,7 @@ public class HttpReportServiceClient
 				// Continue with sending, using the BASIC AUTH or nothing
 				//System.out.println("Form Login NOT required");
 			}
+			recordPhase(TimedPhase.LOGIN_PROBE, getPhaseElapsedTime());
 			
 			if(isLoginSuccess != SC_OK)
 			{
@@ -270,35 +627,68 @@ public class HttpReportServiceClient
 			else
 			{
 				//Update progress
+				sendProgressUpdate("", 100);
+				startPhase(PublishPhase.UPLOAD_XML);
 				sendProgressUpdate(EasReportTab.SENDING_XML_MSG, 0);
 				
-				// execute the request
-				aResult = aClient.execute(aPost);
-				StatusLine aStatus = aResult.getStatusLine();
+				// Use a resumable upload if the Report Service supports it
+				long anAckedOffset = -1;
+				if(itsTransportPolicy.isItsResumableUpload())
+				{
+					anAckedOffset = queryUploadOffset(aClient, aReportServiceURL);
+				}
+				
+				// Only if the service could not answer, and if switched on, trust what the URL last acknowledged
+				if(anAckedOffset < 0 && itIsUsingAcknowledged && isSkippable())
+				{
+					itIsUnchanged = itsContentDigest.equals(AcknowledgedDigests.getAcknowledged(itsSpoolDirectory, itsURL));
+				}
 				
-				// Service returns an HTTP 200 if success
-				if(aStatus.getStatusCode() == SC_OK)
+				// The Report Service already holds this content
+				if(itIsUnchanged)
 				{
 					isSuccess = true;
-					aResult.getEntity().consumeContent();
-					// Instrumentation trace
-					//System.out.println("Success from server:");
-					// Should be 0 on success.
-					//System.out.println("Content length = " + aResult.getEntity().getContentLength());					
+					sendProgressUpdate(EasReportTab.UNCHANGED_MSG, 100);
 				}
-				
-				else // or 500 on error
+				else
 				{
-					isSuccess = false;
-					setItsReturnCode(aStatus.getStatusCode());
-					sendProgressUpdate("", 100);
+					// execute the request
+					if(anAckedOffset >= 0)
+					{
+						aResult = sendSnapshotChunks(aClient, aReportServiceURL, anAckedOffset);
+					}
+					else
+					{
+						aResult = sendSnapshot(aClient, aReportServiceURL);
+					}
+					StatusLine aStatus = aResult.getStatusLine();
+					recordPhase(TimedPhase.UPLOAD_XML, getPhaseElapsedTime());
+					anUploadedBytes = itsSnapshotSpool.getItsLength() - Math.max(0, anAckedOffset);
+				
+					// Service returns an HTTP 200 if success
+					if(aStatus.getStatusCode() == SC_OK)
+					{
+						isSuccess = true;
+						aResult.getEntity().consumeContent();
+						
+						// Measure the link, for choosing the compression level of later publishes
+						CompressionAdvisor.recordUpload(itsSpoolDirectory, itsURL, itsUploadRate);
+						// Instrumentation trace
+						//System.out.println("Success from server:");
+						// Should be 0 on success.
+						//System.out.println("Content length = " + aResult.getEntity().getContentLength());					
+					}
+				
+					else // or 500 on error
+					{
+						isSuccess = false;
+						setItsReturnCode(aStatus.getStatusCode());
+						sendProgressUpdate("", 100);
 					
-					// Leave trace in to aid with form-login troubleshooting
-					System.out.println("In failure HTTP code block. Http Code = " + aStatus.getStatusCode());
-					System.out.println("Content length = " + aResult.getEntity().getContentLength());
-					System.out.println("Response from server= ");
-					aResult.getEntity().writeTo(System.out);
-					aResult.getEntity().consumeContent();
+						// Leave trace in the publish trace to aid with form-login troubleshooting
+						itsTrace.addNote("Snapshot upload failed. HTTP " + aStatus.getStatusCode() + ", content length " 
+										 + aResult.getEntity().getContentLength() + ". Response from server: " + readExcerpt(aResult.getEntity()));
+					}
 				}
 			}
 		}
@@ -314,6 +704,83 @@ public class HttpReportServiceClient
 			// Release all the resources
 			//sendProgressUpdate(EasReportTab.FINISHING_SEND_MSG, 100);
 			aClient.getConnectionManager().shutdown();
+			releaseSnapshotSpool();
+			if(itIsCancelled)
+			{
+				isSuccess = false;
+				setItsReturnCode(EasReportTab.PUBLISH_CANCELLED);
+			}
+			if(!itIsDryRun)
+			{
+				PublishTargetMetrics aMetrics = PublishMetrics.getInstance().getTarget(itsURL);
+				aMetrics.recordSnapshot(isSuccess || (itIsUnchanged && !itIsCancelled), itIsUnchanged, anUploadedBytes, 
+										(anUploadedBytes > 0) ? itsUploadRate : PublishProgressEvent.UNKNOWN, itsReturnCode);
+			}
+			itsTrace.setUpload(anUploadedBytes, (anUploadedBytes > 0) ? itsUploadRate : PublishProgressEvent.UNKNOWN);
+			endPhase();
+		}
+		return isSuccess;
+	}
+	
+	/**
+	 * Ask the Report Service to activate, or abort, the snapshot and images staged under itsPublishVersion.
+	 * Both actions are idempotent, so they are retried like any other idempotent request.
+	 * @param theAction #ACTIVATE_ACTION or #ABORT_ACTION
+	 * @return true if the Report Service performed the action
+	 * @since 3.6
+	 */
+	public boolean sendPublishAction(String theAction)
+	{
+		boolean isSuccess = false;
+		DefaultHttpClient aClient = null;
+		try
+		{
+			aClient = createHttpClient();
+			startPhase(PublishPhase.ACTIVATE);
+			setAuthCredentials(aClient, itsURL);
+			int isLoginSuccess = SC_OK;
+			if(checkForFormLogin(aClient))
+			{
+				isLoginSuccess = doFormLogin(aClient, itsURL);
+			}
+			
+			if(isLoginSuccess != SC_OK)
+			{
+				setItsReturnCode(isLoginSuccess);
+			}
+			else
+			{
+				HttpPost aPost = new HttpPost(itsURL);
+				aPost.setHeader(PUBLISH_ACTION_HEADER, theAction);
+				HttpResponse aResponse = executeRequest(aClient, aPost, true, NetworkTiming.PUBLISH_ACTION);
+				int aStatusCode = aResponse.getStatusLine().getStatusCode();
+				EntityUtils.consume(aResponse.getEntity());
+				isSuccess = (aStatusCode == SC_OK);
+				if(!isSuccess)
+				{
+					setItsReturnCode(aStatusCode);
+				}
+			}
+			sendProgressUpdate("", 100);
+		}
+		catch(Exception anEx)
+		{
+			isSuccess = false;
+			sendProgressUpdate(EasReportTab.SENDING_EXCEPTION, 100);
+			setItsReturnCode(0);
+		}
+		finally
+		{
+			if(aClient != null)
+			{
+				aClient.getConnectionManager().shutdown();
+			}
+			endPhase();
+			if(itIsCancelled)
+			{
+				isSuccess = false;
+				setItsReturnCode(EasReportTab.PUBLISH_CANCELLED);
+			}
 		}
 		return isSuccess;
 	}
@@ -329,32 +796,38 @@ public class HttpReportServiceClient
 	{
 		boolean isSuccess = false;
 		int aGraphWCount = 0;
-		boolean isSendSuccess = false;
+		boolean isSendSuccess = true;
 		DefaultHttpClient aClient = null;
+		long aDiscoveryStartTime = -1;
 		
 		itsImageSentCount = 0;
+		itsImageSkippedCount = 0;
+		itsImageFailures.clear();
+		itsImageRenderNanos = 0;
+		itsImageEncodeNanos = 0;
+		itsImageUploadNanos = 0;
+		itsImageUploadedBytes = 0;
+		itsImageEncodedBytes = 0;
 		if(itsKBRef != null)
 		{			
 			try
 			{
 				// Update progress
+				startPhase(PublishPhase.IMAGES);
 				sendProgressUpdate(EasReportTab.SENDING_IMAGES_MSG, 0);
 				
-				aClient = new DefaultHttpClient();
+				aClient = createHttpClient();
 				
-				// If set, add proxy settings
-				if(itsProxyHost.length() > 0)
+				// Set authentication if required
+				// unless this is a dry run, which sends nothing
+				if(!itIsDryRun)
 				{
-					HttpHost aProxyServer = new HttpHost(itsProxyHost, itsProxyPort);
-					aClient.getParams().setParameter(ConnRoutePNames.DEFAULT_PROXY, aProxyServer);
+					setAuthCredentials(aClient, itsImagesURL);
 				}
 				
-				// Set authentication if required
-				setAuthCredentials(aClient, itsImagesURL);
-				
 				// Check login and fail immediately if wrong.
 				// Test for and if required, do Form login
-				boolean isFormLogin = checkForFormLogin(aClient);
+				boolean isFormLogin = !itIsDryRun && checkForFormLogin(aClient);
 				
 				// Assume login success unless otherwise informed or do not need form login
 				int isLoginSuccess = SC_OK;
@@ -371,19 +844,25 @@ public class HttpReportServiceClient
 				
 				if(isLoginSuccess != SC_OK)
 				{
-					isSuccess = false;
+					isSendSuccess = false;
 					setItsReturnCode(isLoginSuccess);
 					sendProgressUpdate("", 100);
 				}
 				else
 				{
 					sendProgressUpdate(EasReportTab.SENDING_IMAGES_UPDATE, 0);
+					aDiscoveryStartTime = System.nanoTime();
+					itsMemoryProfile.start(PhaseMemoryProfile.IMAGES);
+					if(!itIsDryRun)
+					{
+						openImageCheckpoint();
+					}
 					
 					// Next find all the classes that have a customised form				
 					Collection<Cls> aClassList = itsKBRef.getCls("EA_Class").getSubclasses();
 					Iterator<Cls> aClassListIt = aClassList.iterator();
-					float aClassCount = (float)aClassList.size();
-					float aProgressCount = 0;
+					int aClassCount = aClassList.size();
+					int aProgressCount = 0;
 					while(aClassListIt.hasNext())
 					{
 						Cls aClass = aClassListIt.next();
@@ -395,6 +874,7 @@ public class HttpReportServiceClient
 						Iterator<Slot> aSlotListIt = aSlotList.iterator();
 						while(aSlotListIt.hasNext())
 						{
+							checkCancelled();
 							Slot aSlot = aSlotListIt.next();
 					     	SlotWidget aSlotW = aFormW.getSlotWidget(aSlot);					     	
 					     	if(aSlotW != null)
@@ -404,20 +884,19 @@ public class HttpReportServiceClient
 								if(aType.equals("edu.stanford.smi.protegex.widget.graph.GraphWidget"))
 								{
 									aGraphWCount++;
-									isSendSuccess = createAndSendImage(aClass, aSlot, aClient);														
+									isSendSuccess = createAndSendImage(aClass, aSlot, aClient) && isSendSuccess;
 								}
 					     	}					    					  
 						}
 						// Update Image sending progress
-						float aProgress = (aProgressCount / aClassCount) * 100; 
-						sendProgressUpdate("", (int)aProgress);
+						sendProgressUpdate(PublishProgressEvent.forItems(PublishPhase.IMAGES, "", aProgressCount, aClassCount, getPhaseElapsedTime()));
 												
 					}
 				}
 			}
 			catch(Exception anEx)
 			{
-				isSuccess = false;
+				isSendSuccess = false;
 				sendProgressUpdate(EasReportTab.SENDING_EXCEPTION, 100);
 				setItsReturnCode(0);
 				//System.out.println("Images: In exception catch block");			
@@ -427,64 +906,171 @@ public class HttpReportServiceClient
 				// Release all the resources
 				//sendProgressUpdate(EasReportTab.FINISHING_SEND_MSG, 100);
 				aClient.getConnectionManager().shutdown();
+				closeImageCheckpoint(isSendSuccess && !itIsCancelled);
+				if(aDiscoveryStartTime >= 0)
+				{
+					recordImageMetrics(System.nanoTime() - aDiscoveryStartTime);
+					endMemoryPhase();
+				}
+				endPhase();
 			}
 		
 		}
-		// If no graph widgets are found, success
-		if(aGraphWCount == 0)
-		{
-			isSuccess = true;
-		}
-		else
+		
+		// A cancelled publish is never a success
+		if(itIsCancelled)
 		{
-			isSuccess = isSendSuccess;
+			setItsReturnCode(EasReportTab.PUBLISH_CANCELLED);
+			return false;
 		}
 		
+		// Success if no graph widgets are found, or every image was sent.
+		// The failure of any one image, or of the login, fails the whole
+		isSuccess = isSendSuccess;
+		
 		// Inform how many images were sent
 		String aSentImagesMsg = EasReportTab.SENDING_IMAGES_DONE + itsImageSentCount;
 		sendProgressUpdate(aSentImagesMsg, 100);
+		reportImageResults();
 		return isSuccess;
 	}
-
-	/**
-	 * @return the itsReportXML
-	 */
-	public String getItsReportXML() {
-		return itsReportXML;
-	}
-
-	/**
-	 * @param itsReportXML the itsReportXML to set
-	 */
-	public void setItsReportXML(String itsReportXML) {
-		this.itsReportXML = itsReportXML;
-	}
-
+	
 	/**
-	 * @return the itsURL
+	 * Record the durations of the steps of the image phase, and its image counts, in the PublishTargetMetrics of the URL
+	 * and in the trace.
+	 * Discovery is the time that was not spent rendering, encoding or uploading an image.
+	 * @param theElapsedNanos the time, in nanoseconds, from the start of discovery to the end of the image phase
+	 * @since 3.9
 	 */
-	public String getItsURL() {
-		return itsURL;
+	private void recordImageMetrics(long theElapsedNanos)
+	{
+		long aDiscoveryNanos = theElapsedNanos - itsImageRenderNanos - itsImageEncodeNanos - itsImageUploadNanos;
+		recordPhase(TimedPhase.IMAGE_DISCOVERY, Math.max(0, aDiscoveryNanos) / 1000000);
+		recordPhase(TimedPhase.IMAGE_RENDER, itsImageRenderNanos / 1000000);
+		recordPhase(TimedPhase.IMAGE_ENCODE, itsImageEncodeNanos / 1000000);
+		recordPhase(TimedPhase.IMAGE_UPLOAD, itsImageUploadNanos / 1000000);
+		if(!itIsDryRun)
+		{
+			PublishMetrics.getInstance().getTarget(itsURL).recordImages(itsImageSentCount, itsImageSkippedCount, itsImageFailures.size(), itsImageUploadedBytes);
+		}
+		itsTrace.setImages(itsImagesURL, itsImageSentCount, itsImageSkippedCount, itsImageFailures.size(), itsImageUploadedBytes);
 	}
-
+	
 	/**
-	 * @param itsURL the itsURL to set
+	 * Open the checkpoint of the images acknowledged for the current snapshot. If the checkpoint cannot be 
+	 * opened, the images are sent without one.
+	 * @since 3.4
 	 */
-	public void setItsURL(String itsURL) {
-		this.itsURL = itsURL;
+	private void openImageCheckpoint()
+	{
+		itsImageCheckpoint = null;
+		if(itsSnapshotId.length() == 0)
+		{
+			return;
+		}
+		try
+		{
+			itsImageCheckpoint = ImageCheckpoint.open(itsSpoolDirectory, itsSnapshotId, itsImagesURL);
+		}
+		catch(IOException anIOEx)
+		{
+			itsTrace.addNote("Unable to open image checkpoint, sending all images: " + anIOEx);
+		}
 	}
 	
 	/**
-	 * Set the user authentication credentials if they have been set.
-	 * This is only actioned if credentials have been specified.
-	 * Updated to v4 of Apache HTTP Client pack - JWC 22.10.2009<br>
-	 * Updated to be reusable by image sender - JWC 19.11.2009
-	 * @param theClient the HTTP client object that is to be used.
-	 * @since version 2.2 in this form.
+	 * Close the image checkpoint, deleting it if every image was sent
+	 * @param isComplete true if every image was sent
+	 * @since 3.4
 	 */
-	private void setAuthCredentials(DefaultHttpClient theClient, String theURL)
+	private void closeImageCheckpoint(boolean isComplete)
 	{
-		if(itsUID != "")
+		if(itsImageCheckpoint == null)
+		{
+			return;
+		}
+		if(isComplete)
+		{
+			itsImageCheckpoint.complete();
+		}
+		else
+		{
+			itsImageCheckpoint.close();
+		}
+		itsImageCheckpoint = null;
+	}
+	
+	/**
+	 * Report the images skipped as already acknowledged and list those that failed
+	 * @since 3.4
+	 */
+	private void reportImageResults()
+	{
+		if(itsImageSkippedCount > 0)
+		{
+			sendProgressUpdate(EasReportTab.IMAGES_RESUMED_MSG + itsImageSkippedCount, 100);
+		}
+		if(itsImageFailures.isEmpty())
+		{
+			return;
+		}
+		
+		sendProgressUpdate(EasReportTab.IMAGE_FAILURES_MSG + itsImageFailures.size(), 100);
+		for(int i = 0; i < itsImageFailures.size() && i < MAX_REPORTED_IMAGE_FAILURES; i++)
+		{
+			sendProgressUpdate("  " + itsImageFailures.get(i), 100);
+		}
+		if(itsImageFailures.size() > MAX_REPORTED_IMAGE_FAILURES)
+		{
+			sendProgressUpdate("  ... " + (itsImageFailures.size() - MAX_REPORTED_IMAGE_FAILURES) + " more", 100);
+		}
+		
+		// Leave the full list in the publish trace to aid troubleshooting
+		for(String aFailure : itsImageFailures)
+		{
+			itsTrace.addImageFailure(aFailure);
+		}
+	}
+
+	/**
+	 * @return the itsReportXML
+	 */
+	public String getItsReportXML() {
+		return itsReportXML;
+	}
+
+	/**
+	 * @param itsReportXML the itsReportXML to set
+	 */
+	public void setItsReportXML(String itsReportXML) {
+		this.itsReportXML = itsReportXML;
+	}
+
+	/**
+	 * @return the itsURL
+	 */
+	public String getItsURL() {
+		return itsURL;
+	}
+
+	/**
+	 * @param itsURL the itsURL to set
+	 */
+	public void setItsURL(String itsURL) {
+		this.itsURL = itsURL;
+	}
+	
+	/**
+	 * Set the user authentication credentials if they have been set.
+	 * This is only actioned if credentials have been specified.
+	 * Updated to v4 of Apache HTTP Client pack - JWC 22.10.2009<br>
+	 * Updated to be reusable by image sender - JWC 19.11.2009
+	 * @param theClient the HTTP client object that is to be used.
+	 * @since version 2.2 in this form.
+	 */
+	private void setAuthCredentials(DefaultHttpClient theClient, String theURL)
+	{
+		if(itsUID != "")
 		{
 			// Work out the target host
 			try
@@ -498,85 +1084,333 @@ public class HttpReportServiceClient
 			}
 			catch (MalformedURLException aMalURL)
 			{
-				System.out.println("Exception during credential setting. Invalid URL specified.");
-				aMalURL.printStackTrace();
+				itsTrace.addNote("Exception during credential setting. Invalid URL specified: " + aMalURL);
 			}
 		}
 		
 	}
 	
 	/**
-	 * Compress the report XML using GZIP and send the results to the
-	 * itsCompressedXML variable to reduce the load on the stack from passing
-	 * large data entities about.
-	 * itsCompressedXML is a ByteArrayEntity ready to be loaded into the HttpPost 
-	 * body as binary/octet type.
+	 * Compress the report XML using GZIP into the itsSnapshotSpool spool file, which also records the digest of
+	 * the compressed snapshot, to reduce the load on the heap from passing large data entities about.
+	 * The compression level is chosen by the CompressionAdvisor if itIsAdaptiveCompression, and is the default
+	 * level otherwise. The spool file is streamed from disk as the body of the upload, as binary/octet type.
 	 * @since version 2.1
 	 * <br>Author Jonathan Carter
 	 */
 	private void compressXML() throws IOException
 	{
-		ByteArrayOutputStream aByteStreamOut = null;
-		ObjectOutputStream anObjectOut = null;
-		GZIPOutputStream aCompressFilter = null;
-		
+		initialiseCompressedXML();
 		try
 		{
-			aByteStreamOut = new ByteArrayOutputStream();
-			aCompressFilter = new GZIPOutputStream(aByteStreamOut);
-			anObjectOut = new ObjectOutputStream(aCompressFilter);
-			anObjectOut.writeObject(itsReportXML);
-			anObjectOut.flush();
-			aCompressFilter.finish();
-					
-			// We have the compressed XML in aByteStreamOut, so get its contents
-			// Use the CountingByteArrayEntity to track progress on sending.
-			itsCompressedXML = new CountingByteArrayEntity(aByteStreamOut.toByteArray(), itsListener);
-			itsCompressedXML.setContentType("binary/octet-stream");			
+			CompressionAdvisor.Choice aChoice = CompressionAdvisor.getDefaultChoice();
+			if(itIsAdaptiveCompression)
+			{
+				aChoice = CompressionAdvisor.chooseLevel(itsSpoolDirectory, Collections.singleton(itsURL), itsReportXML.length());
+			}
+			int aLevel = aChoice.getItsLevel();
+			long aStartTime = System.currentTimeMillis();
+			itsMemoryProfile.start(PhaseMemoryProfile.COMPRESS);
+			itsSnapshotSpool = SnapshotSpool.create(itsReportXML, itsSpoolDirectory, aLevel);
+			long anElapsedTime = System.currentTimeMillis() - aStartTime;
+			endMemoryPhase();
+			itsCompressTime = anElapsedTime;
+			itsCompressedLength = itsSnapshotSpool.getItsLength();
+			itsUncompressedLength = itsSnapshotSpool.getUncompressedLength();
+			itsTrace.addPhase(TimedPhase.COMPRESS, anElapsedTime);
+			itsTrace.setCompression(aChoice, anElapsedTime);
+			if(!itIsDryRun)
+			{
+				CompressionAdvisor.recordCompression(itsSpoolDirectory, aLevel, itsReportXML.length(), itsSnapshotSpool.getItsLength(), anElapsedTime);
+				PublishMetrics.getInstance().recordCompression(Collections.singleton(itsURL), anElapsedTime, itsUncompressedLength, itsCompressedLength);
+			}
 		}
 		catch(IOException ioEx)
 		{
-			System.out.println("IOException while compressing report XML.");
-			ioEx.printStackTrace();
+			itsTrace.addNote("IOException while compressing report XML: " + ioEx);
 			throw(ioEx);
 		}
-		finally // release all the resources
+	}
+	
+	/**
+	 * Release the spool once the snapshot has been sent. An owned spool is kept as the LAST_SNAPSHOT, 
+	 * with its metadata, if the client is keeping snapshots, otherwise it is deleted. A kept snapshot 
+	 * that was resent is left as it is.
+	 * @since 3.5
+	 */
+	private void releaseSnapshotSpool()
+	{
+		if(itIsOwningSpool && itIsKeepingSnapshot && !itIsDryRun && itsSnapshotSpool != null)
+		{
+			try
+			{
+				itsSnapshotSpool.setMetadata(SnapshotSpool.URL_KEY, itsURL);
+				itsSnapshotSpool.setMetadata(itsSnapshotMetadata);
+				itsSnapshotSpool.keep(itsSpoolDirectory, LAST_SNAPSHOT);
+			}
+			catch(IOException anIOEx)
+			{
+				itsTrace.addNote("Unable to keep the snapshot: " + anIOEx);
+			}
+		}
+		if(itIsOwningSpool)
+		{
+			initialiseCompressedXML();
+		}
+		itsSnapshotSpool = null;
+		itIsOwningSpool = true;
+	}
+	
+	/**
+	 * Send the whole spooled snapshot in a single POST, to a Report Service that does not support resumable uploads
+	 * @param theHttpClient the client with which to send the snapshot
+	 * @param theURL the URL of the Report Service
+	 * @return the response from the Report Service
+	 * @throws IOException if the request fails or is cancelled
+	 * @since 3.3
+	 */
+	private HttpResponse sendSnapshot(DefaultHttpClient theHttpClient, String theURL) throws IOException
+	{
+		HttpPost aPost = new HttpPost(theURL);
+		setContentDigestHeader(aPost);
+		SnapshotChunkEntity anEntity = new SnapshotChunkEntity(itsSnapshotSpool, 0, itsSnapshotSpool.getItsLength(), itsListener);
+		aPost.setEntity(anEntity);
+		HttpResponse aResponse = executeRequest(theHttpClient, aPost, true, NetworkTiming.XML_POST);
+		itsUploadRate = anEntity.getTransferRate();
+		return aResponse;
+	}
+	
+	/**
+	 * Send the spooled snapshot in chunks, starting from the offset that the Report Service has acknowledged.
+	 * The service acknowledges each chunk with 202 (Accepted) and the offset it now holds, answers a chunk at the 
+	 * wrong offset with 409 (Conflict) and the offset it holds, and answers the final chunk with 200 once it has 
+	 * verified the digest and processed the snapshot.
+	 * If a chunk fails once its own retries are exhausted, the service is asked for the offset it holds and 
+	 * the upload resumes from there, while the retry budget allows. Each acknowledgement must advance the 
+	 * offset, within the length of the snapshot. A conflict that moves the offset elsewhere is charged to 
+	 * the retry budget, so that the upload always ends.
+	 * @param theHttpClient the client with which to send the snapshot
+	 * @param theURL the URL of the Report Service
+	 * @param theOffset the offset acknowledged by the Report Service
+	 * @return the response to the final chunk, or the first response that is not an acknowledgement
+	 * @throws IOException if a chunk cannot be sent or the publish is cancelled
+	 * @since 3.3
+	 */
+	private HttpResponse sendSnapshotChunks(DefaultHttpClient theHttpClient, String theURL, long theOffset) throws IOException
+	{
+		long aLength = itsSnapshotSpool.getItsLength();
+		long anOffset = theOffset;
+		long aSentCount = 0;
+		long aStartTime = System.currentTimeMillis();
+		reportResume(anOffset);
+		while(true)
 		{
-			if(anObjectOut != null)
+			checkCancelled();
+			if(anOffset >= aLength)
+			{
+				throw new IOException("Report Service holds the whole snapshot but has not completed the upload");
+			}
+			long aChunkLength = Math.min(itsTransportPolicy.getItsChunkSize(), aLength - anOffset);
+			HttpPost aPost = new HttpPost(theURL);
+			aPost.setHeader(UPLOAD_ID_HEADER, itsSnapshotSpool.getItsDigest());
+			aPost.setHeader(UPLOAD_OFFSET_HEADER, String.valueOf(anOffset));
+			aPost.setHeader(UPLOAD_LENGTH_HEADER, String.valueOf(aLength));
+			setContentDigestHeader(aPost);
+			SnapshotChunkEntity anEntity = new SnapshotChunkEntity(itsSnapshotSpool, anOffset, aChunkLength, itsListener);
+			aPost.setEntity(anEntity);
+			
+			HttpResponse aResponse = null;
+			try
+			{
+				aResponse = executeRequest(theHttpClient, aPost, true, NetworkTiming.XML_POST);
+			}
+			catch(PublishCancelledException aCancelEx)
+			{
+				throw aCancelEx;
+			}
+			catch(IOException anIOEx)
+			{
+				// Find out how much of the snapshot the service holds and resume from there
+				if(!itsTransportPolicy.isRetryableException(anIOEx) || !canRetry(0))
+				{
+					throw anIOEx;
+				}
+				itsRetryCount++;
+				long anAckedOffset = queryUploadOffset(theHttpClient, theURL);
+				if(anAckedOffset < 0)
+				{
+					throw anIOEx;
+				}
+				anOffset = anAckedOffset;
+				reportResume(anOffset);
+				continue;
+			}
+			finally
 			{
-				anObjectOut.close();
+				aSentCount += anEntity.getTransferredCount();
 			}
-			if(aCompressFilter != null)
+			
+			int aStatusCode = aResponse.getStatusLine().getStatusCode();
+			if(aStatusCode != SC_ACCEPTED && aStatusCode != SC_CONFLICT)
 			{
-				aCompressFilter.close();
+				long anElapsedTime = System.currentTimeMillis() - aStartTime;
+				if(anElapsedTime > 0)
+				{
+					itsUploadRate = aSentCount / (anElapsedTime / 1000.0);
+				}
+				return aResponse;
 			}
-			if(aByteStreamOut != null)
+			
+			// Chunk acknowledged, or sent at the wrong offset - continue from the offset that the service holds
+			long anAckedOffset = readUploadOffset(aResponse);
+			EntityUtils.consume(aResponse.getEntity());
+			if(anAckedOffset < 0 || anAckedOffset == anOffset || (aStatusCode == SC_ACCEPTED && anAckedOffset < anOffset))
+			{
+				throw new IOException("Report Service did not acknowledge a valid upload offset. HTTP " + aStatusCode 
+									  + ", offset " + anOffset + ", acknowledged " + anAckedOffset);
+			}
+			if(aStatusCode == SC_CONFLICT)
 			{
-				aByteStreamOut.close();
-			}		
+				if(!canRetry(0))
+				{
+					throw new IOException("Retry budget exhausted resynchronising the upload offset. Offset " + anOffset 
+										  + ", acknowledged " + anAckedOffset);
+				}
+				itsRetryCount++;
+				itsTrace.addNote("Upload offset " + anOffset + " rejected, resuming from " + anAckedOffset);
+				reportResume(anAckedOffset);
+			}
+			anOffset = anAckedOffset;
+		}
+	}
+	
+	/**
+	 * Ask the Report Service how much of the current snapshot it holds
+	 * @param theHttpClient the client with which to make the request
+	 * @param theURL the URL of the Report Service
+	 * @return the offset acknowledged by the service, 0 if it holds none of the snapshot, or -1 if the 
+	 * service does not support resumable uploads
+	 * @throws IOException if the request fails or is cancelled
+	 * @since 3.3
+	 */
+	private long queryUploadOffset(DefaultHttpClient theHttpClient, String theURL) throws IOException
+	{
+		HttpGet aGet = new HttpGet(theURL);
+		aGet.setHeader(UPLOAD_ID_HEADER, itsSnapshotSpool.getItsDigest());
+		aGet.setHeader(UPLOAD_LENGTH_HEADER, String.valueOf(itsSnapshotSpool.getItsLength()));
+		setContentDigestHeader(aGet);
+		HttpResponse aResponse = executeRequest(theHttpClient, aGet, NetworkTiming.OFFSET_QUERY);
+		try
+		{
+			if(aResponse.getStatusLine().getStatusCode() != SC_OK)
+			{
+				return -1;
+			}
+			Header anUnchangedHeader = aResponse.getFirstHeader(SNAPSHOT_UNCHANGED_HEADER);
+			itIsUnchanged = isSkippable() && anUnchangedHeader != null && Boolean.valueOf(anUnchangedHeader.getValue().trim()).booleanValue();
+			return readUploadOffset(aResponse);
+		}
+		finally
+		{
+			EntityUtils.consume(aResponse.getEntity());
+		}
+	}
+	
+	/**
+	 * Send the content digest of the snapshot with the request, if it is known
+	 * @param theRequest the request
+	 * @since 3.7
+	 */
+	private void setContentDigestHeader(HttpRequestBase theRequest)
+	{
+		if(itsContentDigest != null)
+		{
+			theRequest.setHeader(CONTENT_DIGEST_HEADER, itsContentDigest);
+		}
+	}
+	
+	/**
+	 * Can the upload be skipped if the content is unchanged? Not for a staged publish, which must stage the 
+	 * snapshot under its version.
+	 * @return true if the content digest is known and unchanged content is to be skipped
+	 * @since 3.7
+	 */
+	private boolean isSkippable()
+	{
+		return itIsSkippingUnchanged && itsContentDigest != null && itsPublishVersion == null;
+	}
+	
+	/**
+	 * Read the offset acknowledged by the Report Service from the response
+	 * @param theResponse the response from the service
+	 * @return the offset, or -1 if the response has no valid offset
+	 * @since 3.3
+	 */
+	private long readUploadOffset(HttpResponse theResponse)
+	{
+		Header anOffsetHeader = theResponse.getFirstHeader(UPLOAD_OFFSET_HEADER);
+		if(anOffsetHeader == null)
+		{
+			return -1;
+		}
+		try
+		{
+			long anOffset = Long.parseLong(anOffsetHeader.getValue().trim());
+			return (anOffset < 0 || anOffset > itsSnapshotSpool.getItsLength()) ? -1 : anOffset;
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			return -1;
+		}
+	}
+	
+	/**
+	 * Report the resumption of an upload part way through the snapshot
+	 * @param theOffset the offset from which the upload continues
+	 * @since 3.3
+	 */
+	private void reportResume(long theOffset)
+	{
+		if(theOffset > 0)
+		{
+			sendProgressUpdate(EasReportTab.RESUME_UPLOAD_MSG + (theOffset / 1024) + " / " + (itsSnapshotSpool.getItsLength() / 1024) + " KB", 
+							   (int)(100 * theOffset / itsSnapshotSpool.getItsLength()));
 		}
-		
 	}
 	
 	
 	/**
 	 * Create the image for all instances of the specified GraphWidget and send them to the reporting
 	 * service. 27.10.2010 JWC - Fixed empty image bug.
+	 * <br/>
+	 * Images that the image checkpoint shows were already acknowledged for this snapshot are skipped, each image 
+	 * that is acknowledged is added to the checkpoint, and each image that fails is recorded in itsImageFailures.
 	 * @param theClass the class that has a slot that uses a GraphWidget
 	 * @param theSlot the slot that uses a GraphWidget
 	 * @param theHttpClient the Http connection that should be used to send the created image @since 3.0
-	 * @return true on successfully creating and sending the image, false otherwise.
+	 * @return true if every image was created and sent, false if any of them failed.
 	 * @since version 2.2
 	 */
 	private boolean createAndSendImage(Cls theClass, Slot theSlot, DefaultHttpClient theHttpClient)
 	{
 		boolean isSuccess = true; // unless we hear otherwise	    
 	    Iterator<Instance> anInstanceListIt = theClass.getDirectInstances().iterator();
-	    while(anInstanceListIt.hasNext())
+	    while(anInstanceListIt.hasNext() && !itIsCancelled)
 	    {	    
 	    	Instance anInstance = anInstanceListIt.next();
+	    	String anImageKey = ImageCheckpoint.getImageKey(theSlot.getName(), anInstance.getFrameID().getName());
+	    	if(itsImageCheckpoint != null && itsImageCheckpoint.isAcknowledged(anImageKey))
+	    	{
+	    		itsImageSkippedCount++;
+	    		continue;
+	    	}
 	    	
 	    	// Get a runtime Form/Class Widget
+	    	long aRenderStartTime = System.nanoTime();
+	    	Object anImageEvent = PublishFlightRecorder.beginImage();
+	    	long anEncodeNanos = itsImageEncodeNanos;
+	    	long anUploadNanos = itsImageUploadNanos;
+	    	long anUploadedBytes = itsImageUploadedBytes;
 	    	ClsWidget aFormWidget = itsKBRef.getProject().createRuntimeClsWidget(anInstance);
 
 	    	// Initialize the FormWidget
@@ -589,6 +1423,8 @@ public class HttpReportServiceClient
 			aGraphW.initialize();
 			
 			BufferedImage anImage = null;
+			boolean isImageSent = false;
+			itsImageFailureReason = "";
 			// Invoke the methods on the GraphWidget using Reflection because of 
 			// classpath and classloader issues.
 			try
@@ -642,27 +1478,71 @@ public class HttpReportServiceClient
 				else
 				{
 					anImage = (BufferedImage)getImage.invoke(aGraphView, null);
-				}			
+				}
+				itsImageRenderNanos += System.nanoTime() - aRenderStartTime;
+				
 				// Send the image
-				isSuccess = sendGraphImage(anImage, anInstance.getFrameID().getName(), theHttpClient);
+				isImageSent = sendGraphImage(anImage, anInstance.getFrameID().getName(), theHttpClient);
 			}
 			catch (Exception ex)
 			{
 				// Handle any exceptions from calling the methods. Indicate
-				// failure and print the stack trace for debug.
-				isSuccess = false;
-				ex.printStackTrace();				
+				// failure, the reason is listed in the publish trace.
+				isImageSent = false;
+				itsImageFailureReason = ex.toString();
 			}	
 			
-			// tidy up
+			PublishFlightRecorder.endImage(anImageEvent, theClass.getName(), theSlot.getName(), anInstance.getFrameID().getName(), 
+										   (anImage != null) ? anImage.getWidth() : 0, (anImage != null) ? anImage.getHeight() : 0, 
+										   itsImageEncodeNanos - anEncodeNanos, itsImageUploadNanos - anUploadNanos, 
+										   itsImageUploadedBytes - anUploadedBytes, isImageSent);
+			if(isImageSent)
+			{
+				checkpointImage(anImageKey);
+			}
+			else if(!itIsCancelled)
+			{
+				isSuccess = false;
+				itsImageFailures.add(anInstance.getFrameID().getName() + " (" + theSlot.getName() + "): " + itsImageFailureReason);
+			}
+			
+			// tidy up, once the heap has been sampled with the image still held
+			itsMemoryProfile.sample();
 			// DEBUG
-			anImage.flush();
+			if(anImage != null)
+			{
+				anImage.flush();
+			}
 			aGraphW.dispose();
 			aFormWidget.dispose();			
 	    }
 		
 		return isSuccess;
 	}
+	
+	/**
+	 * Record that the image receiver has acknowledged the specified image. A failure to write the checkpoint
+	 * does not fail the image.
+	 * @param theImageKey the key of the image
+	 * @since 3.4
+	 */
+	private void checkpointImage(String theImageKey)
+	{
+		if(itsImageCheckpoint == null)
+		{
+			return;
+		}
+		try
+		{
+			itsImageCheckpoint.acknowledge(theImageKey);
+		}
+		catch(IOException anIOEx)
+		{
+			itsTrace.addNote("Unable to write image checkpoint: " + anIOEx);
+			itsImageCheckpoint.close();
+			itsImageCheckpoint = null;
+		}
+	}
 	    
 	/**
 	 * Send the supplied BufferedImage to the reporting environment, Essential Viewer, as 
@@ -688,8 +1568,18 @@ public class HttpReportServiceClient
 						
 			// Create a message part with the image in it
 			// Render the image to the IMAGE_TYPE
+			long anEncodeStartTime = System.nanoTime();
 			ByteArrayOutputStream anImageOut = new ByteArrayOutputStream();
 			ImageIO.write(theImage, IMAGE_TYPE, anImageOut);
+			itsImageEncodeNanos += System.nanoTime() - anEncodeStartTime;
+			itsImageEncodedBytes += anImageOut.size();
+			
+			// A dry run encodes the image but does not send it
+			if(itIsDryRun)
+			{
+				itsImageSentCount++;
+				return true;
+			}
 			
             // Load the image into the message body
 			ByteArrayBody aBody = new ByteArrayBody(anImageOut.toByteArray(), aMIMEType, aFilename);
@@ -700,30 +1590,35 @@ public class HttpReportServiceClient
 			aPost.setEntity(aRequestContent);
 			
 			// execute the request
-			HttpResponse aResult = theHttpClient.execute(aPost);			
+			long anUploadStartTime = System.nanoTime();
+			HttpResponse aResult = executeRequest(theHttpClient, aPost, true, NetworkTiming.IMAGE_POST);			
 			StatusLine aStatus = aResult.getStatusLine();
 			aResult.getEntity().consumeContent();
+			itsImageUploadNanos += System.nanoTime() - anUploadStartTime;
 			
 			// Service returns an HTTP 200 if success
 			if(aStatus.getStatusCode() == SC_OK)
 			{
 				isSuccess = true;
 				itsImageSentCount++;
+				itsImageUploadedBytes += anImageOut.size();
 			}
 			else // or 400 / 500 on error
 			{
 				isSuccess = false;
 				setItsReturnCode(aStatus.getStatusCode());
+				itsImageFailureReason = aStatus.toString();
 			}			
 		}
 		catch(Exception anEx)
 		{
 			isSuccess = false;
 			setItsReturnCode(SC_BAD_REQUEST);
+			itsImageFailureReason = anEx.toString();
 			
-			// Report the actual error to the console to aid troubleshooting.
-			System.out.println("Exception during send: " + anEx.toString());
-			System.out.println("Cause: " + anEx.getCause().getLocalizedMessage());
+			// Report the actual error in the publish trace to aid troubleshooting.
+			itsTrace.addNote("Exception during send of image " + theFilename + ": " + anEx.toString() 
+							 + ((anEx.getCause() != null) ? ". Cause: " + anEx.getCause().getLocalizedMessage() : ""));
 		}
 		finally
 		{
@@ -747,27 +1642,403 @@ public class HttpReportServiceClient
 	}
 	
 	/**
-	 * Initialise the Byte Array that contains the compressed XML
+	 * Initialise the compressed XML, deleting any spool file that holds it
 	 * @since version 2.1
 	 * <br>Author: Jonathan Carter
 	 */
 	private void initialiseCompressedXML()
 	{
-		byte[] anEmptyArray = new byte[0]; 
-		itsCompressedXML = new ByteArrayEntity(anEmptyArray);
+		if(itsSnapshotSpool != null)
+		{
+			itsSnapshotSpool.delete();
+			itsSnapshotSpool = null;
+		}
 	}
 
 	/**
 	 * Send progress messages to the listener, with a check that there is a listener registered.
+	 * The message is reported against the current publish phase.
 	 * @param theMessage the message to send
-	 * @param theProgressPercentage the percentage complete.
+	 * @param theProgressPercentage the percentage of the current phase that is complete.
 	 */
 	protected void sendProgressUpdate(String theMessage, int theProgressPercentage)
 	{
-		if (itsListener != null)
+		sendProgressUpdate(PublishProgressEvent.forPercentage(itsPhase, theMessage, getPhaseElapsedTime(), theProgressPercentage));
+	}
+	
+	/**
+	 * Send a progress event to the listener, with a check that there is a listener registered.
+	 * @param theEvent the progress event to send
+	 * @since 3.2
+	 */
+	protected void sendProgressUpdate(PublishProgressEvent theEvent)
+	{
+		// Once cancelled, progress is no longer reported
+		if (itsListener != null && !itIsCancelled)
+		{
+			itsListener.updatePublishProgress(theEvent);
+		}
+	}
+	
+	/**
+	 * Cancel the publish. Any request that is in progress is aborted, and no further 
+	 * requests or images are sent. Can be called from any thread.
+	 * @since 3.2
+	 */
+	public void cancel()
+	{
+		itIsCancelled = true;
+		HttpRequestBase aRequest = itsActiveRequest;
+		if(aRequest != null)
+		{
+			aRequest.abort();
+		}
+	}
+	
+	/**
+	 * @return true if the publish has been cancelled
+	 * @since 3.2
+	 */
+	public boolean isCancelled()
+	{
+		return itIsCancelled;
+	}
+	
+	/**
+	 * Throw a PublishCancelledException if the publish has been cancelled
+	 * @throws PublishCancelledException if cancel() has been called
+	 * @since 3.2
+	 */
+	protected void checkCancelled() throws PublishCancelledException
+	{
+		if(itIsCancelled)
+		{
+			throw new PublishCancelledException("Publish cancelled");
+		}
+	}
+	
+	/**
+	 * Create the HTTP client for a set of requests to the Report Service, applying the proxy settings 
+	 * and the connect timeouts of the TransportPolicy. The client's own retry handler is switched off
+	 * as retries are managed by #executeRequest. Its requests are timed by the NetworkTiming.
+	 * @return the new client
+	 * @since 3.2
+	 */
+	protected DefaultHttpClient createHttpClient()
+	{
+		DefaultHttpClient aClient = NetworkTiming.createHttpClient();
+		
+		// If set, add proxy settings
+		if(itsProxyHost.length() > 0)
 		{
-			itsListener.updateProgress(theMessage, theProgressPercentage);
+			HttpHost aProxyServer = new HttpHost(itsProxyHost, itsProxyPort);
+			aClient.getParams().setParameter(ConnRoutePNames.DEFAULT_PROXY, aProxyServer);
 		}
+		
+		HttpConnectionParams.setConnectionTimeout(aClient.getParams(), itsTransportPolicy.getItsConnectTimeout());
+		aClient.setHttpRequestRetryHandler(new DefaultHttpRequestRetryHandler(0, false));
+		return aClient;
+	}
+	
+	/**
+	 * Execute the specified request. GET requests are treated as idempotent and may be retried.
+	 * @param theHttpClient the client with which to execute the request
+	 * @param theRequest the request to execute
+	 * @param theKind the kind of request, for the NetworkTiming
+	 * @return the response to the request
+	 * @throws IOException if the request fails or is aborted
+	 * @since 3.2
+	 * @see #executeRequest(DefaultHttpClient, HttpRequestBase, boolean, String)
+	 */
+	protected HttpResponse executeRequest(DefaultHttpClient theHttpClient, HttpRequestBase theRequest, String theKind) throws IOException
+	{
+		return executeRequest(theHttpClient, theRequest, !(theRequest instanceof HttpPost), theKind);
+	}
+	
+	/**
+	 * Execute the specified request, holding a reference to it so that it can be 
+	 * aborted if the publish is cancelled. The socket timeout for the current phase is applied, and
+	 * the request is aborted if its response has not been received by the deadline for the phase. The deadline
+	 * starts once the body of the request has been sent, so it does not limit how long an upload may take.
+	 * A request that misses its deadline fails with a SocketTimeoutException.
+	 * Idempotent requests that fail with a connection error or a transient HTTP status are retried after
+	 * a backoff, as defined by the TransportPolicy, while the retry budget for this publish allows.
+	 * Each attempt is timed by the NetworkTiming and recorded in the trace.
+	 * @param theHttpClient the client with which to execute the request
+	 * @param theRequest the request to execute
+	 * @param isIdempotent true if the request can safely be sent more than once
+	 * @param theKind the kind of request, for the NetworkTiming
+	 * @return the response to the request
+	 * @throws IOException if the request fails or is aborted
+	 * @since 3.2
+	 */
+	protected HttpResponse executeRequest(DefaultHttpClient theHttpClient, HttpRequestBase theRequest, boolean isIdempotent, String theKind) throws IOException
+	{
+		HttpConnectionParams.setSoTimeout(theRequest.getParams(), itsTransportPolicy.getSocketTimeout(itsPhase));
+		if(itsPublishVersion != null)
+		{
+			theRequest.setHeader(PUBLISH_VERSION_HEADER, itsPublishVersion);
+		}
+		int aRetry = 0;
+		while(true)
+		{
+			String aFailure = null;
+			long aRetryAfter = 0;
+			NetworkTiming.RequestTiming aTiming = null;
+			int aTimedStatusCode = 0;
+			RequestDeadline aDeadline = null;
+			HttpEntity aBody = null;
+			itsActiveRequest = theRequest;
+			try
+			{
+				// Check after holding the request, so that a concurrent cancel() either sees the request or is seen here
+				checkCancelled();
+				aTiming = itsNetworkTiming.begin(theKind, theRequest);
+				aDeadline = new RequestDeadline(theRequest, itsTransportPolicy.getRequestDeadline(itsPhase));
+				aBody = startDeadline(theRequest, aDeadline);
+				HttpResponse aResponse = theHttpClient.execute(theRequest);
+				int aStatusCode = aResponse.getStatusLine().getStatusCode();
+				aTimedStatusCode = aStatusCode;
+				itsTrace.addStatus(theRequest.getMethod(), aStatusCode);
+				if(!isIdempotent || !itsTransportPolicy.isRetryableStatus(aStatusCode) || !canRetry(aRetry))
+				{
+					return aResponse;
+				}
+				
+				// Transient failure - release the response and retry
+				aFailure = "HTTP " + aStatusCode;
+				aRetryAfter = getRetryAfter(aResponse);
+				EntityUtils.consume(aResponse.getEntity());
+			}
+			catch(IOException anIOEx)
+			{
+				if(itIsCancelled)
+				{
+					throw new PublishCancelledException("Publish cancelled during request");
+				}
+				IOException aFailureEx = anIOEx;
+				if(aDeadline != null && aDeadline.isExpired())
+				{
+					aFailureEx = new SocketTimeoutException("No response within the deadline of " + itsTransportPolicy.getRequestDeadline(itsPhase) + "ms");
+				}
+				itsTrace.addNote(theRequest.getMethod() + " " + theRequest.getURI().getPath() + " failed: " + aFailureEx);
+				if(!isIdempotent || !itsTransportPolicy.isRetryableException(aFailureEx) || !canRetry(aRetry))
+				{
+					throw aFailureEx;
+				}
+				aFailure = aFailureEx.toString();
+			}
+			finally
+			{
+				if(aDeadline != null)
+				{
+					aDeadline.stop();
+				}
+				if(aBody != null)
+				{
+					((HttpEntityEnclosingRequest)theRequest).setEntity(aBody);
+				}
+				itsActiveRequest = null;
+				if(aTiming != null)
+				{
+					itsNetworkTiming.end(aTiming, aTimedStatusCode);
+					itsTrace.addRequestTiming(aTiming);
+				}
+			}
+			
+			aRetry++;
+			itsRetryCount++;
+			long aBackoff = Math.max(itsTransportPolicy.getBackoff(aRetry), Math.min(aRetryAfter, itsTransportPolicy.getItsMaxBackoff()));
+			sendProgressUpdate(EasReportTab.RETRY_MSG + aFailure + " - " + theRequest.getMethod() + " " + theRequest.getURI().getPath() 
+								+ " (" + aRetry + "/" + itsTransportPolicy.getItsMaxRetries() + ", " + (aBackoff / 1000.0) + "s)", 0);
+			waitForRetry(aBackoff);
+			theRequest.reset();
+		}
+	}
+	
+	/**
+	 * Start the deadline of a request once its body has been sent, or now if it has no body
+	 * @param theRequest the request
+	 * @param theDeadline the deadline of this attempt of the request
+	 * @return the body of the request, to be put back once the attempt is over, or null if it has no body
+	 * @since 3.18
+	 */
+	private static HttpEntity startDeadline(HttpRequestBase theRequest, RequestDeadline theDeadline)
+	{
+		if(theRequest instanceof HttpEntityEnclosingRequest)
+		{
+			HttpEntityEnclosingRequest aRequest = (HttpEntityEnclosingRequest)theRequest;
+			HttpEntity aBody = aRequest.getEntity();
+			if(aBody != null)
+			{
+				aRequest.setEntity(new DeadlineEntity(aBody, theDeadline));
+				return aBody;
+			}
+		}
+		theDeadline.start();
+		return null;
+	}
+	
+	/**
+	 * Can the request be retried again?
+	 * @param theRetry the number of retries already made for the request
+	 * @return true if the per-request limit and the retry budget for the publish both allow another retry
+	 * @since 3.2
+	 */
+	private boolean canRetry(int theRetry)
+	{
+		return theRetry < itsTransportPolicy.getItsMaxRetries() && itsRetryCount < itsTransportPolicy.getItsRetryBudget();
+	}
+	
+	/**
+	 * Read the delay requested by the server in the Retry-After header of the response, if it is given in seconds
+	 * @param theResponse the response
+	 * @return the requested delay in milliseconds, or 0 if none was requested
+	 * @since 3.2
+	 */
+	private long getRetryAfter(HttpResponse theResponse)
+	{
+		Header aRetryAfter = theResponse.getFirstHeader("Retry-After");
+		if(aRetryAfter != null)
+		{
+			try
+			{
+				return Long.parseLong(aRetryAfter.getValue().trim()) * 1000;
+			}
+			catch(NumberFormatException aNumEx)
+			{
+				// HTTP date form is not supported, use the backoff
+			}
+		}
+		return 0;
+	}
+	
+	/**
+	 * Wait before retrying a request, returning early if the publish is cancelled
+	 * @param theBackoff the time to wait in milliseconds
+	 * @throws PublishCancelledException if the publish is cancelled while waiting
+	 * @since 3.2
+	 */
+	private void waitForRetry(long theBackoff) throws PublishCancelledException
+	{
+		long anEnd = System.currentTimeMillis() + theBackoff;
+		while(System.currentTimeMillis() < anEnd)
+		{
+			checkCancelled();
+			try
+			{
+				Thread.sleep(Math.min(RETRY_SLEEP_INTERVAL, Math.max(1, anEnd - System.currentTimeMillis())));
+			}
+			catch(InterruptedException anIntEx)
+			{
+				Thread.currentThread().interrupt();
+				throw new PublishCancelledException("Interrupted while waiting to retry");
+			}
+		}
+		checkCancelled();
+	}
+	
+	/**
+	 * Mark the start of the specified publish phase. Subsequent progress updates are reported against
+	 * this phase.
+	 * @param thePhase the phase that is starting
+	 * @since 3.2
+	 */
+	protected void startPhase(PublishPhase thePhase)
+	{
+		endPhase();
+		itsTrace.sampleHeap();
+		itsPhase = thePhase;
+		itsPhaseStartTime = System.currentTimeMillis();
+		itsPhaseEvent = PublishFlightRecorder.beginPhase(HttpReportServiceClient.class.getSimpleName(), thePhase, itsURL);
+	}
+	
+	/**
+	 * Mark the end of the current publish phase, committing its Java Flight Recorder event, and show in the status 
+	 * area the network timing of the requests made since the last phase ended.
+	 * @since 3.10
+	 */
+	protected void endPhase()
+	{
+		PublishFlightRecorder.endPhase(itsPhaseEvent);
+		itsPhaseEvent = null;
+		itsTrace.sampleHeap();
+		for(NetworkTiming.KindTiming aKind : itsNetworkTiming.takeRecent())
+		{
+			sendProgressUpdate(EasReportTab.NETWORK_TIMING_MSG + aKind, 100);
+		}
+	}
+	
+	/**
+	 * Record the duration of a step of the publish, in the PublishTargetMetrics of the URL, unless this is a dry run, 
+	 * and in the trace
+	 * @param thePhase the step
+	 * @param theMillis its duration in milliseconds
+	 * @since 3.11
+	 */
+	private void recordPhase(TimedPhase thePhase, long theMillis)
+	{
+		if(!itIsDryRun)
+		{
+			PublishMetrics.getInstance().getTarget(itsURL).recordPhase(thePhase, theMillis);
+		}
+		itsTrace.addPhase(thePhase, theMillis);
+	}
+	
+	/**
+	 * Finish measuring the heap use and allocation of the current phase, warning if it came close to the maximum heap
+	 * @since 3.12
+	 */
+	private void endMemoryPhase()
+	{
+		PhaseMemoryProfile.PhaseMemory aPhase = itsMemoryProfile.end();
+		if(aPhase != null && aPhase.isNearLimit())
+		{
+			sendProgressUpdate(EasReportTab.MEMORY_WARNING_MSG + aPhase, 100);
+		}
+	}
+	
+	/**
+	 * Append the record of this publish to the PublishTraceLog in the spool directory. Called once the publish, 
+	 * including its images, is complete.
+	 * @param isSuccess true if the publish succeeded
+	 * @since 3.11
+	 */
+	public void writeTrace(boolean isSuccess)
+	{
+		itsTrace.sampleHeap();
+		itsTrace.setPhaseMemory(itsMemoryProfile.getPhases());
+		itsTrace.setNetworkTiming(itsNetworkTiming.getKinds());
+		itsTrace.setResult(itsURL, isSuccess, itsReturnCode, itIsUnchanged, itIsCancelled, itsRetryCount);
+		PublishTraceLog.append(itsSpoolDirectory, itsTrace);
+	}
+	
+	/**
+	 * Read the start of the body of a response, for the trace
+	 * @param theEntity the body of the response
+	 * @return up to #MAX_RESPONSE_EXCERPT characters of the body
+	 * @since 3.11
+	 */
+	private String readExcerpt(HttpEntity theEntity)
+	{
+		try
+		{
+			String aBody = EntityUtils.toString(theEntity);
+			return (aBody.length() > MAX_RESPONSE_EXCERPT) ? aBody.substring(0, MAX_RESPONSE_EXCERPT) + "..." : aBody;
+		}
+		catch(Exception anEx)
+		{
+			return anEx.toString();
+		}
+	}
+	
+	/**
+	 * @return the time, in milliseconds, since the current publish phase started
+	 * @since 3.2
+	 */
+	protected long getPhaseElapsedTime()
+	{
+		return System.currentTimeMillis() - itsPhaseStartTime;
 	}
 	
 	/**
@@ -786,7 +2057,7 @@ public class HttpReportServiceClient
 		// Perfom a GET on the specified string to get the login form
 		HttpGet anHttpGet = new HttpGet(itsURL);
 
-        HttpResponse aResponse = theHttpClient.execute(anHttpGet);
+        HttpResponse aResponse = executeRequest(theHttpClient, anHttpGet, NetworkTiming.FORM_LOGIN);
         HttpEntity anEntity = aResponse.getEntity();
 
         // TRACE CODE INSTRUMENTATION FOR NOW
@@ -820,7 +2091,7 @@ public class HttpReportServiceClient
         anHttpPost.setEntity(new UrlEncodedFormEntity(aNameValuePairList, HTTP.UTF_8));
      
         // Post the login
-        aResponse = theHttpClient.execute(anHttpPost);
+        aResponse = executeRequest(theHttpClient, anHttpPost, NetworkTiming.FORM_LOGIN);
         int aResponseCode = aResponse.getStatusLine().getStatusCode();        
         anEntity = aResponse.getEntity();
 
@@ -842,31 +2113,30 @@ public class HttpReportServiceClient
             if(aResponsePage.contains(itsLoginErrorPhrase) || aResponseCode == EasReportTab.BAD_PASSWORD)
         	{
         		aReturnCode = EasReportTab.BAD_PASSWORD;
-        		System.out.println("Login failed - bad user name / password");
+        		itsTrace.addNote("Login failed - bad user name / password");
         		return aReturnCode;
         	}
             else if(aResponsePage.contains(itsLogin403Phrase) || aResponseCode == EasReportTab.ACCESS_FORBIDDEN)
             {
             	aReturnCode = EasReportTab.ACCESS_FORBIDDEN;
-            	System.out.println("Login failed - forbidden");
+            	itsTrace.addNote("Login failed - forbidden");
             	return aReturnCode;
             }
         }
         
         // Get the status code. If it's > 199 and < 400 then successful login
-        System.out.println("Form login response code: " + aResponseCode);
-        System.out.println("Form login entity content length: " + anEntity.getContentLength());
+        itsTrace.addNote("Form login response code: " + aResponseCode + ", entity content length: " + anEntity.getContentLength());
         
         // If we're here and the status code is 200-399 then we've authenticated. Just test status code
         if(aResponseCode > 199 && aResponseCode < 400)
         {
         	// Consume any additional pages - get past 302 etc....
         	aReturnCode = SC_OK;
-        	System.out.println("Login Success! -- trying additional GET. This response was HTTP " + aResponseCode);
+        	itsTrace.addNote("Login Success! -- trying additional GET. This response was HTTP " + aResponseCode);
         	
         	// Try an additional GET to pass the 302, as it's going to be the BAD URL from server
-        	aResponse = theHttpClient.execute(anHttpGet);
-        	System.out.println("Return from following 302 etc. Response was HTTP " + aResponse.getStatusLine().getStatusCode());
+        	aResponse = executeRequest(theHttpClient, anHttpGet, NetworkTiming.FORM_LOGIN);
+        	itsTrace.addNote("Return from following 302 etc. Response was HTTP " + aResponse.getStatusLine().getStatusCode());
         	anEntity = aResponse.getEntity();
         	aResponse.getEntity().consumeContent();
         }
@@ -901,7 +2171,7 @@ public class HttpReportServiceClient
 		// Perfom a GET on the specified string to get the login form
 		HttpGet anHttpGet = new HttpGet(itsURL);
 
-        HttpResponse aResponse = theHttpClient.execute(anHttpGet);
+        HttpResponse aResponse = executeRequest(theHttpClient, anHttpGet, NetworkTiming.LOGIN_PROBE);
         HttpEntity anEntity = aResponse.getEntity();
         
         ByteArrayOutputStream aByteArray = new ByteArrayOutputStream();
@@ -918,6 +2188,264 @@ public class HttpReportServiceClient
         return isFormLoginRequired;
 	}
 	
+	/**
+	 * Get the moving average upload rate measured while sending the XML snapshot
+	 * @return the upload rate in bytes per second, or PublishProgressEvent.UNKNOWN if nothing has been sent
+	 * @since 3.2
+	 */
+	public double getItsUploadRate() {
+		return itsUploadRate;
+	}
+	
+	/**
+	 * @return the itsTransportPolicy
+	 */
+	public TransportPolicy getItsTransportPolicy() {
+		return itsTransportPolicy;
+	}
+
+	/**
+	 * @param itsTransportPolicy the itsTransportPolicy to set
+	 */
+	public void setItsTransportPolicy(TransportPolicy itsTransportPolicy) {
+		this.itsTransportPolicy = itsTransportPolicy;
+	}
+	
+	/**
+	 * @return the number of requests retried in this publish
+	 */
+	public int getItsRetryCount() {
+		return itsRetryCount;
+	}
+	
+	/**
+	 * Set a kept snapshot to send, rather than compressing itsReportXML. The snapshot is not deleted
+	 * once sent.
+	 * @param theSnapshot the kept snapshot
+	 * @since 3.5
+	 */
+	public void setItsSnapshotSpool(SnapshotSpool theSnapshot) {
+		if(itIsOwningSpool)
+		{
+			initialiseCompressedXML();
+		}
+		itsSnapshotSpool = theSnapshot;
+		itIsOwningSpool = false;
+	}
+
+	/**
+	 * @return true if the snapshot is kept as the LAST_SNAPSHOT once sent
+	 */
+	public boolean isItIsKeepingSnapshot() {
+		return itIsKeepingSnapshot;
+	}
+
+	/**
+	 * @param itIsKeepingSnapshot true to keep the snapshot as the LAST_SNAPSHOT once sent
+	 */
+	public void setItIsKeepingSnapshot(boolean itIsKeepingSnapshot) {
+		this.itIsKeepingSnapshot = itIsKeepingSnapshot;
+	}
+
+	/**
+	 * @param itsSnapshotMetadata metadata to keep with the snapshot
+	 */
+	public void setItsSnapshotMetadata(Properties itsSnapshotMetadata) {
+		this.itsSnapshotMetadata = itsSnapshotMetadata;
+	}
+
+	/**
+	 * @return the version under which the snapshot and images are staged, or null if they are not staged
+	 * @since 3.6
+	 */
+	public String getItsPublishVersion() {
+		return itsPublishVersion;
+	}
+
+	/**
+	 * @param itsPublishVersion the version under which to stage the snapshot and images, or null to make them live
+	 * @since 3.6
+	 */
+	public void setItsPublishVersion(String itsPublishVersion) {
+		this.itsPublishVersion = itsPublishVersion;
+	}
+
+	/**
+	 * @return the content digest of the snapshot, or null if not known
+	 * @since 3.7
+	 */
+	public String getItsContentDigest() {
+		return itsContentDigest;
+	}
+
+	/**
+	 * @param itsContentDigest the content digest of the snapshot, leaving out its timestamp, or null if not known
+	 * @since 3.7
+	 */
+	public void setItsContentDigest(String itsContentDigest) {
+		this.itsContentDigest = itsContentDigest;
+	}
+
+	/**
+	 * @param itIsSkippingUnchanged true to skip the upload if the content is unchanged
+	 * @since 3.7
+	 */
+	public void setItIsSkippingUnchanged(boolean itIsSkippingUnchanged) {
+		this.itIsSkippingUnchanged = itIsSkippingUnchanged;
+	}
+
+	/**
+	 * @param itIsUsingAcknowledged true to skip the upload if the Report Service cannot answer the offset query
+	 * and the URL last acknowledged the same content digest, as recorded in the AcknowledgedDigests
+	 * @since 3.16
+	 */
+	public void setItIsUsingAcknowledged(boolean itIsUsingAcknowledged) {
+		this.itIsUsingAcknowledged = itIsUsingAcknowledged;
+	}
+
+	/**
+	 * Record in the trace the compression level of a snapshot that was compressed for this publish elsewhere, 
+	 * as by the FanOutPublisher
+	 * @param theChoice the compression level and its prediction
+	 * @param theElapsedTime the measured time to compress the snapshot, in milliseconds
+	 * @since 3.17
+	 */
+	public void recordCompression(CompressionAdvisor.Choice theChoice, long theElapsedTime)
+	{
+		itsTrace.setCompression(theChoice, theElapsedTime);
+	}
+
+	/**
+	 * @return true if the last upload was skipped because the content was unchanged
+	 * @since 3.7
+	 */
+	public boolean isItIsUnchanged() {
+		return itIsUnchanged;
+	}
+
+	/**
+	 * @param itIsAdaptiveCompression true to choose the compression level from the measured upload and compression speeds
+	 * @since 3.8
+	 */
+	public void setItIsAdaptiveCompression(boolean itIsAdaptiveCompression) {
+		this.itIsAdaptiveCompression = itIsAdaptiveCompression;
+	}
+
+	/**
+	 * @return the heap use and allocation of the phases of this publish
+	 * @since 3.12
+	 */
+	public PhaseMemoryProfile getItsMemoryProfile() {
+		return itsMemoryProfile;
+	}
+
+	/**
+	 * @param itsMemoryProfile the profile to which the phases of this publish are added, holding any phases measured
+	 * before the publish reached this client
+	 * @since 3.12
+	 */
+	public void setItsMemoryProfile(PhaseMemoryProfile itsMemoryProfile) {
+		this.itsMemoryProfile = itsMemoryProfile;
+	}
+
+	/**
+	 * @return true if this is a dry run, which sends nothing
+	 * @since 3.13
+	 */
+	public boolean isItIsDryRun() {
+		return itIsDryRun;
+	}
+
+	/**
+	 * @param itIsDryRun true to compress the snapshot and render and encode the images without sending anything
+	 * @since 3.13
+	 */
+	public void setItIsDryRun(boolean itIsDryRun) {
+		this.itIsDryRun = itIsDryRun;
+	}
+
+	/**
+	 * @return the time, in milliseconds, taken to compress the snapshot
+	 * @since 3.13
+	 */
+	public long getItsCompressTime() {
+		return itsCompressTime;
+	}
+
+	/**
+	 * @return the length of the compressed snapshot
+	 * @since 3.13
+	 */
+	public long getItsCompressedLength() {
+		return itsCompressedLength;
+	}
+
+	/**
+	 * @return the length, in bytes, of the serialised snapshot before it was compressed
+	 * @since 3.14
+	 */
+	public long getItsUncompressedLength() {
+		return itsUncompressedLength;
+	}
+
+	/**
+	 * @return the number of images sent, or in a dry run encoded
+	 * @since 3.13
+	 */
+	public int getItsImageSentCount() {
+		return itsImageSentCount;
+	}
+
+	/**
+	 * @return the bytes of the images encoded, whether or not they were sent
+	 * @since 3.13
+	 */
+	public long getItsImageEncodedBytes() {
+		return itsImageEncodedBytes;
+	}
+
+	/**
+	 * @return the itsSnapshotId
+	 */
+	public String getItsSnapshotId() {
+		return itsSnapshotId;
+	}
+
+	/**
+	 * @param itsSnapshotId the itsSnapshotId to set
+	 */
+	public void setItsSnapshotId(String itsSnapshotId) {
+		this.itsSnapshotId = itsSnapshotId;
+	}
+
+	/**
+	 * @return the images that failed to send in the last image phase, and why
+	 */
+	public List<String> getItsImageFailures() {
+		return itsImageFailures;
+	}
+
+	/**
+	 * @return the number of images skipped in the last image phase as already acknowledged
+	 */
+	public int getItsImageSkippedCount() {
+		return itsImageSkippedCount;
+	}
+
+	/**
+	 * @return the itsSpoolDirectory
+	 */
+	public File getItsSpoolDirectory() {
+		return itsSpoolDirectory;
+	}
+
+	/**
+	 * @param itsSpoolDirectory the itsSpoolDirectory to set
+	 */
+	public void setItsSpoolDirectory(File itsSpoolDirectory) {
+		this.itsSpoolDirectory = itsSpoolDirectory;
+	}
+
 	/**
 	 * @return the itsImagesURL
 	 */
@@ -0,0 +1,198 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Durable checkpoint of the GraphWidget images that the image receiver has acknowledged for a repository
+ * snapshot. Each acknowledged image is appended to a checkpoint file as soon as it is acknowledged, so if the 
+ * image phase fails or is cancelled, sending the same snapshot to the same image receiver again resumes from 
+ * the first image that was not acknowledged. The checkpoint is discarded when it is opened for a different 
+ * snapshot, and deleted once every image has been sent.
+ * <br/>
+ * The checkpoint file has a header line with the snapshot id and image receiver URL, followed by one
+ * line per acknowledged image.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.HttpReportServiceClient HttpReportServiceClient
+ */
+public class ImageCheckpoint 
+{
+	private static final String FILE_PREFIX = "images-";
+	private static final String FILE_SUFFIX = ".checkpoint";
+	private static final String HEADER_PREFIX = "# ";
+	private static final String ENCODING = "UTF-8";
+	private static final int URL_HASH_LENGTH = 16;
+	
+	private final File itsFile;
+	private final String itsHeader;
+	private final Set<String> itsAcknowledged = new HashSet<String>();
+	private Writer itsWriter = null;
+	
+	/**
+	 * Constructor. Use #open to read an existing checkpoint.
+	 * @param theFile the checkpoint file
+	 * @param theSnapshotId the id of the snapshot that the images belong to
+	 * @param theImagesURL the URL of the image receiver
+	 */
+	private ImageCheckpoint(File theFile, String theSnapshotId, String theImagesURL)
+	{
+		itsFile = theFile;
+		itsHeader = HEADER_PREFIX + theSnapshotId + " " + theImagesURL;
+	}
+	
+	/**
+	 * Open the checkpoint for the images of the specified snapshot, sent to the specified image receiver.
+	 * A checkpoint left by an earlier attempt to send the same snapshot is read; one left for any other
+	 * snapshot is discarded.
+	 * @param theDirectory the directory that holds the checkpoint files
+	 * @param theSnapshotId the id of the snapshot
+	 * @param theImagesURL the URL of the image receiver
+	 * @return the checkpoint
+	 * @throws IOException if the checkpoint cannot be read or created
+	 */
+	public static ImageCheckpoint open(File theDirectory, String theSnapshotId, String theImagesURL) throws IOException
+	{
+		if(!theDirectory.isDirectory() && !theDirectory.mkdirs())
+		{
+			throw new IOException("Unable to create checkpoint directory: " + theDirectory);
+		}
+		String aURLHash = SnapshotSpool.toHex(SnapshotSpool.createDigest().digest(theImagesURL.getBytes(ENCODING))).substring(0, URL_HASH_LENGTH);
+		ImageCheckpoint aCheckpoint = new ImageCheckpoint(new File(theDirectory, FILE_PREFIX + aURLHash + FILE_SUFFIX), theSnapshotId, theImagesURL);
+		aCheckpoint.load();
+		return aCheckpoint;
+	}
+	
+	/**
+	 * Read the acknowledged images from the checkpoint file if it belongs to this snapshot, otherwise
+	 * start a new checkpoint file.
+	 * @throws IOException if the file cannot be read or written
+	 */
+	private void load() throws IOException
+	{
+		boolean isCurrent = false;
+		if(itsFile.exists())
+		{
+			BufferedReader aReader = new BufferedReader(new InputStreamReader(new FileInputStream(itsFile), ENCODING));
+			try
+			{
+				isCurrent = itsHeader.equals(aReader.readLine());
+				String aLine;
+				while(isCurrent && (aLine = aReader.readLine()) != null)
+				{
+					if(aLine.length() > 0)
+					{
+						itsAcknowledged.add(aLine);
+					}
+				}
+			}
+			finally
+			{
+				aReader.close();
+			}
+		}
+		
+		itsWriter = new OutputStreamWriter(new FileOutputStream(itsFile, isCurrent), ENCODING);
+		if(!isCurrent)
+		{
+			itsWriter.write(itsHeader + "\n");
+			itsWriter.flush();
+		}
+	}
+	
+	/**
+	 * Has the specified image already been acknowledged?
+	 * @param theImageKey the key identifying the image
+	 * @return true if the image was acknowledged by an earlier attempt
+	 */
+	public boolean isAcknowledged(String theImageKey)
+	{
+		return itsAcknowledged.contains(theImageKey);
+	}
+	
+	/**
+	 * Record that the specified image has been acknowledged by the image receiver
+	 * @param theImageKey the key identifying the image
+	 * @throws IOException if the checkpoint cannot be written
+	 */
+	public void acknowledge(String theImageKey) throws IOException
+	{
+		if(itsAcknowledged.add(theImageKey))
+		{
+			itsWriter.write(theImageKey + "\n");
+			itsWriter.flush();
+		}
+	}
+	
+	/**
+	 * @return the number of images that have been acknowledged
+	 */
+	public int getAcknowledgedCount()
+	{
+		return itsAcknowledged.size();
+	}
+	
+	/**
+	 * Close the checkpoint, keeping it so that a later attempt can resume
+	 */
+	public void close()
+	{
+		if(itsWriter != null)
+		{
+			try
+			{
+				itsWriter.close();
+			}
+			catch(IOException anIOEx)
+			{
+				System.out.println("Exception closing image checkpoint: " + anIOEx);
+			}
+			itsWriter = null;
+		}
+	}
+	
+	/**
+	 * Close and delete the checkpoint once every image has been sent
+	 */
+	public void complete()
+	{
+		close();
+		itsFile.delete();
+	}
+	
+	/**
+	 * Create the key that identifies an image in the checkpoint
+	 * @param theSlotName the name of the GraphWidget slot
+	 * @param theInstanceName the name of the instance
+	 * @return the key
+	 */
+	public static String getImageKey(String theSlotName, String theInstanceName)
+	{
+		return (theSlotName + "\t" + theInstanceName).replace('\n', ' ').replace('\r', ' ');
+	}
+}
@@ -0,0 +1,637 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.HttpInetSocketAddress;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeLayeredSocketFactory;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.scheme.SchemeSocketFactory;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.BasicClientConnectionManager;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+/**
+ * The network timing of the requests made to a Report Service, to tell apart the DNS lookup, TCP connect, 
+ * TLS handshake, upload and server processing when a publish is slow.
+ * <br/>
+ * The clients created by #createHttpClient are instrumented: the DNS resolver, the socket factories for http and 
+ * https, and the request executor time their part of the request that is being executed on the thread, between 
+ * #begin and #end. For each request, the time to first byte runs from the start of the request to the arrival of 
+ * the headers of the first response. The upload is the time taken to write the request to the connection, including
+ * any wait for 100 (Continue), and the server time is the wait that follows until the response headers arrive. The
+ * end of a large body can still be in the socket buffers when it has been written, so its transfer is counted in 
+ * the server time. DNS, connect and TLS are only spent when a new connection is opened.
+ * <br/>
+ * Requests are added up by their kind, for the whole publish and for the requests since #takeRecent was
+ * last called, so that the HttpReportServiceClient can report them at the end of each phase.
+ * @version 1.0
+ */
+public class NetworkTiming 
+{
+	/**
+	 * The kinds of request made to a Report Service
+	 */
+	public static final String LOGIN_PROBE = "login probe";
+	public static final String FORM_LOGIN = "form login";
+	public static final String OFFSET_QUERY = "upload offset query";
+	public static final String XML_POST = "XML POST";
+	public static final String IMAGE_POST = "image POST";
+	public static final String PUBLISH_ACTION = "publish action";
+	
+	private static final double NANOS_PER_MILLI = 1000000.0;
+	
+	/**
+	 * The timing of the request being executed on each thread, if any
+	 */
+	private static final ThreadLocal<RequestTiming> CURRENT_REQUEST = new ThreadLocal<RequestTiming>();
+	private static final DnsResolver TIMED_DNS_RESOLVER = new TimedDnsResolver();
+	
+	/**
+	 * The network timing of one request
+	 */
+	public static class RequestTiming
+	{
+		private final String itsKind;
+		private final String itsRequest;
+		private final long itsStartNanos = System.nanoTime();
+		private boolean itIsNewConnection = false;
+		private long itsDNSNanos = 0;
+		private long itsConnectNanos = 0;
+		private long itsTLSNanos = 0;
+		private long itsUploadNanos = 0;
+		private long itsServerNanos = 0;
+		private long itsFirstByteNanos = -1;
+		private int itsStatusCode = 0;
+		
+		private RequestTiming(String theKind, String theRequest)
+		{
+			itsKind = theKind;
+			itsRequest = theRequest;
+		}
+		
+		/**
+		 * @return the kind of request
+		 */
+		public String getItsKind() {
+			return itsKind;
+		}
+		
+		/**
+		 * @return the method and path of the request
+		 */
+		public String getItsRequest() {
+			return itsRequest;
+		}
+		
+		/**
+		 * @return true if a new connection was opened for the request
+		 */
+		public boolean isItIsNewConnection() {
+			return itIsNewConnection;
+		}
+		
+		/**
+		 * @return the time spent resolving the host name, in nanoseconds
+		 */
+		public long getItsDNSNanos() {
+			return itsDNSNanos;
+		}
+		
+		/**
+		 * @return the time spent opening the TCP connection, in nanoseconds
+		 */
+		public long getItsConnectNanos() {
+			return itsConnectNanos;
+		}
+		
+		/**
+		 * @return the time spent in the TLS handshake, in nanoseconds
+		 */
+		public long getItsTLSNanos() {
+			return itsTLSNanos;
+		}
+		
+		/**
+		 * @return the time spent sending the request, in nanoseconds
+		 */
+		public long getItsUploadNanos() {
+			return itsUploadNanos;
+		}
+		
+		/**
+		 * @return the time spent waiting for the response headers once the request was sent, in nanoseconds
+		 */
+		public long getItsServerNanos() {
+			return itsServerNanos;
+		}
+		
+		/**
+		 * @return the time from the start of the request to the first response headers, in nanoseconds, or -1 if
+		 * no response was received
+		 */
+		public long getItsFirstByteNanos() {
+			return itsFirstByteNanos;
+		}
+		
+		/**
+		 * @return the HTTP status of the response, or 0 if the request failed
+		 */
+		public int getItsStatusCode() {
+			return itsStatusCode;
+		}
+		
+		/**
+		 * @return a summary of the request for the trace
+		 */
+		public String toString()
+		{
+			return String.format("%s %s (%s): DNS %.1f ms, connect %.1f ms, TLS %.1f ms, upload %.1f ms, server %.1f ms, first byte %s", 
+								 itsKind, itsRequest, (itsStatusCode > 0) ? "HTTP " + itsStatusCode : "failed", 
+								 itsDNSNanos / NANOS_PER_MILLI, itsConnectNanos / NANOS_PER_MILLI, itsTLSNanos / NANOS_PER_MILLI, 
+								 itsUploadNanos / NANOS_PER_MILLI, itsServerNanos / NANOS_PER_MILLI, 
+								 (itsFirstByteNanos >= 0) ? String.format("%.1f ms", itsFirstByteNanos / NANOS_PER_MILLI) : "none");
+		}
+	}
+	
+	/**
+	 * The network timing of all the requests of one kind, added up
+	 */
+	public static class KindTiming
+	{
+		private final String itsKind;
+		private int itsCount = 0;
+		private int itsConnectionCount = 0;
+		private int itsFailedCount = 0;
+		private long itsDNSNanos = 0;
+		private long itsConnectNanos = 0;
+		private long itsTLSNanos = 0;
+		private long itsUploadNanos = 0;
+		private long itsServerNanos = 0;
+		private long itsFirstByteNanos = 0;
+		private long itsMaxFirstByteNanos = 0;
+		
+		private KindTiming(String theKind)
+		{
+			itsKind = theKind;
+		}
+		
+		/**
+		 * Add a request to the totals
+		 * @param theRequest the timing of the request
+		 */
+		private void add(RequestTiming theRequest)
+		{
+			itsCount++;
+			if(theRequest.itIsNewConnection)
+			{
+				itsConnectionCount++;
+			}
+			if(theRequest.itsFirstByteNanos < 0)
+			{
+				itsFailedCount++;
+			}
+			else
+			{
+				itsFirstByteNanos += theRequest.itsFirstByteNanos;
+				itsMaxFirstByteNanos = Math.max(itsMaxFirstByteNanos, theRequest.itsFirstByteNanos);
+			}
+			itsDNSNanos += theRequest.itsDNSNanos;
+			itsConnectNanos += theRequest.itsConnectNanos;
+			itsTLSNanos += theRequest.itsTLSNanos;
+			itsUploadNanos += theRequest.itsUploadNanos;
+			itsServerNanos += theRequest.itsServerNanos;
+		}
+		
+		/**
+		 * @return the kind of request
+		 */
+		public String getItsKind() {
+			return itsKind;
+		}
+		
+		/**
+		 * @return the number of requests
+		 */
+		public int getItsCount() {
+			return itsCount;
+		}
+		
+		/**
+		 * @return the number of new connections opened for the requests
+		 */
+		public int getItsConnectionCount() {
+			return itsConnectionCount;
+		}
+		
+		/**
+		 * @return the number of requests that received no response
+		 */
+		public int getItsFailedCount() {
+			return itsFailedCount;
+		}
+		
+		/**
+		 * @return the total time spent resolving host names, in nanoseconds
+		 */
+		public long getItsDNSNanos() {
+			return itsDNSNanos;
+		}
+		
+		/**
+		 * @return the total time spent opening TCP connections, in nanoseconds
+		 */
+		public long getItsConnectNanos() {
+			return itsConnectNanos;
+		}
+		
+		/**
+		 * @return the total time spent in TLS handshakes, in nanoseconds
+		 */
+		public long getItsTLSNanos() {
+			return itsTLSNanos;
+		}
+		
+		/**
+		 * @return the total time spent sending the requests, in nanoseconds
+		 */
+		public long getItsUploadNanos() {
+			return itsUploadNanos;
+		}
+		
+		/**
+		 * @return the total time spent waiting for the response headers, in nanoseconds
+		 */
+		public long getItsServerNanos() {
+			return itsServerNanos;
+		}
+		
+		/**
+		 * @return the total time to first byte of the requests that received a response, in nanoseconds
+		 */
+		public long getItsFirstByteNanos() {
+			return itsFirstByteNanos;
+		}
+		
+		/**
+		 * @return the longest time to first byte, in nanoseconds
+		 */
+		public long getItsMaxFirstByteNanos() {
+			return itsMaxFirstByteNanos;
+		}
+		
+		/**
+		 * @return a summary for the status area: the average DNS, connect and TLS time of each new connection, and 
+		 * the average upload, server and first byte time of each request
+		 */
+		public String toString()
+		{
+			StringBuilder aSummary = new StringBuilder(String.format("%s: %d request%s", itsKind, itsCount, (itsCount == 1) ? "" : "s"));
+			if(itsFailedCount > 0)
+			{
+				aSummary.append(String.format(" (%d failed)", itsFailedCount));
+			}
+			if(itsConnectionCount > 0)
+			{
+				aSummary.append(String.format(", %d new connection%s averaging DNS %.1f ms, connect %.1f ms, TLS %.1f ms", 
+											  itsConnectionCount, (itsConnectionCount == 1) ? "" : "s",
+											  itsDNSNanos / NANOS_PER_MILLI / itsConnectionCount, 
+											  itsConnectNanos / NANOS_PER_MILLI / itsConnectionCount, 
+											  itsTLSNanos / NANOS_PER_MILLI / itsConnectionCount));
+			}
+			aSummary.append(String.format("; each request averaging upload %.1f ms, server %.1f ms", 
+										  itsUploadNanos / NANOS_PER_MILLI / itsCount, itsServerNanos / NANOS_PER_MILLI / itsCount));
+			int aRespondedCount = itsCount - itsFailedCount;
+			if(aRespondedCount > 0)
+			{
+				aSummary.append(String.format(", first byte %.1f ms (longest %.1f ms)", 
+											  itsFirstByteNanos / NANOS_PER_MILLI / aRespondedCount, itsMaxFirstByteNanos / NANOS_PER_MILLI));
+			}
+			return aSummary.toString();
+		}
+	}
+	
+	private final Map<String, KindTiming> itsKinds = new LinkedHashMap<String, KindTiming>();
+	private Map<String, KindTiming> itsRecentKinds = new LinkedHashMap<String, KindTiming>();
+	
+	/**
+	 * Create an HTTP client whose requests are timed, when executed between #begin and #end
+	 * @return the new client
+	 */
+	public static DefaultHttpClient createHttpClient()
+	{
+		return new TimedHttpClient();
+	}
+	
+	/**
+	 * Start timing a request, which is about to be executed on this thread
+	 * @param theKind the kind of request
+	 * @param theRequest the request
+	 * @return the timing of the request, to be passed to #end
+	 */
+	public RequestTiming begin(String theKind, HttpRequestBase theRequest)
+	{
+		RequestTiming aTiming = new RequestTiming(theKind, theRequest.getMethod() + " " + theRequest.getURI().getPath());
+		CURRENT_REQUEST.set(aTiming);
+		return aTiming;
+	}
+	
+	/**
+	 * Finish timing a request, adding it up with the others of its kind
+	 * @param theTiming the timing returned by #begin
+	 * @param theStatusCode the HTTP status of the response, or 0 if the request failed
+	 */
+	public synchronized void end(RequestTiming theTiming, int theStatusCode)
+	{
+		CURRENT_REQUEST.remove();
+		theTiming.itsStatusCode = theStatusCode;
+		add(itsKinds, theTiming);
+		add(itsRecentKinds, theTiming);
+	}
+	
+	/**
+	 * @return the timing of each kind of request made so far, in the order they were first made
+	 */
+	public synchronized List<KindTiming> getKinds()
+	{
+		return new ArrayList<KindTiming>(itsKinds.values());
+	}
+	
+	/**
+	 * @return the timing of each kind of request made since this was last called, in the order they were first made
+	 */
+	public synchronized List<KindTiming> takeRecent()
+	{
+		List<KindTiming> aRecentKinds = new ArrayList<KindTiming>(itsRecentKinds.values());
+		itsRecentKinds = new LinkedHashMap<String, KindTiming>();
+		return aRecentKinds;
+	}
+	
+	/**
+	 * Add a request to the totals of its kind
+	 * @param theKinds the totals of each kind
+	 * @param theTiming the timing of the request
+	 */
+	private static void add(Map<String, KindTiming> theKinds, RequestTiming theTiming)
+	{
+		KindTiming aKind = theKinds.get(theTiming.itsKind);
+		if(aKind == null)
+		{
+			aKind = new KindTiming(theTiming.itsKind);
+			theKinds.put(theTiming.itsKind, aKind);
+		}
+		aKind.add(theTiming);
+	}
+	
+	/**
+	 * @return the timing of the request being executed on this thread, or null if it is not being timed
+	 */
+	private static RequestTiming getCurrentRequest()
+	{
+		return CURRENT_REQUEST.get();
+	}
+	
+	/**
+	 * The client, with the timed connection manager and request executor
+	 */
+	private static class TimedHttpClient extends DefaultHttpClient
+	{
+		TimedHttpClient()
+		{
+			super(new TimedConnectionManager());
+		}
+		
+		protected HttpRequestExecutor createRequestExecutor()
+		{
+			return new TimedRequestExecutor();
+		}
+	}
+	
+	/**
+	 * The connection manager, as used by default, with the timed DNS resolver and socket factories
+	 */
+	private static class TimedConnectionManager extends BasicClientConnectionManager
+	{
+		TimedConnectionManager()
+		{
+			super(createSchemeRegistry());
+		}
+		
+		protected ClientConnectionOperator createConnectionOperator(SchemeRegistry theRegistry)
+		{
+			return new DefaultClientConnectionOperator(theRegistry, TIMED_DNS_RESOLVER);
+		}
+		
+		/**
+		 * @return the http and https schemes, as registered by default, with timed socket factories
+		 */
+		private static SchemeRegistry createSchemeRegistry()
+		{
+			SchemeRegistry aRegistry = new SchemeRegistry();
+			aRegistry.register(new Scheme("http", 80, new TimedSocketFactory()));
+			aRegistry.register(new Scheme("https", 443, new TimedTLSSocketFactory(SSLSocketFactory.getSocketFactory())));
+			return aRegistry;
+		}
+	}
+	
+	/**
+	 * Times the lookup of host names by the system resolver
+	 */
+	private static class TimedDnsResolver implements DnsResolver
+	{
+		public InetAddress[] resolve(String theHost) throws UnknownHostException
+		{
+			long aStartNanos = System.nanoTime();
+			try
+			{
+				return SystemDefaultDnsResolver.INSTANCE.resolve(theHost);
+			}
+			finally
+			{
+				RequestTiming aTiming = getCurrentRequest();
+				if(aTiming != null)
+				{
+					aTiming.itsDNSNanos += System.nanoTime() - aStartNanos;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Times the TCP connect of a plain socket
+	 */
+	private static class TimedSocketFactory implements SchemeSocketFactory
+	{
+		public Socket createSocket(HttpParams theParams) throws IOException
+		{
+			return PlainSocketFactory.getSocketFactory().createSocket(theParams);
+		}
+		
+		public Socket connectSocket(Socket theSocket, InetSocketAddress theRemoteAddress, InetSocketAddress theLocalAddress, HttpParams theParams) 
+			throws IOException, UnknownHostException, ConnectTimeoutException
+		{
+			long aStartNanos = System.nanoTime();
+			try
+			{
+				return PlainSocketFactory.getSocketFactory().connectSocket(theSocket, theRemoteAddress, theLocalAddress, theParams);
+			}
+			finally
+			{
+				RequestTiming aTiming = getCurrentRequest();
+				if(aTiming != null)
+				{
+					aTiming.itIsNewConnection = true;
+					aTiming.itsConnectNanos += System.nanoTime() - aStartNanos;
+				}
+			}
+		}
+		
+		public boolean isSecure(Socket theSocket) throws IllegalArgumentException
+		{
+			return false;
+		}
+	}
+	
+	/**
+	 * Times the TCP connect of a plain socket and then the TLS handshake made over it, so that the two can be told
+	 * apart. The handshake over a tunnel through a proxy is timed too.
+	 */
+	private static class TimedTLSSocketFactory extends TimedSocketFactory implements SchemeLayeredSocketFactory
+	{
+		private final SSLSocketFactory itsTLSFactory;
+		
+		/**
+		 * @param theTLSFactory the factory for the TLS layer
+		 */
+		TimedTLSSocketFactory(SSLSocketFactory theTLSFactory)
+		{
+			itsTLSFactory = theTLSFactory;
+		}
+		
+		public Socket connectSocket(Socket theSocket, InetSocketAddress theRemoteAddress, InetSocketAddress theLocalAddress, HttpParams theParams) 
+			throws IOException, UnknownHostException, ConnectTimeoutException
+		{
+			Socket aSocket = super.connectSocket(theSocket, theRemoteAddress, theLocalAddress, theParams);
+			String aHost = (theRemoteAddress instanceof HttpInetSocketAddress) 
+						   ? ((HttpInetSocketAddress)theRemoteAddress).getHttpHost().getHostName() : theRemoteAddress.getHostName();
+			return createLayeredSocket(aSocket, aHost, theRemoteAddress.getPort(), theParams);
+		}
+		
+		public Socket createLayeredSocket(Socket theSocket, String theTarget, int thePort, HttpParams theParams) throws IOException, UnknownHostException
+		{
+			long aStartNanos = System.nanoTime();
+			try
+			{
+				return itsTLSFactory.createLayeredSocket(theSocket, theTarget, thePort, theParams);
+			}
+			finally
+			{
+				RequestTiming aTiming = getCurrentRequest();
+				if(aTiming != null)
+				{
+					aTiming.itsTLSNanos += System.nanoTime() - aStartNanos;
+				}
+			}
+		}
+		
+		public boolean isSecure(Socket theSocket) throws IllegalArgumentException
+		{
+			return itsTLSFactory.isSecure(theSocket);
+		}
+	}
+	
+	/**
+	 * Times the sending of each request and the wait for its response headers
+	 */
+	private static class TimedRequestExecutor extends HttpRequestExecutor
+	{
+		protected HttpResponse doSendRequest(HttpRequest theRequest, HttpClientConnection theConnection, HttpContext theContext) 
+			throws IOException, HttpException
+		{
+			long aStartNanos = System.nanoTime();
+			HttpResponse aResponse = null;
+			try
+			{
+				// A response here is a final answer to Expect: 100-continue, sent before the body
+				aResponse = super.doSendRequest(theRequest, theConnection, theContext);
+				return aResponse;
+			}
+			finally
+			{
+				RequestTiming aTiming = getCurrentRequest();
+				if(aTiming != null)
+				{
+					aTiming.itsUploadNanos += System.nanoTime() - aStartNanos;
+					if(aResponse != null && aTiming.itsFirstByteNanos < 0)
+					{
+						aTiming.itsFirstByteNanos = System.nanoTime() - aTiming.itsStartNanos;
+					}
+				}
+			}
+		}
+		
+		protected HttpResponse doReceiveResponse(HttpRequest theRequest, HttpClientConnection theConnection, HttpContext theContext) 
+			throws HttpException, IOException
+		{
+			long aStartNanos = System.nanoTime();
+			HttpResponse aResponse = null;
+			try
+			{
+				aResponse = super.doReceiveResponse(theRequest, theConnection, theContext);
+				return aResponse;
+			}
+			finally
+			{
+				RequestTiming aTiming = getCurrentRequest();
+				if(aTiming != null)
+				{
+					aTiming.itsServerNanos += System.nanoTime() - aStartNanos;
+					if(aResponse != null && aTiming.itsFirstByteNanos < 0)
+					{
+						aTiming.itsFirstByteNanos = System.nanoTime() - aTiming.itsStartNanos;
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,647 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Durable queue of snapshots that could not be sent because the Report Service could not be reached.
+ * Each queued snapshot is copied into the queue directory with its metadata, so the queue survives 
+ * a restart. A background drain thread tries to send each snapshot again, with a backoff that doubles
+ * after each failed attempt up to a maximum, until the Report Service can be reached. 
+ * <br/>
+ * Only the newest snapshot for each URL is kept: queueing a snapshot replaces any snapshot already queued 
+ * for the same URL, and a successful publish to a URL removes the snapshot queued for it.
+ * <br/>
+ * Passwords are not written to disk. A queued snapshot that needs a password, and was loaded from disk
+ * rather than queued in this session, waits until a publish to the same URL supplies one.
+ * Only the snapshot is sent from the queue. The GraphWidget images are sent by the next publish.
+ * Once a queued snapshot is sent, its content digest is acknowledged for the URL, as by any other publish.
+ * <br/>
+ * Queued snapshots are sent through the PublishScheduler at PublishPriority#QUEUED, so that they wait behind,
+ * and are superseded by, any other publish to the same URL.
+ * <br/>
+ * There is one queue for each queue directory in the process, obtained with #getInstance, so that the tabs of
+ * several open projects share the queue rather than each sending and deleting the same snapshots. The queue 
+ * drains while any tab that has started it has not yet stopped it.
+ * @version 1.3 - One queue for each directory, shared by the tabs of the process<br/>
+ * @version 1.2 - Sent through the PublishScheduler<br/>
+ * @version 1.1 - Acknowledge the content digest<br/>
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishQueueListener PublishQueueListener
+ */
+public class OfflinePublishQueue 
+{
+	private static final String ENTRY_PREFIX = "queued-";
+	private static final String ENTRY_SUFFIX = ".gz";
+	private static final String INITIAL_BACKOFF_PROP = "reporttab.queue.backoff.initial";
+	private static final String MAX_BACKOFF_PROP = "reporttab.queue.backoff.max";
+	private static final int MILLIS_PER_SECOND = 1000;
+	private static final String TIME_FORMAT = "HH:mm:ss";
+	
+	/**
+	 * The queue of each queue directory in the process
+	 */
+	private static final Map<File, OfflinePublishQueue> QUEUES = new HashMap<File, OfflinePublishQueue>();
+	
+	/**
+	 * A snapshot waiting in the queue
+	 */
+	private static class QueueEntry
+	{
+		private final SnapshotSpool itsSnapshot;
+		private final String itsURL;
+		private int itsAttempts = 0;
+		private long itsNextAttempt = 0;
+		private volatile boolean itIsRemoved = false;
+		
+		private QueueEntry(SnapshotSpool theSnapshot, String theURL)
+		{
+			itsSnapshot = theSnapshot;
+			itsURL = theURL;
+		}
+	}
+	
+	/**
+	 * Sends a queued snapshot when the PublishScheduler runs it, unless the snapshot was removed from the 
+	 * queue while it waited, because a newer publish to the same URL has succeeded
+	 */
+	private static class QueuedSend extends PublishJob
+	{
+		private final QueueEntry itsEntry;
+		private final HttpReportServiceClient itsService;
+		private final CountDownLatch itsDone = new CountDownLatch(1);
+		private volatile boolean itIsSuccess = false;
+		private volatile int itsReturnCode = 0;
+		
+		private QueuedSend(QueueEntry theEntry, HttpReportServiceClient theService)
+		{
+			super(Collections.singleton(theEntry.itsURL), PublishPriority.QUEUED, theEntry.itsURL);
+			itsEntry = theEntry;
+			itsService = theService;
+		}
+		
+		public void run()
+		{
+			try
+			{
+				if(itsEntry.itIsRemoved)
+				{
+					itsReturnCode = EasReportTab.PUBLISH_SUPERSEDED;
+				}
+				else
+				{
+					itIsSuccess = itsService.sendReportXML();
+					itsReturnCode = itsService.getItsReturnCode();
+					itsService.writeTrace(itIsSuccess);
+				}
+			}
+			finally
+			{
+				itsDone.countDown();
+			}
+		}
+		
+		public void skipped(int theReturnCode)
+		{
+			itsReturnCode = theReturnCode;
+			itsDone.countDown();
+		}
+	}
+	
+	private final File itsDirectory;
+	private final TransportPolicy itsTransportPolicy;
+	
+	/**
+	 * The queued snapshots by URL, and the passwords supplied for each URL in this session
+	 */
+	private final Map<String, QueueEntry> itsEntries = new LinkedHashMap<String, QueueEntry>();
+	private final Map<String, String> itsPasswords = new HashMap<String, String>();
+	
+	/**
+	 * The backoff before the second attempt, doubling for each attempt after that up to the maximum
+	 */
+	private long itsInitialBackoff = 30 * MILLIS_PER_SECOND;
+	private long itsMaxBackoff = 15 * 60 * MILLIS_PER_SECOND;
+	
+	private final List<PublishQueueListener> itsListeners = new CopyOnWriteArrayList<PublishQueueListener>();
+	private String itsLastStatus = "";
+	private volatile Thread itsDrainThread = null;
+	private volatile boolean itIsRunning = false;
+	private int itsUserCount = 0;
+	private volatile HttpReportServiceClient itsActiveService = null;
+	private volatile PublishJob itsActiveJob = null;
+	private QueueEntry itsActiveEntry = null;
+	
+	// Directory in which the content digests acknowledged by each URL are recorded
+	private File itsAcknowledgedDirectory = SnapshotSpool.getDefaultDirectory();
+	private long itsEntryCount = 0;
+	
+	/**
+	 * Constructor. Use #getInstance to obtain the queue of a directory.
+	 * @param theDirectory the directory that holds the queued snapshots
+	 * @param theTransportPolicy the transport policy used to send the queued snapshots
+	 */
+	private OfflinePublishQueue(File theDirectory, TransportPolicy theTransportPolicy)
+	{
+		itsDirectory = theDirectory;
+		itsTransportPolicy = theTransportPolicy;
+	}
+	
+	/**
+	 * Get the queue of the specified directory, creating it if this is the first use of the directory in the process
+	 * @param theDirectory the directory that holds the queued snapshots
+	 * @param theTransportPolicy the transport policy used to send the queued snapshots, if the queue is created
+	 * @return the queue
+	 * @since 1.3
+	 */
+	public static OfflinePublishQueue getInstance(File theDirectory, TransportPolicy theTransportPolicy)
+	{
+		File aKey = theDirectory.getAbsoluteFile();
+		try
+		{
+			aKey = theDirectory.getCanonicalFile();
+		}
+		catch(IOException anIOEx)
+		{
+			// Use the absolute path
+		}
+		synchronized(QUEUES)
+		{
+			OfflinePublishQueue aQueue = QUEUES.get(aKey);
+			if(aQueue == null)
+			{
+				aQueue = new OfflinePublishQueue(theDirectory, theTransportPolicy);
+				QUEUES.put(aKey, aQueue);
+			}
+			return aQueue;
+		}
+	}
+	
+	/**
+	 * Read the backoff from the reporttab.queue.* properties
+	 * @param theProperties the tab properties
+	 */
+	public void setBackoff(Properties theProperties)
+	{
+		itsInitialBackoff = readLong(theProperties, INITIAL_BACKOFF_PROP, itsInitialBackoff);
+		itsMaxBackoff = Math.max(itsInitialBackoff, readLong(theProperties, MAX_BACKOFF_PROP, itsMaxBackoff));
+	}
+	
+	/**
+	 * Start the queue for a tab. The first start loads the snapshots queued in an earlier session and starts the 
+	 * drain thread.
+	 */
+	public synchronized void start()
+	{
+		itsUserCount++;
+		if(itsUserCount > 1)
+		{
+			return;
+		}
+		
+		// Read the queue from disk afresh, as when the process started
+		itsEntries.clear();
+		itsPasswords.clear();
+		load();
+		itIsRunning = true;
+		itsDrainThread = new Thread(new Runnable()
+		{
+			public void run()
+			{
+				drain();
+			}
+		}, "Essential Viewer publish queue");
+		itsDrainThread.setDaemon(true);
+		itsDrainThread.start();
+		notifyListener();
+	}
+	
+	/**
+	 * Stop the queue for a tab. Once every tab that started the queue has stopped it, stop the drain thread,
+	 * abandoning any attempt in progress. The queued snapshots remain on disk.
+	 */
+	public void stop()
+	{
+		synchronized(this)
+		{
+			if(itsUserCount == 0 || --itsUserCount > 0)
+			{
+				return;
+			}
+			itIsRunning = false;
+			itsDrainThread = null;
+			notifyAll();
+		}
+		HttpReportServiceClient aService = itsActiveService;
+		if(aService != null)
+		{
+			aService.cancel();
+		}
+		PublishJob aJob = itsActiveJob;
+		if(aJob != null)
+		{
+			PublishScheduler.getInstance().cancel(aJob);
+		}
+	}
+	
+	/**
+	 * Queue a snapshot that could not be sent, replacing any snapshot queued for the same URL
+	 * @param theSnapshot the snapshot, which is copied into the queue
+	 * @param theURL the URL of the Report Service
+	 * @param theUser the user name with which to publish
+	 * @param thePassword the password with which to publish, held only in memory
+	 * @throws IOException if the snapshot cannot be copied into the queue
+	 */
+	public void enqueue(SnapshotSpool theSnapshot, String theURL, String theUser, String thePassword) throws IOException
+	{
+		String aName;
+		synchronized(this)
+		{
+			itsEntryCount++;
+			aName = ENTRY_PREFIX + System.currentTimeMillis() + "-" + itsEntryCount;
+		}
+		theSnapshot.setMetadata(SnapshotSpool.URL_KEY, theURL);
+		theSnapshot.setMetadata(SnapshotSpool.USER_KEY, theUser);
+		SnapshotSpool aCopy = theSnapshot.copy(itsDirectory, aName);
+		
+		synchronized(this)
+		{
+			itsPasswords.put(theURL, thePassword);
+			QueueEntry anEntry = new QueueEntry(aCopy, theURL);
+			anEntry.itsNextAttempt = System.currentTimeMillis() + itsInitialBackoff;
+			replace(theURL, anEntry);
+			notifyAll();
+		}
+		notifyListener();
+	}
+	
+	/**
+	 * Remove the snapshot queued for the specified URL, e.g. because a newer snapshot has been published to it
+	 * @param theURL the URL of the Report Service
+	 * @param thePassword the password of the successful publish, used for any snapshot queued later
+	 */
+	public void remove(String theURL, String thePassword)
+	{
+		boolean isRemoved;
+		synchronized(this)
+		{
+			itsPasswords.put(theURL, thePassword);
+			isRemoved = replace(theURL, null);
+		}
+		if(isRemoved)
+		{
+			notifyListener();
+		}
+	}
+	
+	/**
+	 * @return the number of snapshots waiting to be sent
+	 */
+	public synchronized int getDepth()
+	{
+		return itsEntries.size();
+	}
+	
+	/**
+	 * @return a description of the last attempt to send a queued snapshot
+	 */
+	public synchronized String getLastStatus()
+	{
+		return itsLastStatus;
+	}
+	
+	/**
+	 * Replace the entry for the specified URL, deleting the snapshot of the old entry unless it is being sent
+	 * @param theURL the URL
+	 * @param theEntry the new entry, or null to remove the entry
+	 * @return true if there was an entry for the URL
+	 */
+	private boolean replace(String theURL, QueueEntry theEntry)
+	{
+		QueueEntry anOldEntry = (theEntry == null) ? itsEntries.remove(theURL) : itsEntries.put(theURL, theEntry);
+		if(anOldEntry == null)
+		{
+			return false;
+		}
+		anOldEntry.itIsRemoved = true;
+		if(anOldEntry != itsActiveEntry)
+		{
+			anOldEntry.itsSnapshot.delete();
+		}
+		return true;
+	}
+	
+	/**
+	 * Load the snapshots left in the queue directory, keeping only the newest for each URL
+	 */
+	private void load()
+	{
+		File[] aFiles = itsDirectory.listFiles();
+		if(aFiles == null)
+		{
+			return;
+		}
+		
+		List<SnapshotSpool> aSnapshots = new ArrayList<SnapshotSpool>();
+		for(File aFile : aFiles)
+		{
+			String aFileName = aFile.getName();
+			if(aFileName.startsWith(ENTRY_PREFIX) && aFileName.endsWith(ENTRY_SUFFIX))
+			{
+				String aName = aFileName.substring(0, aFileName.length() - ENTRY_SUFFIX.length());
+				SnapshotSpool aSnapshot = SnapshotSpool.load(itsDirectory, aName);
+				if(aSnapshot == null || aSnapshot.getMetadata(SnapshotSpool.URL_KEY) == null)
+				{
+					// Incomplete - the queue was stopped while it was being written
+					aFile.delete();
+				}
+				else
+				{
+					aSnapshots.add(aSnapshot);
+				}
+			}
+		}
+		
+		for(SnapshotSpool aSnapshot : aSnapshots)
+		{
+			String aURL = aSnapshot.getMetadata(SnapshotSpool.URL_KEY);
+			QueueEntry anEntry = itsEntries.get(aURL);
+			if(anEntry == null || anEntry.itsSnapshot.getTimestamp() < aSnapshot.getTimestamp())
+			{
+				replace(aURL, new QueueEntry(aSnapshot, aURL));
+			}
+			else
+			{
+				aSnapshot.delete();
+			}
+		}
+	}
+	
+	/**
+	 * Drain the queue until stopped, sending each snapshot when its next attempt is due
+	 */
+	private void drain()
+	{
+		while(isDraining())
+		{
+			QueueEntry anEntry = null;
+			String aPassword = null;
+			synchronized(this)
+			{
+				long aNow = System.currentTimeMillis();
+				long aWait = Long.MAX_VALUE;
+				for(QueueEntry aCandidate : itsEntries.values())
+				{
+					String aUser = aCandidate.itsSnapshot.getMetadata(SnapshotSpool.USER_KEY);
+					boolean hasCredentials = itsPasswords.containsKey(aCandidate.itsURL) || aUser == null || aUser.length() == 0;
+					if(!hasCredentials)
+					{
+						continue;
+					}
+					if(aCandidate.itsNextAttempt <= aNow)
+					{
+						anEntry = aCandidate;
+						aPassword = itsPasswords.containsKey(aCandidate.itsURL) ? itsPasswords.get(aCandidate.itsURL) : "";
+						break;
+					}
+					aWait = Math.min(aWait, aCandidate.itsNextAttempt - aNow);
+				}
+				
+				if(anEntry == null)
+				{
+					try
+					{
+						wait(aWait == Long.MAX_VALUE ? 0 : aWait);
+					}
+					catch(InterruptedException anIntEx)
+					{
+						return;
+					}
+					continue;
+				}
+				itsActiveEntry = anEntry;
+			}
+			
+			send(anEntry, aPassword);
+		}
+	}
+	
+	/**
+	 * Attempt to send a queued snapshot, and update the queue with the outcome
+	 * @param theEntry the queued snapshot
+	 * @param thePassword the password with which to publish
+	 */
+	private void send(QueueEntry theEntry, String thePassword)
+	{
+		HttpReportServiceClient aService = new HttpReportServiceClient(theEntry.itsURL, "", (PublishProgressListener)null);
+		String aUser = theEntry.itsSnapshot.getMetadata(SnapshotSpool.USER_KEY);
+		aService.setItsUID(aUser == null ? "" : aUser);
+		aService.setItsPassword(thePassword);
+		aService.setItsTransportPolicy(itsTransportPolicy);
+		aService.setItsSpoolDirectory(itsDirectory);
+		aService.setItsSnapshotSpool(theEntry.itsSnapshot);
+		aService.setItsContentDigest(theEntry.itsSnapshot.getMetadata(SnapshotSpool.CONTENT_DIGEST_KEY));
+		itsActiveService = aService;
+		
+		// Wait for the scheduler to run the send, behind any other publish to the URL
+		QueuedSend aSend = new QueuedSend(theEntry, aService);
+		itsActiveJob = aSend;
+		PublishScheduler.getInstance().submit(aSend);
+		boolean isInterrupted = false;
+		while(true)
+		{
+			try
+			{
+				aSend.itsDone.await();
+				break;
+			}
+			catch(InterruptedException anIntEx)
+			{
+				isInterrupted = true;
+				aService.cancel();
+				PublishScheduler.getInstance().cancel(aSend);
+			}
+		}
+		if(isInterrupted)
+		{
+			Thread.currentThread().interrupt();
+		}
+		itsActiveJob = null;
+		
+		boolean isSuccess = aSend.itIsSuccess;
+		int aReturnCode = aSend.itsReturnCode;
+		String aTime = new SimpleDateFormat(TIME_FORMAT).format(new Date());
+		if(isSuccess)
+		{
+			acknowledge(theEntry);
+		}
+		
+		synchronized(this)
+		{
+			itsActiveService = null;
+			itsActiveEntry = null;
+			// A queue stopped during the attempt, or since restarted with the entries read afresh, is left as it is,
+			// so a snapshot sent as the queue stopped is sent again, and found unchanged, when the queue next starts
+			if(!isDraining())
+			{
+				return;
+			}
+			
+			String anOutcome;
+			boolean isRetrying = !isSuccess && isUnreachable(aReturnCode);
+			if(isRetrying && !theEntry.itIsRemoved)
+			{
+				theEntry.itsAttempts++;
+				long aBackoff = getBackoff(theEntry.itsAttempts);
+				theEntry.itsNextAttempt = System.currentTimeMillis() + aBackoff;
+				anOutcome = EasReportTab.QUEUE_UNREACHABLE_MSG + (aBackoff / MILLIS_PER_SECOND) + "s";
+			}
+			else
+			{
+				if(!theEntry.itIsRemoved)
+				{
+					itsEntries.remove(theEntry.itsURL);
+				}
+				theEntry.itsSnapshot.delete();
+				boolean isSuperseded = isRetrying || aReturnCode == EasReportTab.PUBLISH_SUPERSEDED;
+				anOutcome = isSuccess ? EasReportTab.QUEUE_SENT_MSG : (isSuperseded ? EasReportTab.QUEUE_SUPERSEDED_MSG : EasReportTab.QUEUE_FAILED_MSG + aReturnCode);
+			}
+			itsLastStatus = aTime + " " + theEntry.itsURL + ": " + anOutcome;
+		}
+		notifyListener();
+	}
+	
+	/**
+	 * Record the content digest of a sent snapshot as acknowledged by its URL. A snapshot queued without
+	 * a content digest leaves the URL with no acknowledged content, so that the next publish is not skipped.
+	 * @param theEntry the sent snapshot
+	 */
+	private void acknowledge(QueueEntry theEntry)
+	{
+		String aContentDigest = theEntry.itsSnapshot.getMetadata(SnapshotSpool.CONTENT_DIGEST_KEY);
+		if(aContentDigest != null)
+		{
+			AcknowledgedDigests.acknowledge(itsAcknowledgedDirectory, theEntry.itsURL, aContentDigest);
+		}
+		else
+		{
+			AcknowledgedDigests.forget(itsAcknowledgedDirectory, theEntry.itsURL);
+		}
+	}
+	
+	/**
+	 * Did the attempt fail because the Report Service could not be reached?
+	 * @param theReturnCode the return code of the attempt
+	 * @return true for no response or a transient gateway failure
+	 */
+	public boolean isUnreachable(int theReturnCode)
+	{
+		return theReturnCode == EasReportTab.NO_SERVER || itsTransportPolicy.isRetryableStatus(theReturnCode);
+	}
+	
+	/**
+	 * Get the backoff after the specified number of failed attempts
+	 * @param theAttempts the number of failed attempts
+	 * @return the backoff in milliseconds
+	 */
+	private long getBackoff(int theAttempts)
+	{
+		long aBackoff = itsInitialBackoff;
+		for(int i = 1; i < theAttempts && aBackoff < itsMaxBackoff; i++)
+		{
+			aBackoff = aBackoff * 2;
+		}
+		return Math.min(aBackoff, itsMaxBackoff);
+	}
+	
+	/**
+	 * @return true if the calling thread is the drain thread of the running queue, rather than one that was 
+	 * stopped and has not yet finished
+	 */
+	private boolean isDraining()
+	{
+		return itIsRunning && Thread.currentThread() == itsDrainThread;
+	}
+	
+	/**
+	 * Tell the listeners the depth of the queue and the last status
+	 */
+	private void notifyListener()
+	{
+		int aDepth = getDepth();
+		String aLastStatus = getLastStatus();
+		for(PublishQueueListener aListener : itsListeners)
+		{
+			aListener.updatePublishQueue(aDepth, aLastStatus);
+		}
+	}
+	
+	private static long readLong(Properties theProperties, String theName, long theDefault)
+	{
+		try
+		{
+			long aValue = Long.parseLong(theProperties.getProperty(theName, String.valueOf(theDefault)).trim());
+			return aValue > 0 ? aValue : theDefault;
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			System.out.println("Invalid value for property " + theName + ". Using default: " + theDefault);
+			return theDefault;
+		}
+	}
+
+	/**
+	 * @param itsAcknowledgedDirectory the directory in which the content digests acknowledged by each URL are recorded
+	 * @since 1.1
+	 */
+	public void setItsAcknowledgedDirectory(File itsAcknowledgedDirectory) {
+		this.itsAcknowledgedDirectory = itsAcknowledgedDirectory;
+	}
+
+	/**
+	 * @param theListener a listener to be told the depth and status of the queue
+	 * @since 1.3
+	 */
+	public void addListener(PublishQueueListener theListener)
+	{
+		itsListeners.add(theListener);
+	}
+	
+	/**
+	 * @param theListener a listener that is no longer to be told the depth and status of the queue
+	 * @since 1.3
+	 */
+	public void removeListener(PublishQueueListener theListener)
+	{
+		itsListeners.remove(theListener);
+	}
+}
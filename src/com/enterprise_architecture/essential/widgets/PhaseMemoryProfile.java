@@ -0,0 +1,207 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The heap use and allocation of each phase of a publish, to find which phase to blame when Protege runs short of 
+ * memory while publishing. 
+ * <br/>
+ * At the start and end of each phase, and whenever #sample is called during it, the heap in use is sampled and the
+ * peak kept. The bytes allocated by the thread performing the phase are also measured, where the JVM supports it.
+ * The heap is shared by the whole JVM, so its peak includes the use of anything else that was running, which is 
+ * what matters when it comes close to the maximum heap, -Xmx. A phase whose peak reaches #WARNING_FRACTION of the 
+ * maximum is reported as near the limit.
+ * <br/>
+ * One phase is measured at a time. The profile is passed along with the publish, from the render through to the
+ * images, and the phases are then reported in the status area and the PublishTrace.
+ * @version 1.0
+ */
+public class PhaseMemoryProfile 
+{
+	public static final double WARNING_FRACTION = 0.85;
+	
+	/**
+	 * The phases that are measured
+	 */
+	public static final String RENDER = "RENDER";
+	public static final String COPY = "COPY";
+	public static final String COMPRESS = "COMPRESS";
+	public static final String IMAGES = "IMAGES";
+	
+	private static final double MEGABYTE = 1024 * 1024;
+	
+	/**
+	 * The heap use and allocation of one phase
+	 */
+	public static class PhaseMemory
+	{
+		private final String itsName;
+		private final long itsPeakHeap;
+		private final long itsAllocatedBytes;
+		
+		private PhaseMemory(String theName, long thePeakHeap, long theAllocatedBytes)
+		{
+			itsName = theName;
+			itsPeakHeap = thePeakHeap;
+			itsAllocatedBytes = theAllocatedBytes;
+		}
+		
+		/**
+		 * @return the name of the phase
+		 */
+		public String getItsName() {
+			return itsName;
+		}
+		
+		/**
+		 * @return the peak heap in use during the phase, in bytes
+		 */
+		public long getItsPeakHeap() {
+			return itsPeakHeap;
+		}
+		
+		/**
+		 * @return the bytes allocated by the thread performing the phase, or -1 if that cannot be measured
+		 */
+		public long getItsAllocatedBytes() {
+			return itsAllocatedBytes;
+		}
+		
+		/**
+		 * @return true if the peak heap came within #WARNING_FRACTION of the maximum heap
+		 */
+		public boolean isNearLimit()
+		{
+			return itsPeakHeap >= WARNING_FRACTION * Runtime.getRuntime().maxMemory();
+		}
+		
+		/**
+		 * @return a summary of the phase for the status area
+		 */
+		public String toString()
+		{
+			long aMaxHeap = Runtime.getRuntime().maxMemory();
+			String aSummary = String.format("%s: peak heap %.1f MB (%.0f%% of max)", itsName, itsPeakHeap / MEGABYTE, 100.0 * itsPeakHeap / aMaxHeap);
+			if(itsAllocatedBytes >= 0)
+			{
+				aSummary += String.format(", allocated %.1f MB", itsAllocatedBytes / MEGABYTE);
+			}
+			return aSummary;
+		}
+	}
+	
+	private final List<PhaseMemory> itsPhases = new ArrayList<PhaseMemory>();
+	private String itsPhase = null;
+	private long itsStartAllocated = -1;
+	private long itsPeakHeap = 0;
+	
+	/**
+	 * Start measuring a phase, on the thread that will perform it
+	 * @param thePhase the name of the phase
+	 */
+	public synchronized void start(String thePhase)
+	{
+		itsPhase = thePhase;
+		itsStartAllocated = getThreadAllocatedBytes();
+		itsPeakHeap = getHeapUsed();
+	}
+	
+	/**
+	 * Sample the heap in use during the current phase
+	 */
+	public synchronized void sample()
+	{
+		itsPeakHeap = Math.max(itsPeakHeap, getHeapUsed());
+	}
+	
+	/**
+	 * Finish measuring the current phase, on the thread that performed it
+	 * @return the heap use and allocation of the phase, or null if no phase was started
+	 */
+	public synchronized PhaseMemory end()
+	{
+		if(itsPhase == null)
+		{
+			return null;
+		}
+		long anAllocated = getThreadAllocatedBytes();
+		PhaseMemory aPhase = new PhaseMemory(itsPhase, Math.max(itsPeakHeap, getHeapUsed()), 
+											 (anAllocated >= 0 && itsStartAllocated >= 0) ? anAllocated - itsStartAllocated : -1);
+		itsPhases.add(aPhase);
+		itsPhase = null;
+		return aPhase;
+	}
+	
+	/**
+	 * @return the phases measured so far, in order
+	 */
+	public synchronized List<PhaseMemory> getPhases()
+	{
+		return new ArrayList<PhaseMemory>(itsPhases);
+	}
+	
+	/**
+	 * @return a new profile holding the phases measured so far, to which the phases of one of several parallel
+	 * publishes can be added
+	 */
+	public synchronized PhaseMemoryProfile copy()
+	{
+		PhaseMemoryProfile aCopy = new PhaseMemoryProfile();
+		aCopy.itsPhases.addAll(itsPhases);
+		return aCopy;
+	}
+	
+	/**
+	 * @return the heap in use, in bytes
+	 */
+	private static long getHeapUsed()
+	{
+		Runtime aRuntime = Runtime.getRuntime();
+		return aRuntime.totalMemory() - aRuntime.freeMemory();
+	}
+	
+	/**
+	 * @return the bytes allocated by the current thread so far, or -1 if the JVM cannot measure it
+	 */
+	private static long getThreadAllocatedBytes()
+	{
+		try
+		{
+			ThreadMXBean aThreadBean = ManagementFactory.getThreadMXBean();
+			if(aThreadBean instanceof com.sun.management.ThreadMXBean)
+			{
+				com.sun.management.ThreadMXBean anAllocationBean = (com.sun.management.ThreadMXBean)aThreadBean;
+				if(anAllocationBean.isThreadAllocatedMemorySupported() && anAllocationBean.isThreadAllocatedMemoryEnabled())
+				{
+					return anAllocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+				}
+			}
+		}
+		catch(Throwable aThrowable)
+		{
+			// Not a JVM that provides the com.sun.management extensions
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+/**
+ * Adapts an existing ProgressListener so that it can receive PublishProgressEvents. Each event
+ * is passed on as its message and the percentage of the current phase that has been completed.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.ProgressListener ProgressListener
+ */
+public class ProgressListenerAdapter implements PublishProgressListener 
+{
+	/**
+	 * The listener to which the events are passed
+	 */
+	private final ProgressListener itsListener;
+	
+	/**
+	 * Constructor
+	 * @param theListener the ProgressListener that should receive the progress updates
+	 */
+	public ProgressListenerAdapter(ProgressListener theListener)
+	{
+		itsListener = theListener;
+	}
+	
+	/**
+	 * Wrap the specified listener in an adapter, if it has been set.
+	 * @param theListener the ProgressListener to adapt
+	 * @return the adapted listener or null if theListener is null
+	 */
+	public static PublishProgressListener adapt(ProgressListener theListener)
+	{
+		if(theListener == null)
+		{
+			return null;
+		}
+		return new ProgressListenerAdapter(theListener);
+	}
+
+	/**
+	 * Pass the event on to the ProgressListener as a message and percentage.
+	 * @param theEvent the progress event
+	 */
+	public void updatePublishProgress(PublishProgressEvent theEvent)
+	{
+		itsListener.updateProgress(theEvent.getMessage(), theEvent.getProgressPercentage());
+	}
+
+	/**
+	 * @return the ProgressListener that is being adapted
+	 */
+	public ProgressListener getItsListener() {
+		return itsListener;
+	}
+}
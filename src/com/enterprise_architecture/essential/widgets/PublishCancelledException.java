@@ -0,0 +1,43 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a publish is cancelled by the user, to unwind the rendering or sending of 
+ * the repository snapshot.
+ * @version 1.0
+ */
+public class PublishCancelledException extends IOException 
+{
+	/**
+	 * Serial version ID
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor
+	 * @param theMessage description of where the publish was cancelled
+	 */
+	public PublishCancelledException(String theMessage)
+	{
+		super(theMessage);
+	}
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The Java Flight Recorder events of publishing, in the Essential/Publish category. This class needs the jdk.jfr
+ * API, so it must only be used through the PublishFlightRecorder, which checks that the API is present.
+ * The fields of the events are named for the recording, in which they appear, rather than for this code.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishFlightRecorder PublishFlightRecorder
+ */
+public class PublishFlightEvents 
+{
+	/**
+	 * A publish of a snapshot, and its images, to one Report Service or a set of targets
+	 */
+	@Name("com.enterprise_architecture.essential.Publish")
+	@Label("Publish")
+	@Category({"Essential", "Publish"})
+	@StackTrace(false)
+	@Description("A publish of a repository snapshot to Essential Viewer")
+	public static class PublishEvent extends Event
+	{
+		@Label("URLs")
+		String urls;
+		
+		@Label("Queued Time")
+		@Description("How long the publish waited for the publish scheduler")
+		@Timespan(Timespan.MILLISECONDS)
+		long queuedTime;
+		
+		@Label("Success")
+		boolean success;
+		
+		@Label("Return Code")
+		int returnCode;
+	}
+	
+	/**
+	 * One phase of a publish
+	 */
+	@Name("com.enterprise_architecture.essential.PublishPhase")
+	@Label("Publish Phase")
+	@Category({"Essential", "Publish"})
+	@StackTrace(false)
+	@Description("One phase of a publish to Essential Viewer")
+	public static class PhaseEvent extends Event
+	{
+		@Label("Source")
+		@Description("The class performing the phase")
+		String source;
+		
+		@Label("Phase")
+		String phase;
+		
+		@Label("URL")
+		String url;
+	}
+	
+	/**
+	 * The rendering, encoding and upload of one graph image
+	 */
+	@Name("com.enterprise_architecture.essential.GraphImage")
+	@Label("Graph Image")
+	@Category({"Essential", "Publish"})
+	@StackTrace(false)
+	@Description("The rendering, encoding and upload of the image of one graph widget")
+	public static class ImageEvent extends Event
+	{
+		@Label("Class")
+		String className;
+		
+		@Label("Slot")
+		String slotName;
+		
+		@Label("Instance")
+		String instanceName;
+		
+		@Label("Width")
+		int width;
+		
+		@Label("Height")
+		int height;
+		
+		@Label("Encode Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long encodeTime;
+		
+		@Label("Upload Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long uploadTime;
+		
+		@Label("Encoded Size")
+		@DataAmount
+		long encodedSize;
+		
+		@Label("Success")
+		boolean success;
+	}
+	
+	static Object beginPublish(String theURLs, long theQueuedMillis)
+	{
+		PublishEvent anEvent = new PublishEvent();
+		anEvent.urls = theURLs;
+		anEvent.queuedTime = theQueuedMillis;
+		anEvent.begin();
+		return anEvent;
+	}
+	
+	static void endPublish(Object theEvent, boolean isSuccess, int theReturnCode)
+	{
+		PublishEvent anEvent = (PublishEvent)theEvent;
+		anEvent.end();
+		if(anEvent.shouldCommit())
+		{
+			anEvent.success = isSuccess;
+			anEvent.returnCode = theReturnCode;
+			anEvent.commit();
+		}
+	}
+	
+	static Object beginPhase(String theSource, PublishPhase thePhase, String theURL)
+	{
+		PhaseEvent anEvent = new PhaseEvent();
+		anEvent.source = theSource;
+		anEvent.phase = thePhase.name();
+		anEvent.url = theURL;
+		anEvent.begin();
+		return anEvent;
+	}
+	
+	static void endPhase(Object theEvent)
+	{
+		PhaseEvent anEvent = (PhaseEvent)theEvent;
+		anEvent.end();
+		if(anEvent.shouldCommit())
+		{
+			anEvent.commit();
+		}
+	}
+	
+	static Object beginImage()
+	{
+		ImageEvent anEvent = new ImageEvent();
+		anEvent.begin();
+		return anEvent;
+	}
+	
+	static void endImage(Object theEvent, String theClassName, String theSlotName, String theInstanceName, int theWidth, int theHeight, 
+						 long theEncodeNanos, long theUploadNanos, long theBytes, boolean isSuccess)
+	{
+		ImageEvent anEvent = (ImageEvent)theEvent;
+		anEvent.end();
+		if(anEvent.shouldCommit())
+		{
+			anEvent.className = theClassName;
+			anEvent.slotName = theSlotName;
+			anEvent.instanceName = theInstanceName;
+			anEvent.width = theWidth;
+			anEvent.height = theHeight;
+			anEvent.encodeTime = theEncodeNanos;
+			anEvent.uploadTime = theUploadNanos;
+			anEvent.encodedSize = theBytes;
+			anEvent.success = isSuccess;
+			anEvent.commit();
+		}
+	}
+}
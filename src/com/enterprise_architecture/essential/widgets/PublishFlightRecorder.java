@@ -0,0 +1,140 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+/**
+ * Emits Java Flight Recorder events for each publish, each of its phases and each graph image, so that a recording 
+ * shows where the time of a slow publish goes, alongside the GC and allocation data of the JVM.
+ * <br/>
+ * The events themselves are defined by the PublishFlightEvents, which needs the jdk.jfr API. That API is not in 
+ * every Java 8 runtime, so it is only touched once it is known to be present; otherwise every method here does 
+ * nothing. The events are returned as Objects for the same reason. An event costs almost nothing unless a 
+ * recording that enables it is running.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishFlightEvents PublishFlightEvents
+ */
+public class PublishFlightRecorder 
+{
+	private static final boolean IS_AVAILABLE = checkAvailable();
+	
+	/**
+	 * @return true if Java Flight Recorder events can be emitted in this runtime
+	 */
+	public static boolean isAvailable()
+	{
+		return IS_AVAILABLE;
+	}
+	
+	/**
+	 * Begin the event of a publish
+	 * @param theURLs the URL, or URLs, of the Report Services being published to
+	 * @param theQueuedMillis how long the publish waited for the PublishScheduler, in milliseconds
+	 * @return the event, or null if events cannot be emitted
+	 */
+	public static Object beginPublish(String theURLs, long theQueuedMillis)
+	{
+		return IS_AVAILABLE ? PublishFlightEvents.beginPublish(theURLs, theQueuedMillis) : null;
+	}
+	
+	/**
+	 * End and commit the event of a publish
+	 * @param theEvent the event, from #beginPublish
+	 * @param isSuccess true if the publish succeeded
+	 * @param theReturnCode the return code of the publish
+	 */
+	public static void endPublish(Object theEvent, boolean isSuccess, int theReturnCode)
+	{
+		if(theEvent != null)
+		{
+			PublishFlightEvents.endPublish(theEvent, isSuccess, theReturnCode);
+		}
+	}
+	
+	/**
+	 * Begin the event of a publish phase
+	 * @param theSource the name of the class performing the phase
+	 * @param thePhase the phase
+	 * @param theURL the URL of the Report Service, or null if the phase is not for one URL
+	 * @return the event, or null if events cannot be emitted
+	 */
+	public static Object beginPhase(String theSource, PublishPhase thePhase, String theURL)
+	{
+		return IS_AVAILABLE ? PublishFlightEvents.beginPhase(theSource, thePhase, theURL) : null;
+	}
+	
+	/**
+	 * End and commit the event of a publish phase
+	 * @param theEvent the event, from #beginPhase
+	 */
+	public static void endPhase(Object theEvent)
+	{
+		if(theEvent != null)
+		{
+			PublishFlightEvents.endPhase(theEvent);
+		}
+	}
+	
+	/**
+	 * Begin the event of a graph image, as its rendering starts
+	 * @return the event, or null if events cannot be emitted
+	 */
+	public static Object beginImage()
+	{
+		return IS_AVAILABLE ? PublishFlightEvents.beginImage() : null;
+	}
+	
+	/**
+	 * End and commit the event of a graph image, once it has been sent or has failed
+	 * @param theEvent the event, from #beginImage
+	 * @param theClassName the name of the class whose form holds the graph widget
+	 * @param theSlotName the name of the slot of the graph widget
+	 * @param theInstanceName the name of the instance whose image it is
+	 * @param theWidth the width of the raster, or 0 if it was not rendered
+	 * @param theHeight the height of the raster, or 0 if it was not rendered
+	 * @param theEncodeNanos the time spent encoding the image, in nanoseconds
+	 * @param theUploadNanos the time spent uploading the image, in nanoseconds
+	 * @param theBytes the length of the encoded image, in bytes
+	 * @param isSuccess true if the image receiver accepted the image
+	 */
+	public static void endImage(Object theEvent, String theClassName, String theSlotName, String theInstanceName, int theWidth, int theHeight, 
+								long theEncodeNanos, long theUploadNanos, long theBytes, boolean isSuccess)
+	{
+		if(theEvent != null)
+		{
+			PublishFlightEvents.endImage(theEvent, theClassName, theSlotName, theInstanceName, theWidth, theHeight, 
+										 theEncodeNanos, theUploadNanos, theBytes, isSuccess);
+		}
+	}
+	
+	/**
+	 * @return true if the jdk.jfr API is present
+	 */
+	private static boolean checkAvailable()
+	{
+		try
+		{
+			Class.forName("jdk.jfr.Event");
+			return true;
+		}
+		catch(Throwable aThrowable)
+		{
+			return false;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A publish to one or more Report Service URLs, to be run by the PublishScheduler. Each job is either run, or 
+ * told that it was skipped: because a publish to the same URLs superseded it while it waited, or because it 
+ * was cancelled before it started.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishScheduler PublishScheduler
+ */
+public abstract class PublishJob 
+{
+	private final Set<String> itsURLs;
+	private final PublishPriority itsPriority;
+	private final String itsDescription;
+	
+	/**
+	 * Create a job to publish to the specified URLs
+	 * @param theURLs the URLs of the Report Services to which the job publishes
+	 * @param thePriority the priority of the job
+	 * @param theDescription a description of the job, shown while it waits or runs
+	 */
+	protected PublishJob(Collection<String> theURLs, PublishPriority thePriority, String theDescription)
+	{
+		itsURLs = Collections.unmodifiableSet(new LinkedHashSet<String>(theURLs));
+		itsPriority = thePriority;
+		itsDescription = theDescription;
+	}
+	
+	/**
+	 * Publish. Called on a worker thread of the scheduler, once no other job is publishing to any of the URLs.
+	 */
+	public abstract void run();
+	
+	/**
+	 * The job will not be run
+	 * @param theReturnCode EasReportTab#PUBLISH_SUPERSEDED or EasReportTab#PUBLISH_CANCELLED
+	 */
+	public abstract void skipped(int theReturnCode);
+
+	/**
+	 * @return the URLs of the Report Services to which the job publishes
+	 */
+	public Set<String> getItsURLs() {
+		return itsURLs;
+	}
+
+	/**
+	 * @return the priority of the job
+	 */
+	public PublishPriority getItsPriority() {
+		return itsPriority;
+	}
+
+	/**
+	 * @return the description of the job
+	 */
+	public String getItsDescription() {
+		return itsDescription;
+	}
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The process-wide metrics of publishing, registered with the platform MBeanServer so that publish health can be 
+ * watched from JConsole, or scraped by a JMX exporter. 
+ * <br/>
+ * These metrics, named #OBJECT_NAME, hold the durations of rendering and compressing each snapshot. Each Report 
+ * Service URL has its own PublishTargetMetrics, named #TARGET_TYPE with the quoted URL as the url key, which hold 
+ * the durations of each of the other TimedPhase, the byte and image counts, and the hits and misses of the image 
+ * checkpoint and of the unchanged content check. Each duration is given as its last value and the mean, minimum and 
+ * maximum of the most recent values.
+ * <br/>
+ * If the MXBeans cannot be registered, the metrics are still recorded but cannot be seen.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishTargetMetrics PublishTargetMetrics
+ */
+public class PublishMetrics implements PublishMetricsMXBean
+{
+	public static final String DOMAIN = "com.enterprise_architecture.essential";
+	public static final String OBJECT_NAME = DOMAIN + ":type=PublishMetrics";
+	public static final String TARGET_TYPE = DOMAIN + ":type=PublishTargetMetrics";
+	
+	private static PublishMetrics theirInstance = null;
+	
+	private final RollingStatistic itsRenderMillis = new RollingStatistic();
+	private final RollingStatistic itsCompressMillis = new RollingStatistic();
+	private final RollingStatistic itsCompressionRatio = new RollingStatistic();
+	private long itsLastRenderedLength = 0;
+	private final Map<String, PublishTargetMetrics> itsTargets = new LinkedHashMap<String, PublishTargetMetrics>();
+	
+	/**
+	 * @return the metrics of this process, registering them on first use
+	 */
+	public static synchronized PublishMetrics getInstance()
+	{
+		if(theirInstance == null)
+		{
+			theirInstance = new PublishMetrics();
+			register(theirInstance, OBJECT_NAME);
+		}
+		return theirInstance;
+	}
+	
+	/**
+	 * Record the rendering of a snapshot
+	 * @param theMillis the duration of the render in milliseconds
+	 * @param theLength the length of the snapshot, in characters
+	 */
+	public synchronized void recordRender(long theMillis, long theLength)
+	{
+		itsRenderMillis.record(theMillis);
+		itsLastRenderedLength = theLength;
+	}
+	
+	/**
+	 * Record the compression of a snapshot, both here and for each URL to which it will be sent
+	 * @param theURLs the URLs of the Report Services to which the snapshot will be sent
+	 * @param theMillis the duration of the compression in milliseconds
+	 * @param theLength the length of the serialised snapshot before compression, in bytes
+	 * @param theCompressedLength the length of the compressed snapshot, in bytes
+	 */
+	public void recordCompression(Iterable<String> theURLs, long theMillis, long theLength, long theCompressedLength)
+	{
+		itsCompressMillis.record(theMillis);
+		if(theCompressedLength > 0)
+		{
+			itsCompressionRatio.record((double)theLength / theCompressedLength);
+		}
+		for(String aURL : theURLs)
+		{
+			PublishTargetMetrics aTarget = getTarget(aURL);
+			aTarget.recordPhase(TimedPhase.COMPRESS, theMillis);
+			aTarget.recordCompression(theLength, theCompressedLength);
+		}
+	}
+	
+	/**
+	 * Get the metrics of the specified URL, creating and registering them on first use
+	 * @param theURL the URL of the Report Service
+	 * @return the metrics of the URL
+	 */
+	public synchronized PublishTargetMetrics getTarget(String theURL)
+	{
+		String aURL = String.valueOf(theURL);
+		PublishTargetMetrics aTarget = itsTargets.get(aURL);
+		if(aTarget == null)
+		{
+			aTarget = new PublishTargetMetrics(aURL);
+			itsTargets.put(aURL, aTarget);
+			register(aTarget, TARGET_TYPE + ",url=" + ObjectName.quote(aURL));
+		}
+		return aTarget;
+	}
+
+	public Map<String, RollingStatistic> getPhaseMillis()
+	{
+		Map<String, RollingStatistic> aPhaseMillis = new LinkedHashMap<String, RollingStatistic>();
+		aPhaseMillis.put(TimedPhase.RENDER.name(), itsRenderMillis);
+		aPhaseMillis.put(TimedPhase.COMPRESS.name(), itsCompressMillis);
+		return aPhaseMillis;
+	}
+
+	public synchronized long getLastRenderedLength()
+	{
+		return itsLastRenderedLength;
+	}
+
+	public RollingStatistic getCompressionRatio()
+	{
+		return itsCompressionRatio;
+	}
+
+	public synchronized List<String> getTargetURLs()
+	{
+		return new ArrayList<String>(itsTargets.keySet());
+	}
+
+	public long getPublishCount()
+	{
+		long aCount = 0;
+		for(PublishTargetMetrics aTarget : getTargets())
+		{
+			aCount += aTarget.getPublishCount();
+		}
+		return aCount;
+	}
+
+	public long getFailureCount()
+	{
+		long aCount = 0;
+		for(PublishTargetMetrics aTarget : getTargets())
+		{
+			aCount += aTarget.getFailureCount();
+		}
+		return aCount;
+	}
+
+	public long getTotalUploadedBytes()
+	{
+		long aCount = 0;
+		for(PublishTargetMetrics aTarget : getTargets())
+		{
+			aCount += aTarget.getTotalUploadedBytes();
+		}
+		return aCount;
+	}
+
+	public void reset()
+	{
+		synchronized(this)
+		{
+			itsRenderMillis.reset();
+			itsCompressMillis.reset();
+			itsCompressionRatio.reset();
+			itsLastRenderedLength = 0;
+		}
+		for(PublishTargetMetrics aTarget : getTargets())
+		{
+			aTarget.reset();
+		}
+	}
+	
+	/**
+	 * @return a copy of the metrics of each URL
+	 */
+	private synchronized List<PublishTargetMetrics> getTargets()
+	{
+		return new ArrayList<PublishTargetMetrics>(itsTargets.values());
+	}
+	
+	/**
+	 * Register the MXBean with the platform MBeanServer, replacing any registered under the same name, such as
+	 * by an earlier load of the tab
+	 * @param theMXBean the MXBean
+	 * @param theName its object name
+	 */
+	private static void register(Object theMXBean, String theName)
+	{
+		try
+		{
+			MBeanServer aServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName anObjectName = new ObjectName(theName);
+			if(aServer.isRegistered(anObjectName))
+			{
+				aServer.unregisterMBean(anObjectName);
+			}
+			aServer.registerMBean(theMXBean, anObjectName);
+		}
+		catch(Exception anEx)
+		{
+			System.out.println("Unable to register the publish metrics " + theName + ": " + anEx);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The management interface of the PublishMetrics. The getters are named for the JMX attributes that they expose,
+ * rather than for the fields behind them.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishMetrics PublishMetrics
+ */
+public interface PublishMetricsMXBean 
+{
+	/**
+	 * @return the duration, in milliseconds, of rendering and compressing each snapshot, by the name of the TimedPhase
+	 */
+	public Map<String, RollingStatistic> getPhaseMillis();
+	
+	/**
+	 * @return the length, in characters, of the last snapshot rendered
+	 */
+	public long getLastRenderedLength();
+	
+	/**
+	 * @return the ratio of the length of each snapshot to its compressed length
+	 */
+	public RollingStatistic getCompressionRatio();
+	
+	/**
+	 * @return the URLs of the Report Services published to, each of which has its own PublishTargetMetrics
+	 */
+	public List<String> getTargetURLs();
+	
+	/**
+	 * @return the number of snapshots sent successfully, to every URL
+	 */
+	public long getPublishCount();
+	
+	/**
+	 * @return the number of snapshots that could not be sent, to every URL
+	 */
+	public long getFailureCount();
+	
+	/**
+	 * @return the bytes of snapshots and images uploaded, to every URL
+	 */
+	public long getTotalUploadedBytes();
+	
+	/**
+	 * Reset every count and statistic, including those of each URL
+	 */
+	public void reset();
+}
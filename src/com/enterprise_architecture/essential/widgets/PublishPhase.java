@@ -0,0 +1,59 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+/**
+ * The phases of publishing a repository snapshot to Essential Viewer, in the order in which
+ * they are performed. Each PublishProgressEvent reports progress against one of these phases.
+ * @version 1.1 - Activation of a staged snapshot
+ * @see com.enterprise_architecture.essential.widgets.PublishProgressEvent PublishProgressEvent
+ */
+public enum PublishPhase 
+{
+	/**
+	 * Rendering the repository to the XML snapshot
+	 */
+	RENDER,
+	
+	/**
+	 * Compressing the XML snapshot ready for sending
+	 */
+	COMPRESS,
+	
+	/**
+	 * Checking for, and if required performing, login to the Report Service
+	 */
+	AUTH,
+	
+	/**
+	 * Sending the compressed XML snapshot to the Report Service
+	 */
+	UPLOAD_XML,
+	
+	/**
+	 * Rendering and sending the graphical model images
+	 */
+	IMAGES,
+	
+	/**
+	 * Activating, on every target, the snapshot and images staged by a coordinated publish
+	 * @since 1.1
+	 */
+	ACTIVATE
+}
@@ -0,0 +1,293 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+/**
+ * Progress update sent to a PublishProgressListener during the publishing of a repository snapshot.
+ * Each event describes the phase of the publish that is in progress, the bytes and items that have been
+ * processed in that phase so far (where these are known) and the time that has elapsed since the phase started.
+ * From these, an estimate of the throughput and the time remaining in the phase is derived. Where the sender
+ * has measured a transfer rate, e.g. a moving average from the CountingOutputStream, that rate is used instead.
+ * <br/>
+ * A total of -1 indicates that the total is not known. Where neither a byte nor an item total is known, 
+ * the percentage supplied by the sender of the event is used.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishProgressListener PublishProgressListener
+ */
+public class PublishProgressEvent 
+{
+	/**
+	 * Value used for any counter that is not known
+	 */
+	public static final long UNKNOWN = -1;
+	
+	private static final int ONE_HUNDRED_PERCENT = 100;
+	private static final double MILLIS_PER_SECOND = 1000.0;
+	
+	private final PublishPhase itsPhase;
+	private final String itsMessage;
+	private final long itsBytesDone;
+	private final long itsBytesTotal;
+	private final long itsItemsDone;
+	private final long itsItemsTotal;
+	private final long itsElapsedTime;
+	private final int itsPercentage;
+	private final double itsRate;
+	
+	/**
+	 * Full constructor
+	 * @param thePhase the phase of the publish to which this event relates
+	 * @param theMessage any message to report. Must not be null, use "" for no message
+	 * @param theBytesDone the number of bytes processed so far in this phase, or UNKNOWN
+	 * @param theBytesTotal the total number of bytes to be processed in this phase, or UNKNOWN
+	 * @param theItemsDone the number of items, e.g. images, processed so far in this phase, or UNKNOWN
+	 * @param theItemsTotal the total number of items to be processed in this phase, or UNKNOWN
+	 * @param theElapsedTime the time, in milliseconds, since this phase started
+	 * @param thePercentage the percentage of the phase completed, used when no totals are known
+	 */
+	public PublishProgressEvent(PublishPhase thePhase, 
+								String theMessage, 
+								long theBytesDone, 
+								long theBytesTotal, 
+								long theItemsDone, 
+								long theItemsTotal, 
+								long theElapsedTime, 
+								int thePercentage)
+	{
+		this(thePhase, theMessage, theBytesDone, theBytesTotal, theItemsDone, theItemsTotal, theElapsedTime, thePercentage, UNKNOWN);
+	}
+	
+	/**
+	 * Full constructor, including a measured throughput
+	 * @param thePhase the phase of the publish to which this event relates
+	 * @param theMessage any message to report. Must not be null, use "" for no message
+	 * @param theBytesDone the number of bytes processed so far in this phase, or UNKNOWN
+	 * @param theBytesTotal the total number of bytes to be processed in this phase, or UNKNOWN
+	 * @param theItemsDone the number of items, e.g. images, processed so far in this phase, or UNKNOWN
+	 * @param theItemsTotal the total number of items to be processed in this phase, or UNKNOWN
+	 * @param theElapsedTime the time, in milliseconds, since this phase started
+	 * @param thePercentage the percentage of the phase completed, used when no totals are known
+	 * @param theRate the measured throughput per second, or UNKNOWN to derive it from the counters
+	 */
+	public PublishProgressEvent(PublishPhase thePhase, 
+								String theMessage, 
+								long theBytesDone, 
+								long theBytesTotal, 
+								long theItemsDone, 
+								long theItemsTotal, 
+								long theElapsedTime, 
+								int thePercentage,
+								double theRate)
+	{
+		itsPhase = thePhase;
+		itsMessage = theMessage;
+		itsBytesDone = theBytesDone;
+		itsBytesTotal = theBytesTotal;
+		itsItemsDone = theItemsDone;
+		itsItemsTotal = theItemsTotal;
+		itsElapsedTime = theElapsedTime;
+		itsPercentage = thePercentage;
+		itsRate = theRate;
+	}
+	
+	/**
+	 * Create an event that only reports a message and a percentage for the specified phase
+	 * @param thePhase the phase of the publish to which this event relates
+	 * @param theMessage any message to report, use "" for no message
+	 * @param theElapsedTime the time, in milliseconds, since this phase started
+	 * @param thePercentage the percentage of the phase that has been completed
+	 * @return the new event
+	 */
+	public static PublishProgressEvent forPercentage(PublishPhase thePhase, String theMessage, long theElapsedTime, int thePercentage)
+	{
+		return new PublishProgressEvent(thePhase, theMessage, UNKNOWN, UNKNOWN, UNKNOWN, UNKNOWN, theElapsedTime, thePercentage);
+	}
+	
+	/**
+	 * Create an event that reports the bytes processed for the specified phase
+	 * @param thePhase the phase of the publish to which this event relates
+	 * @param theBytesDone the number of bytes processed so far
+	 * @param theBytesTotal the total number of bytes to process
+	 * @param theElapsedTime the time, in milliseconds, since this phase started
+	 * @return the new event
+	 */
+	public static PublishProgressEvent forBytes(PublishPhase thePhase, long theBytesDone, long theBytesTotal, long theElapsedTime)
+	{
+		return new PublishProgressEvent(thePhase, "", theBytesDone, theBytesTotal, UNKNOWN, UNKNOWN, theElapsedTime, percentOf(theBytesDone, theBytesTotal));
+	}
+	
+	/**
+	 * Create an event that reports the bytes processed for the specified phase and the measured transfer rate
+	 * @param thePhase the phase of the publish to which this event relates
+	 * @param theBytesDone the number of bytes processed so far
+	 * @param theBytesTotal the total number of bytes to process
+	 * @param theElapsedTime the time, in milliseconds, since this phase started
+	 * @param theRate the measured transfer rate in bytes per second, or UNKNOWN
+	 * @return the new event
+	 */
+	public static PublishProgressEvent forBytes(PublishPhase thePhase, long theBytesDone, long theBytesTotal, long theElapsedTime, double theRate)
+	{
+		return new PublishProgressEvent(thePhase, "", theBytesDone, theBytesTotal, UNKNOWN, UNKNOWN, theElapsedTime, percentOf(theBytesDone, theBytesTotal), theRate);
+	}
+	
+	/**
+	 * Create an event that reports the items processed for the specified phase
+	 * @param thePhase the phase of the publish to which this event relates
+	 * @param theMessage any message to report, use "" for no message
+	 * @param theItemsDone the number of items processed so far
+	 * @param theItemsTotal the total number of items to process
+	 * @param theElapsedTime the time, in milliseconds, since this phase started
+	 * @return the new event
+	 */
+	public static PublishProgressEvent forItems(PublishPhase thePhase, String theMessage, long theItemsDone, long theItemsTotal, long theElapsedTime)
+	{
+		return new PublishProgressEvent(thePhase, theMessage, UNKNOWN, UNKNOWN, theItemsDone, theItemsTotal, theElapsedTime, percentOf(theItemsDone, theItemsTotal));
+	}
+	
+	/**
+	 * Get the percentage of the phase that has been completed. This is derived from the
+	 * byte counters if known, then the item counters, and otherwise is the percentage supplied by the sender.
+	 * @return the percentage complete, between 0 and 100
+	 */
+	public int getProgressPercentage()
+	{
+		if(itsBytesTotal > 0)
+		{
+			return percentOf(itsBytesDone, itsBytesTotal);
+		}
+		else if(itsItemsTotal > 0)
+		{
+			return percentOf(itsItemsDone, itsItemsTotal);
+		}
+		return itsPercentage;
+	}
+	
+	/**
+	 * Get the estimated throughput of this phase. Measured in bytes per second if the byte counters are known,
+	 * otherwise in items per second. A rate measured by the sender takes precedence over the average since
+	 * the phase started.
+	 * @return the throughput per second or UNKNOWN if it cannot be estimated yet.
+	 * @see #isByteThroughput()
+	 */
+	public double getThroughput()
+	{
+		if(itsRate > 0)
+		{
+			return itsRate;
+		}
+		long aDone = isByteThroughput() ? itsBytesDone : itsItemsDone;
+		if(aDone <= 0 || itsElapsedTime <= 0)
+		{
+			return UNKNOWN;
+		}
+		return aDone / (itsElapsedTime / MILLIS_PER_SECOND);
+	}
+	
+	/**
+	 * @return true if the throughput is measured in bytes per second, false if in items per second
+	 */
+	public boolean isByteThroughput()
+	{
+		return itsBytesDone >= 0;
+	}
+	
+	/**
+	 * Get the estimated time remaining in this phase, based on the current throughput
+	 * @return the estimated time remaining in milliseconds, or UNKNOWN if it cannot be estimated.
+	 */
+	public long getEstimatedTimeRemaining()
+	{
+		double aThroughput = getThroughput();
+		long aRemaining = isByteThroughput() ? itsBytesTotal - itsBytesDone : itsItemsTotal - itsItemsDone;
+		long aTotal = isByteThroughput() ? itsBytesTotal : itsItemsTotal;
+		if(aThroughput <= 0 || aTotal <= 0 || aRemaining < 0)
+		{
+			return UNKNOWN;
+		}
+		return (long)((aRemaining / aThroughput) * MILLIS_PER_SECOND);
+	}
+	
+	/**
+	 * Calculate a percentage, limiting the result to 0 - 100
+	 * @param theDone the count of work done
+	 * @param theTotal the total amount of work
+	 * @return the percentage of theTotal that theDone represents
+	 */
+	private static int percentOf(long theDone, long theTotal)
+	{
+		if(theTotal <= 0 || theDone < 0)
+		{
+			return 0;
+		}
+		if(theDone >= theTotal)
+		{
+			return ONE_HUNDRED_PERCENT;
+		}
+		return (int)((theDone * ONE_HUNDRED_PERCENT) / theTotal);
+	}
+
+	/**
+	 * @return the itsPhase
+	 */
+	public PublishPhase getPhase() {
+		return itsPhase;
+	}
+
+	/**
+	 * @return the itsMessage
+	 */
+	public String getMessage() {
+		return itsMessage;
+	}
+
+	/**
+	 * @return the itsBytesDone
+	 */
+	public long getBytesDone() {
+		return itsBytesDone;
+	}
+
+	/**
+	 * @return the itsBytesTotal
+	 */
+	public long getBytesTotal() {
+		return itsBytesTotal;
+	}
+
+	/**
+	 * @return the itsItemsDone
+	 */
+	public long getItemsDone() {
+		return itsItemsDone;
+	}
+
+	/**
+	 * @return the itsItemsTotal
+	 */
+	public long getItemsTotal() {
+		return itsItemsTotal;
+	}
+
+	/**
+	 * @return the itsElapsedTime in milliseconds
+	 */
+	public long getElapsedTime() {
+		return itsElapsedTime;
+	}
+}
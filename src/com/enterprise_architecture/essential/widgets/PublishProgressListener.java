@@ -0,0 +1,38 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+/**
+ * Interface that clients of the HttpReportServiceClient and ReportServiceClient implement 
+ * to receive typed progress events, carrying the publish phase and byte and item counters.
+ * Clients that only need a message and a percentage can continue to implement ProgressListener
+ * and register it via the ProgressListenerAdapter.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishProgressEvent PublishProgressEvent
+ * @see com.enterprise_architecture.essential.widgets.ProgressListenerAdapter ProgressListenerAdapter
+ */
+public interface PublishProgressListener 
+{
+	/**
+	 * Receive a progress event from the ReportServiceClient / HttpReportServiceClient
+	 * @param theEvent the progress event describing the current phase and how much of it
+	 * has been completed.
+	 */
+	public void updatePublishProgress(PublishProgressEvent theEvent);
+}
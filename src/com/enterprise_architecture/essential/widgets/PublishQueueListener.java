@@ -0,0 +1,37 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+/**
+ * Interface that clients of the OfflinePublishQueue implement to be told when the depth of the queue
+ * or the outcome of the last attempt to send a queued snapshot changes. Calls are made on the queue's
+ * drain thread.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.OfflinePublishQueue OfflinePublishQueue
+ */
+public interface PublishQueueListener 
+{
+	/**
+	 * Receive the state of the queue
+	 * @param theDepth the number of snapshots waiting to be sent
+	 * @param theLastStatus a description of the last attempt to send a queued snapshot, or an 
+	 * empty string if none has been made
+	 */
+	public void updatePublishQueue(int theDepth, String theLastStatus);
+}
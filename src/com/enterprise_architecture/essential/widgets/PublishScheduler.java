@@ -0,0 +1,293 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the publishes of every Essential Viewer tab in the Protege process, so that the tabs of several open 
+ * projects do not compete for heap and bandwidth.
+ * <br/>
+ * At most #getItsMaxWorkers publishes run at once, and only one at a time to any Report Service URL. Waiting 
+ * publishes start in order of PublishPriority, then in the order in which they were submitted. A publish 
+ * submitted to the same URLs as one that is waiting is merged with it: the one of higher priority is kept, or 
+ * the newer of two of the same priority, and the other is skipped with EasReportTab#PUBLISH_SUPERSEDED, since
+ * the Report Service would only be overwritten by the publish that followed.
+ * @version 1.1 - Release the URLs of an abandoned job<br/>
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishJob PublishJob
+ */
+public class PublishScheduler 
+{
+	public static final int DEFAULT_MAX_WORKERS = 2;
+	public static final String MAX_WORKERS_PROP = "reporttab.scheduler.workers";
+	
+	private static final PublishScheduler INSTANCE = new PublishScheduler();
+	
+	/**
+	 * The waiting jobs, in the order in which they will start, the running jobs and the URLs they publish to
+	 */
+	private final List<PublishJob> itsWaiting = new ArrayList<PublishJob>();
+	private final List<PublishJob> itsRunning = new ArrayList<PublishJob>();
+	private final Set<String> itsActiveURLs = new HashSet<String>();
+	private int itsMaxWorkers = DEFAULT_MAX_WORKERS;
+	
+	private final List<PublishSchedulerListener> itsListeners = new CopyOnWriteArrayList<PublishSchedulerListener>();
+	
+	/**
+	 * Worker threads are daemons, so that a stalled publish cannot hold up the exit, and are bounded by itsMaxWorkers
+	 */
+	private final ExecutorService itsExecutor = Executors.newCachedThreadPool(new ThreadFactory()
+	{
+		private final AtomicInteger itsThreadCount = new AtomicInteger();
+		
+		public Thread newThread(Runnable theRunnable)
+		{
+			Thread aThread = new Thread(theRunnable, "Essential Viewer publish scheduler " + itsThreadCount.incrementAndGet());
+			aThread.setDaemon(true);
+			return aThread;
+		}
+	});
+	
+	/**
+	 * @return the scheduler for this process
+	 */
+	public static PublishScheduler getInstance()
+	{
+		return INSTANCE;
+	}
+	
+	private PublishScheduler()
+	{
+	}
+	
+	/**
+	 * Submit a job, to start once a worker is free and no other job is publishing to any of its URLs
+	 * @param theJob the job
+	 */
+	public void submit(PublishJob theJob)
+	{
+		List<PublishJob> aSkipped = new ArrayList<PublishJob>();
+		synchronized(this)
+		{
+			PublishJob aJob = theJob;
+			for(Iterator<PublishJob> aWaitingIt = itsWaiting.iterator(); aWaitingIt.hasNext(); )
+			{
+				PublishJob aWaiting = aWaitingIt.next();
+				if(aWaiting.getItsURLs().equals(aJob.getItsURLs()))
+				{
+					if(aWaiting.getItsPriority().compareTo(aJob.getItsPriority()) < 0)
+					{
+						aSkipped.add(aJob);
+						aJob = null;
+					}
+					else
+					{
+						aWaitingIt.remove();
+						aSkipped.add(aWaiting);
+					}
+					break;
+				}
+			}
+			if(aJob != null)
+			{
+				int anIndex = itsWaiting.size();
+				while(anIndex > 0 && itsWaiting.get(anIndex - 1).getItsPriority().compareTo(aJob.getItsPriority()) > 0)
+				{
+					anIndex--;
+				}
+				itsWaiting.add(anIndex, aJob);
+			}
+			dispatch();
+		}
+		for(PublishJob aSkippedJob : aSkipped)
+		{
+			aSkippedJob.skipped(EasReportTab.PUBLISH_SUPERSEDED);
+		}
+		notifyListeners();
+	}
+	
+	/**
+	 * Cancel a job that has not yet started
+	 * @param theJob the job
+	 * @return true if the job was waiting, and has been skipped with EasReportTab#PUBLISH_CANCELLED
+	 */
+	public boolean cancel(PublishJob theJob)
+	{
+		synchronized(this)
+		{
+			if(!itsWaiting.remove(theJob))
+			{
+				return false;
+			}
+		}
+		theJob.skipped(EasReportTab.PUBLISH_CANCELLED);
+		notifyListeners();
+		return true;
+	}
+	
+	/**
+	 * Release the worker and the URLs of a running job that has been abandoned, so that other jobs may 
+	 * publish to its URLs while it stops
+	 * @param theJob the job
+	 * @since 1.1
+	 */
+	public void release(PublishJob theJob)
+	{
+		synchronized(this)
+		{
+			if(!itsRunning.remove(theJob))
+			{
+				return;
+			}
+			itsActiveURLs.removeAll(theJob.getItsURLs());
+			dispatch();
+		}
+		notifyListeners();
+	}
+	
+	/**
+	 * Start waiting jobs while a worker is free, taking the first, in order, whose URLs are not being published to
+	 */
+	private void dispatch()
+	{
+		while(itsRunning.size() < itsMaxWorkers)
+		{
+			PublishJob aNext = null;
+			for(PublishJob aWaiting : itsWaiting)
+			{
+				if(Collections.disjoint(aWaiting.getItsURLs(), itsActiveURLs))
+				{
+					aNext = aWaiting;
+					break;
+				}
+			}
+			if(aNext == null)
+			{
+				return;
+			}
+			
+			final PublishJob aJob = aNext;
+			itsWaiting.remove(aJob);
+			itsRunning.add(aJob);
+			itsActiveURLs.addAll(aJob.getItsURLs());
+			itsExecutor.execute(new Runnable()
+			{
+				public void run()
+				{
+					try
+					{
+						aJob.run();
+					}
+					finally
+					{
+						finished(aJob);
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Free the worker and the URLs of a job that has finished, and start the next
+	 * @param theJob the job
+	 */
+	private void finished(PublishJob theJob)
+	{
+		synchronized(this)
+		{
+			// A released job no longer holds its URLs, another job may now be publishing to them
+			if(itsRunning.remove(theJob))
+			{
+				itsActiveURLs.removeAll(theJob.getItsURLs());
+				dispatch();
+			}
+		}
+		notifyListeners();
+	}
+	
+	/**
+	 * Tell the listeners the state of the scheduler
+	 */
+	private void notifyListeners()
+	{
+		List<String> aRunning = new ArrayList<String>();
+		List<String> aWaiting = new ArrayList<String>();
+		synchronized(this)
+		{
+			for(PublishJob aJob : itsRunning)
+			{
+				aRunning.add(aJob.getItsDescription());
+			}
+			for(PublishJob aJob : itsWaiting)
+			{
+				aWaiting.add(aJob.getItsDescription());
+			}
+		}
+		for(PublishSchedulerListener aListener : itsListeners)
+		{
+			aListener.updatePublishSchedule(aRunning, aWaiting);
+		}
+	}
+	
+	/**
+	 * @param theListener a listener to be told the state of the scheduler
+	 */
+	public void addListener(PublishSchedulerListener theListener)
+	{
+		itsListeners.add(theListener);
+	}
+	
+	/**
+	 * @param theListener a listener that is no longer to be told the state of the scheduler
+	 */
+	public void removeListener(PublishSchedulerListener theListener)
+	{
+		itsListeners.remove(theListener);
+	}
+
+	/**
+	 * @return the number of publishes that may run at once
+	 */
+	public synchronized int getItsMaxWorkers() {
+		return itsMaxWorkers;
+	}
+
+	/**
+	 * @param itsMaxWorkers the number of publishes that may run at once
+	 */
+	public void setItsMaxWorkers(int itsMaxWorkers) {
+		synchronized(this)
+		{
+			this.itsMaxWorkers = Math.max(1, itsMaxWorkers);
+			dispatch();
+		}
+		notifyListeners();
+	}
+}
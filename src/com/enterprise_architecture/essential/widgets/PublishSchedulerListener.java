@@ -0,0 +1,37 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.util.List;
+
+/**
+ * Interface that clients of the PublishScheduler implement to be told when a publish is submitted, starts 
+ * or finishes. Calls are made on the thread that submitted or ran the publish.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishScheduler PublishScheduler
+ */
+public interface PublishSchedulerListener 
+{
+	/**
+	 * Receive the state of the scheduler
+	 * @param theRunning the descriptions of the publishes that are running
+	 * @param theWaiting the descriptions of the publishes that are waiting, in the order in which they will start
+	 */
+	public void updatePublishSchedule(List<String> theRunning, List<String> theWaiting);
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+/**
+ * A Report Service to which a snapshot is published as one of a target set, with the credentials
+ * for that Report Service and the progress and result of the publish to it.
+ * <br/>
+ * Only the URL and user name of a target are saved in the URL history. The password is held in memory.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.FanOutPublisher FanOutPublisher
+ */
+public class PublishTarget 
+{
+	private String itsURL;
+	private String itsUID;
+	private String itsPassword;
+	
+	// Progress and result of the last publish to this target
+	private volatile PublishProgressEvent itsLastProgress = null;
+	private volatile boolean itIsFinished = false;
+	private boolean itIsSuccess = false;
+	private int itsReturnCode = EasReportTab.NO_SERVER;
+	private double itsUploadRate = PublishProgressEvent.UNKNOWN;
+	
+	/**
+	 * Constructor
+	 * @param theURL the URL of the Report Service
+	 * @param theUID the user name with which to publish, or an empty string
+	 * @param thePassword the password with which to publish, or an empty string
+	 */
+	public PublishTarget(String theURL, String theUID, String thePassword)
+	{
+		itsURL = theURL;
+		itsUID = theUID;
+		itsPassword = thePassword;
+	}
+	
+	/**
+	 * Clear the progress and result ready for the next publish
+	 */
+	public void reset()
+	{
+		itsLastProgress = null;
+		itIsFinished = false;
+		itIsSuccess = false;
+		itsReturnCode = EasReportTab.NO_SERVER;
+		itsUploadRate = PublishProgressEvent.UNKNOWN;
+	}
+	
+	/**
+	 * Record the result of the publish to this target
+	 * @param isSuccess true if the snapshot, and any images, were sent
+	 * @param theReturnCode the return code from the Report Service
+	 * @param theUploadRate the upload rate of the snapshot, in bytes per second
+	 */
+	public void setResult(boolean isSuccess, int theReturnCode, double theUploadRate)
+	{
+		itIsSuccess = isSuccess;
+		itsReturnCode = theReturnCode;
+		itsUploadRate = theUploadRate;
+		itIsFinished = true;
+	}
+	
+	/**
+	 * @return the URL of the target
+	 */
+	public String toString()
+	{
+		return itsURL;
+	}
+
+	/**
+	 * @return the itsURL
+	 */
+	public String getItsURL() {
+		return itsURL;
+	}
+
+	/**
+	 * @param itsURL the itsURL to set
+	 */
+	public void setItsURL(String itsURL) {
+		this.itsURL = itsURL;
+	}
+
+	/**
+	 * @return the itsUID
+	 */
+	public String getItsUID() {
+		return itsUID;
+	}
+
+	/**
+	 * @param itsUID the itsUID to set
+	 */
+	public void setItsUID(String itsUID) {
+		this.itsUID = itsUID;
+	}
+
+	/**
+	 * @return the itsPassword
+	 */
+	public String getItsPassword() {
+		return itsPassword;
+	}
+
+	/**
+	 * @param itsPassword the itsPassword to set
+	 */
+	public void setItsPassword(String itsPassword) {
+		this.itsPassword = itsPassword;
+	}
+
+	/**
+	 * @return the last progress event of the publish to this target, or null if none has been received
+	 */
+	public PublishProgressEvent getItsLastProgress() {
+		return itsLastProgress;
+	}
+
+	/**
+	 * @param itsLastProgress the itsLastProgress to set
+	 */
+	public void setItsLastProgress(PublishProgressEvent itsLastProgress) {
+		this.itsLastProgress = itsLastProgress;
+	}
+
+	/**
+	 * @return true once the publish to this target has finished
+	 */
+	public boolean isItIsFinished() {
+		return itIsFinished;
+	}
+
+	/**
+	 * @return the itIsSuccess
+	 */
+	public boolean isItIsSuccess() {
+		return itIsSuccess;
+	}
+
+	/**
+	 * @return the itsReturnCode
+	 */
+	public int getItsReturnCode() {
+		return itsReturnCode;
+	}
+
+	/**
+	 * @return the itsUploadRate
+	 */
+	public double getItsUploadRate() {
+		return itsUploadRate;
+	}
+}
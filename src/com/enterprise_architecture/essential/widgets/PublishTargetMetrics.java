@@ -0,0 +1,278 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The timings, byte counts and image counts of the publishes to one Report Service URL. The HttpReportServiceClient
+ * records into these as it publishes, and they are registered, by the PublishMetrics, as an MXBean named for the 
+ * URL.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishMetrics PublishMetrics
+ */
+public class PublishTargetMetrics implements PublishTargetMetricsMXBean
+{
+	private final String itsURL;
+	private final Map<TimedPhase, RollingStatistic> itsPhaseMillis = new EnumMap<TimedPhase, RollingStatistic>(TimedPhase.class);
+	private final RollingStatistic itsCompressionRatio = new RollingStatistic();
+	private final RollingStatistic itsUploadRate = new RollingStatistic();
+	private long itsPublishCount = 0;
+	private long itsFailureCount = 0;
+	private int itsLastReturnCode = 0;
+	private Date itsLastPublishTime = null;
+	private long itsLastSnapshotLength = 0;
+	private long itsLastCompressedLength = 0;
+	private long itsTotalUploadedBytes = 0;
+	private int itsLastImagesSent = 0;
+	private int itsLastImagesSkipped = 0;
+	private int itsLastImagesFailed = 0;
+	private long itsTotalImagesSent = 0;
+	private long itsTotalImagesFailed = 0;
+	private long itsImageCheckpointHits = 0;
+	private long itsImageCheckpointMisses = 0;
+	private long itsUnchangedHits = 0;
+	private long itsUnchangedMisses = 0;
+	
+	/**
+	 * Create the metrics of the specified URL
+	 * @param theURL the URL of the Report Service
+	 */
+	public PublishTargetMetrics(String theURL)
+	{
+		itsURL = theURL;
+		for(TimedPhase aPhase : TimedPhase.values())
+		{
+			itsPhaseMillis.put(aPhase, new RollingStatistic());
+		}
+	}
+	
+	/**
+	 * Record the duration of one of the phases of a publish to this URL
+	 * @param thePhase the phase
+	 * @param theMillis its duration in milliseconds
+	 */
+	public void recordPhase(TimedPhase thePhase, long theMillis)
+	{
+		itsPhaseMillis.get(thePhase).record(theMillis);
+	}
+	
+	/**
+	 * Record the compression of a snapshot for this URL
+	 * @param theLength the length of the serialised snapshot before compression, in bytes
+	 * @param theCompressedLength the length of the compressed snapshot, in bytes
+	 */
+	public synchronized void recordCompression(long theLength, long theCompressedLength)
+	{
+		itsLastSnapshotLength = theLength;
+		itsLastCompressedLength = theCompressedLength;
+		if(theCompressedLength > 0)
+		{
+			itsCompressionRatio.record((double)theLength / theCompressedLength);
+		}
+	}
+	
+	/**
+	 * Record the outcome of sending a snapshot to this URL
+	 * @param isSuccess true if the snapshot was sent, or found to be unchanged
+	 * @param isUnchanged true if the upload was skipped because the URL already held the content
+	 * @param theUploadedBytes the bytes uploaded
+	 * @param theUploadRate the measured upload rate in bytes per second, or PublishProgressEvent#UNKNOWN
+	 * @param theReturnCode the return code, if the snapshot was not sent
+	 */
+	public synchronized void recordSnapshot(boolean isSuccess, boolean isUnchanged, long theUploadedBytes, double theUploadRate, int theReturnCode)
+	{
+		if(isUnchanged)
+		{
+			itsUnchangedHits++;
+		}
+		else if(theUploadedBytes > 0)
+		{
+			itsUnchangedMisses++;
+		}
+		itsTotalUploadedBytes += theUploadedBytes;
+		if(theUploadRate > 0)
+		{
+			itsUploadRate.record(theUploadRate);
+		}
+		if(isSuccess)
+		{
+			itsPublishCount++;
+			itsLastPublishTime = new Date();
+		}
+		else
+		{
+			itsFailureCount++;
+			itsLastReturnCode = theReturnCode;
+		}
+	}
+	
+	/**
+	 * Record the outcome of the image phase of a publish to this URL
+	 * @param theSentCount the number of images sent
+	 * @param theSkippedCount the number of images skipped as already acknowledged
+	 * @param theFailedCount the number of images that could not be sent
+	 * @param theUploadedBytes the bytes of encoded images uploaded
+	 */
+	public synchronized void recordImages(int theSentCount, int theSkippedCount, int theFailedCount, long theUploadedBytes)
+	{
+		itsLastImagesSent = theSentCount;
+		itsLastImagesSkipped = theSkippedCount;
+		itsLastImagesFailed = theFailedCount;
+		itsTotalImagesSent += theSentCount;
+		itsTotalImagesFailed += theFailedCount;
+		itsImageCheckpointHits += theSkippedCount;
+		itsImageCheckpointMisses += theSentCount + theFailedCount;
+		itsTotalUploadedBytes += theUploadedBytes;
+	}
+	
+	public String getURL()
+	{
+		return itsURL;
+	}
+
+	public Map<String, RollingStatistic> getPhaseMillis()
+	{
+		Map<String, RollingStatistic> aPhaseMillis = new LinkedHashMap<String, RollingStatistic>();
+		for(Map.Entry<TimedPhase, RollingStatistic> anEntry : itsPhaseMillis.entrySet())
+		{
+			aPhaseMillis.put(anEntry.getKey().name(), anEntry.getValue());
+		}
+		return aPhaseMillis;
+	}
+
+	public synchronized long getPublishCount()
+	{
+		return itsPublishCount;
+	}
+
+	public synchronized long getFailureCount()
+	{
+		return itsFailureCount;
+	}
+
+	public synchronized int getLastReturnCode()
+	{
+		return itsLastReturnCode;
+	}
+
+	public synchronized Date getLastPublishTime()
+	{
+		return itsLastPublishTime;
+	}
+
+	public synchronized long getLastSnapshotLength()
+	{
+		return itsLastSnapshotLength;
+	}
+
+	public synchronized long getLastCompressedLength()
+	{
+		return itsLastCompressedLength;
+	}
+
+	public RollingStatistic getCompressionRatio()
+	{
+		return itsCompressionRatio;
+	}
+
+	public synchronized long getTotalUploadedBytes()
+	{
+		return itsTotalUploadedBytes;
+	}
+
+	public RollingStatistic getUploadRate()
+	{
+		return itsUploadRate;
+	}
+
+	public synchronized int getLastImagesSent()
+	{
+		return itsLastImagesSent;
+	}
+
+	public synchronized int getLastImagesSkipped()
+	{
+		return itsLastImagesSkipped;
+	}
+
+	public synchronized int getLastImagesFailed()
+	{
+		return itsLastImagesFailed;
+	}
+
+	public synchronized long getTotalImagesSent()
+	{
+		return itsTotalImagesSent;
+	}
+
+	public synchronized long getTotalImagesFailed()
+	{
+		return itsTotalImagesFailed;
+	}
+
+	public synchronized long getImageCheckpointHits()
+	{
+		return itsImageCheckpointHits;
+	}
+
+	public synchronized long getImageCheckpointMisses()
+	{
+		return itsImageCheckpointMisses;
+	}
+
+	public synchronized long getUnchangedHits()
+	{
+		return itsUnchangedHits;
+	}
+
+	public synchronized long getUnchangedMisses()
+	{
+		return itsUnchangedMisses;
+	}
+
+	public synchronized void reset()
+	{
+		for(RollingStatistic aStatistic : itsPhaseMillis.values())
+		{
+			aStatistic.reset();
+		}
+		itsCompressionRatio.reset();
+		itsUploadRate.reset();
+		itsPublishCount = 0;
+		itsFailureCount = 0;
+		itsLastReturnCode = 0;
+		itsLastPublishTime = null;
+		itsLastSnapshotLength = 0;
+		itsLastCompressedLength = 0;
+		itsTotalUploadedBytes = 0;
+		itsLastImagesSent = 0;
+		itsLastImagesSkipped = 0;
+		itsLastImagesFailed = 0;
+		itsTotalImagesSent = 0;
+		itsTotalImagesFailed = 0;
+		itsImageCheckpointHits = 0;
+		itsImageCheckpointMisses = 0;
+		itsUnchangedHits = 0;
+		itsUnchangedMisses = 0;
+	}
+}
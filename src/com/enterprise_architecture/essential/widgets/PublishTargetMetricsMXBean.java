@@ -0,0 +1,136 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * The management interface of the PublishTargetMetrics of one Report Service URL. The getters are named for the 
+ * JMX attributes that they expose, rather than for the fields behind them.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishTargetMetrics PublishTargetMetrics
+ */
+public interface PublishTargetMetricsMXBean 
+{
+	/**
+	 * @return the URL of the Report Service
+	 */
+	public String getURL();
+	
+	/**
+	 * @return the duration, in milliseconds, of each TimedPhase performed for this URL, by the name of the phase
+	 */
+	public Map<String, RollingStatistic> getPhaseMillis();
+	
+	/**
+	 * @return the number of snapshots sent, or found to be unchanged, successfully
+	 */
+	public long getPublishCount();
+	
+	/**
+	 * @return the number of snapshots that could not be sent, including those cancelled
+	 */
+	public long getFailureCount();
+	
+	/**
+	 * @return the return code of the last snapshot that could not be sent, or 0
+	 */
+	public int getLastReturnCode();
+	
+	/**
+	 * @return when the last snapshot was sent, or null if none has been
+	 */
+	public Date getLastPublishTime();
+	
+	/**
+	 * @return the length, in bytes before compression, of the last snapshot compressed for this URL
+	 */
+	public long getLastSnapshotLength();
+	
+	/**
+	 * @return the length, in bytes, of the last compressed snapshot sent to this URL
+	 */
+	public long getLastCompressedLength();
+	
+	/**
+	 * @return the ratio of the length of each snapshot to its compressed length
+	 */
+	public RollingStatistic getCompressionRatio();
+	
+	/**
+	 * @return the bytes of snapshots and images uploaded to this URL
+	 */
+	public long getTotalUploadedBytes();
+	
+	/**
+	 * @return the measured upload rate of each snapshot, in bytes per second
+	 */
+	public RollingStatistic getUploadRate();
+	
+	/**
+	 * @return the number of images sent by the last image phase
+	 */
+	public int getLastImagesSent();
+	
+	/**
+	 * @return the number of images that the last image phase skipped as already acknowledged
+	 */
+	public int getLastImagesSkipped();
+	
+	/**
+	 * @return the number of images that the last image phase failed to send
+	 */
+	public int getLastImagesFailed();
+	
+	/**
+	 * @return the number of images sent since the metrics were reset
+	 */
+	public long getTotalImagesSent();
+	
+	/**
+	 * @return the number of images that failed since the metrics were reset
+	 */
+	public long getTotalImagesFailed();
+	
+	/**
+	 * @return the number of images skipped because the image checkpoint held them
+	 */
+	public long getImageCheckpointHits();
+	
+	/**
+	 * @return the number of images rendered because the image checkpoint did not hold them
+	 */
+	public long getImageCheckpointMisses();
+	
+	/**
+	 * @return the number of snapshots not uploaded because this URL already held their content
+	 */
+	public long getUnchangedHits();
+	
+	/**
+	 * @return the number of snapshots uploaded because this URL did not hold their content
+	 */
+	public long getUnchangedMisses();
+	
+	/**
+	 * Reset every count and statistic
+	 */
+	public void reset();
+}
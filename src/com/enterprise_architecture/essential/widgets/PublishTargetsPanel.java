@@ -0,0 +1,224 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.awt.GridLayout;
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.BoxLayout;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JPasswordField;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.border.Border;
+import javax.swing.border.EtchedBorder;
+
+/**
+ * Class to provide the controls for editing the set of targets to which a snapshot is published
+ * in a single publish. Each target has a URL, chosen from the URL history or entered, a user name
+ * and a password. Shown in a dialog by the EasReportTab.
+ * <br/>
+ * Version 1.1 adds the choice of a coordinated publish, for targets that are the nodes of one load-balanced Viewer.
+ * @version 1.1 - Coordinated publish
+ * @see com.enterprise_architecture.essential.widgets.PublishTarget PublishTarget
+ */
+public class PublishTargetsPanel implements ActionListener
+{
+	private final static String URL_LABEL = "Essential Viewer";
+	private final static String USER_LABEL = "User Name";
+	private final static String PASSWORD_LABEL = "Password";
+	private final static String ADD_LABEL = "Add Target";
+	private final static String REMOVE_LABEL = "Remove";
+	private final static String COORDINATED_LABEL = "Stage on every target, then activate on all together";
+	private final static int FIELD_LENGTH = 10;
+	
+	/**
+	 * The controls for one target
+	 */
+	private class TargetRow
+	{
+		private final JComboBox itsURL = new JComboBox();
+		private final JTextField itsUser = new JTextField(FIELD_LENGTH);
+		private final JPasswordField itsPassword = new JPasswordField(FIELD_LENGTH);
+		private final JButton itsRemove = new JButton(REMOVE_LABEL);
+	}
+	
+	private final Collection<String> itsURLHistory;
+	private final List<TargetRow> itsRows = new ArrayList<TargetRow>();
+	private JPanel itsPanel = null;
+	private JPanel itsRowPanel = null;
+	private JButton itsAddButton = null;
+	private JCheckBox itsCoordinated = null;
+	
+	/**
+	 * Constructor that creates the panel with a row for each of the targets
+	 * @param theTargets the current target set
+	 * @param theURLHistory the URL history, offered in the URL of each row
+	 * @param isCoordinated true if the last publish to the targets was coordinated
+	 */
+	public PublishTargetsPanel(Collection<PublishTarget> theTargets, Collection<String> theURLHistory, boolean isCoordinated)
+	{
+		itsURLHistory = theURLHistory;
+		buildPanel();
+		itsCoordinated.setSelected(isCoordinated);
+		for(PublishTarget aTarget : theTargets)
+		{
+			addRow(aTarget);
+		}
+		if(itsRows.isEmpty())
+		{
+			addRow(null);
+		}
+	}
+	
+	/**
+	 * Build the GUI panel and set it all up
+	 */
+	private void buildPanel()
+	{
+		itsRowPanel = new JPanel();
+		itsRowPanel.setLayout(new GridLayout(0, 4, 5, 5));
+		itsRowPanel.add(new JLabel(URL_LABEL));
+		itsRowPanel.add(new JLabel(USER_LABEL));
+		itsRowPanel.add(new JLabel(PASSWORD_LABEL));
+		itsRowPanel.add(new JLabel(""));
+		
+		itsAddButton = new JButton(ADD_LABEL);
+		itsAddButton.addActionListener(this);
+		
+		itsPanel = new JPanel();
+		itsPanel.setLayout(new BoxLayout(itsPanel, BoxLayout.PAGE_AXIS));
+		Border aLoweredetched = BorderFactory.createEtchedBorder(EtchedBorder.LOWERED);
+		itsRowPanel.setBorder(aLoweredetched);
+		itsPanel.add(itsRowPanel);
+		itsPanel.add(itsAddButton);
+		
+		itsCoordinated = new JCheckBox(COORDINATED_LABEL);
+		itsPanel.add(itsCoordinated);
+	}
+	
+	/**
+	 * Add a row of controls for a target
+	 * @param theTarget the target, or null for an empty row
+	 */
+	private void addRow(PublishTarget theTarget)
+	{
+		TargetRow aRow = new TargetRow();
+		aRow.itsURL.setEditable(true);
+		for(String aURL : itsURLHistory)
+		{
+			aRow.itsURL.addItem(aURL);
+		}
+		if(theTarget != null)
+		{
+			aRow.itsURL.setSelectedItem(theTarget.getItsURL());
+			aRow.itsUser.setText(theTarget.getItsUID());
+			aRow.itsPassword.setText(theTarget.getItsPassword());
+		}
+		aRow.itsRemove.addActionListener(this);
+		
+		itsRows.add(aRow);
+		itsRowPanel.add(aRow.itsURL);
+		itsRowPanel.add(aRow.itsUser);
+		itsRowPanel.add(aRow.itsPassword);
+		itsRowPanel.add(aRow.itsRemove);
+		itsRowPanel.revalidate();
+	}
+	
+	/**
+	 * Get the targets as edited. Rows without a URL are ignored.
+	 * @return the targets
+	 */
+	public List<PublishTarget> getTargets()
+	{
+		List<PublishTarget> aTargets = new ArrayList<PublishTarget>();
+		for(TargetRow aRow : itsRows)
+		{
+			Object aURL = aRow.itsURL.getSelectedItem();
+			if(aURL != null && aURL.toString().trim().length() > 0)
+			{
+				aTargets.add(new PublishTarget(aURL.toString().trim(), aRow.itsUser.getText(), new String(aRow.itsPassword.getPassword())));
+			}
+		}
+		return aTargets;
+	}
+	
+	/**
+	 * Is the publish to be coordinated across the targets?
+	 * @return true to stage on every target and then activate on all of them
+	 */
+	public boolean isCoordinated()
+	{
+		return itsCoordinated.isSelected();
+	}
+	
+	/**
+	 * Return a reference to the panel that holds the targets
+	 * @return the panel for this control
+	 */
+	public JPanel getItsPanel()
+	{
+		return itsPanel;
+	}
+	
+	/**
+	 * Handle adding a row, or removing one
+	 */
+	public void actionPerformed(ActionEvent theEvent)
+	{
+		if(theEvent.getSource() == itsAddButton)
+		{
+			addRow(null);
+		}
+		else
+		{
+			for(TargetRow aRow : itsRows)
+			{
+				if(theEvent.getSource() == aRow.itsRemove)
+				{
+					itsRows.remove(aRow);
+					itsRowPanel.remove(aRow.itsURL);
+					itsRowPanel.remove(aRow.itsUser);
+					itsRowPanel.remove(aRow.itsPassword);
+					itsRowPanel.remove(aRow.itsRemove);
+					itsRowPanel.revalidate();
+					itsRowPanel.repaint();
+					break;
+				}
+			}
+		}
+		
+		// Resize the dialog to fit the rows
+		Window aWindow = SwingUtilities.getWindowAncestor(itsPanel);
+		if(aWindow != null)
+		{
+			aWindow.pack();
+		}
+	}
+}
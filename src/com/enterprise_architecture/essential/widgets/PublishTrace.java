@@ -0,0 +1,413 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The record of one publish to one Report Service URL, written as a single line of JSON to the PublishTraceLog.
+ * It holds the target, the size of the snapshot, the duration of each TimedPhase, the HTTP status of each request,
+ * the number of retries, the peak heap use sampled at each phase boundary, the image counts, and the notes that 
+ * the HttpReportServiceClient makes along the way. From version 1.1, it also holds the peak heap and allocation of 
+ * each phase measured by the PhaseMemoryProfile. From version 1.2, it holds the DNS, connect, TLS, upload, server
+ * and first byte times measured by the NetworkTiming, for each request and added up for each kind of request.
+ * From version 1.3, it holds the compression level chosen by the CompressionAdvisor, with its predicted and measured times.
+ * @version 1.3 - Compression level with its predicted and measured times<br/>
+ * @version 1.2 - Network timing of each request<br/>
+ * @version 1.1 - Peak heap and allocation per phase<br/>
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishTraceLog PublishTraceLog
+ */
+public class PublishTrace 
+{
+	/**
+	 * The most HTTP statuses, notes, image failures and request timings kept in one record
+	 */
+	public static final int MAX_LIST_SIZE = 100;
+	
+	private static final String TIME_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+	
+	private final long itsStartTime = System.currentTimeMillis();
+	private String itsURL = "";
+	private String itsImagesURL = null;
+	private boolean itIsSuccess = false;
+	private int itsReturnCode = 0;
+	private boolean itIsUnchanged = false;
+	private boolean itIsCancelled = false;
+	private long itsSnapshotLength = -1;
+	private long itsCompressedLength = -1;
+	private long itsUploadedBytes = 0;
+	private double itsUploadRate = PublishProgressEvent.UNKNOWN;
+	private final Map<TimedPhase, Long> itsPhaseMillis = new EnumMap<TimedPhase, Long>(TimedPhase.class);
+	private int itsRequestCount = 0;
+	private final List<String> itsStatuses = new ArrayList<String>();
+	private int itsRetryCount = 0;
+	private long itsPeakHeap = 0;
+	private int itsImagesSent = 0;
+	private int itsImagesSkipped = 0;
+	private int itsImagesFailed = 0;
+	private long itsImageBytes = 0;
+	private final List<String> itsImageFailures = new ArrayList<String>();
+	private final List<String> itsNotes = new ArrayList<String>();
+	private final List<PhaseMemoryProfile.PhaseMemory> itsPhaseMemory = new ArrayList<PhaseMemoryProfile.PhaseMemory>();
+	private final List<String> itsRequestTimings = new ArrayList<String>();
+	private final List<NetworkTiming.KindTiming> itsNetworkTiming = new ArrayList<NetworkTiming.KindTiming>();
+	private CompressionAdvisor.Choice itsCompression = null;
+	private long itsCompressTime = -1;
+	
+	/**
+	 * Add the duration of a phase. A phase performed more than once in the publish is added up.
+	 * @param thePhase the phase
+	 * @param theMillis its duration in milliseconds
+	 */
+	public synchronized void addPhase(TimedPhase thePhase, long theMillis)
+	{
+		Long aTotal = itsPhaseMillis.get(thePhase);
+		itsPhaseMillis.put(thePhase, Long.valueOf(theMillis + (aTotal == null ? 0 : aTotal.longValue())));
+	}
+	
+	/**
+	 * Record the HTTP status of a request
+	 * @param theMethod the method of the request
+	 * @param theStatusCode the status code of the response
+	 */
+	public synchronized void addStatus(String theMethod, int theStatusCode)
+	{
+		itsRequestCount++;
+		addLimited(itsStatuses, theMethod + " " + theStatusCode);
+	}
+	
+	/**
+	 * Record a note, such as a failure, that would otherwise have gone to the console
+	 * @param theNote the note
+	 */
+	public synchronized void addNote(String theNote)
+	{
+		addLimited(itsNotes, theNote);
+	}
+	
+	/**
+	 * Record an image that failed
+	 * @param theFailure the instance, slot and reason
+	 */
+	public synchronized void addImageFailure(String theFailure)
+	{
+		addLimited(itsImageFailures, theFailure);
+	}
+	
+	/**
+	 * Record the peak heap and allocation of the phases of the publish
+	 * @param thePhases the phases
+	 * @since 1.1
+	 */
+	public synchronized void setPhaseMemory(List<PhaseMemoryProfile.PhaseMemory> thePhases)
+	{
+		itsPhaseMemory.clear();
+		itsPhaseMemory.addAll(thePhases);
+	}
+	
+	/**
+	 * Record the network timing of a request
+	 * @param theTiming the timing of the request
+	 * @since 1.2
+	 */
+	public synchronized void addRequestTiming(NetworkTiming.RequestTiming theTiming)
+	{
+		if(itsRequestTimings.size() < MAX_LIST_SIZE)
+		{
+			StringBuilder aRequest = new StringBuilder("{");
+			appendField(aRequest, "kind", quote(theTiming.getItsKind()));
+			appendField(aRequest, "request", quote(theTiming.getItsRequest()));
+			appendField(aRequest, "status", String.valueOf(theTiming.getItsStatusCode()));
+			appendField(aRequest, "newConnection", String.valueOf(theTiming.isItIsNewConnection()));
+			appendField(aRequest, "dnsMs", millis(theTiming.getItsDNSNanos()));
+			appendField(aRequest, "connectMs", millis(theTiming.getItsConnectNanos()));
+			appendField(aRequest, "tlsMs", millis(theTiming.getItsTLSNanos()));
+			appendField(aRequest, "uploadMs", millis(theTiming.getItsUploadNanos()));
+			appendField(aRequest, "serverMs", millis(theTiming.getItsServerNanos()));
+			appendField(aRequest, "firstByteMs", (theTiming.getItsFirstByteNanos() >= 0) ? millis(theTiming.getItsFirstByteNanos()) : "null");
+			itsRequestTimings.add(aRequest.append("}").toString());
+		}
+	}
+	
+	/**
+	 * Record the network timing of each kind of request, added up over the publish
+	 * @param theKinds the timing of each kind of request
+	 * @since 1.2
+	 */
+	public synchronized void setNetworkTiming(List<NetworkTiming.KindTiming> theKinds)
+	{
+		itsNetworkTiming.clear();
+		itsNetworkTiming.addAll(theKinds);
+	}
+	
+	/**
+	 * Sample the heap in use, keeping the peak
+	 */
+	public synchronized void sampleHeap()
+	{
+		Runtime aRuntime = Runtime.getRuntime();
+		itsPeakHeap = Math.max(itsPeakHeap, aRuntime.totalMemory() - aRuntime.freeMemory());
+	}
+	
+	/**
+	 * Record the snapshot that was compressed, or resent
+	 * @param theLength the length of the snapshot in characters, or -1 if not known
+	 * @param theCompressedLength the length of the compressed snapshot in bytes
+	 */
+	public synchronized void setSnapshot(long theLength, long theCompressedLength)
+	{
+		itsSnapshotLength = theLength;
+		itsCompressedLength = theCompressedLength;
+	}
+	
+	/**
+	 * Record the compression level of the snapshot, as chosen by the CompressionAdvisor, and the time taken to compress it
+	 * @param theChoice the compression level and its prediction
+	 * @param theElapsedTime the measured time to compress the snapshot, in milliseconds
+	 * @since 1.3
+	 */
+	public synchronized void setCompression(CompressionAdvisor.Choice theChoice, long theElapsedTime)
+	{
+		itsCompression = theChoice;
+		itsCompressTime = theElapsedTime;
+	}
+	
+	/**
+	 * Record the upload of the snapshot
+	 * @param theUploadedBytes the bytes uploaded
+	 * @param theUploadRate the measured upload rate in bytes per second, or PublishProgressEvent#UNKNOWN
+	 */
+	public synchronized void setUpload(long theUploadedBytes, double theUploadRate)
+	{
+		itsUploadedBytes = theUploadedBytes;
+		itsUploadRate = theUploadRate;
+	}
+	
+	/**
+	 * Record the outcome of the image phase
+	 * @param theImagesURL the URL of the image receiver
+	 * @param theSentCount the number of images sent
+	 * @param theSkippedCount the number of images skipped as already acknowledged
+	 * @param theFailedCount the number of images that failed
+	 * @param theBytes the bytes of encoded images uploaded
+	 */
+	public synchronized void setImages(String theImagesURL, int theSentCount, int theSkippedCount, int theFailedCount, long theBytes)
+	{
+		itsImagesURL = theImagesURL;
+		itsImagesSent = theSentCount;
+		itsImagesSkipped = theSkippedCount;
+		itsImagesFailed = theFailedCount;
+		itsImageBytes = theBytes;
+	}
+	
+	/**
+	 * Record the outcome of the publish
+	 * @param theURL the URL of the Report Service
+	 * @param isSuccess true if the publish succeeded
+	 * @param theReturnCode the return code of the publish
+	 * @param isUnchanged true if the upload was skipped as the content was unchanged
+	 * @param isCancelled true if the publish was cancelled
+	 * @param theRetryCount the number of retries made
+	 */
+	public synchronized void setResult(String theURL, boolean isSuccess, int theReturnCode, boolean isUnchanged, boolean isCancelled, int theRetryCount)
+	{
+		itsURL = theURL;
+		itIsSuccess = isSuccess;
+		itsReturnCode = theReturnCode;
+		itIsUnchanged = isUnchanged;
+		itIsCancelled = isCancelled;
+		itsRetryCount = theRetryCount;
+	}
+	
+	/**
+	 * @return the record as a single line of JSON
+	 */
+	public synchronized String toJSON()
+	{
+		StringBuilder aJSON = new StringBuilder("{");
+		appendField(aJSON, "time", quote(new SimpleDateFormat(TIME_FORMAT).format(new Date(itsStartTime))));
+		appendField(aJSON, "elapsedMs", String.valueOf(System.currentTimeMillis() - itsStartTime));
+		appendField(aJSON, "url", quote(itsURL));
+		appendField(aJSON, "success", String.valueOf(itIsSuccess));
+		appendField(aJSON, "returnCode", String.valueOf(itsReturnCode));
+		appendField(aJSON, "unchanged", String.valueOf(itIsUnchanged));
+		appendField(aJSON, "cancelled", String.valueOf(itIsCancelled));
+		appendField(aJSON, "snapshotLength", String.valueOf(itsSnapshotLength));
+		appendField(aJSON, "compressedLength", String.valueOf(itsCompressedLength));
+		appendField(aJSON, "uploadedBytes", String.valueOf(itsUploadedBytes));
+		appendField(aJSON, "uploadRate", String.valueOf(Math.round(itsUploadRate)));
+		if(itsCompression != null)
+		{
+			StringBuilder aCompression = new StringBuilder("{");
+			appendField(aCompression, "level", String.valueOf(itsCompression.getItsLevel()));
+			appendField(aCompression, "estimatedUploadRate", String.valueOf(Math.round(itsCompression.getItsUploadRate())));
+			appendField(aCompression, "predictedCompressMs", String.valueOf(itsCompression.getItsPredictedCompressTime()));
+			appendField(aCompression, "predictedUploadMs", String.valueOf(itsCompression.getItsPredictedUploadTime()));
+			appendField(aCompression, "measuredCompressMs", String.valueOf(itsCompressTime));
+			appendField(aJSON, "compression", aCompression.append("}").toString());
+		}
+		
+		StringBuilder aPhases = new StringBuilder("{");
+		for(Map.Entry<TimedPhase, Long> anEntry : itsPhaseMillis.entrySet())
+		{
+			appendField(aPhases, anEntry.getKey().name(), anEntry.getValue().toString());
+		}
+		appendField(aJSON, "phaseMs", aPhases.append("}").toString());
+		appendField(aJSON, "requests", String.valueOf(itsRequestCount));
+		appendField(aJSON, "statuses", toArray(itsStatuses));
+		appendField(aJSON, "retries", String.valueOf(itsRetryCount));
+		appendField(aJSON, "peakHeap", String.valueOf(itsPeakHeap));
+		appendField(aJSON, "maxHeap", String.valueOf(Runtime.getRuntime().maxMemory()));
+		StringBuilder aMemory = new StringBuilder("{");
+		for(PhaseMemoryProfile.PhaseMemory aPhase : itsPhaseMemory)
+		{
+			StringBuilder aPhaseMemory = new StringBuilder("{");
+			appendField(aPhaseMemory, "peakHeap", String.valueOf(aPhase.getItsPeakHeap()));
+			appendField(aPhaseMemory, "allocated", String.valueOf(aPhase.getItsAllocatedBytes()));
+			appendField(aPhaseMemory, "nearLimit", String.valueOf(aPhase.isNearLimit()));
+			appendField(aMemory, aPhase.getItsName(), aPhaseMemory.append("}").toString());
+		}
+		appendField(aJSON, "memory", aMemory.append("}").toString());
+		StringBuilder aNetwork = new StringBuilder("{");
+		for(NetworkTiming.KindTiming aKind : itsNetworkTiming)
+		{
+			StringBuilder aKindTiming = new StringBuilder("{");
+			appendField(aKindTiming, "requests", String.valueOf(aKind.getItsCount()));
+			appendField(aKindTiming, "failed", String.valueOf(aKind.getItsFailedCount()));
+			appendField(aKindTiming, "connections", String.valueOf(aKind.getItsConnectionCount()));
+			appendField(aKindTiming, "dnsMs", millis(aKind.getItsDNSNanos()));
+			appendField(aKindTiming, "connectMs", millis(aKind.getItsConnectNanos()));
+			appendField(aKindTiming, "tlsMs", millis(aKind.getItsTLSNanos()));
+			appendField(aKindTiming, "uploadMs", millis(aKind.getItsUploadNanos()));
+			appendField(aKindTiming, "serverMs", millis(aKind.getItsServerNanos()));
+			appendField(aKindTiming, "firstByteMs", millis(aKind.getItsFirstByteNanos()));
+			appendField(aKindTiming, "maxFirstByteMs", millis(aKind.getItsMaxFirstByteNanos()));
+			appendField(aNetwork, aKind.getItsKind(), aKindTiming.append("}").toString());
+		}
+		appendField(aJSON, "network", aNetwork.append("}").toString());
+		appendField(aJSON, "requestTimings", "[" + String.join(",", itsRequestTimings) + "]");
+		if(itsImagesURL != null)
+		{
+			StringBuilder anImages = new StringBuilder("{");
+			appendField(anImages, "url", quote(itsImagesURL));
+			appendField(anImages, "sent", String.valueOf(itsImagesSent));
+			appendField(anImages, "skipped", String.valueOf(itsImagesSkipped));
+			appendField(anImages, "failed", String.valueOf(itsImagesFailed));
+			appendField(anImages, "bytes", String.valueOf(itsImageBytes));
+			appendField(anImages, "failures", toArray(itsImageFailures));
+			appendField(aJSON, "images", anImages.append("}").toString());
+		}
+		appendField(aJSON, "notes", toArray(itsNotes));
+		return aJSON.append("}").toString();
+	}
+	
+	/**
+	 * Add an entry to a list, unless the list is full
+	 * @param theList the list
+	 * @param theEntry the entry
+	 */
+	private static void addLimited(List<String> theList, String theEntry)
+	{
+		if(theList.size() < MAX_LIST_SIZE)
+		{
+			theList.add(theEntry);
+		}
+	}
+	
+	/**
+	 * @param theNanos a time in nanoseconds
+	 * @return the time in milliseconds, as a JSON number
+	 * @since 1.2
+	 */
+	private static String millis(long theNanos)
+	{
+		return String.format(Locale.ROOT, "%.3f", theNanos / 1000000.0);
+	}
+	
+	/**
+	 * Append a field to a JSON object that is being built
+	 * @param theObject the object, from its opening brace
+	 * @param theName the name of the field
+	 * @param theValue the JSON of the value
+	 */
+	private static void appendField(StringBuilder theObject, String theName, String theValue)
+	{
+		if(theObject.length() > 1)
+		{
+			theObject.append(',');
+		}
+		theObject.append(quote(theName)).append(':').append(theValue);
+	}
+	
+	/**
+	 * @param theStrings the strings
+	 * @return a JSON array of the strings
+	 */
+	private static String toArray(List<String> theStrings)
+	{
+		StringBuilder anArray = new StringBuilder("[");
+		for(String aString : theStrings)
+		{
+			anArray.append(anArray.length() > 1 ? "," : "").append(quote(aString));
+		}
+		return anArray.append("]").toString();
+	}
+	
+	/**
+	 * @param theString the string
+	 * @return the string as a quoted, escaped JSON string
+	 */
+	private static String quote(String theString)
+	{
+		if(theString == null)
+		{
+			return "null";
+		}
+		StringBuilder aQuoted = new StringBuilder("\"");
+		for(int i = 0; i < theString.length(); i++)
+		{
+			char aChar = theString.charAt(i);
+			switch(aChar)
+			{
+				case '"': aQuoted.append("\\\""); break;
+				case '\\': aQuoted.append("\\\\"); break;
+				case '\n': aQuoted.append("\\n"); break;
+				case '\r': aQuoted.append("\\r"); break;
+				case '\t': aQuoted.append("\\t"); break;
+				default:
+					if(aChar < 0x20)
+					{
+						aQuoted.append(String.format("\\u%04x", (int)aChar));
+					}
+					else
+					{
+						aQuoted.append(aChar);
+					}
+			}
+		}
+		return aQuoted.append('"').toString();
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The rolling log, in the spool directory, to which each PublishTrace is appended as a line of JSON, so that publish 
+ * performance can be charted over months. Once the log reaches #MAX_LOG_LENGTH it is rolled: the log becomes 
+ * #LOG_FILE.1, that becomes #LOG_FILE.2, and so on, keeping #MAX_ROLLED_LOGS.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishTrace PublishTrace
+ */
+public class PublishTraceLog 
+{
+	public static final String LOG_FILE = "publish-trace.jsonl";
+	public static final long MAX_LOG_LENGTH = 10 * 1024 * 1024;
+	public static final int MAX_ROLLED_LOGS = 5;
+	
+	private static final Object LOCK = new Object();
+	
+	/**
+	 * Append a record to the log in the specified directory. A failure to write it does not fail the publish.
+	 * @param theDirectory the spool directory
+	 * @param theTrace the record
+	 */
+	public static void append(File theDirectory, PublishTrace theTrace)
+	{
+		byte[] aLine;
+		try
+		{
+			aLine = (theTrace.toJSON() + "\n").getBytes("UTF-8");
+		}
+		catch(IOException anIOEx)
+		{
+			return;
+		}
+		
+		synchronized(LOCK)
+		{
+			OutputStream anOut = null;
+			try
+			{
+				theDirectory.mkdirs();
+				File aLog = new File(theDirectory, LOG_FILE);
+				if(aLog.length() + aLine.length > MAX_LOG_LENGTH)
+				{
+					roll(theDirectory);
+				}
+				anOut = new FileOutputStream(aLog, true);
+				anOut.write(aLine);
+			}
+			catch(IOException anIOEx)
+			{
+				System.out.println("Unable to write the publish trace: " + anIOEx);
+			}
+			finally
+			{
+				if(anOut != null)
+				{
+					try
+					{
+						anOut.close();
+					}
+					catch(IOException anIOEx)
+					{
+						// Nothing more to be done
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Roll the log, deleting the oldest
+	 * @param theDirectory the spool directory
+	 */
+	private static void roll(File theDirectory)
+	{
+		new File(theDirectory, LOG_FILE + "." + MAX_ROLLED_LOGS).delete();
+		for(int i = MAX_ROLLED_LOGS - 1; i >= 1; i--)
+		{
+			File aRolled = new File(theDirectory, LOG_FILE + "." + i);
+			if(aRolled.exists())
+			{
+				aRolled.renameTo(new File(theDirectory, LOG_FILE + "." + (i + 1)));
+			}
+		}
+		new File(theDirectory, LOG_FILE).renameTo(new File(theDirectory, LOG_FILE + ".1"));
+	}
+}
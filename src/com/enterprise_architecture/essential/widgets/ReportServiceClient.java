@@ -27,14 +27,29 @@
  */
 package com.enterprise_architecture.essential.widgets;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
 import edu.stanford.smi.protege.model.KnowledgeBase;
 
 /**
  * Client for the EAS Architecture Reporting Service.
- * Uses a SwingWorker thread to make the request in a separate thread
+ * Makes the request on a worker thread of the process-wide PublishScheduler
  * whilst allowing the User Interface tab, EASReportTab to continue.
  * <br/>
  * Used by the EasReportTab
+ * @version 2.10 - The Report Service decides whether the content is unchanged<br/>
+ * @version 2.9 - An abandoned publish no longer reports to the listener<br/>
+ * @version 2.8 - Memory profile of the publish<br/>
+ * @version 2.7 - Java Flight Recorder event for each publish<br/>
+ * @version 2.6 - Adaptive compression level<br/>
+ * @version 2.5 - Run by the PublishScheduler<br/>
+ * @version 2.4 - Skip the upload of unchanged content<br/>
+ * @version 2.3 - Publish to a set of targets<br/>
+ * @version 2.2 - Publish can be cancelled<br/>
+ * @version 2.1 - Typed progress events via PublishProgressListener<br/>
  * @version 2.0 - Added progress tracking via a listener pattern<br/>
  * @version 1.3 - Remove sending of graph images to Viewer<br/>
  * @version 1.2 - Send GraphWidget images to Viewer
@@ -49,7 +64,7 @@ public class ReportServiceClient
 	private String itsReportXML;
 	private String itsUID;
 	private String itsPassword;
-	private boolean itIsFinished;
+	private volatile boolean itIsFinished;
 	private boolean itIsSuccess;
 	private int itsReturnCode;
 	
@@ -60,12 +75,65 @@ public class ReportServiceClient
 	private KnowledgeBase itsKBRef;
 	
 	// 23.05.2013 JWC Listener for progress update messages
-	private ProgressListener itsListener = null;
+	private volatile PublishProgressListener itsListener = null;
+	
+	// The services report through this, so that an abandoned publish can be detached from the listener
+	private final PublishProgressListener itsForwarder = new PublishProgressListener()
+	{
+		public void updatePublishProgress(PublishProgressEvent theEvent)
+		{
+			PublishProgressListener aListener = itsListener;
+			if(aListener != null)
+			{
+				aListener.updatePublishProgress(theEvent);
+			}
+		}
+	};
 	
 	// 13.06.2013 JWC Switch for the graph images
 	private boolean itIsSendingImages = true;
 	private String itsProxyHost = "";
 	private String itsProxyPort = "";
+	
+	// Upload rate of the snapshot, bytes per second
+	private double itsUploadRate = PublishProgressEvent.UNKNOWN;
+	
+	// The service currently sending and whether the publish has been cancelled
+	private volatile HttpReportServiceClient itsActiveService = null;
+	private volatile boolean itIsCancelled = false;
+	
+	// Timeouts and retries for the requests
+	private TransportPolicy itsTransportPolicy = new TransportPolicy();
+	
+	// Directory for the snapshot spool and image checkpoints
+	private File itsSpoolDirectory = SnapshotSpool.getDefaultDirectory();
+	
+	// Keep the last snapshot, with metadata, and the kept snapshot to resend on the next start
+	private boolean itIsKeepingSnapshot = false;
+	private Properties itsSnapshotMetadata = new Properties();
+	private SnapshotSpool itsResendSnapshot = null;
+	
+	// Targets to publish to, rather than itsURL, and the fan-out currently sending
+	private List<PublishTarget> itsTargets = null;
+	private int itsMaxParallel = FanOutPublisher.DEFAULT_MAX_PARALLEL;
+	private boolean itIsCoordinated = false;
+	private volatile FanOutPublisher itsActiveFanOut = null;
+	
+	// Content digest of the snapshot, and whether unchanged content is skipped
+	private String itsContentDigest = null;
+	private boolean itIsSkippingUnchanged = true;
+	private boolean itIsUsingAcknowledged = false;
+	
+	// Whether the compression level is chosen from the measured upload and compression speeds
+	private boolean itIsAdaptiveCompression = false;
+	
+	// The heap use and allocation of the phases of the publish, null to start a new profile
+	private PhaseMemoryProfile itsMemoryProfile = null;
+	
+	// Priority and description of the publish in the scheduler, and the job while it waits or runs
+	private PublishPriority itsPriority = PublishPriority.INTERACTIVE;
+	private String itsDescription = "";
+	private volatile PublishJob itsActiveJob = null;
 
 	/**
 	 * Enquire whether the ReportServiceClient will send the graph images or not
@@ -91,6 +159,17 @@ public class ReportServiceClient
 	 *
 	 */
 	public ReportServiceClient(ProgressListener theListener)
+	{
+		this(ProgressListenerAdapter.adapt(theListener));
+	}
+	
+	/**
+	 * Default constructed.
+	 * Everything is initialised.
+	 * @param theListener the object listening for typed progress events
+	 * @since 2.1
+	 */
+	public ReportServiceClient(PublishProgressListener theListener)
 	{
 		itsURL = "";
 		itsReportXML = "";
@@ -116,6 +195,18 @@ public class ReportServiceClient
 	 * @param theListener the EasReportTab object listening for progress update messages
 	 */
 	public ReportServiceClient(String theURL, String theReportXML, ProgressListener theListener)
+	{
+		this(theURL, theReportXML, ProgressListenerAdapter.adapt(theListener));
+	}
+	
+	/**
+	 * Constructor setting URL and report XML.
+	 * @param theURL the URL of the EasReportService
+	 * @param theReportXML the XML document from the Protege repository
+	 * @param theListener the object listening for typed progress events
+	 * @since 2.1
+	 */
+	public ReportServiceClient(String theURL, String theReportXML, PublishProgressListener theListener)
 	{
 		itsURL = theURL;
 		itsReportXML = theReportXML;
@@ -181,50 +272,283 @@ public class ReportServiceClient
 	
 	/**
 	 * Start the client invocation of the Service
-	 * This starts the SwingWorker thread, connects to the Service and
-	 * sends the report XML.
+	 * This submits the publish to the PublishScheduler, which connects to the Service and
+	 * sends the report XML once a worker is free and no other publish is sending to the same URL.
 	 */
 	public void start()
 	{
 		// Reset the success and finished flags, cannot assume success
 		setItIsSuccess(false);
 		setItIsFinished(false);
+		itsUploadRate = PublishProgressEvent.UNKNOWN;
+		itIsCancelled = false;
 		
-		final SwingWorker aWorker = new SwingWorker()
+		// Run by the process-wide scheduler, rather than on a thread of our own
+		List<String> aURLs = new ArrayList<String>();
+		if(itsTargets != null && !itsTargets.isEmpty())
 		{
-			public Object construct()
+			for(PublishTarget aTarget : itsTargets)
 			{
-				// Do request here
-				HttpReportServiceClient aService = new HttpReportServiceClient(itsListener);
-				aService.setItsURL(itsURL);
-				aService.setItsReportXML(itsReportXML);
-				aService.setItsUID(itsUID);
-				aService.setItsPassword(itsPassword);
-				boolean isASuccess = aService.sendReportXML();
-				
-				// 19.11.2009 JWC - Send the images now.
-				// 16.05.2013 JWC - version 2.6 Do not send images
-				// 13.06.2013 JWC - Version 3.0 Use switch to control
-				if(isASuccess && itIsSendingImages)
-				{				
-					aService.setItsImagesURL(itsImageURL);
-					aService.setItsKBRef(itsKBRef);
-					aService.setItsAutoLayout(itsAutoLayout);				
-					isASuccess = aService.sendImages(); 
+				aURLs.add(aTarget.getItsURL());
+			}
+		}
+		else
+		{
+			aURLs.add(itsURL);
+		}
+		StringBuilder aDescription = new StringBuilder(itsDescription);
+		for(String aURL : aURLs)
+		{
+			aDescription.append(aDescription.length() > 0 ? " " : "").append(aURL);
+		}
+		
+		// Recorded, with the time spent queued, as a Java Flight Recorder event
+		final String aURLList = aURLs.toString();
+		final long aSubmitTime = System.currentTimeMillis();
+		PublishJob aJob = new PublishJob(aURLs, itsPriority, aDescription.toString())
+		{
+			public void run()
+			{
+				Object aPublishEvent = PublishFlightRecorder.beginPublish(aURLList, System.currentTimeMillis() - aSubmitTime);
+				try
+				{
+					publish();
+				}
+				finally
+				{
+					PublishFlightRecorder.endPublish(aPublishEvent, itIsSuccess, itsReturnCode);
+					itsActiveJob = null;
+					itIsFinished = true;
 				}
-				
-				setItIsSuccess(isASuccess);
-				setItsReturnCode(aService.getItsReturnCode());
-				return aService;
 			}
 			
-			public void finished()
+			public void skipped(int theReturnCode)
 			{
-				// Finish up...
+				// Release the snapshot, it will not be sent
+				itsReportXML = "";
+				itsResendSnapshot = null;
+				setItsReturnCode(theReturnCode);
+				itsActiveJob = null;
 				itIsFinished = true;
 			}
 		};
-		aWorker.start();
+		itsActiveJob = aJob;
+		PublishScheduler.getInstance().submit(aJob);
+	}
+	
+	/**
+	 * Publish the snapshot, and the images if required, to itsURL or to each of the targets
+	 * @since 2.5
+	 */
+	private void publish()
+	{
+		// Render once, send to many
+		if(itsTargets != null && !itsTargets.isEmpty())
+		{
+			publishToTargets();
+			return;
+		}
+		
+		// Do request here
+		HttpReportServiceClient aService = new HttpReportServiceClient(itsForwarder);
+		itsActiveService = aService;
+		
+		// Honour a cancel that arrived before the service was created
+		if(itIsCancelled)
+		{
+			aService.cancel();
+		}
+		aService.setItsURL(itsURL);
+		aService.setItsReportXML(itsReportXML);
+		aService.setItsUID(itsUID);
+		aService.setItsPassword(itsPassword);
+		aService.setItsTransportPolicy(itsTransportPolicy);
+		aService.setItsSpoolDirectory(itsSpoolDirectory);
+		aService.setItIsKeepingSnapshot(itIsKeepingSnapshot);
+		aService.setItsSnapshotMetadata(itsSnapshotMetadata);
+		aService.setItsContentDigest(itsContentDigest);
+		aService.setItIsSkippingUnchanged(itIsSkippingUnchanged);
+		aService.setItIsUsingAcknowledged(itIsUsingAcknowledged);
+		aService.setItIsAdaptiveCompression(itIsAdaptiveCompression);
+		if(itsMemoryProfile != null)
+		{
+			aService.setItsMemoryProfile(itsMemoryProfile);
+		}
+		if(itsResendSnapshot != null)
+		{
+			aService.setItsSnapshotSpool(itsResendSnapshot);
+			itsResendSnapshot = null;
+		}
+		boolean isASuccess = aService.sendReportXML();
+		
+		// Release the snapshot, it is no longer needed once sent
+		aService.setItsReportXML("");
+		itsReportXML = "";
+		
+		// 19.11.2009 JWC - Send the images now.
+		// 16.05.2013 JWC - version 2.6 Do not send images
+		// 13.06.2013 JWC - Version 3.0 Use switch to control
+		// Unchanged content has unchanged images
+		if(isASuccess && itIsSendingImages && !aService.isItIsUnchanged())
+		{				
+			aService.setItsImagesURL(itsImageURL);
+			aService.setItsKBRef(itsKBRef);
+			aService.setItsAutoLayout(itsAutoLayout);				
+			isASuccess = aService.sendImages(); 
+		}
+		
+		setItIsSuccess(isASuccess && !aService.isCancelled());
+		setItsReturnCode(aService.getItsReturnCode());
+		aService.writeTrace(itIsSuccess);
+		
+		// The URL now holds this content
+		if(itIsSuccess && itsContentDigest != null)
+		{
+			AcknowledgedDigests.acknowledge(itsSpoolDirectory, itsURL, itsContentDigest);
+		}
+		itsUploadRate = aService.getItsUploadRate();
+		itsActiveService = null;
+	}
+
+	/**
+	 * Publish the snapshot to each of the targets, compressing it only once. The return code is
+	 * that of the first target that failed.
+	 * @return the FanOutPublisher that published the snapshot
+	 * @since 2.3
+	 */
+	private FanOutPublisher publishToTargets()
+	{
+		FanOutPublisher aFanOut = new FanOutPublisher(itsForwarder);
+		itsActiveFanOut = aFanOut;
+		if(itIsCancelled)
+		{
+			aFanOut.cancel();
+		}
+		aFanOut.setItsTransportPolicy(itsTransportPolicy);
+		aFanOut.setItsSpoolDirectory(itsSpoolDirectory);
+		aFanOut.setItsMaxParallel(itsMaxParallel);
+		aFanOut.setItIsCoordinated(itIsCoordinated);
+		aFanOut.setItIsKeepingSnapshot(itIsKeepingSnapshot);
+		aFanOut.setItsSnapshotMetadata(itsSnapshotMetadata);
+		aFanOut.setItsContentDigest(itsContentDigest);
+		aFanOut.setItIsSkippingUnchanged(itIsSkippingUnchanged);
+		aFanOut.setItIsUsingAcknowledged(itIsUsingAcknowledged);
+		aFanOut.setItIsAdaptiveCompression(itIsAdaptiveCompression);
+		if(itsMemoryProfile != null)
+		{
+			aFanOut.setItsMemoryProfile(itsMemoryProfile);
+		}
+		aFanOut.setItsKeptSnapshot(itsResendSnapshot);
+		itsResendSnapshot = null;
+		aFanOut.setItIsSendingImages(itIsSendingImages);
+		aFanOut.setItsImageURLSuffix(itsImageURLSuffix);
+		aFanOut.setItsAutoLayout(itsAutoLayout);
+		aFanOut.setItsKBRef(itsKBRef);
+		
+		boolean isASuccess = aFanOut.publish(itsReportXML, itsTargets);
+		itsReportXML = "";
+		
+		int aReturnCode = 0;
+		double anUploadRate = PublishProgressEvent.UNKNOWN;
+		for(PublishTarget aTarget : itsTargets)
+		{
+			if(!aTarget.isItIsSuccess() && aReturnCode == 0)
+			{
+				aReturnCode = aTarget.getItsReturnCode();
+			}
+			anUploadRate = Math.max(anUploadRate, aTarget.getItsUploadRate());
+		}
+		setItIsSuccess(isASuccess && !aFanOut.isCancelled());
+		setItsReturnCode(aFanOut.isCancelled() ? EasReportTab.PUBLISH_CANCELLED : aReturnCode);
+		itsUploadRate = anUploadRate;
+		itsActiveFanOut = null;
+		return aFanOut;
+	}
+
+	/**
+	 * Cancel the publish that is in progress. Any request in flight is aborted and no
+	 * further images are sent. The client reports that it is finished once the worker thread 
+	 * has stopped.
+	 * @since 2.2
+	 */
+	public void cancel()
+	{
+		itIsCancelled = true;
+		HttpReportServiceClient aService = itsActiveService;
+		if(aService != null)
+		{
+			aService.cancel();
+		}
+		FanOutPublisher aFanOut = itsActiveFanOut;
+		if(aFanOut != null)
+		{
+			aFanOut.cancel();
+		}
+		PublishJob aJob = itsActiveJob;
+		if(aJob != null)
+		{
+			PublishScheduler.getInstance().cancel(aJob);
+		}
+	}
+	
+	/**
+	 * Abandon a cancelled publish that has not stopped. The publish is cancelled, it no longer reports
+	 * to the listener, the snapshot is released and the PublishScheduler no longer holds its URLs, so 
+	 * that the next publish can start while the abandoned one is left to stop.
+	 * @since 2.9
+	 */
+	public void abandon()
+	{
+		cancel();
+		itsListener = null;
+		itsReportXML = "";
+		itsResendSnapshot = null;
+		PublishJob aJob = itsActiveJob;
+		if(aJob != null)
+		{
+			PublishScheduler.getInstance().release(aJob);
+		}
+	}
+	
+	/**
+	 * @return the targets of the publish, or null if publishing to itsURL only
+	 * @since 2.3
+	 */
+	public List<PublishTarget> getItsTargets() {
+		return itsTargets;
+	}
+
+	/**
+	 * Set the targets to which the next start() publishes, instead of itsURL
+	 * @param itsTargets the targets, or null to publish to itsURL only
+	 * @since 2.3
+	 */
+	public void setItsTargets(List<PublishTarget> itsTargets) {
+		this.itsTargets = itsTargets;
+	}
+
+	/**
+	 * @param itIsCoordinated true to stage the snapshot on every target and then activate it on all of them
+	 * @since 2.3
+	 */
+	public void setItIsCoordinated(boolean itIsCoordinated) {
+		this.itIsCoordinated = itIsCoordinated;
+	}
+
+	/**
+	 * @param itsMaxParallel the maximum number of targets to which the snapshot is uploaded at the same time
+	 * @since 2.3
+	 */
+	public void setItsMaxParallel(int itsMaxParallel) {
+		this.itsMaxParallel = itsMaxParallel;
+	}
+	
+	/**
+	 * @return true if the last publish was cancelled
+	 * @since 2.2
+	 */
+	public boolean isItIsCancelled() {
+		return itIsCancelled;
 	}
 
 	/**
@@ -340,6 +664,128 @@ public class ReportServiceClient
 		setItsImageURL(itsURL + itsImageURLSuffix);
 	}
 
+	/**
+	 * Get the moving average upload rate of the repository snapshot from the last publish
+	 * @return the upload rate in bytes per second, or PublishProgressEvent.UNKNOWN if no snapshot was sent
+	 */
+	public double getItsUploadRate() {
+		return itsUploadRate;
+	}
+
+	/**
+	 * @return true if the last snapshot is kept in the spool directory once sent
+	 */
+	public boolean isItIsKeepingSnapshot() {
+		return itIsKeepingSnapshot;
+	}
+
+	/**
+	 * @param itIsKeepingSnapshot true to keep the last snapshot in the spool directory once sent
+	 */
+	public void setItIsKeepingSnapshot(boolean itIsKeepingSnapshot) {
+		this.itIsKeepingSnapshot = itIsKeepingSnapshot;
+	}
+
+	/**
+	 * @param itsSnapshotMetadata metadata to keep with the snapshot
+	 */
+	public void setItsSnapshotMetadata(Properties itsSnapshotMetadata) {
+		this.itsSnapshotMetadata = itsSnapshotMetadata;
+	}
+
+	/**
+	 * @param itsContentDigest the content digest of the snapshot, leaving out its timestamp, or null if not known
+	 * @since 2.4
+	 */
+	public void setItsContentDigest(String itsContentDigest) {
+		this.itsContentDigest = itsContentDigest;
+	}
+
+	/**
+	 * @param itsPriority the priority of the next publish in the PublishScheduler
+	 * @since 2.5
+	 */
+	public void setItsPriority(PublishPriority itsPriority) {
+		this.itsPriority = itsPriority;
+	}
+
+	/**
+	 * @param itsDescription a description of the next publish, such as the project name, shown while it waits or runs
+	 * @since 2.5
+	 */
+	public void setItsDescription(String itsDescription) {
+		this.itsDescription = itsDescription;
+	}
+
+	/**
+	 * @param itIsSkippingUnchanged true to skip the upload to a URL that already holds the content
+	 * @since 2.4
+	 */
+	public void setItIsSkippingUnchanged(boolean itIsSkippingUnchanged) {
+		this.itIsSkippingUnchanged = itIsSkippingUnchanged;
+	}
+
+	/**
+	 * @param itIsUsingAcknowledged true to skip the upload to a URL that cannot answer the offset query if it last acknowledged the content
+	 * @since 2.10
+	 */
+	public void setItIsUsingAcknowledged(boolean itIsUsingAcknowledged) {
+		this.itIsUsingAcknowledged = itIsUsingAcknowledged;
+	}
+
+	/**
+	 * @param itIsAdaptiveCompression true to choose the compression level from the measured upload and compression speeds
+	 * @since 2.6
+	 */
+	public void setItIsAdaptiveCompression(boolean itIsAdaptiveCompression) {
+		this.itIsAdaptiveCompression = itIsAdaptiveCompression;
+	}
+
+	/**
+	 * @param itsMemoryProfile the profile, holding the phases measured so far, to which the phases of the publish
+	 * are added, or null to start a new one
+	 * @since 2.8
+	 */
+	public void setItsMemoryProfile(PhaseMemoryProfile itsMemoryProfile) {
+		this.itsMemoryProfile = itsMemoryProfile;
+	}
+
+	/**
+	 * Set a kept snapshot to be sent by the next start(), instead of the report XML
+	 * @param itsResendSnapshot the kept snapshot
+	 */
+	public void setItsResendSnapshot(SnapshotSpool itsResendSnapshot) {
+		this.itsResendSnapshot = itsResendSnapshot;
+	}
+
+	/**
+	 * @return the itsSpoolDirectory
+	 */
+	public File getItsSpoolDirectory() {
+		return itsSpoolDirectory;
+	}
+
+	/**
+	 * @param itsSpoolDirectory the itsSpoolDirectory to set
+	 */
+	public void setItsSpoolDirectory(File itsSpoolDirectory) {
+		this.itsSpoolDirectory = itsSpoolDirectory;
+	}
+
+	/**
+	 * @return the itsTransportPolicy
+	 */
+	public TransportPolicy getItsTransportPolicy() {
+		return itsTransportPolicy;
+	}
+
+	/**
+	 * @param itsTransportPolicy the itsTransportPolicy to set
+	 */
+	public void setItsTransportPolicy(TransportPolicy itsTransportPolicy) {
+		this.itsTransportPolicy = itsTransportPolicy;
+	}
+
 	/**
 	 * @return the itsProxyHost
 	 */
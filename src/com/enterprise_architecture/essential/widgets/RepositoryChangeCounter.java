@@ -0,0 +1,169 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.stanford.smi.protege.event.FrameAdapter;
+import edu.stanford.smi.protege.event.FrameEvent;
+import edu.stanford.smi.protege.event.FrameListener;
+import edu.stanford.smi.protege.event.KnowledgeBaseAdapter;
+import edu.stanford.smi.protege.event.KnowledgeBaseEvent;
+import edu.stanford.smi.protege.event.KnowledgeBaseListener;
+import edu.stanford.smi.protege.model.KnowledgeBase;
+
+/**
+ * Counts the changes made to the repository while the Essential Viewer tab is open, so that a spooled snapshot
+ * can be identified as still current. The count is taken when a snapshot is rendered and stored with it; if 
+ * the count is unchanged when the snapshot is resent, no frame has been created, deleted, renamed or had a
+ * slot value changed since.
+ * <br/>
+ * The count only has meaning within the session in which it was taken, identified by #getSessionId.
+ * The time of the last change is also recorded, so that the AutoPublishScheduler can wait for the 
+ * repository to be quiet.
+ * @version 1.1 - Time of the last change<br/>
+ * @version 1.0
+ */
+public class RepositoryChangeCounter 
+{
+	private final AtomicLong itsChangeCount = new AtomicLong();
+	private final String itsSessionId = UUID.randomUUID().toString();
+	private final AtomicLong itsLastChangeTime = new AtomicLong();
+	
+	/**
+	 * Counts changes to the slot values and names of every frame
+	 */
+	private final FrameListener itsFrameListener = new FrameAdapter()
+	{
+		public void ownSlotValueChanged(FrameEvent theEvent)
+		{
+			changed();
+		}
+		
+		public void ownSlotAdded(FrameEvent theEvent)
+		{
+			changed();
+		}
+		
+		public void ownSlotRemoved(FrameEvent theEvent)
+		{
+			changed();
+		}
+		
+		public void nameChanged(FrameEvent theEvent)
+		{
+			changed();
+		}
+	};
+	
+	/**
+	 * Counts the creation and deletion of classes, slots and instances
+	 */
+	private final KnowledgeBaseListener itsKBListener = new KnowledgeBaseAdapter()
+	{
+		public void clsCreated(KnowledgeBaseEvent theEvent)
+		{
+			changed();
+		}
+		
+		public void clsDeleted(KnowledgeBaseEvent theEvent)
+		{
+			changed();
+		}
+		
+		public void slotCreated(KnowledgeBaseEvent theEvent)
+		{
+			changed();
+		}
+		
+		public void slotDeleted(KnowledgeBaseEvent theEvent)
+		{
+			changed();
+		}
+		
+		public void instanceCreated(KnowledgeBaseEvent theEvent)
+		{
+			changed();
+		}
+		
+		public void instanceDeleted(KnowledgeBaseEvent theEvent)
+		{
+			changed();
+		}
+		
+		public void frameNameChanged(KnowledgeBaseEvent theEvent)
+		{
+			changed();
+		}
+	};
+	
+	/**
+	 * Count a change, and record when it was made
+	 */
+	private void changed()
+	{
+		itsChangeCount.incrementAndGet();
+		itsLastChangeTime.set(System.currentTimeMillis());
+	}
+	
+	/**
+	 * Start counting the changes to the specified repository
+	 * @param theKB the repository
+	 */
+	public void attach(KnowledgeBase theKB)
+	{
+		theKB.addFrameListener(itsFrameListener);
+		theKB.addKnowledgeBaseListener(itsKBListener);
+	}
+	
+	/**
+	 * Stop counting the changes to the specified repository
+	 * @param theKB the repository
+	 */
+	public void detach(KnowledgeBase theKB)
+	{
+		theKB.removeFrameListener(itsFrameListener);
+		theKB.removeKnowledgeBaseListener(itsKBListener);
+	}
+	
+	/**
+	 * @return the number of changes counted so far in this session
+	 */
+	public long getChangeCount()
+	{
+		return itsChangeCount.get();
+	}
+	
+	/**
+	 * @return the time of the last change counted, or 0 if there has been none
+	 */
+	public long getLastChangeTime()
+	{
+		return itsLastChangeTime.get();
+	}
+	
+	/**
+	 * @return the id of the session in which the changes are counted
+	 */
+	public String getSessionId()
+	{
+		return itsSessionId;
+	}
+}
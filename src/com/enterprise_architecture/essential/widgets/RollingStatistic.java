@@ -0,0 +1,120 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+/**
+ * The last value of a measurement, such as the duration of a publish phase, and the mean, minimum and maximum 
+ * of its most recent values. The statistics are read through JMX as a composite of the getters.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishMetrics PublishMetrics
+ */
+public class RollingStatistic 
+{
+	/**
+	 * The number of the most recent values from which the rolling statistics are taken
+	 */
+	public static final int WINDOW_SIZE = 20;
+	
+	private final double[] itsValues = new double[WINDOW_SIZE];
+	private long itsCount = 0;
+	
+	/**
+	 * Record the next value of the measurement
+	 * @param theValue the value
+	 */
+	public synchronized void record(double theValue)
+	{
+		itsValues[(int)(itsCount % WINDOW_SIZE)] = theValue;
+		itsCount++;
+	}
+	
+	/**
+	 * Forget every value recorded so far
+	 */
+	public synchronized void reset()
+	{
+		itsCount = 0;
+	}
+	
+	/**
+	 * @return the number of values recorded since the statistic was created or reset
+	 */
+	public synchronized long getCount()
+	{
+		return itsCount;
+	}
+	
+	/**
+	 * @return the last value recorded, or 0 if none has been
+	 */
+	public synchronized double getLast()
+	{
+		return (itsCount == 0) ? 0 : itsValues[(int)((itsCount - 1) % WINDOW_SIZE)];
+	}
+	
+	/**
+	 * @return the mean of the most recent values, or 0 if none has been recorded
+	 */
+	public synchronized double getMean()
+	{
+		int aSize = getWindowCount();
+		double aTotal = 0;
+		for(int i = 0; i < aSize; i++)
+		{
+			aTotal += itsValues[i];
+		}
+		return (aSize == 0) ? 0 : aTotal / aSize;
+	}
+	
+	/**
+	 * @return the least of the most recent values, or 0 if none has been recorded
+	 */
+	public synchronized double getMin()
+	{
+		int aSize = getWindowCount();
+		double aMin = (aSize == 0) ? 0 : Double.MAX_VALUE;
+		for(int i = 0; i < aSize; i++)
+		{
+			aMin = Math.min(aMin, itsValues[i]);
+		}
+		return aMin;
+	}
+	
+	/**
+	 * @return the greatest of the most recent values, or 0 if none has been recorded
+	 */
+	public synchronized double getMax()
+	{
+		int aSize = getWindowCount();
+		double aMax = (aSize == 0) ? 0 : -Double.MAX_VALUE;
+		for(int i = 0; i < aSize; i++)
+		{
+			aMax = Math.max(aMax, itsValues[i]);
+		}
+		return aMax;
+	}
+	
+	/**
+	 * @return the number of values held in the window
+	 */
+	private int getWindowCount()
+	{
+		return (int)Math.min(itsCount, WINDOW_SIZE);
+	}
+}
@@ -31,8 +31,10 @@ import org.xml.sax.helpers.DefaultHandler;
 /**
  * Parse the XML file that contains the history of successful Report Service URLs. Also included
  * in version 1.1 is the history of the last selected auto layout for the graph widget images.
+ * Version 1.2 adds the saved set of targets for publishing to several Report Services, each with its URL
+ * and user name, and whether the publish to them is coordinated.
  * @author Jonathan Carter <jonathan.carter@e-asolutions.com>
- * @version 1.1
+ * @version 1.2
  *
  */
 public class ServiceHistoryParser extends DefaultHandler 
@@ -42,12 +44,16 @@ public class ServiceHistoryParser extends DefaultHandler
 	private Vector<String> itsURLHistory;
 	private String itsCurrentAttribute;
 	private String itsLastLayout;
+	private Vector<PublishTarget> itsTargetSet;
+	private String itsCurrentUser;
+	private boolean itIsCoordinated;
 	
 	public ServiceHistoryParser()
 	{
 		itsCurrentCharacters = new String();
 		itsURLHistory = new Vector<String>();
 		itsLastLayout = new String();
+		itsTargetSet = new Vector<PublishTarget>();
 	}
 
     /**
@@ -73,6 +79,8 @@ public class ServiceHistoryParser extends DefaultHandler
     {
     	itsURLHistory = new Vector<String>();
     	itsLastLayout = new String();
+    	itsTargetSet = new Vector<PublishTarget>();
+    	itIsCoordinated = false;
     }
 
     public void endDocument( ) throws SAXException 
@@ -100,6 +108,15 @@ public class ServiceHistoryParser extends DefaultHandler
     	{
     		itsCurrentElement = "LAYOUT";
     	}
+    	else if(theLocalName.equals("target"))
+    	{
+    		itsCurrentElement = "TARGET";
+    		itsCurrentUser = theAttributes.getValue("user");
+    	}
+    	else if(theLocalName.equals("coordinated"))
+    	{
+    		itsCurrentElement = "COORDINATED";
+    	}
     }
 
     /**
@@ -134,6 +151,16 @@ public class ServiceHistoryParser extends DefaultHandler
     			String aLayout = itsCurrentCharacters;
     			itsLastLayout = aLayout;
     		}
+    		else if(itsCurrentElement.equals("TARGET"))
+    		{
+    			// The password is never saved
+    			String aUser = (itsCurrentUser != null) ? itsCurrentUser : "";
+    			itsTargetSet.add(new PublishTarget(itsCurrentCharacters, aUser, ""));
+    		}
+    		else if(itsCurrentElement.equals("COORDINATED"))
+    		{
+    			itIsCoordinated = Boolean.valueOf(itsCurrentCharacters.trim()).booleanValue();
+    		}
         }
     	itsCurrentElement = null;
     	itsCurrentCharacters = new String();  	
@@ -172,6 +199,22 @@ public class ServiceHistoryParser extends DefaultHandler
 		return itsURLHistory;
 	}
 
+	/**
+	 * Get the saved set of targets, each with its URL and user name
+	 * @return the itsTargetSet
+	 */
+	public Vector<PublishTarget> getItsTargetSet() {
+		return itsTargetSet;
+	}
+
+	/**
+	 * Is the publish to the saved target set coordinated?
+	 * @return the itIsCoordinated
+	 */
+	public boolean isItIsCoordinated() {
+		return itIsCoordinated;
+	}
+
 	/**
 	 * @param itsURLHistory the itsURLHistory to set
 	 */
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.http.entity.AbstractHttpEntity;
+
+/**
+ * HttpEntity that sends a range of the spooled repository snapshot to the Essential Viewer Report Service, 
+ * reading it from the spool file rather than holding it in memory. The range can be the whole snapshot
+ * or one chunk of a resumable upload. A CountingOutputStream tracks progress against the whole snapshot. 
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.SnapshotSpool SnapshotSpool
+ */
+public class SnapshotChunkEntity extends AbstractHttpEntity 
+{
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private final SnapshotSpool itsSpool;
+	private final long itsOffset;
+	private final long itsLength;
+	private final PublishProgressListener itsListener;
+	
+	/**
+	 * The counting stream used by the most recent write, retained to report the transfer rate
+	 */
+	private CountingOutputStream itsCountingStream = null;
+	
+	/**
+	 * Constructor
+	 * @param theSpool the spooled snapshot
+	 * @param theOffset the offset in the snapshot at which this chunk starts
+	 * @param theLength the number of bytes in this chunk
+	 * @param theListener the listener that is waiting for progress events
+	 */
+	public SnapshotChunkEntity(SnapshotSpool theSpool, long theOffset, long theLength, PublishProgressListener theListener)
+	{
+		itsSpool = theSpool;
+		itsOffset = theOffset;
+		itsLength = theLength;
+		itsListener = theListener;
+		setContentType("binary/octet-stream");
+	}
+
+	@Override
+	public boolean isRepeatable() 
+	{
+		return true;
+	}
+
+	@Override
+	public long getContentLength() 
+	{
+		return itsLength;
+	}
+
+	/**
+	 * Content is only streamed by #writeTo. This returns an empty stream.
+	 */
+	@Override
+	public InputStream getContent() throws IOException 
+	{
+		return new ByteArrayInputStream(new byte[0]);
+	}
+
+	/**
+	 * Copy the range of the spool file to the specified stream through a CountingOutputStream
+	 */
+	@Override
+	public void writeTo(OutputStream theOutStream) throws IOException 
+	{
+		itsCountingStream = new CountingOutputStream(theOutStream, itsOffset, itsSpool.getItsLength(), itsListener, PublishPhase.UPLOAD_XML);
+		FileInputStream anInput = new FileInputStream(itsSpool.getItsFile());
+		try
+		{
+			anInput.getChannel().position(itsOffset);
+			byte[] aBuffer = new byte[BUFFER_SIZE];
+			long aRemaining = itsLength;
+			while(aRemaining > 0)
+			{
+				int aRead = anInput.read(aBuffer, 0, (int)Math.min(aBuffer.length, aRemaining));
+				if(aRead < 0)
+				{
+					throw new IOException("Snapshot spool file is shorter than expected: " + itsSpool.getItsFile());
+				}
+				itsCountingStream.write(aBuffer, 0, aRead);
+				aRemaining -= aRead;
+			}
+			itsCountingStream.flush();
+		}
+		finally
+		{
+			anInput.close();
+		}
+	}
+
+	@Override
+	public boolean isStreaming() 
+	{
+		return false;
+	}
+	
+	/**
+	 * Get the moving average transfer rate of the most recent write of this entity
+	 * @return the transfer rate in bytes per second, or PublishProgressEvent.UNKNOWN if the entity has not been written
+	 */
+	public double getTransferRate()
+	{
+		if(itsCountingStream == null)
+		{
+			return PublishProgressEvent.UNKNOWN;
+		}
+		return itsCountingStream.getTransferRate();
+	}
+	
+	/**
+	 * @return the number of bytes written by the most recent write of this entity
+	 */
+	public long getTransferredCount()
+	{
+		if(itsCountingStream == null)
+		{
+			return 0;
+		}
+		return itsCountingStream.getTransferredCount();
+	}
+}
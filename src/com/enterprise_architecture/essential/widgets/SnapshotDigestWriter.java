@@ -0,0 +1,176 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+
+/**
+ * FilterWriter that computes a digest of the repository snapshot as it is rendered, without holding
+ * a second copy of it. The &lt;timestamp&gt; element, which changes on every render, is left out of the digest,
+ * so two renders of an unchanged repository have the same digest. The characters are digested as UTF-8.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.AcknowledgedDigests AcknowledgedDigests
+ */
+public class SnapshotDigestWriter extends FilterWriter 
+{
+	private static final String OPEN_TAG = "<timestamp>";
+	private static final String CLOSE_TAG = "</timestamp>";
+	
+	private final MessageDigest itsDigest = SnapshotSpool.createDigest();
+	private final Writer itsDigestWriter;
+	
+	/**
+	 * Whether the characters being written are inside the timestamp element, and how many characters 
+	 * of the tag being looked for have been matched so far
+	 */
+	private boolean itIsInTimestamp = false;
+	private int itsMatchLength = 0;
+	private String itsDigestValue = null;
+	
+	/**
+	 * Constructor
+	 * @param theWriter the writer to which the rendered XML is written
+	 */
+	public SnapshotDigestWriter(Writer theWriter)
+	{
+		super(theWriter);
+		OutputStream aDiscard = new OutputStream()
+		{
+			public void write(int theByte)
+			{
+				// Only the digest is wanted
+			}
+			
+			public void write(byte[] theBytes, int theOffset, int theLength)
+			{
+				// Only the digest is wanted
+			}
+		};
+		try
+		{
+			itsDigestWriter = new OutputStreamWriter(new DigestOutputStream(aDiscard, itsDigest), "UTF-8");
+		}
+		catch(IOException anIOEx)
+		{
+			throw new IllegalStateException("UTF-8 is not supported", anIOEx);
+		}
+	}
+
+	/**
+	 * Write a single character
+	 * @param theChar the character to write
+	 */
+	@Override
+	public void write(int theChar) throws IOException 
+	{
+		out.write(theChar);
+		digest((char)theChar);
+	}
+
+	/**
+	 * Write a portion of an array of characters
+	 * @param theChars the characters to write
+	 * @param theOffset the offset from which to start
+	 * @param theLength the number of characters to write
+	 */
+	@Override
+	public void write(char[] theChars, int theOffset, int theLength) throws IOException 
+	{
+		out.write(theChars, theOffset, theLength);
+		for(int i = theOffset; i < theOffset + theLength; i++)
+		{
+			digest(theChars[i]);
+		}
+	}
+
+	/**
+	 * Write a portion of a string
+	 * @param theString the string to write
+	 * @param theOffset the offset from which to start
+	 * @param theLength the number of characters to write
+	 */
+	@Override
+	public void write(String theString, int theOffset, int theLength) throws IOException 
+	{
+		out.write(theString, theOffset, theLength);
+		for(int i = theOffset; i < theOffset + theLength; i++)
+		{
+			digest(theString.charAt(i));
+		}
+	}
+	
+	/**
+	 * Get the digest of everything written, other than the timestamp element. Nothing more should be 
+	 * written once the digest has been read.
+	 * @return the digest as a hex string
+	 * @throws IOException if the digest cannot be completed
+	 */
+	public String getDigest() throws IOException
+	{
+		if(itsDigestValue == null)
+		{
+			// A partial match of the opening tag was not the timestamp after all
+			if(!itIsInTimestamp && itsMatchLength > 0)
+			{
+				itsDigestWriter.write(OPEN_TAG, 0, itsMatchLength);
+			}
+			itsDigestWriter.flush();
+			itsDigestValue = SnapshotSpool.toHex(itsDigest.digest());
+		}
+		return itsDigestValue;
+	}
+	
+	/**
+	 * Digest a character unless it is part of the timestamp element. Characters that might be the start of 
+	 * the opening tag are held back until it is known whether they are.
+	 * @param theChar the character
+	 * @throws IOException if the character cannot be digested
+	 */
+	private void digest(char theChar) throws IOException
+	{
+		String aTag = itIsInTimestamp ? CLOSE_TAG : OPEN_TAG;
+		if(theChar == aTag.charAt(itsMatchLength))
+		{
+			itsMatchLength++;
+			if(itsMatchLength == aTag.length())
+			{
+				itIsInTimestamp = !itIsInTimestamp;
+				itsMatchLength = 0;
+			}
+			return;
+		}
+		
+		// Not the tag - release any characters held back, and start matching again from this one
+		if(!itIsInTimestamp)
+		{
+			itsDigestWriter.write(OPEN_TAG, 0, itsMatchLength);
+		}
+		itsMatchLength = (theChar == aTag.charAt(0)) ? 1 : 0;
+		if(itsMatchLength == 0 && !itIsInTimestamp)
+		{
+			itsDigestWriter.write(theChar);
+		}
+	}
+}
@@ -0,0 +1,700 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writer that the repository snapshot is rendered through to find out what makes it big, rather than to publish it.
+ * Nothing is kept. The bytes that each frame of the snapshot takes are counted as UTF-8, and as they would be 
+ * once compressed, and added up by the class of the frame, by slot and by frame, so that the largest can be listed. 
+ * <br/>
+ * The frames are the &lt;class&gt;, &lt;slot&gt;, &lt;facet&gt; and &lt;simple_instance&gt; elements, and their class is
+ * their first &lt;type&gt;. Each &lt;own_slot_value&gt; is added to its slot as well as to its frame. Anything outside the 
+ * frames, such as the timestamp, is counted as #OTHER.
+ * <br/>
+ * The compressed sizes are approximate. The whole snapshot is compressed as one stream, as it is when it is published,
+ * and flushed every #WINDOW_SIZE bytes. The compressed bytes of each window are shared among the slot values and 
+ * frames in it by their size. Flushing after each slot value would give each its own compressed size, but would 
+ * add more to the compressed size of a small slot value than it takes itself.
+ * <br/>
+ * The largest are those that take the most bytes before compression, which are exact. Only the largest frames 
+ * are kept, #itsTopCount of them, so that profiling a repository of a million instances does not need much more 
+ * memory than rendering it.
+ * @version 1.0
+ */
+public class SnapshotSizeProfiler extends Writer 
+{
+	public static final int DEFAULT_TOP_COUNT = 10;
+	public static final String TOP_COUNT_PROP = "reporttab.profile.top";
+	
+	/**
+	 * The name under which anything outside the frames is counted
+	 */
+	public static final String OTHER = "(outside frames)";
+	
+	private static final String[] FRAME_TAGS = {"class", "slot", "facet", "simple_instance"};
+	private static final String NAME_TAG = "name";
+	private static final String TYPE_TAG = "type";
+	private static final String SLOT_VALUE_TAG = "own_slot_value";
+	private static final String SLOT_REFERENCE_TAG = "slot_reference";
+	
+	/**
+	 * The depth of the frame elements, inside the knowledge_base element
+	 */
+	private static final int FRAME_DEPTH = 2;
+	
+	/**
+	 * The number of bytes after which the compressed stream is flushed and its bytes shared out
+	 */
+	private static final int WINDOW_SIZE = 16 * 1024;
+	
+	private static final double KILOBYTE = 1024;
+	
+	/**
+	 * The bytes and compressed bytes of a class, slot or frame
+	 */
+	public static class SizeEntry
+	{
+		private String itsName;
+		private long itsBytes = 0;
+		private long itsCompressedBytes = 0;
+		private long itsCount = 0;
+		
+		/**
+		 * The class of a frame, which its compressed bytes are also added to
+		 */
+		private SizeEntry itsClass = null;
+		
+		private SizeEntry(String theName)
+		{
+			itsName = theName;
+		}
+		
+		/**
+		 * @return the name of the class, slot or frame
+		 */
+		public String getItsName() {
+			return itsName;
+		}
+		
+		/**
+		 * @return the bytes that it takes in the snapshot, as UTF-8
+		 */
+		public long getItsBytes() {
+			return itsBytes;
+		}
+		
+		/**
+		 * @return the approximate bytes that it takes once the snapshot is compressed
+		 */
+		public long getItsCompressedBytes() {
+			return itsCompressedBytes;
+		}
+		
+		/**
+		 * @return the number of frames or slot values that were added up
+		 */
+		public long getItsCount() {
+			return itsCount;
+		}
+		
+		/**
+		 * Describe the entry for a report, e.g. "EA_Class: 1024.0 KB, 96.5 KB compressed (2000)"
+		 * @return the description
+		 */
+		public String toString()
+		{
+			return itsName + ": " + String.format("%.1f KB, %.1f KB compressed", itsBytes / KILOBYTE, itsCompressedBytes / KILOBYTE) + " (" + itsCount + ")";
+		}
+		
+		private void addCompressed(long theCompressedBytes)
+		{
+			itsCompressedBytes += theCompressedBytes;
+			if(itsClass != null)
+			{
+				itsClass.itsCompressedBytes += theCompressedBytes;
+			}
+		}
+		
+		private void setClass(SizeEntry theClass)
+		{
+			itsClass = theClass;
+			itsClass.itsBytes += itsBytes;
+			itsClass.itsCompressedBytes += itsCompressedBytes;
+			itsClass.itsCount++;
+		}
+	}
+	
+	/**
+	 * Orders SizeEntries by size, largest first
+	 */
+	private static final Comparator<SizeEntry> LARGEST_FIRST = new Comparator<SizeEntry>()
+	{
+		public int compare(SizeEntry theFirst, SizeEntry theSecond)
+		{
+			return theFirst.itsBytes > theSecond.itsBytes ? -1 : (theFirst.itsBytes == theSecond.itsBytes ? 0 : 1);
+		}
+	};
+	
+	/**
+	 * The bytes of a frame, and of the slot value if they are one, in the current window
+	 */
+	private static class Piece
+	{
+		private final SizeEntry itsEntry;
+		private final SizeEntry itsSlot;
+		private final long itsBytes;
+		
+		private Piece(SizeEntry theEntry, SizeEntry theSlot, long theBytes)
+		{
+			itsEntry = theEntry;
+			itsSlot = theSlot;
+			itsBytes = theBytes;
+		}
+	}
+	
+	/**
+	 * Counts the bytes written to it, passing them on to the next stream if there is one. A flush is not
+	 * passed on, since flushing the compressed stream adds to it.
+	 */
+	private static class ByteCount extends OutputStream
+	{
+		private final OutputStream itsNext;
+		private long itsCount = 0;
+		
+		private ByteCount(OutputStream theNext)
+		{
+			itsNext = theNext;
+		}
+		
+		public void write(int theByte) throws IOException
+		{
+			itsCount++;
+			if(itsNext != null)
+			{
+				itsNext.write(theByte);
+			}
+		}
+		
+		public void write(byte[] theBytes, int theOffset, int theLength) throws IOException
+		{
+			itsCount += theLength;
+			if(itsNext != null)
+			{
+				itsNext.write(theBytes, theOffset, theLength);
+			}
+		}
+		
+		public void close() throws IOException
+		{
+			if(itsNext != null)
+			{
+				itsNext.close();
+			}
+		}
+	}
+	
+	private final int itsTopCount;
+	private final Deflater itsDeflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+	private final ByteCount itsCompressedCount = new ByteCount(null);
+	private final DeflaterOutputStream itsCompressor = new DeflaterOutputStream(itsCompressedCount, itsDeflater, 8192, true);
+	private final ByteCount itsByteCount = new ByteCount(itsCompressor);
+	private final Writer itsEncoder;
+	
+	/**
+	 * The bytes counted at the last checkpoint, and the pieces and the compressed bytes counted since the 
+	 * current window started
+	 */
+	private long itsCheckpointBytes = 0;
+	private long itsWindowBytes = 0;
+	private long itsWindowCompressedBytes = 0;
+	private final List<Piece> itsPieces = new ArrayList<Piece>();
+	
+	private final Map<String, SizeEntry> itsClasses = new HashMap<String, SizeEntry>();
+	private final Map<String, SizeEntry> itsSlots = new HashMap<String, SizeEntry>();
+	private final PriorityQueue<SizeEntry> itsLargestFrames;
+	private final SizeEntry itsOther = new SizeEntry(OTHER);
+	
+	/**
+	 * The state of the scan of the XML. Only the element names are read, and the text of the elements that name a 
+	 * frame, its class and a slot.
+	 */
+	private boolean itIsInTag = false;
+	private boolean itIsClosingTag = false;
+	private boolean itIsTagNameComplete = false;
+	private char itsPreviousChar = 0;
+	private final StringBuilder itsTagName = new StringBuilder();
+	private int itsDepth = 0;
+	private StringBuilder itsText = null;
+	
+	/**
+	 * The frame and slot value that are being written, if any
+	 */
+	private SizeEntry itsFrame = null;
+	private String itsFrameType = null;
+	private String itsSlotName = null;
+	private boolean itIsFinished = false;
+	
+	/**
+	 * Constructor, listing the #DEFAULT_TOP_COUNT largest of each
+	 */
+	public SnapshotSizeProfiler()
+	{
+		this(DEFAULT_TOP_COUNT);
+	}
+	
+	/**
+	 * Constructor
+	 * @param theTopCount how many of the largest classes, slots and frames to list
+	 */
+	public SnapshotSizeProfiler(int theTopCount)
+	{
+		itsTopCount = Math.max(1, theTopCount);
+		itsLargestFrames = new PriorityQueue<SizeEntry>(itsTopCount + 1, Collections.reverseOrder(LARGEST_FIRST));
+		try
+		{
+			itsEncoder = new OutputStreamWriter(itsByteCount, "UTF-8");
+		}
+		catch(IOException anIOEx)
+		{
+			throw new IllegalStateException("UTF-8 is not supported", anIOEx);
+		}
+	}
+	
+	/**
+	 * Get how many of the largest to list, from the #TOP_COUNT_PROP property
+	 * @param theProperties the tab properties
+	 * @return the number to list, or #DEFAULT_TOP_COUNT if the property is missing or not valid
+	 */
+	public static int getTopCount(Properties theProperties)
+	{
+		try
+		{
+			return Math.max(1, Integer.parseInt(theProperties.getProperty(TOP_COUNT_PROP, String.valueOf(DEFAULT_TOP_COUNT)).trim()));
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			System.out.println("Invalid value for property " + TOP_COUNT_PROP + ". Using default: " + DEFAULT_TOP_COUNT);
+			return DEFAULT_TOP_COUNT;
+		}
+	}
+	
+	/**
+	 * Count a portion of an array of characters, following the elements that they make up
+	 * @param theChars the characters to write
+	 * @param theOffset the offset from which to start
+	 * @param theLength the number of characters to write
+	 */
+	@Override
+	public void write(char[] theChars, int theOffset, int theLength) throws IOException 
+	{
+		int aStart = theOffset;
+		for(int i = theOffset; i < theOffset + theLength; i++)
+		{
+			if(scan(theChars[i]))
+			{
+				// The end of a tag - count everything up to it before acting on it
+				itsEncoder.write(theChars, aStart, i + 1 - aStart);
+				aStart = i + 1;
+				endTag(itsTagName.toString());
+			}
+		}
+		itsEncoder.write(theChars, aStart, theOffset + theLength - aStart);
+	}
+
+	/**
+	 * Nothing is kept, so there is nothing to flush until the snapshot is finished
+	 */
+	@Override
+	public void flush() throws IOException 
+	{
+		// Flushing here would add to the compressed size
+	}
+
+	/**
+	 * Finish counting. Anything after the last frame is counted as #OTHER.
+	 */
+	@Override
+	public void close() throws IOException 
+	{
+		finish();
+	}
+	
+	/**
+	 * Finish counting, once the snapshot has been rendered. Anything after the last frame is counted as #OTHER.
+	 * @throws IOException if the remaining content cannot be counted
+	 */
+	public void finish() throws IOException
+	{
+		if(!itIsFinished)
+		{
+			checkpoint(itsOther, null);
+			shareWindow();
+			itIsFinished = true;
+			itsDeflater.end();
+		}
+	}
+	
+	/**
+	 * @return the bytes of the snapshot, as UTF-8
+	 */
+	public long getItsBytes()
+	{
+		return itsByteCount.itsCount;
+	}
+	
+	/**
+	 * @return the approximate bytes of the snapshot once compressed
+	 */
+	public long getItsCompressedBytes()
+	{
+		return itsCompressedCount.itsCount;
+	}
+	
+	/**
+	 * @return the largest classes, largest first
+	 */
+	public List<SizeEntry> getLargestClasses()
+	{
+		return largest(itsClasses.values());
+	}
+	
+	/**
+	 * @return the largest slots, added up over every frame, largest first
+	 */
+	public List<SizeEntry> getLargestSlots()
+	{
+		return largest(itsSlots.values());
+	}
+	
+	/**
+	 * @return the largest frames, largest first
+	 */
+	public List<SizeEntry> getLargestFrames()
+	{
+		return largest(itsLargestFrames);
+	}
+	
+	/**
+	 * @return what was outside the frames
+	 */
+	public SizeEntry getItsOther()
+	{
+		return itsOther;
+	}
+	
+	/**
+	 * Describe the totals and the largest classes, slots and frames
+	 * @param theTotalPrefix the text before the totals
+	 * @param theClassPrefix the heading of the largest classes
+	 * @param theSlotPrefix the heading of the largest slots
+	 * @param theFramePrefix the heading of the largest frames
+	 * @return the report, one line per entry
+	 */
+	public String getReport(String theTotalPrefix, String theClassPrefix, String theSlotPrefix, String theFramePrefix)
+	{
+		StringBuilder aReport = new StringBuilder(theTotalPrefix);
+		aReport.append(String.format("%.1f KB, %.1f KB compressed", getItsBytes() / KILOBYTE, getItsCompressedBytes() / KILOBYTE));
+		appendEntries(aReport, theClassPrefix, getLargestClasses());
+		appendEntries(aReport, theSlotPrefix, getLargestSlots());
+		appendEntries(aReport, theFramePrefix, getLargestFrames());
+		aReport.append("\n  ").append(itsOther);
+		return aReport.toString();
+	}
+	
+	private void appendEntries(StringBuilder theReport, String theHeading, List<SizeEntry> theEntries)
+	{
+		theReport.append("\n").append(theHeading);
+		for(SizeEntry anEntry : theEntries)
+		{
+			theReport.append("\n  ").append(anEntry);
+		}
+	}
+	
+	/**
+	 * Sort the entries, largest first, and keep the top #itsTopCount
+	 * @param theEntries the entries
+	 * @return the largest entries
+	 */
+	private List<SizeEntry> largest(Iterable<SizeEntry> theEntries)
+	{
+		List<SizeEntry> aList = new ArrayList<SizeEntry>();
+		for(SizeEntry anEntry : theEntries)
+		{
+			aList.add(anEntry);
+		}
+		Collections.sort(aList, LARGEST_FIRST);
+		return aList.size() > itsTopCount ? new ArrayList<SizeEntry>(aList.subList(0, itsTopCount)) : aList;
+	}
+	
+	/**
+	 * Follow the tags of the XML a character at a time
+	 * @param theChar the next character
+	 * @return true if the character ends a tag, whose name is in #itsTagName
+	 */
+	private boolean scan(char theChar)
+	{
+		if(!itIsInTag)
+		{
+			if(theChar == '<')
+			{
+				itIsInTag = true;
+				itIsClosingTag = false;
+				itIsTagNameComplete = false;
+				itsTagName.setLength(0);
+			}
+			else if(itsText != null)
+			{
+				itsText.append(theChar);
+			}
+			itsPreviousChar = theChar;
+			return false;
+		}
+		
+		boolean isEndOfTag = false;
+		if(theChar == '>')
+		{
+			itIsInTag = false;
+			isEndOfTag = true;
+		}
+		else if(theChar == '/' && itsTagName.length() == 0 && !itIsClosingTag)
+		{
+			itIsClosingTag = true;
+		}
+		else if(!itIsTagNameComplete)
+		{
+			if(Character.isWhitespace(theChar) || theChar == '/')
+			{
+				itIsTagNameComplete = true;
+			}
+			else
+			{
+				itsTagName.append(theChar);
+			}
+		}
+		
+		// Keep the previous character to tell an empty element, <tag/>
+		if(!isEndOfTag)
+		{
+			itsPreviousChar = theChar;
+		}
+		return isEndOfTag;
+	}
+	
+	/**
+	 * Act on a tag that has been counted. The opening and closing tags of the frames and slot values 
+	 * are checkpoints at which the bytes since the last one are added up.
+	 * @param theTagName the name of the element
+	 * @throws IOException if the bytes cannot be counted
+	 */
+	private void endTag(String theTagName) throws IOException
+	{
+		// Leave out the XML declaration, comments and empty elements
+		boolean isEmptyElement = itsPreviousChar == '/';
+		itsPreviousChar = '>';
+		if(theTagName.startsWith("?") || theTagName.startsWith("!") || isEmptyElement)
+		{
+			return;
+		}
+		
+		if(!itIsClosingTag)
+		{
+			itsDepth++;
+			if(itsDepth == FRAME_DEPTH && isFrameTag(theTagName))
+			{
+				// Anything since the last frame, such as the line break before it, is counted with the frame
+				itsFrame = new SizeEntry("");
+				itsFrameType = null;
+				checkpoint(itsFrame, null);
+			}
+			else if(itsFrame != null && itsDepth == FRAME_DEPTH + 1 && SLOT_VALUE_TAG.equals(theTagName))
+			{
+				checkpoint(itsFrame, null);
+				itsSlotName = null;
+			}
+			else if(itsFrame != null && isCaptured(theTagName))
+			{
+				itsText = new StringBuilder();
+			}
+			return;
+		}
+		
+		itsDepth--;
+		if(itsText != null)
+		{
+			String aText = itsText.toString().trim();
+			itsText = null;
+			if(SLOT_REFERENCE_TAG.equals(theTagName))
+			{
+				itsSlotName = aText;
+			}
+			else if(NAME_TAG.equals(theTagName))
+			{
+				itsFrame.itsName = aText;
+			}
+			else if(itsFrameType == null)
+			{
+				itsFrameType = aText;
+				itsFrame.setClass(getEntry(itsClasses, itsFrameType));
+			}
+		}
+		else if(itsFrame != null && itsDepth == FRAME_DEPTH && SLOT_VALUE_TAG.equals(theTagName))
+		{
+			// Add the slot value to its slot, as well as to the frame
+			SizeEntry aSlot = null;
+			if(itsSlotName != null)
+			{
+				aSlot = getEntry(itsSlots, itsSlotName);
+				aSlot.itsCount++;
+			}
+			checkpoint(itsFrame, aSlot);
+			itsSlotName = null;
+		}
+		else if(itsFrame != null && itsDepth == FRAME_DEPTH - 1 && isFrameTag(theTagName))
+		{
+			checkpoint(itsFrame, null);
+			if(itsFrame.itsClass == null)
+			{
+				itsFrame.setClass(getEntry(itsClasses, theTagName));
+			}
+			itsFrame.itsCount = 1;
+			itsLargestFrames.add(itsFrame);
+			if(itsLargestFrames.size() > itsTopCount)
+			{
+				itsLargestFrames.poll();
+			}
+			itsFrame = null;
+		}
+	}
+	
+	/**
+	 * Is the text of the element needed? These are the name and class of the frame, and the slot of a slot value.
+	 * @param theTagName the name of the element that has just been opened
+	 * @return true if its text is needed
+	 */
+	private boolean isCaptured(String theTagName)
+	{
+		if(itsDepth == FRAME_DEPTH + 1)
+		{
+			return NAME_TAG.equals(theTagName) || (TYPE_TAG.equals(theTagName) && itsFrameType == null);
+		}
+		return itsDepth == FRAME_DEPTH + 2 && SLOT_REFERENCE_TAG.equals(theTagName);
+	}
+	
+	/**
+	 * Add the bytes written since the last checkpoint to the entry, and to its class and the slot if there is one. 
+	 * Their compressed bytes are added once the window they are in is complete.
+	 * @param theEntry the frame, or #itsOther
+	 * @param theSlot the slot if the bytes are a slot value, otherwise null
+	 * @throws IOException if the bytes cannot be compressed
+	 */
+	private void checkpoint(SizeEntry theEntry, SizeEntry theSlot) throws IOException
+	{
+		if(itIsFinished)
+		{
+			return;
+		}
+		itsEncoder.flush();
+		long aBytes = itsByteCount.itsCount - itsCheckpointBytes;
+		itsCheckpointBytes = itsByteCount.itsCount;
+		theEntry.itsBytes += aBytes;
+		if(theEntry.itsClass != null)
+		{
+			theEntry.itsClass.itsBytes += aBytes;
+		}
+		if(theSlot != null)
+		{
+			theSlot.itsBytes += aBytes;
+		}
+		itsPieces.add(new Piece(theEntry, theSlot, aBytes));
+		itsWindowBytes += aBytes;
+		if(itsWindowBytes >= WINDOW_SIZE)
+		{
+			shareWindow();
+		}
+	}
+	
+	/**
+	 * Flush the compressed stream, and share the compressed bytes of the window among its pieces by their size
+	 * @throws IOException if the stream cannot be flushed
+	 */
+	private void shareWindow() throws IOException
+	{
+		itsCompressor.flush();
+		long aCompressedBytes = itsCompressedCount.itsCount - itsWindowCompressedBytes;
+		itsWindowCompressedBytes = itsCompressedCount.itsCount;
+		long aShared = 0;
+		long aSharedBytes = 0;
+		for(Piece aPiece : itsPieces)
+		{
+			// Work from the running totals, so that the shares add up to the compressed bytes of the window
+			aSharedBytes += aPiece.itsBytes;
+			long aNextShared = (itsWindowBytes == 0) ? 0 : Math.round((double)aCompressedBytes * aSharedBytes / itsWindowBytes);
+			aPiece.itsEntry.addCompressed(aNextShared - aShared);
+			if(aPiece.itsSlot != null)
+			{
+				aPiece.itsSlot.addCompressed(aNextShared - aShared);
+			}
+			aShared = aNextShared;
+		}
+		if(itsWindowBytes == 0)
+		{
+			itsOther.addCompressed(aCompressedBytes);
+		}
+		itsPieces.clear();
+		itsWindowBytes = 0;
+	}
+	
+	private static boolean isFrameTag(String theTagName)
+	{
+		for(String aFrameTag : FRAME_TAGS)
+		{
+			if(aFrameTag.equals(theTagName))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static SizeEntry getEntry(Map<String, SizeEntry> theEntries, String theName)
+	{
+		SizeEntry anEntry = theEntries.get(theName);
+		if(anEntry == null)
+		{
+			anEntry = new SizeEntry(theName);
+			theEntries.put(theName, anEntry);
+		}
+		return anEntry;
+	}
+}
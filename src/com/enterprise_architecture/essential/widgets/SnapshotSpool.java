@@ -0,0 +1,500 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local spool file holding the compressed repository snapshot while it is sent to the Report Service.
+ * The snapshot is written in the same form as it has always been sent - a serialised String, GZIP compressed - 
+ * but to a file rather than a byte array, and a SHA-256 digest of the compressed content is computed as it is 
+ * written. The digest identifies the upload so that an interrupted upload can be resumed from the offset
+ * that the Report Service has acknowledged, and lets the service verify the assembled snapshot.
+ * <br/>
+ * From version 1.1, the spool carries metadata, such as the target URL, the time the snapshot was taken and the 
+ * repository change count. A spool can be kept under a name, with its metadata in a properties file alongside,
+ * and loaded again to resend the snapshot without rendering the repository again.
+ * <br/>
+ * From version 1.3, the length in bytes of the serialised snapshot before compression is recorded in the metadata,
+ * so that compression throughput is measured in bytes rather than in characters of the XML.
+ * @version 1.3 - Uncompressed length in bytes<br/>
+ * @version 1.2 - Compress at a chosen level
+ * @version 1.1 - Metadata and named snapshots
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.SnapshotChunkEntity SnapshotChunkEntity
+ */
+public class SnapshotSpool 
+{
+	/**
+	 * Algorithm used for the content digest
+	 */
+	public static final String DIGEST_ALGORITHM = "SHA-256";
+	
+	private static final String SPOOL_DIRECTORY = "essential-publish";
+	private static final String SPOOL_PREFIX = "snapshot-";
+	private static final String SPOOL_SUFFIX = ".gz";
+	private static final String METADATA_SUFFIX = ".properties";
+	
+	/**
+	 * Metadata keys
+	 */
+	public static final String URL_KEY = "url";
+	public static final String TIMESTAMP_KEY = "timestamp";
+	public static final String DIGEST_KEY = "digest";
+	public static final String LENGTH_KEY = "length";
+	public static final String CHANGE_COUNT_KEY = "changecount";
+	public static final String SESSION_KEY = "session";
+	public static final String PROJECT_KEY = "project";
+	public static final String USER_KEY = "user";
+	public static final String CONTENT_DIGEST_KEY = "contentdigest";
+	public static final String UNCOMPRESSED_LENGTH_KEY = "uncompressedlength";
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	
+	/**
+	 * The spool file
+	 */
+	private final File itsFile;
+	
+	/**
+	 * The length, in bytes, of the compressed snapshot
+	 */
+	private final long itsLength;
+	
+	/**
+	 * Hex encoded SHA-256 digest of the compressed snapshot
+	 */
+	private final String itsDigest;
+	
+	/**
+	 * Metadata describing the snapshot
+	 */
+	private final Properties itsMetadata = new Properties();
+	
+	/**
+	 * Constructor for an existing spool file
+	 * @param theFile the spool file
+	 * @param theLength the length of the compressed snapshot
+	 * @param theDigest the hex encoded digest of the compressed snapshot
+	 */
+	public SnapshotSpool(File theFile, long theLength, String theDigest)
+	{
+		itsFile = theFile;
+		itsLength = theLength;
+		itsDigest = theDigest;
+	}
+	
+	/**
+	 * Compress the repository snapshot to a new spool file in the specified directory
+	 * @param theReportXML the repository snapshot
+	 * @param theDirectory the directory in which to create the spool file
+	 * @return the spool
+	 * @throws IOException if the spool file cannot be written
+	 */
+	public static SnapshotSpool create(String theReportXML, File theDirectory) throws IOException
+	{
+		return create(theReportXML, theDirectory, CompressionAdvisor.DEFAULT_LEVEL);
+	}
+	
+	/**
+	 * Compress the repository snapshot, at the specified level, to a new spool file in the specified directory
+	 * @param theReportXML the repository snapshot
+	 * @param theDirectory the directory in which to create the spool file
+	 * @param theLevel the GZIP compression level, from 1 (fastest) to 9 (smallest)
+	 * @return the spool
+	 * @throws IOException if the spool file cannot be written
+	 * @since 1.2
+	 */
+	public static SnapshotSpool create(String theReportXML, File theDirectory, final int theLevel) throws IOException
+	{
+		if(!theDirectory.isDirectory() && !theDirectory.mkdirs())
+		{
+			throw new IOException("Unable to create spool directory: " + theDirectory);
+		}
+		
+		File aFile = File.createTempFile(SPOOL_PREFIX, SPOOL_SUFFIX, theDirectory);
+		MessageDigest aDigest = createDigest();
+		ObjectOutputStream anObjectOut = null;
+		ByteCountingStream anUncompressedCount = null;
+		boolean isSpooled = false;
+		try
+		{
+			DigestOutputStream aDigestOut = new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(aFile), BUFFER_SIZE), aDigest);
+			GZIPOutputStream aCompressFilter = new GZIPOutputStream(aDigestOut, BUFFER_SIZE)
+			{
+				{
+					def.setLevel(theLevel);
+				}
+			};
+			anUncompressedCount = new ByteCountingStream(aCompressFilter);
+			anObjectOut = new ObjectOutputStream(anUncompressedCount);
+			anObjectOut.writeObject(theReportXML);
+			anObjectOut.flush();
+			aCompressFilter.finish();
+			anObjectOut.close();
+			anObjectOut = null;
+			isSpooled = true;
+		}
+		finally
+		{
+			if(anObjectOut != null)
+			{
+				anObjectOut.close();
+			}
+			if(!isSpooled)
+			{
+				aFile.delete();
+			}
+		}
+		SnapshotSpool aSpool = new SnapshotSpool(aFile, aFile.length(), toHex(aDigest.digest()));
+		aSpool.setMetadata(TIMESTAMP_KEY, String.valueOf(System.currentTimeMillis()));
+		aSpool.setMetadata(UNCOMPRESSED_LENGTH_KEY, String.valueOf(anUncompressedCount.itsCount));
+		return aSpool;
+	}
+	
+	/**
+	 * Keep the spool file as the named snapshot in the specified directory, replacing any snapshot of that name, 
+	 * and save its metadata alongside
+	 * @param theDirectory the directory in which to keep the snapshot
+	 * @param theName the name of the snapshot
+	 * @return the kept snapshot
+	 * @throws IOException if the snapshot cannot be kept
+	 */
+	public SnapshotSpool keep(File theDirectory, String theName) throws IOException
+	{
+		File aFile = new File(theDirectory, theName + SPOOL_SUFFIX);
+		
+		// Remove the old metadata first, so that it is never left describing a different file
+		getMetadataFile(aFile).delete();
+		if(!aFile.getAbsoluteFile().equals(itsFile.getAbsoluteFile()))
+		{
+			aFile.delete();
+			if(!itsFile.renameTo(aFile))
+			{
+				throw new IOException("Unable to keep snapshot as " + aFile);
+			}
+		}
+		
+		SnapshotSpool aKept = new SnapshotSpool(aFile, itsLength, itsDigest);
+		aKept.itsMetadata.putAll(itsMetadata);
+		aKept.saveMetadata();
+		return aKept;
+	}
+	
+	/**
+	 * Copy the snapshot, with its metadata, to the named snapshot in the specified directory, replacing any 
+	 * snapshot of that name
+	 * @param theDirectory the directory in which to keep the copy
+	 * @param theName the name of the copy
+	 * @return the copy
+	 * @throws IOException if the snapshot cannot be copied
+	 */
+	public SnapshotSpool copy(File theDirectory, String theName) throws IOException
+	{
+		if(!theDirectory.isDirectory() && !theDirectory.mkdirs())
+		{
+			throw new IOException("Unable to create spool directory: " + theDirectory);
+		}
+		File aFile = new File(theDirectory, theName + SPOOL_SUFFIX);
+		getMetadataFile(aFile).delete();
+		Files.copy(itsFile.toPath(), aFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		
+		SnapshotSpool aCopy = new SnapshotSpool(aFile, itsLength, itsDigest);
+		aCopy.itsMetadata.putAll(itsMetadata);
+		aCopy.saveMetadata();
+		return aCopy;
+	}
+	
+	/**
+	 * Load the named snapshot from the specified directory
+	 * @param theDirectory the directory in which the snapshot was kept
+	 * @param theName the name of the snapshot
+	 * @return the snapshot, or null if there is no such snapshot or it is incomplete
+	 */
+	public static SnapshotSpool load(File theDirectory, String theName)
+	{
+		File aFile = new File(theDirectory, theName + SPOOL_SUFFIX);
+		File aMetadataFile = getMetadataFile(aFile);
+		if(!aFile.isFile() || !aMetadataFile.isFile())
+		{
+			return null;
+		}
+		
+		Properties aMetadata = new Properties();
+		try
+		{
+			InputStream anInput = new FileInputStream(aMetadataFile);
+			try
+			{
+				aMetadata.load(anInput);
+			}
+			finally
+			{
+				anInput.close();
+			}
+			long aLength = Long.parseLong(aMetadata.getProperty(LENGTH_KEY, "-1"));
+			String aDigest = aMetadata.getProperty(DIGEST_KEY);
+			if(aDigest == null || aLength != aFile.length())
+			{
+				return null;
+			}
+			
+			SnapshotSpool aSpool = new SnapshotSpool(aFile, aLength, aDigest);
+			aSpool.itsMetadata.putAll(aMetadata);
+			return aSpool;
+		}
+		catch(IOException anIOEx)
+		{
+			System.out.println("Unable to read snapshot metadata: " + anIOEx);
+			return null;
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			return null;
+		}
+	}
+	
+	/**
+	 * Save the metadata to the properties file alongside the spool file
+	 * @throws IOException if the metadata cannot be written
+	 */
+	public void saveMetadata() throws IOException
+	{
+		itsMetadata.setProperty(DIGEST_KEY, itsDigest);
+		itsMetadata.setProperty(LENGTH_KEY, String.valueOf(itsLength));
+		
+		// Write and rename so that a partly written file is never read
+		File aMetadataFile = getMetadataFile(itsFile);
+		File aTempFile = new File(aMetadataFile.getPath() + ".tmp");
+		OutputStream anOutput = new FileOutputStream(aTempFile);
+		try
+		{
+			itsMetadata.store(anOutput, "Essential Viewer snapshot");
+		}
+		finally
+		{
+			anOutput.close();
+		}
+		aMetadataFile.delete();
+		if(!aTempFile.renameTo(aMetadataFile))
+		{
+			throw new IOException("Unable to save snapshot metadata to " + aMetadataFile);
+		}
+	}
+	
+	/**
+	 * Get the metadata file that describes the specified spool file
+	 * @param theFile the spool file
+	 * @return the metadata file
+	 */
+	private static File getMetadataFile(File theFile)
+	{
+		String aName = theFile.getName();
+		if(aName.endsWith(SPOOL_SUFFIX))
+		{
+			aName = aName.substring(0, aName.length() - SPOOL_SUFFIX.length());
+		}
+		return new File(theFile.getParentFile(), aName + METADATA_SUFFIX);
+	}
+	
+	/**
+	 * Get an item of metadata
+	 * @param theKey the metadata key
+	 * @return the value, or null if it is not set
+	 */
+	public String getMetadata(String theKey)
+	{
+		return itsMetadata.getProperty(theKey);
+	}
+	
+	/**
+	 * Set an item of metadata
+	 * @param theKey the metadata key
+	 * @param theValue the value
+	 */
+	public void setMetadata(String theKey, String theValue)
+	{
+		if(theValue == null)
+		{
+			itsMetadata.remove(theKey);
+		}
+		else
+		{
+			itsMetadata.setProperty(theKey, theValue);
+		}
+	}
+	
+	/**
+	 * Set each item of the specified metadata
+	 * @param theMetadata the metadata to set
+	 */
+	public void setMetadata(Properties theMetadata)
+	{
+		if(theMetadata != null)
+		{
+			itsMetadata.putAll(theMetadata);
+		}
+	}
+	
+	/**
+	 * @return the length, in bytes, of the serialised snapshot before it was compressed, or -1 if not known
+	 * @since 1.3
+	 */
+	public long getUncompressedLength()
+	{
+		try
+		{
+			return Long.parseLong(itsMetadata.getProperty(UNCOMPRESSED_LENGTH_KEY, "-1"));
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			return -1;
+		}
+	}
+	
+	/**
+	 * @return the time at which the snapshot was taken, or 0 if not known
+	 */
+	public long getTimestamp()
+	{
+		try
+		{
+			return Long.parseLong(itsMetadata.getProperty(TIMESTAMP_KEY, "0"));
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			return 0;
+		}
+	}
+	
+	/**
+	 * @return the default directory for spool files, under the temporary directory
+	 */
+	public static File getDefaultDirectory()
+	{
+		return new File(System.getProperty("java.io.tmpdir"), SPOOL_DIRECTORY);
+	}
+	
+	/**
+	 * Create a new instance of the digest used for the snapshot
+	 * @return the message digest
+	 */
+	public static MessageDigest createDigest()
+	{
+		try
+		{
+			return MessageDigest.getInstance(DIGEST_ALGORITHM);
+		}
+		catch(NoSuchAlgorithmException aNoAlgEx)
+		{
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(aNoAlgEx);
+		}
+	}
+	
+	/**
+	 * Hex encode the specified bytes
+	 * @param theBytes the bytes to encode
+	 * @return lower-case hex string
+	 */
+	public static String toHex(byte[] theBytes)
+	{
+		char[] aHex = new char[theBytes.length * 2];
+		for(int i = 0; i < theBytes.length; i++)
+		{
+			aHex[i * 2] = HEX_DIGITS[(theBytes[i] >> 4) & 0xf];
+			aHex[i * 2 + 1] = HEX_DIGITS[theBytes[i] & 0xf];
+		}
+		return new String(aHex);
+	}
+	
+	/**
+	 * Delete the spool file, and its metadata file if it has one
+	 * @return true if the file was deleted or no longer exists
+	 */
+	public boolean delete()
+	{
+		getMetadataFile(itsFile).delete();
+		return itsFile.delete() || !itsFile.exists();
+	}
+
+	/**
+	 * @return the itsFile
+	 */
+	public File getItsFile() {
+		return itsFile;
+	}
+
+	/**
+	 * @return the itsLength
+	 */
+	public long getItsLength() {
+		return itsLength;
+	}
+
+	/**
+	 * @return the itsDigest
+	 */
+	public String getItsDigest() {
+		return itsDigest;
+	}
+	
+	/**
+	 * Counts the bytes written through it, passing bulk writes straight on
+	 * @since 1.3
+	 */
+	private static class ByteCountingStream extends FilterOutputStream
+	{
+		private long itsCount = 0;
+		
+		ByteCountingStream(OutputStream theOutput)
+		{
+			super(theOutput);
+		}
+		
+		@Override
+		public void write(int theByte) throws IOException
+		{
+			out.write(theByte);
+			itsCount++;
+		}
+		
+		@Override
+		public void write(byte[] theBytes, int theOffset, int theLength) throws IOException
+		{
+			out.write(theBytes, theOffset, theLength);
+			itsCount += theLength;
+		}
+	}
+}
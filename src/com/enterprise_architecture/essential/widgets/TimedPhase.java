@@ -0,0 +1,69 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+/**
+ * The steps of a publish whose durations are recorded by the PublishMetrics. These are finer than the 
+ * PublishPhase against which progress is reported: the image phase, in particular, is broken down into finding
+ * the graph widgets and rendering, encoding and uploading each image.
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.PublishMetrics PublishMetrics
+ */
+public enum TimedPhase 
+{
+	/**
+	 * Rendering the repository to the XML snapshot
+	 */
+	RENDER,
+	
+	/**
+	 * Compressing the XML snapshot to the spool file
+	 */
+	COMPRESS,
+	
+	/**
+	 * Checking for, and if required performing, login to the Report Service
+	 */
+	LOGIN_PROBE,
+	
+	/**
+	 * Sending the compressed XML snapshot to the Report Service, including any query of the upload offset
+	 */
+	UPLOAD_XML,
+	
+	/**
+	 * Finding the graph widgets on the class forms, and the instances whose images are to be sent
+	 */
+	IMAGE_DISCOVERY,
+	
+	/**
+	 * Creating the runtime form of each instance and rendering its graph widget to an image
+	 */
+	IMAGE_RENDER,
+	
+	/**
+	 * Encoding each rendered image as a PNG
+	 */
+	IMAGE_ENCODE,
+	
+	/**
+	 * Sending each encoded image to the image receiver
+	 */
+	IMAGE_UPLOAD
+}
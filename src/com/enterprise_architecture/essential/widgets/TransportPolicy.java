@@ -0,0 +1,360 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.util.Properties;
+import java.util.Random;
+
+import org.apache.http.NoHttpResponseException;
+
+/**
+ * Transport policy for the requests made to the Essential Viewer Report Service. Defines the connect timeout, 
+ * the socket (read) timeout for each phase of the publish, and how requests that fail with a connection error or a 
+ * transient HTTP status (502, 503, 504) are retried. Retries use exponential backoff with jitter and are limited both per
+ * request and by a retry budget for the whole publish.
+ * <br/>
+ * The policy is read from the reporttab.transport.* properties in reporttab.properties. Any property that is 
+ * missing or invalid keeps its default value.
+ * <br/>
+ * From version 1.1, the policy also controls the resumable upload of the snapshot: whether it is used when the 
+ * Report Service supports it, and the size of each chunk.
+ * <br/>
+ * From version 1.2, the request timeout is a deadline for each request to receive its response once its body
+ * has been sent, rather than the time allowed to obtain a pooled connection.
+ * @version 1.2 - Deadline for each request<br/>
+ * @version 1.1 - Resumable upload
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.HttpReportServiceClient HttpReportServiceClient
+ */
+public class TransportPolicy 
+{
+	private static final String CONNECT_TIMEOUT_PROP = "reporttab.transport.connecttimeout";
+	private static final String REQUEST_TIMEOUT_PROP = "reporttab.transport.requesttimeout";
+	private static final String AUTH_TIMEOUT_PROP = "reporttab.transport.sockettimeout.auth";
+	private static final String UPLOAD_TIMEOUT_PROP = "reporttab.transport.sockettimeout.upload";
+	private static final String IMAGES_TIMEOUT_PROP = "reporttab.transport.sockettimeout.images";
+	private static final String MAX_RETRIES_PROP = "reporttab.transport.retries";
+	private static final String INITIAL_BACKOFF_PROP = "reporttab.transport.backoff.initial";
+	private static final String MAX_BACKOFF_PROP = "reporttab.transport.backoff.max";
+	private static final String RETRY_BUDGET_PROP = "reporttab.transport.retrybudget";
+	private static final String RESUMABLE_PROP = "reporttab.transport.resumable";
+	private static final String CHUNK_SIZE_PROP = "reporttab.transport.chunksize";
+	
+	private static final int MILLIS_PER_SECOND = 1000;
+	
+	/**
+	 * Timeout, in milliseconds, to establish a connection to the Report Service
+	 */
+	private int itsConnectTimeout = 15 * MILLIS_PER_SECOND;
+	
+	/**
+	 * Deadline, in milliseconds, for a request to receive its response once its body has been sent, unless the 
+	 * socket timeout of its phase is longer. 0 for no deadline.
+	 */
+	private int itsRequestTimeout = 30 * MILLIS_PER_SECOND;
+	
+	/**
+	 * Socket timeouts, in milliseconds, for the login probe and form login, the XML upload and each image
+	 */
+	private int itsAuthSocketTimeout = 30 * MILLIS_PER_SECOND;
+	private int itsUploadSocketTimeout = 600 * MILLIS_PER_SECOND;
+	private int itsImagesSocketTimeout = 60 * MILLIS_PER_SECOND;
+	
+	/**
+	 * The number of times that a single request is retried
+	 */
+	private int itsMaxRetries = 3;
+	
+	/**
+	 * The backoff, in milliseconds, before the first retry and the largest backoff between retries
+	 */
+	private long itsInitialBackoff = MILLIS_PER_SECOND;
+	private long itsMaxBackoff = 30 * MILLIS_PER_SECOND;
+	
+	/**
+	 * The total number of retries allowed across a publish
+	 */
+	private int itsRetryBudget = 10;
+	
+	/**
+	 * Use a resumable, chunked upload of the snapshot if the Report Service supports it
+	 */
+	private boolean itsResumableUpload = true;
+	
+	/**
+	 * The size, in bytes, of each chunk of a resumable upload
+	 */
+	private int itsChunkSize = 4 * 1024 * 1024;
+	
+	private static final int MIN_CHUNK_SIZE = 64 * 1024;
+	
+	private final Random itsRandom = new Random();
+	
+	/**
+	 * Default constructor, using the default policy
+	 */
+	public TransportPolicy()
+	{
+	}
+	
+	/**
+	 * Create a policy from the reporttab.transport.* properties
+	 * @param theProperties the tab properties
+	 * @return the transport policy, with defaults for any property not set
+	 */
+	public static TransportPolicy fromProperties(Properties theProperties)
+	{
+		TransportPolicy aPolicy = new TransportPolicy();
+		if(theProperties == null)
+		{
+			return aPolicy;
+		}
+		
+		aPolicy.itsConnectTimeout = readInt(theProperties, CONNECT_TIMEOUT_PROP, aPolicy.itsConnectTimeout);
+		aPolicy.itsRequestTimeout = readInt(theProperties, REQUEST_TIMEOUT_PROP, aPolicy.itsRequestTimeout);
+		aPolicy.itsAuthSocketTimeout = readInt(theProperties, AUTH_TIMEOUT_PROP, aPolicy.itsAuthSocketTimeout);
+		aPolicy.itsUploadSocketTimeout = readInt(theProperties, UPLOAD_TIMEOUT_PROP, aPolicy.itsUploadSocketTimeout);
+		aPolicy.itsImagesSocketTimeout = readInt(theProperties, IMAGES_TIMEOUT_PROP, aPolicy.itsImagesSocketTimeout);
+		aPolicy.itsMaxRetries = readInt(theProperties, MAX_RETRIES_PROP, aPolicy.itsMaxRetries);
+		aPolicy.itsInitialBackoff = readInt(theProperties, INITIAL_BACKOFF_PROP, (int)aPolicy.itsInitialBackoff);
+		aPolicy.itsMaxBackoff = readInt(theProperties, MAX_BACKOFF_PROP, (int)aPolicy.itsMaxBackoff);
+		aPolicy.itsRetryBudget = readInt(theProperties, RETRY_BUDGET_PROP, aPolicy.itsRetryBudget);
+		aPolicy.itsResumableUpload = Boolean.parseBoolean(theProperties.getProperty(RESUMABLE_PROP, String.valueOf(aPolicy.itsResumableUpload)).trim());
+		aPolicy.itsChunkSize = Math.max(MIN_CHUNK_SIZE, readInt(theProperties, CHUNK_SIZE_PROP, aPolicy.itsChunkSize));
+		return aPolicy;
+	}
+	
+	/**
+	 * Get the socket timeout that applies to requests made during the specified phase
+	 * @param thePhase the publish phase
+	 * @return the socket timeout in milliseconds, 0 for no timeout
+	 */
+	public int getSocketTimeout(PublishPhase thePhase)
+	{
+		switch(thePhase)
+		{
+			case UPLOAD_XML : return itsUploadSocketTimeout;
+			case IMAGES : return itsImagesSocketTimeout;
+			default : return itsAuthSocketTimeout;
+		}
+	}
+	
+	/**
+	 * Get the deadline for a request of the specified phase to receive its response, from when its body has been 
+	 * sent. This is the request timeout, or the socket timeout of the phase if that is longer, since a single read 
+	 * may wait that long. There is no deadline if either is 0.
+	 * @param thePhase the phase of the publish
+	 * @return the deadline in milliseconds, 0 for no deadline
+	 * @since 1.2
+	 */
+	public int getRequestDeadline(PublishPhase thePhase)
+	{
+		int aSocketTimeout = getSocketTimeout(thePhase);
+		if(itsRequestTimeout <= 0 || aSocketTimeout <= 0)
+		{
+			return 0;
+		}
+		return Math.max(itsRequestTimeout, aSocketTimeout);
+	}
+	
+	/**
+	 * Is the specified HTTP status code a transient failure that should be retried?
+	 * @param theStatusCode the HTTP status code of the response
+	 * @return true for 502 Bad Gateway, 503 Service Unavailable and 504 Gateway Timeout
+	 */
+	public boolean isRetryableStatus(int theStatusCode)
+	{
+		return theStatusCode == 502 || theStatusCode == 503 || theStatusCode == 504;
+	}
+	
+	/**
+	 * Is the specified exception a connection failure that should be retried? Connection refused or reset,
+	 * timeouts and a server that closes the connection without responding are retried. Other failures,
+	 * such as an unknown host or a protocol error, are not.
+	 * @param theException the exception thrown while executing the request
+	 * @return true if the request should be retried
+	 */
+	public boolean isRetryableException(IOException theException)
+	{
+		return (theException instanceof InterruptedIOException) 
+				|| (theException instanceof SocketException) 
+				|| (theException instanceof NoHttpResponseException);
+	}
+	
+	/**
+	 * Calculate the backoff before the specified retry. The backoff doubles with each retry up to the maximum,
+	 * and a random jitter of up to half the backoff is removed so that clients do not retry in step.
+	 * @param theRetry the retry number, starting at 1
+	 * @return the backoff in milliseconds
+	 */
+	public long getBackoff(int theRetry)
+	{
+		long aBackoff = itsInitialBackoff;
+		for(int i = 1; i < theRetry && aBackoff < itsMaxBackoff; i++)
+		{
+			aBackoff = aBackoff * 2;
+		}
+		aBackoff = Math.min(aBackoff, itsMaxBackoff);
+		
+		long aHalf = aBackoff / 2;
+		long aJitter = 0;
+		if(aHalf > 0)
+		{
+			synchronized(itsRandom)
+			{
+				aJitter = (long)(itsRandom.nextDouble() * aHalf);
+			}
+		}
+		return aBackoff - aJitter;
+	}
+	
+	/**
+	 * Summarise the policy for the status log
+	 * @return a one line summary of the timeouts and retries
+	 */
+	public String toString()
+	{
+		return "Transport: connect timeout " + (itsConnectTimeout / MILLIS_PER_SECOND) + "s" 
+				+ ", read timeouts login " + (itsAuthSocketTimeout / MILLIS_PER_SECOND) + "s"
+				+ " / upload " + (itsUploadSocketTimeout / MILLIS_PER_SECOND) + "s"
+				+ " / images " + (itsImagesSocketTimeout / MILLIS_PER_SECOND) + "s"
+				+ ", " + itsMaxRetries + " retries per request, budget " + itsRetryBudget
+				+ (itsResumableUpload ? ", resumable upload in " + (itsChunkSize / 1024) + "KB chunks" : "");
+	}
+	
+	/**
+	 * Read an integer property, keeping the default if it is missing or invalid
+	 * @param theProperties the properties
+	 * @param theName the property name
+	 * @param theDefault the default value
+	 * @return the value of the property or theDefault
+	 */
+	private static int readInt(Properties theProperties, String theName, int theDefault)
+	{
+		String aValue = theProperties.getProperty(theName);
+		if(aValue == null || aValue.trim().length() == 0)
+		{
+			return theDefault;
+		}
+		try
+		{
+			int anInt = Integer.parseInt(aValue.trim());
+			return anInt < 0 ? theDefault : anInt;
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			System.out.println("Invalid value for property " + theName + ": " + aValue + ". Using default: " + theDefault);
+			return theDefault;
+		}
+	}
+
+	/**
+	 * @return the itsConnectTimeout
+	 */
+	public int getItsConnectTimeout() {
+		return itsConnectTimeout;
+	}
+
+	/**
+	 * @param itsConnectTimeout the itsConnectTimeout to set
+	 */
+	public void setItsConnectTimeout(int itsConnectTimeout) {
+		this.itsConnectTimeout = itsConnectTimeout;
+	}
+
+	/**
+	 * @return the itsRequestTimeout
+	 */
+	public int getItsRequestTimeout() {
+		return itsRequestTimeout;
+	}
+
+	/**
+	 * @param itsRequestTimeout the itsRequestTimeout to set
+	 */
+	public void setItsRequestTimeout(int itsRequestTimeout) {
+		this.itsRequestTimeout = itsRequestTimeout;
+	}
+
+	/**
+	 * @return the itsMaxRetries
+	 */
+	public int getItsMaxRetries() {
+		return itsMaxRetries;
+	}
+
+	/**
+	 * @param itsMaxRetries the itsMaxRetries to set
+	 */
+	public void setItsMaxRetries(int itsMaxRetries) {
+		this.itsMaxRetries = itsMaxRetries;
+	}
+
+	/**
+	 * @return the itsMaxBackoff
+	 */
+	public long getItsMaxBackoff() {
+		return itsMaxBackoff;
+	}
+
+	/**
+	 * @return the itsRetryBudget
+	 */
+	public int getItsRetryBudget() {
+		return itsRetryBudget;
+	}
+
+	/**
+	 * @param itsRetryBudget the itsRetryBudget to set
+	 */
+	public void setItsRetryBudget(int itsRetryBudget) {
+		this.itsRetryBudget = itsRetryBudget;
+	}
+
+	/**
+	 * @return the itsResumableUpload
+	 */
+	public boolean isItsResumableUpload() {
+		return itsResumableUpload;
+	}
+
+	/**
+	 * @param itsResumableUpload the itsResumableUpload to set
+	 */
+	public void setItsResumableUpload(boolean itsResumableUpload) {
+		this.itsResumableUpload = itsResumableUpload;
+	}
+
+	/**
+	 * @return the itsChunkSize
+	 */
+	public int getItsChunkSize() {
+		return itsChunkSize;
+	}
+
+	/**
+	 * @param itsChunkSize the itsChunkSize to set
+	 */
+	public void setItsChunkSize(int itsChunkSize) {
+		this.itsChunkSize = Math.max(MIN_CHUNK_SIZE, itsChunkSize);
+	}
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * End to end tests of a coordinated publish by the FanOutPublisher to two StandInReportService nodes
+ * @see com.enterprise_architecture.essential.widgets.FanOutPublisher FanOutPublisher
+ */
+public class FanOutPublisherTest 
+{
+	private static final String REPORT_XML = "<knowledge_base><simple_instance><name>Application_1</name></simple_instance></knowledge_base>";
+	
+	@Rule
+	public TemporaryFolder itsFolder = new TemporaryFolder();
+	
+	private StandInReportService itsFirstNode;
+	private StandInReportService itsSecondNode;
+	private List<PublishTarget> itsTargets;
+	
+	@Before
+	public void setUp() throws IOException
+	{
+		itsFirstNode = new StandInReportService(0, itsFolder.newFolder("node1"));
+		itsSecondNode = new StandInReportService(0, itsFolder.newFolder("node2"));
+		itsFirstNode.start();
+		itsSecondNode.start();
+		itsTargets = new ArrayList<PublishTarget>();
+		itsTargets.add(new PublishTarget("http://localhost:" + itsFirstNode.getPort() + "/essential_viewer/reportService", "", ""));
+		itsTargets.add(new PublishTarget("http://localhost:" + itsSecondNode.getPort() + "/essential_viewer/reportService", "", ""));
+	}
+	
+	@After
+	public void tearDown()
+	{
+		itsFirstNode.stop();
+		itsSecondNode.stop();
+	}
+	
+	/**
+	 * When every node stages the snapshot, the version is activated on every node
+	 */
+	@Test
+	public void testActivate() throws IOException
+	{
+		FanOutPublisher aPublisher = createPublisher();
+		assertTrue(aPublisher.publish(REPORT_XML, itsTargets));
+		
+		String aVersion = aPublisher.getItsPublishVersion();
+		assertNotNull(aVersion);
+		assertEquals(aVersion, itsFirstNode.getItsActiveVersion());
+		assertEquals(aVersion, itsSecondNode.getItsActiveVersion());
+		assertEquals(1, itsFirstNode.getItsSnapshotCount());
+		assertEquals(1, itsSecondNode.getItsSnapshotCount());
+		assertEquals(0, itsFirstNode.getItsStagedCount());
+		assertEquals(0, itsSecondNode.getItsStagedCount());
+	}
+	
+	/**
+	 * When a node fails to stage the snapshot, the version staged on the other node is aborted, and neither 
+	 * node changes the snapshot it serves
+	 */
+	@Test
+	public void testAbort() throws IOException
+	{
+		itsSecondNode.setErrorInjection(1.0, HttpReportServiceClient.SC_INTERNAL_SERVER_ERROR, Long.valueOf(1));
+		FanOutPublisher aPublisher = createPublisher();
+		assertFalse(aPublisher.publish(REPORT_XML, itsTargets));
+		
+		assertEquals(EasReportTab.PUBLISH_ABORTED, itsTargets.get(0).getItsReturnCode());
+		assertFalse(itsTargets.get(1).isItIsSuccess());
+		assertNull(itsFirstNode.getItsActiveVersion());
+		assertNull(itsSecondNode.getItsActiveVersion());
+		assertEquals(0, itsFirstNode.getItsSnapshotCount());
+		assertEquals(0, itsFirstNode.getItsStagedCount());
+		assertEquals(0, itsSecondNode.getItsStagedCount());
+	}
+	
+	private FanOutPublisher createPublisher() throws IOException
+	{
+		FanOutPublisher aPublisher = new FanOutPublisher(null);
+		aPublisher.setItIsCoordinated(true);
+		aPublisher.setItIsSendingImages(false);
+		aPublisher.setItsSpoolDirectory(itsFolder.newFolder("spool"));
+		return aPublisher;
+	}
+}
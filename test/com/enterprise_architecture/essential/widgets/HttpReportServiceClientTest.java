@@ -0,0 +1,167 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * End to end tests of the upload of the HttpReportServiceClient to the StandInReportService
+ * @see com.enterprise_architecture.essential.widgets.HttpReportServiceClient HttpReportServiceClient
+ */
+public class HttpReportServiceClientTest 
+{
+	private static final int CHUNK_SIZE = 64 * 1024;
+	private static final int SNAPSHOT_LENGTH = 400000;
+	private static final long SLOW_BANDWIDTH = 100 * 1024;
+	
+	@Rule
+	public TemporaryFolder itsFolder = new TemporaryFolder();
+	
+	private StandInReportService itsReportService;
+	private File itsReportDirectory;
+	
+	@Before
+	public void setUp() throws IOException
+	{
+		itsReportDirectory = itsFolder.newFolder("standin");
+		itsReportService = new StandInReportService(0, itsReportDirectory);
+		itsReportService.start();
+	}
+	
+	@After
+	public void tearDown()
+	{
+		itsReportService.stop();
+	}
+	
+	/**
+	 * A chunked upload whose connection is dropped part way through resumes from the offset the Report Service 
+	 * acknowledged, and the Report Service assembles the complete snapshot
+	 */
+	@Test
+	public void testChunkResume() throws IOException
+	{
+		itsReportService.setItsDropEvery(2);
+		String aReportXML = createReportXML();
+		HttpReportServiceClient aService = createService(aReportXML);
+		
+		assertTrue("Publish failed with " + aService.getItsReturnCode(), aService.sendReportXML());
+		assertTrue("No chunk was resumed", aService.getItsRetryCount() > 0);
+		assertEquals(1, itsReportService.getItsSnapshotCount());
+		assertEquals(aReportXML, readSnapshot(1));
+	}
+	
+	/**
+	 * Without dropped connections the chunked upload needs no retries
+	 */
+	@Test
+	public void testChunkedUpload() throws IOException
+	{
+		String aReportXML = createReportXML();
+		HttpReportServiceClient aService = createService(aReportXML);
+		
+		assertTrue("Publish failed with " + aService.getItsReturnCode(), aService.sendReportXML());
+		assertEquals(0, aService.getItsRetryCount());
+		assertEquals(aReportXML, readSnapshot(1));
+	}
+	
+	/**
+	 * An upload socket timeout of 0 means no deadline for the upload, so an upload in a single POST that takes 
+	 * longer than the request timeout is not aborted
+	 */
+	@Test
+	public void testNoUploadDeadline() throws IOException
+	{
+		Properties aProperties = new Properties();
+		aProperties.setProperty("reporttab.transport.requesttimeout", "1000");
+		aProperties.setProperty("reporttab.transport.sockettimeout.upload", "0");
+		aProperties.setProperty("reporttab.transport.resumable", "false");
+		itsReportService.setItsBandwidth(SLOW_BANDWIDTH);
+		String aReportXML = createReportXML();
+		HttpReportServiceClient aService = createService(aReportXML);
+		aService.setItsTransportPolicy(TransportPolicy.fromProperties(aProperties));
+		
+		long aStartTime = System.currentTimeMillis();
+		assertTrue("Publish failed with " + aService.getItsReturnCode(), aService.sendReportXML());
+		assertTrue("The upload was not slower than the request timeout", System.currentTimeMillis() - aStartTime > 1000);
+		assertEquals(0, aService.getItsRetryCount());
+		assertEquals(aReportXML, readSnapshot(1));
+	}
+	
+	/**
+	 * A dry run succeeds without sending anything, and leaves no metrics, trace, compression history or spool 
+	 * behind it
+	 */
+	@Test
+	public void testDryRunNotRecorded() throws IOException
+	{
+		File aSpoolDirectory = itsFolder.newFolder("dryrun");
+		DryRunPublisher aDryRun = new DryRunPublisher(null);
+		aDryRun.setItsSpoolDirectory(aSpoolDirectory);
+		
+		assertTrue("Dry run failed", aDryRun.run(createReportXML()));
+		assertFalse(PublishMetrics.getInstance().getTargetURLs().contains(DryRunPublisher.DRY_RUN_URL));
+		assertEquals(0, aSpoolDirectory.list().length);
+		assertEquals(0, itsReportService.getItsSnapshotCount());
+	}
+	
+	private HttpReportServiceClient createService(String theReportXML) throws IOException
+	{
+		HttpReportServiceClient aService = new HttpReportServiceClient("http://localhost:" + itsReportService.getPort() + "/essential_viewer/reportService", 
+																	   theReportXML, (PublishProgressListener)null);
+		TransportPolicy aPolicy = new TransportPolicy();
+		aPolicy.setItsChunkSize(CHUNK_SIZE);
+		aService.setItsTransportPolicy(aPolicy);
+		aService.setItsSpoolDirectory(itsFolder.newFolder("spool"));
+		return aService;
+	}
+	
+	/**
+	 * @return a snapshot that compresses to several chunks
+	 */
+	private static String createReportXML()
+	{
+		StringBuilder aReportXML = new StringBuilder(SNAPSHOT_LENGTH);
+		Random aRandom = new Random(1);
+		for(int i = 0; i < SNAPSHOT_LENGTH; i++)
+		{
+			aReportXML.append((char)('a' + aRandom.nextInt(26)));
+		}
+		return aReportXML.toString();
+	}
+	
+	private String readSnapshot(int theNumber) throws IOException
+	{
+		return new String(Files.readAllBytes(new File(itsReportDirectory, "reportXML-" + theNumber + ".xml").toPath()), "UTF-8");
+	}
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of resuming the image phase from an ImageCheckpoint
+ * @see com.enterprise_architecture.essential.widgets.ImageCheckpoint ImageCheckpoint
+ */
+public class ImageCheckpointTest 
+{
+	private static final String IMAGES_URL = "http://localhost:8080/essential_viewer/uploadImages";
+	
+	@Rule
+	public TemporaryFolder itsFolder = new TemporaryFolder();
+	
+	/**
+	 * Images acknowledged before the checkpoint was closed are acknowledged when it is opened again for the same snapshot
+	 */
+	@Test
+	public void testResume() throws IOException
+	{
+		File aDirectory = itsFolder.getRoot();
+		String aFirstImage = ImageCheckpoint.getImageKey("graph", "Application_1");
+		String aSecondImage = ImageCheckpoint.getImageKey("graph", "Application_2");
+		
+		ImageCheckpoint aCheckpoint = ImageCheckpoint.open(aDirectory, "snapshot-1", IMAGES_URL);
+		aCheckpoint.acknowledge(aFirstImage);
+		aCheckpoint.acknowledge(aFirstImage);
+		aCheckpoint.close();
+		
+		aCheckpoint = ImageCheckpoint.open(aDirectory, "snapshot-1", IMAGES_URL);
+		assertEquals(1, aCheckpoint.getAcknowledgedCount());
+		assertTrue(aCheckpoint.isAcknowledged(aFirstImage));
+		assertFalse(aCheckpoint.isAcknowledged(aSecondImage));
+		aCheckpoint.acknowledge(aSecondImage);
+		aCheckpoint.close();
+		
+		aCheckpoint = ImageCheckpoint.open(aDirectory, "snapshot-1", IMAGES_URL);
+		assertEquals(2, aCheckpoint.getAcknowledgedCount());
+		assertTrue(aCheckpoint.isAcknowledged(aSecondImage));
+		aCheckpoint.close();
+	}
+	
+	/**
+	 * A checkpoint left for a different snapshot is discarded
+	 */
+	@Test
+	public void testDifferentSnapshot() throws IOException
+	{
+		File aDirectory = itsFolder.getRoot();
+		ImageCheckpoint aCheckpoint = ImageCheckpoint.open(aDirectory, "snapshot-1", IMAGES_URL);
+		aCheckpoint.acknowledge(ImageCheckpoint.getImageKey("graph", "Application_1"));
+		aCheckpoint.close();
+		
+		aCheckpoint = ImageCheckpoint.open(aDirectory, "snapshot-2", IMAGES_URL);
+		assertEquals(0, aCheckpoint.getAcknowledgedCount());
+		aCheckpoint.close();
+		
+		// Nor is the first snapshot resumed once the checkpoint has been replaced
+		aCheckpoint = ImageCheckpoint.open(aDirectory, "snapshot-1", IMAGES_URL);
+		assertEquals(0, aCheckpoint.getAcknowledgedCount());
+		aCheckpoint.close();
+	}
+	
+	/**
+	 * Each image receiver has a checkpoint of its own
+	 */
+	@Test
+	public void testDifferentURL() throws IOException
+	{
+		File aDirectory = itsFolder.getRoot();
+		ImageCheckpoint aCheckpoint = ImageCheckpoint.open(aDirectory, "snapshot-1", IMAGES_URL);
+		aCheckpoint.acknowledge(ImageCheckpoint.getImageKey("graph", "Application_1"));
+		aCheckpoint.close();
+		
+		ImageCheckpoint anOtherCheckpoint = ImageCheckpoint.open(aDirectory, "snapshot-1", "http://localhost:8081/essential_viewer/uploadImages");
+		assertEquals(0, anOtherCheckpoint.getAcknowledgedCount());
+		anOtherCheckpoint.close();
+		
+		aCheckpoint = ImageCheckpoint.open(aDirectory, "snapshot-1", IMAGES_URL);
+		assertEquals(1, aCheckpoint.getAcknowledgedCount());
+		aCheckpoint.close();
+	}
+	
+	/**
+	 * A completed checkpoint is deleted, so the next send of the snapshot starts again
+	 */
+	@Test
+	public void testComplete() throws IOException
+	{
+		File aDirectory = itsFolder.getRoot();
+		ImageCheckpoint aCheckpoint = ImageCheckpoint.open(aDirectory, "snapshot-1", IMAGES_URL);
+		aCheckpoint.acknowledge(ImageCheckpoint.getImageKey("graph", "Application_1"));
+		aCheckpoint.complete();
+		assertEquals(0, aDirectory.list().length);
+		
+		aCheckpoint = ImageCheckpoint.open(aDirectory, "snapshot-1", IMAGES_URL);
+		assertEquals(0, aCheckpoint.getAcknowledgedCount());
+		aCheckpoint.close();
+	}
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of keeping only the newest snapshot for each URL in the OfflinePublishQueue, and of sharing the queue of
+ * a directory. The queued snapshots need a password that is not written to disk, so a queue started on a 
+ * directory that holds them loads them but does not send them.
+ * @see com.enterprise_architecture.essential.widgets.OfflinePublishQueue OfflinePublishQueue
+ */
+public class OfflinePublishQueueTest 
+{
+	private static final String FIRST_URL = "http://localhost:1/essential_viewer/reportService";
+	private static final String SECOND_URL = "http://localhost:2/essential_viewer/reportService";
+	private static final String USER = "publisher";
+	
+	@Rule
+	public TemporaryFolder itsFolder = new TemporaryFolder();
+	
+	/**
+	 * Queueing a snapshot replaces the snapshot queued for the same URL, and its file
+	 */
+	@Test
+	public void testNewestPerURL() throws IOException
+	{
+		File aQueueDirectory = itsFolder.newFolder("queue");
+		File aSpoolDirectory = itsFolder.newFolder("spool");
+		OfflinePublishQueue aQueue = OfflinePublishQueue.getInstance(aQueueDirectory, new TransportPolicy());
+		
+		aQueue.enqueue(SnapshotSpool.create("<a>1</a>", aSpoolDirectory), FIRST_URL, USER, "password");
+		aQueue.enqueue(SnapshotSpool.create("<b>1</b>", aSpoolDirectory), SECOND_URL, USER, "password");
+		SnapshotSpool anOlder = SnapshotSpool.create("<a>1</a>", aSpoolDirectory);
+		SnapshotSpool aNewest = SnapshotSpool.create("<a>2</a>", aSpoolDirectory);
+		aQueue.enqueue(aNewest, FIRST_URL, USER, "password");
+		
+		assertEquals(2, aQueue.getDepth());
+		assertEquals(2, listQueued(aQueueDirectory).length);
+		assertNotNull(findQueued(aQueueDirectory, aNewest.getItsDigest()));
+		assertNull(findQueued(aQueueDirectory, anOlder.getItsDigest()));
+	}
+	
+	/**
+	 * The tabs of several projects share the queue of a directory. It loads the queued snapshots once, and 
+	 * keeps draining until the last tab stops it.
+	 */
+	@Test
+	public void testOneQueuePerDirectory() throws IOException
+	{
+		File aQueueDirectory = itsFolder.newFolder("queue");
+		File aSpoolDirectory = itsFolder.newFolder("spool");
+		SnapshotSpool aQueued = createQueued(aSpoolDirectory, aQueueDirectory, "queued-1", "<a>1</a>", 1000);
+		
+		OfflinePublishQueue aFirstTab = OfflinePublishQueue.getInstance(aQueueDirectory, new TransportPolicy());
+		OfflinePublishQueue aSecondTab = OfflinePublishQueue.getInstance(new File(aQueueDirectory, "."), new TransportPolicy());
+		assertSame(aFirstTab, aSecondTab);
+		assertNotSame(aFirstTab, OfflinePublishQueue.getInstance(itsFolder.newFolder("other"), new TransportPolicy()));
+		
+		aFirstTab.start();
+		aSecondTab.start();
+		try
+		{
+			assertEquals(1, aFirstTab.getDepth());
+			aFirstTab.stop();
+			
+			// Started again while the second tab is open, the queue does not load its snapshots a second time
+			aFirstTab.start();
+			assertEquals(1, aFirstTab.getDepth());
+			assertNotNull(findQueued(aQueueDirectory, aQueued.getItsDigest()));
+			aFirstTab.stop();
+		}
+		finally
+		{
+			aSecondTab.stop();
+		}
+		
+		// Started again once every tab has stopped, the queue reads its snapshots afresh and keeps their files
+		aFirstTab.start();
+		try
+		{
+			assertEquals(1, aFirstTab.getDepth());
+			assertNotNull(findQueued(aQueueDirectory, aQueued.getItsDigest()));
+		}
+		finally
+		{
+			aFirstTab.stop();
+		}
+	}
+	
+	/**
+	 * When the queue directory holds several snapshots for a URL, only the newest is loaded and the others are deleted
+	 */
+	@Test
+	public void testLoadNewestPerURL() throws IOException
+	{
+		File aQueueDirectory = itsFolder.newFolder("queue");
+		File aSpoolDirectory = itsFolder.newFolder("spool");
+		SnapshotSpool anOlder = createQueued(aSpoolDirectory, aQueueDirectory, "queued-1", "<a>1</a>", 1000);
+		SnapshotSpool aNewer = createQueued(aSpoolDirectory, aQueueDirectory, "queued-2", "<a>2</a>", 2000);
+		SnapshotSpool anOldest = createQueued(aSpoolDirectory, aQueueDirectory, "queued-3", "<a>0</a>", 500);
+		
+		OfflinePublishQueue aQueue = OfflinePublishQueue.getInstance(aQueueDirectory, new TransportPolicy());
+		aQueue.start();
+		try
+		{
+			assertEquals(1, aQueue.getDepth());
+			assertEquals(1, listQueued(aQueueDirectory).length);
+			assertNotNull(findQueued(aQueueDirectory, aNewer.getItsDigest()));
+			assertNull(findQueued(aQueueDirectory, anOlder.getItsDigest()));
+			assertNull(findQueued(aQueueDirectory, anOldest.getItsDigest()));
+		}
+		finally
+		{
+			aQueue.stop();
+		}
+	}
+	
+	/**
+	 * A successful publish to a URL removes the snapshot queued for it
+	 */
+	@Test
+	public void testRemove() throws IOException
+	{
+		File aQueueDirectory = itsFolder.newFolder("queue");
+		OfflinePublishQueue aQueue = OfflinePublishQueue.getInstance(aQueueDirectory, new TransportPolicy());
+		aQueue.enqueue(SnapshotSpool.create("<a>1</a>", itsFolder.newFolder("spool")), FIRST_URL, USER, "password");
+		
+		aQueue.remove(SECOND_URL, "password");
+		assertEquals(1, aQueue.getDepth());
+		aQueue.remove(FIRST_URL, "password");
+		assertEquals(0, aQueue.getDepth());
+		assertEquals(0, listQueued(aQueueDirectory).length);
+	}
+	
+	/**
+	 * Write a snapshot into the queue directory as an earlier session would have left it
+	 */
+	private static SnapshotSpool createQueued(File theSpoolDirectory, File theQueueDirectory, String theName, String theXML, long theTimestamp) throws IOException
+	{
+		SnapshotSpool aSpool = SnapshotSpool.create(theXML, theSpoolDirectory);
+		aSpool.setMetadata(SnapshotSpool.URL_KEY, FIRST_URL);
+		aSpool.setMetadata(SnapshotSpool.USER_KEY, USER);
+		aSpool.setMetadata(SnapshotSpool.TIMESTAMP_KEY, String.valueOf(theTimestamp));
+		return aSpool.keep(theQueueDirectory, theName);
+	}
+	
+	/**
+	 * Find the queued snapshot with the specified digest
+	 * @return the snapshot, or null if there is none
+	 */
+	private static SnapshotSpool findQueued(File theQueueDirectory, String theDigest)
+	{
+		for(String aFileName : listQueued(theQueueDirectory))
+		{
+			SnapshotSpool aSpool = SnapshotSpool.load(theQueueDirectory, aFileName.substring(0, aFileName.length() - ".gz".length()));
+			if(aSpool != null && aSpool.getItsDigest().equals(theDigest))
+			{
+				return aSpool;
+			}
+		}
+		return null;
+	}
+	
+	private static String[] listQueued(File theQueueDirectory)
+	{
+		return theQueueDirectory.list(new FilenameFilter()
+		{
+			public boolean accept(File theDirectory, String theName)
+			{
+				return theName.startsWith("queued-") && theName.endsWith(".gz");
+			}
+		});
+	}
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of merging and ordering the jobs waiting in the PublishScheduler
+ * @see com.enterprise_architecture.essential.widgets.PublishScheduler PublishScheduler
+ */
+public class PublishSchedulerTest 
+{
+	private static final long WAIT_SECONDS = 10;
+	
+	/**
+	 * A job that records when it runs or is skipped, and can be held running until it is released
+	 */
+	private static class TestJob extends PublishJob
+	{
+		private final List<String> itsEvents;
+		private final CountDownLatch itsRelease;
+		private final CountDownLatch itsStarted = new CountDownLatch(1);
+		private final CountDownLatch itsDone = new CountDownLatch(1);
+		private volatile int itsReturnCode = 0;
+		
+		private TestJob(String theURL, PublishPriority thePriority, String theDescription, List<String> theEvents, CountDownLatch theRelease)
+		{
+			super(Collections.singleton(theURL), thePriority, theDescription);
+			itsEvents = theEvents;
+			itsRelease = theRelease;
+		}
+		
+		public void run()
+		{
+			itsEvents.add("ran " + getItsDescription());
+			itsStarted.countDown();
+			try
+			{
+				if(itsRelease != null)
+				{
+					itsRelease.await(WAIT_SECONDS, TimeUnit.SECONDS);
+				}
+			}
+			catch(InterruptedException anIntEx)
+			{
+				Thread.currentThread().interrupt();
+			}
+			finally
+			{
+				itsDone.countDown();
+			}
+		}
+		
+		public void skipped(int theReturnCode)
+		{
+			itsReturnCode = theReturnCode;
+			itsEvents.add("skipped " + getItsDescription());
+			itsDone.countDown();
+		}
+		
+		private void awaitDone() throws InterruptedException
+		{
+			assertTrue(getItsDescription() + " did not finish", itsDone.await(WAIT_SECONDS, TimeUnit.SECONDS));
+		}
+	}
+	
+	private final PublishScheduler itsScheduler = PublishScheduler.getInstance();
+	private final List<String> itsEvents = Collections.synchronizedList(new ArrayList<String>());
+	private final CountDownLatch itsRelease = new CountDownLatch(1);
+	
+	@Before
+	public void setUp()
+	{
+		itsScheduler.setItsMaxWorkers(1);
+	}
+	
+	@After
+	public void tearDown()
+	{
+		itsRelease.countDown();
+		itsScheduler.setItsMaxWorkers(PublishScheduler.DEFAULT_MAX_WORKERS);
+	}
+	
+	/**
+	 * A job waiting for the same URL is replaced by a newer job of the same or a higher priority, and a newer 
+	 * job of a lower priority is skipped
+	 */
+	@Test
+	public void testMerge() throws InterruptedException
+	{
+		TestJob aBlocker = startBlocker();
+		TestJob aFirst = submit("a", PublishPriority.SCHEDULED, "first");
+		TestJob aSecond = submit("a", PublishPriority.SCHEDULED, "second");
+		TestJob aQueued = submit("a", PublishPriority.QUEUED, "queued");
+		TestJob anInteractive = submit("a", PublishPriority.INTERACTIVE, "interactive");
+		
+		assertEquals(EasReportTab.PUBLISH_SUPERSEDED, aFirst.itsReturnCode);
+		assertEquals(EasReportTab.PUBLISH_SUPERSEDED, aQueued.itsReturnCode);
+		assertEquals(EasReportTab.PUBLISH_SUPERSEDED, aSecond.itsReturnCode);
+		
+		itsRelease.countDown();
+		aBlocker.awaitDone();
+		anInteractive.awaitDone();
+		assertEquals(Arrays.asList("ran blocker", "skipped first", "skipped queued", "skipped second", "ran interactive"), itsEvents);
+	}
+	
+	/**
+	 * Waiting jobs start in order of priority, then in the order in which they were submitted
+	 */
+	@Test
+	public void testPriority() throws InterruptedException
+	{
+		TestJob aBlocker = startBlocker();
+		TestJob aQueued = submit("q", PublishPriority.QUEUED, "queued");
+		TestJob aScheduled = submit("s", PublishPriority.SCHEDULED, "scheduled");
+		TestJob aFirst = submit("i1", PublishPriority.INTERACTIVE, "interactive 1");
+		TestJob aSecond = submit("i2", PublishPriority.INTERACTIVE, "interactive 2");
+		
+		itsRelease.countDown();
+		aBlocker.awaitDone();
+		aQueued.awaitDone();
+		aScheduled.awaitDone();
+		aFirst.awaitDone();
+		aSecond.awaitDone();
+		assertEquals(Arrays.asList("ran blocker", "ran interactive 1", "ran interactive 2", "ran scheduled", "ran queued"), itsEvents);
+	}
+	
+	/**
+	 * Only one job at a time publishes to a URL, even when a worker is free
+	 */
+	@Test
+	public void testOneJobPerURL() throws InterruptedException
+	{
+		itsScheduler.setItsMaxWorkers(2);
+		TestJob aBlocker = startBlocker();
+		TestJob aSameURL = submit("blocker", PublishPriority.INTERACTIVE, "same url");
+		TestJob anOtherURL = submit("other", PublishPriority.QUEUED, "other url");
+		
+		anOtherURL.awaitDone();
+		assertFalse(aSameURL.itsStarted.await(100, TimeUnit.MILLISECONDS));
+		
+		itsRelease.countDown();
+		aBlocker.awaitDone();
+		aSameURL.awaitDone();
+		assertEquals(Arrays.asList("ran blocker", "ran other url", "ran same url"), itsEvents);
+	}
+	
+	/**
+	 * A waiting job that is cancelled is skipped and never runs
+	 */
+	@Test
+	public void testCancel() throws InterruptedException
+	{
+		TestJob aBlocker = startBlocker();
+		TestJob aJob = submit("a", PublishPriority.SCHEDULED, "cancelled");
+		assertTrue(itsScheduler.cancel(aJob));
+		assertFalse(itsScheduler.cancel(aJob));
+		assertEquals(EasReportTab.PUBLISH_CANCELLED, aJob.itsReturnCode);
+		
+		itsRelease.countDown();
+		aBlocker.awaitDone();
+		assertEquals(Arrays.asList("ran blocker", "skipped cancelled"), itsEvents);
+	}
+	
+	/**
+	 * Start a job that holds a worker, and the URL "blocker", until the test releases it
+	 * @return the running job
+	 */
+	private TestJob startBlocker() throws InterruptedException
+	{
+		TestJob aBlocker = new TestJob("blocker", PublishPriority.INTERACTIVE, "blocker", itsEvents, itsRelease);
+		itsScheduler.submit(aBlocker);
+		assertTrue("The blocker did not start", aBlocker.itsStarted.await(WAIT_SECONDS, TimeUnit.SECONDS));
+		return aBlocker;
+	}
+	
+	private TestJob submit(String theURL, PublishPriority thePriority, String theDescription)
+	{
+		TestJob aJob = new TestJob(theURL, thePriority, theDescription, itsEvents, null);
+		itsScheduler.submit(aJob);
+		return aJob;
+	}
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * Tests of leaving the &lt;timestamp&gt; element out of the digest of the SnapshotDigestWriter
+ * @see com.enterprise_architecture.essential.widgets.SnapshotDigestWriter SnapshotDigestWriter
+ */
+public class SnapshotDigestWriterTest 
+{
+	private static final String REPORT_XML = "<knowledge_base><timestamp>2026-10-19T09:00:00</timestamp><simple_instance/></knowledge_base>";
+	
+	/**
+	 * Only the timestamp differs between the renders, so the digests are the same
+	 */
+	@Test
+	public void testTimestampIgnored() throws IOException
+	{
+		String anOtherXML = REPORT_XML.replace("09:00:00", "17:30:15");
+		assertEquals(digest(REPORT_XML), digest(anOtherXML));
+		assertFalse(digest(REPORT_XML).equals(digest(REPORT_XML.replace("simple_instance", "slot"))));
+	}
+	
+	/**
+	 * The timestamp is left out however the tags are split across the writes
+	 */
+	@Test
+	public void testTimestampSplitAcrossWrites() throws IOException
+	{
+		String aWholeDigest = digest(REPORT_XML);
+		StringWriter anOutput = new StringWriter();
+		SnapshotDigestWriter aWriter = new SnapshotDigestWriter(anOutput);
+		aWriter.write("<knowledge_base><time");
+		aWriter.write('s');
+		aWriter.write("tamp>2026-10-19T".toCharArray());
+		aWriter.write("xx17:30:15</tim", 2, 13);
+		aWriter.write("estamp");
+		aWriter.write("><simple_instance/></knowledge_base>".toCharArray(), 0, 36);
+		aWriter.close();
+		
+		assertEquals(aWholeDigest, aWriter.getDigest());
+		assertEquals(REPORT_XML.replace("09:00:00", "17:30:15"), anOutput.toString());
+	}
+	
+	/**
+	 * Characters that only start like the opening tag are digested, including at the end of the snapshot
+	 */
+	@Test
+	public void testPartialTag() throws IOException
+	{
+		String anXML = "<a><timestep/><<timestamp>1</timestamp><time";
+		StringWriter anOutput = new StringWriter();
+		SnapshotDigestWriter aWriter = new SnapshotDigestWriter(anOutput);
+		aWriter.write(anXML);
+		aWriter.close();
+		
+		String anExpected = SnapshotSpool.toHex(SnapshotSpool.createDigest().digest("<a><timestep/><<time".getBytes("UTF-8")));
+		assertEquals(anExpected, aWriter.getDigest());
+		assertEquals(anXML, anOutput.toString());
+	}
+	
+	/**
+	 * The characters are digested as UTF-8
+	 */
+	@Test
+	public void testUTF8() throws IOException
+	{
+		String anXML = "<name>Caf\u00e9 \u2013 \u65e5\u672c</name>";
+		assertEquals(SnapshotSpool.toHex(SnapshotSpool.createDigest().digest(anXML.getBytes("UTF-8"))), digest(anXML));
+	}
+	
+	private static String digest(String theXML) throws IOException
+	{
+		SnapshotDigestWriter aWriter = new SnapshotDigestWriter(new StringWriter());
+		aWriter.write(theXML);
+		aWriter.close();
+		return aWriter.getDigest();
+	}
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of keeping, loading and copying a SnapshotSpool
+ * @see com.enterprise_architecture.essential.widgets.SnapshotSpool SnapshotSpool
+ */
+public class SnapshotSpoolTest 
+{
+	private static final String REPORT_XML = "<knowledge_base><timestamp>1</timestamp><simple_instance><name>Application_1</name></simple_instance></knowledge_base>";
+	private static final String URL = "http://localhost:8080/essential_viewer/reportService";
+	
+	@Rule
+	public TemporaryFolder itsFolder = new TemporaryFolder();
+	
+	/**
+	 * A kept snapshot is loaded with the same content, digest and metadata
+	 */
+	@Test
+	public void testKeepAndLoad() throws Exception
+	{
+		File aDirectory = itsFolder.newFolder("spool");
+		SnapshotSpool aSpool = SnapshotSpool.create(REPORT_XML, aDirectory);
+		aSpool.setMetadata(SnapshotSpool.URL_KEY, URL);
+		File aSpoolFile = aSpool.getItsFile();
+		
+		SnapshotSpool aKept = aSpool.keep(aDirectory, "last");
+		assertFalse("The spool file should have been renamed", aSpoolFile.exists());
+		
+		SnapshotSpool aLoaded = SnapshotSpool.load(aDirectory, "last");
+		assertNotNull(aLoaded);
+		assertEquals(aKept.getItsDigest(), aLoaded.getItsDigest());
+		assertEquals(aKept.getItsLength(), aLoaded.getItsLength());
+		assertEquals(URL, aLoaded.getMetadata(SnapshotSpool.URL_KEY));
+		assertEquals(aSpool.getUncompressedLength(), aLoaded.getUncompressedLength());
+		assertTrue(aLoaded.getTimestamp() > 0);
+		assertEquals(REPORT_XML, readReportXML(aLoaded));
+	}
+	
+	/**
+	 * Keeping a snapshot under a name replaces the snapshot kept under that name
+	 */
+	@Test
+	public void testKeepReplaces() throws Exception
+	{
+		File aDirectory = itsFolder.newFolder("spool");
+		SnapshotSpool.create(REPORT_XML, aDirectory).keep(aDirectory, "last");
+		String aNewXML = REPORT_XML.replace("Application_1", "Application_2");
+		SnapshotSpool aKept = SnapshotSpool.create(aNewXML, aDirectory).keep(aDirectory, "last");
+		
+		SnapshotSpool aLoaded = SnapshotSpool.load(aDirectory, "last");
+		assertEquals(aKept.getItsDigest(), aLoaded.getItsDigest());
+		assertEquals(aNewXML, readReportXML(aLoaded));
+	}
+	
+	/**
+	 * A copy is independent of the original, and has the same content and metadata
+	 */
+	@Test
+	public void testCopy() throws Exception
+	{
+		File aDirectory = itsFolder.newFolder("spool");
+		File aQueueDirectory = new File(itsFolder.getRoot(), "queue");
+		SnapshotSpool aSpool = SnapshotSpool.create(REPORT_XML, aDirectory);
+		aSpool.setMetadata(SnapshotSpool.URL_KEY, URL);
+		
+		SnapshotSpool aCopy = aSpool.copy(aQueueDirectory, "queued");
+		assertTrue(aSpool.getItsFile().exists());
+		aSpool.delete();
+		
+		SnapshotSpool aLoaded = SnapshotSpool.load(aQueueDirectory, "queued");
+		assertNotNull(aLoaded);
+		assertEquals(aCopy.getItsDigest(), aLoaded.getItsDigest());
+		assertEquals(URL, aLoaded.getMetadata(SnapshotSpool.URL_KEY));
+		assertEquals(REPORT_XML, readReportXML(aLoaded));
+	}
+	
+	/**
+	 * A snapshot that is missing, has no metadata, or does not have the length in its metadata is not loaded
+	 */
+	@Test
+	public void testLoadIncomplete() throws Exception
+	{
+		File aDirectory = itsFolder.newFolder("spool");
+		assertNull(SnapshotSpool.load(aDirectory, "missing"));
+		
+		SnapshotSpool aKept = SnapshotSpool.create(REPORT_XML, aDirectory).keep(aDirectory, "truncated");
+		RandomAccessFile aFile = new RandomAccessFile(aKept.getItsFile(), "rw");
+		try
+		{
+			aFile.setLength(aKept.getItsLength() - 1);
+		}
+		finally
+		{
+			aFile.close();
+		}
+		assertNull(SnapshotSpool.load(aDirectory, "truncated"));
+		
+		new FileOutputStream(new File(aDirectory, "nometadata.gz")).close();
+		assertNull(SnapshotSpool.load(aDirectory, "nometadata"));
+	}
+	
+	/**
+	 * The digest is that of the compressed content, so identifies the upload
+	 */
+	@Test
+	public void testDigest() throws Exception
+	{
+		File aDirectory = itsFolder.newFolder("spool");
+		SnapshotSpool aSpool = SnapshotSpool.create(REPORT_XML, aDirectory);
+		byte[] aContent = new byte[(int)aSpool.getItsLength()];
+		FileInputStream anInput = new FileInputStream(aSpool.getItsFile());
+		try
+		{
+			int anOffset = 0;
+			int aRead;
+			while(anOffset < aContent.length && (aRead = anInput.read(aContent, anOffset, aContent.length - anOffset)) > 0)
+			{
+				anOffset += aRead;
+			}
+		}
+		finally
+		{
+			anInput.close();
+		}
+		assertEquals(SnapshotSpool.toHex(SnapshotSpool.createDigest().digest(aContent)), aSpool.getItsDigest());
+	}
+	
+	/**
+	 * Read the repository snapshot back from a spool
+	 * @param theSpool the spool
+	 * @return the snapshot
+	 */
+	private static String readReportXML(SnapshotSpool theSpool) throws IOException, ClassNotFoundException
+	{
+		ObjectInputStream anInput = new ObjectInputStream(new GZIPInputStream(new FileInputStream(theSpool.getItsFile())));
+		try
+		{
+			return (String)anInput.readObject();
+		}
+		finally
+		{
+			anInput.close();
+		}
+	}
+}
@@ -0,0 +1,1092 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the Essential Viewer Report Service and image receiver, for testing the publish from the 
+ * Essential Viewer tab without a Viewer installation. Implements the receiving side of both the single POST of 
+ * the snapshot and the resumable, chunked upload used by HttpReportServiceClient, and accepts and discards 
+ * the GraphWidget images.
+ * <br/>
+ * Received snapshots are decompressed and written to the output directory. Partial uploads are held in 
+ * &lt;upload id&gt;.part files in the same directory, so an upload can be resumed after the stand-in restarts.
+ * <br/>
+ * To exercise resuming, the stand-in can drop the connection part way through every n-th chunk.
+ * <br/>
+ * A snapshot or image sent with the X-Publish-Version header is staged under that version rather than made live.
+ * A POST with the X-Publish-Action header activates the staged version, making its snapshot live, or aborts it,
+ * discarding what was staged. Several stand-ins on different ports act as the nodes of a load-balanced Viewer
+ * for a coordinated publish.
+ * <br/>
+ * The content digest sent with the live snapshot is remembered. A query for the offset of an upload with the 
+ * same content digest is answered with the X-Snapshot-Unchanged header, and the client skips the upload.
+ * <br/>
+ * For load tests, the stand-in can:
+ * <ul>
+ * <li>require the form login that HttpReportServiceClient.checkForFormLogin() and doFormLogin() expect: the 
+ * login form page until the client has posted the user name and password to j_security_check, then a session
+ * cookie</li>
+ * <li>wait a fixed latency before handling each request</li>
+ * <li>limit the bandwidth of all the request bodies it receives together, as a shared link would</li>
+ * <li>answer a proportion of the requests with an error status, 503 by default, as an overloaded Viewer would</li>
+ * </ul>
+ * Requests are handled on a pool of threads, so that concurrent publishes are not held up behind each other.
+ * <br/>
+ * The stand-in listens on the loopback interface only, and a snapshot is only read if the serialised stream 
+ * holds a String, so that it cannot be used to deserialise other objects. It is part of the test sources, used 
+ * by the unit tests and the benchmarks, and is not shipped in the plug-in jar.
+ * <br/>
+ * Usage: StandInReportService [-port 8080] [-dir standin] [-dropevery n] [-login user:password] [-latency ms]
+ * [-bandwidth bytes/s] [-errorrate 0.0-1.0] [-errorstatus 503] [-seed n]
+ * <br/>
+ * Then publish to http://localhost:8080/essential_viewer/reportService
+ * @version 1.4 - Loopback only, and only a String is deserialised<br/>
+ * @version 1.3 - Form login, latency, bandwidth limit and error injection<br/>
+ * @version 1.2 - Unchanged content<br/>
+ * @version 1.1 - Staged publish<br/>
+ * @version 1.0
+ * @see com.enterprise_architecture.essential.widgets.HttpReportServiceClient HttpReportServiceClient
+ */
+public class StandInReportService implements HttpHandler 
+{
+	public static final int DEFAULT_PORT = 8080;
+	
+	private static final String PART_SUFFIX = ".part";
+	private static final String SNAPSHOT_PREFIX = "reportXML-";
+	private static final String SNAPSHOT_SUFFIX = ".xml";
+	private static final String UPLOAD_ID_PATTERN = "[0-9a-f]{64}";
+	private static final String VERSION_PATTERN = "[0-9A-Za-z-]{1,80}";
+	private static final String STAGED_PREFIX = "staged-";
+	private static final String PAGE = "<html><head><title>Essential Report Service stand-in</title></head><body>Ready</body></html>";
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	// The pages and fields of the form login, as the Essential Viewer login pages and HttpReportServiceClient have them
+	private static final String LOGIN_ACTION = "/j_security_check";
+	private static final String LOGIN_USER_FIELD = "j_username";
+	private static final String LOGIN_PASSWORD_FIELD = "j_password";
+	private static final String SESSION_COOKIE = "JSESSIONID";
+	private static final String LOGIN_PAGE = "<html><head><title>Essential Publishing Login Form</title></head><body><form method=\"POST\" action=\"j_security_check\">"
+											 + "<input name=\"j_username\"/><input type=\"password\" name=\"j_password\"/></form></body></html>";
+	private static final String LOGIN_ERROR_PAGE = "<html><head><title>Essential Publishing Login Error Page</title></head><body>Login failed</body></html>";
+	private static final String FORBIDDEN_PAGE = "<html><head><title>Essential Publishing 403 Error Page</title></head><body>Not logged in</body></html>";
+	private static final int SC_FOUND = 302;
+	private static final int SC_FORBIDDEN = 403;
+	private static final int SC_SERVICE_UNAVAILABLE = 503;
+	private static final long NANOS_PER_SECOND = 1000000000L;
+	
+	private final HttpServer itsServer;
+	private final ExecutorService itsExecutor;
+	private final File itsDirectory;
+	
+	/**
+	 * Drop the connection part way through every n-th chunk, 0 never
+	 */
+	private int itsDropEvery = 0;
+	
+	private int itsChunkCount = 0;
+	private int itsSnapshotCount = 0;
+	private int itsImageCount = 0;
+	
+	/**
+	 * The number of images staged for each staged version, and the version last activated
+	 */
+	private final Map<String, Integer> itsStagedImages = new HashMap<String, Integer>();
+	private String itsActiveVersion = null;
+	
+	/**
+	 * The content digest of the live snapshot, or null if not known, and the number of queries answered as unchanged
+	 */
+	private String itsLiveContentDigest = null;
+	private int itsUnchangedCount = 0;
+	
+	/**
+	 * The user name and password of the form login, null for no login, and the sessions that have logged in
+	 */
+	private volatile String itsLoginUser = null;
+	private volatile String itsLoginPassword = null;
+	private final Set<String> itsSessions = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	private final SecureRandom itsSessionRandom = new SecureRandom();
+	
+	/**
+	 * The latency added before handling each request, in milliseconds
+	 */
+	private volatile long itsLatency = 0;
+	
+	/**
+	 * The bandwidth shared by all the request bodies, in bytes per second, 0 for no limit, and the time at which 
+	 * the bytes already let through will have crossed the link
+	 */
+	private volatile long itsBandwidth = 0;
+	private long itsLinkFreeTime = 0;
+	private final Object itsLinkLock = new Object();
+	
+	/**
+	 * The proportion of the requests answered with itsErrorStatus, and the number so answered. These have a lock
+	 * of their own, as a chunk holds the lock of the stand-in while it is received.
+	 */
+	private double itsErrorRate = 0;
+	private volatile int itsErrorStatus = SC_SERVICE_UNAVAILABLE;
+	private Random itsErrorRandom = new Random();
+	private int itsInjectedErrorCount = 0;
+	private final Object itsErrorLock = new Object();
+	
+	/**
+	 * Create the stand-in, listening on all paths of the specified port
+	 * @param thePort the port on the loopback interface on which to listen, 0 for any free port
+	 * @param theDirectory the directory in which to store the received snapshots
+	 * @throws IOException if the server cannot be created
+	 */
+	public StandInReportService(int thePort, File theDirectory) throws IOException
+	{
+		itsDirectory = theDirectory;
+		if(!itsDirectory.isDirectory() && !itsDirectory.mkdirs())
+		{
+			throw new IOException("Unable to create directory: " + itsDirectory);
+		}
+		itsServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), thePort), 0);
+		itsServer.createContext("/", this);
+		
+		// A thread per request, so that a slow request does not hold up the others
+		itsExecutor = Executors.newCachedThreadPool(new ThreadFactory()
+		{
+			private final AtomicInteger itsThreadCount = new AtomicInteger();
+			
+			public Thread newThread(Runnable theRunnable)
+			{
+				Thread aThread = new Thread(theRunnable, "stand-in-" + itsThreadCount.incrementAndGet());
+				aThread.setDaemon(true);
+				return aThread;
+			}
+		});
+		itsServer.setExecutor(itsExecutor);
+	}
+	
+	/**
+	 * Run the stand-in from the command line
+	 * @param theArgs [-port n] [-dir directory] [-dropevery n] [-login user:password] [-latency ms] [-bandwidth bytes/s] 
+	 * [-errorrate 0.0-1.0] [-errorstatus code] [-seed n]
+	 * @throws IOException if the server cannot be started
+	 */
+	public static void main(String[] theArgs) throws IOException
+	{
+		int aPort = DEFAULT_PORT;
+		File aDirectory = new File("standin");
+		int aDropEvery = 0;
+		String aLogin = null;
+		long aLatency = 0;
+		long aBandwidth = 0;
+		double anErrorRate = 0;
+		int anErrorStatus = SC_SERVICE_UNAVAILABLE;
+		Long aSeed = null;
+		for(int i = 0; i + 1 < theArgs.length; i += 2)
+		{
+			if(theArgs[i].equals("-port"))
+			{
+				aPort = Integer.parseInt(theArgs[i + 1]);
+			}
+			else if(theArgs[i].equals("-dir"))
+			{
+				aDirectory = new File(theArgs[i + 1]);
+			}
+			else if(theArgs[i].equals("-dropevery"))
+			{
+				aDropEvery = Integer.parseInt(theArgs[i + 1]);
+			}
+			else if(theArgs[i].equals("-login"))
+			{
+				aLogin = theArgs[i + 1];
+			}
+			else if(theArgs[i].equals("-latency"))
+			{
+				aLatency = Long.parseLong(theArgs[i + 1]);
+			}
+			else if(theArgs[i].equals("-bandwidth"))
+			{
+				aBandwidth = Long.parseLong(theArgs[i + 1]);
+			}
+			else if(theArgs[i].equals("-errorrate"))
+			{
+				anErrorRate = Double.parseDouble(theArgs[i + 1]);
+			}
+			else if(theArgs[i].equals("-errorstatus"))
+			{
+				anErrorStatus = Integer.parseInt(theArgs[i + 1]);
+			}
+			else if(theArgs[i].equals("-seed"))
+			{
+				aSeed = Long.valueOf(theArgs[i + 1]);
+			}
+		}
+		
+		StandInReportService aService = new StandInReportService(aPort, aDirectory);
+		aService.setItsDropEvery(aDropEvery);
+		if(aLogin != null)
+		{
+			int aSeparator = aLogin.indexOf(':');
+			aService.setFormLogin(aLogin.substring(0, Math.max(0, aSeparator)), aLogin.substring(aSeparator + 1));
+		}
+		aService.setItsLatency(aLatency);
+		aService.setItsBandwidth(aBandwidth);
+		aService.setErrorInjection(anErrorRate, anErrorStatus, aSeed);
+		aService.start();
+		System.out.println("Report Service stand-in listening on port " + aService.getPort() + ", writing to " + aDirectory.getAbsolutePath());
+	}
+	
+	/**
+	 * Start accepting requests
+	 */
+	public void start()
+	{
+		itsServer.start();
+	}
+	
+	/**
+	 * Stop accepting requests
+	 */
+	public void stop()
+	{
+		itsServer.stop(0);
+		itsExecutor.shutdownNow();
+	}
+	
+	/**
+	 * @return the port on which the stand-in is listening
+	 */
+	public int getPort()
+	{
+		return itsServer.getAddress().getPort();
+	}
+
+	/**
+	 * Handle a request to the Report Service or image receiver
+	 */
+	public void handle(HttpExchange theExchange) throws IOException 
+	{
+		try
+		{
+			// Load test conditions: latency, login and errors, in the order a Viewer would meet them
+			if(itsLatency > 0)
+			{
+				try
+				{
+					Thread.sleep(itsLatency);
+				}
+				catch(InterruptedException anIntEx)
+				{
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			if(itsLoginUser != null && !handleFormLogin(theExchange))
+			{
+				return;
+			}
+			if(isInjectingError())
+			{
+				drain(theExchange.getRequestBody());
+				theExchange.getResponseHeaders().set("Retry-After", "1");
+				respond(theExchange, itsErrorStatus, -1);
+				return;
+			}
+			
+			String anUploadId = theExchange.getRequestHeaders().getFirst(HttpReportServiceClient.UPLOAD_ID_HEADER);
+			String aContentType = theExchange.getRequestHeaders().getFirst("Content-Type");
+			String aVersion = theExchange.getRequestHeaders().getFirst(HttpReportServiceClient.PUBLISH_VERSION_HEADER);
+			String anAction = theExchange.getRequestHeaders().getFirst(HttpReportServiceClient.PUBLISH_ACTION_HEADER);
+			String aContentDigest = theExchange.getRequestHeaders().getFirst(HttpReportServiceClient.CONTENT_DIGEST_HEADER);
+			if(aVersion != null && !aVersion.matches(VERSION_PATTERN))
+			{
+				drain(theExchange.getRequestBody());
+				respond(theExchange, HttpReportServiceClient.SC_BAD_REQUEST, -1);
+			}
+			else if(theExchange.getRequestMethod().equals("GET"))
+			{
+				handleGet(theExchange, anUploadId, (aVersion == null) ? aContentDigest : null);
+			}
+			else if(!theExchange.getRequestMethod().equals("POST"))
+			{
+				drain(theExchange.getRequestBody());
+				respond(theExchange, 405, -1);
+			}
+			else if(anAction != null)
+			{
+				handleAction(theExchange, aVersion, anAction);
+			}
+			else if(aContentType != null && aContentType.startsWith("multipart/"))
+			{
+				handleImage(theExchange, aVersion);
+			}
+			else if(anUploadId != null)
+			{
+				handleChunk(theExchange, anUploadId, aVersion, aContentDigest);
+			}
+			else
+			{
+				handleSnapshot(theExchange, aVersion, aContentDigest);
+			}
+		}
+		finally
+		{
+			theExchange.close();
+		}
+	}
+	
+	/**
+	 * Answer the login probe, and the query for the offset of a resumable upload, saying whether the live
+	 * snapshot already has the content digest of the upload
+	 */
+	private void handleGet(HttpExchange theExchange, String theUploadId, String theContentDigest) throws IOException
+	{
+		drain(theExchange.getRequestBody());
+		if(theUploadId != null)
+		{
+			if(!theUploadId.matches(UPLOAD_ID_PATTERN))
+			{
+				respond(theExchange, HttpReportServiceClient.SC_BAD_REQUEST, -1);
+				return;
+			}
+			synchronized(this)
+			{
+				if(theContentDigest != null && theContentDigest.equals(itsLiveContentDigest))
+				{
+					itsUnchangedCount++;
+					log("Live snapshot already has content " + theContentDigest + ", upload not needed");
+					theExchange.getResponseHeaders().set(HttpReportServiceClient.SNAPSHOT_UNCHANGED_HEADER, "true");
+				}
+			}
+			respond(theExchange, 200, getPartFile(theUploadId).length());
+			return;
+		}
+		
+		sendPage(theExchange, 200, PAGE);
+	}
+	
+	/**
+	 * Receive one chunk of a resumable upload
+	 */
+	private void handleChunk(HttpExchange theExchange, String theUploadId, String theVersion, String theContentDigest) throws IOException
+	{
+		long anOffset;
+		long aLength;
+		try
+		{
+			anOffset = Long.parseLong(theExchange.getRequestHeaders().getFirst(HttpReportServiceClient.UPLOAD_OFFSET_HEADER));
+			aLength = Long.parseLong(theExchange.getRequestHeaders().getFirst(HttpReportServiceClient.UPLOAD_LENGTH_HEADER));
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			anOffset = -1;
+			aLength = -1;
+		}
+		if(!theUploadId.matches(UPLOAD_ID_PATTERN) || anOffset < 0 || aLength < 0)
+		{
+			drain(theExchange.getRequestBody());
+			respond(theExchange, HttpReportServiceClient.SC_BAD_REQUEST, -1);
+			return;
+		}
+		
+		File aPartFile = getPartFile(theUploadId);
+		synchronized(this)
+		{
+			if(anOffset != aPartFile.length())
+			{
+				drain(theExchange.getRequestBody());
+				log("Chunk at " + anOffset + " conflicts with " + aPartFile.length() + " held for " + theUploadId);
+				respond(theExchange, HttpReportServiceClient.SC_CONFLICT, aPartFile.length());
+				return;
+			}
+			
+			// Append the chunk, keeping whatever arrives before a dropped connection
+			itsChunkCount++;
+			boolean isDropped = itsDropEvery > 0 && (itsChunkCount % itsDropEvery) == 0;
+			long aDropAfter = isDropped ? Math.max(1, getContentLength(theExchange) / 2) : Long.MAX_VALUE;
+			long aReceived = copy(theExchange.getRequestBody(), aPartFile, aDropAfter);
+			if(isDropped)
+			{
+				log("Dropping connection after " + aReceived + " bytes of chunk at " + anOffset);
+				throw new IOException("Connection dropped by stand-in");
+			}
+			
+			long aHeld = aPartFile.length();
+			if(aHeld < aLength)
+			{
+				respond(theExchange, HttpReportServiceClient.SC_ACCEPTED, aHeld);
+				return;
+			}
+			
+			// Complete - verify and process the snapshot
+			boolean isValid = aHeld == aLength && theUploadId.equals(digest(aPartFile));
+			if(isValid)
+			{
+				isValid = processSnapshot(aPartFile, theVersion, theContentDigest);
+			}
+			aPartFile.delete();
+			if(!isValid)
+			{
+				log("Upload " + theUploadId + " failed verification and has been discarded");
+				respond(theExchange, HttpReportServiceClient.SC_BAD_REQUEST, 0);
+				return;
+			}
+			respond(theExchange, 200, aLength);
+		}
+	}
+	
+	/**
+	 * Receive the whole snapshot in a single POST
+	 */
+	private void handleSnapshot(HttpExchange theExchange, String theVersion, String theContentDigest) throws IOException
+	{
+		File aFile = File.createTempFile("snapshot-", PART_SUFFIX, itsDirectory);
+		try
+		{
+			copy(theExchange.getRequestBody(), aFile, Long.MAX_VALUE);
+			boolean isValid;
+			synchronized(this)
+			{
+				isValid = processSnapshot(aFile, theVersion, theContentDigest);
+			}
+			respond(theExchange, isValid ? 200 : HttpReportServiceClient.SC_INTERNAL_SERVER_ERROR, -1);
+		}
+		finally
+		{
+			aFile.delete();
+		}
+	}
+	
+	/**
+	 * Receive and discard a GraphWidget image, counting it against the staged version if there is one
+	 */
+	private void handleImage(HttpExchange theExchange, String theVersion) throws IOException
+	{
+		drain(theExchange.getRequestBody());
+		synchronized(this)
+		{
+			if(theVersion != null)
+			{
+				Integer aStagedCount = itsStagedImages.get(theVersion);
+				itsStagedImages.put(theVersion, (aStagedCount == null) ? 1 : aStagedCount + 1);
+			}
+			else
+			{
+				itsImageCount++;
+			}
+		}
+		respond(theExchange, 200, -1);
+	}
+	
+	/**
+	 * Activate or abort a staged version. Both are idempotent: activating the active version again, or
+	 * aborting a version that is not staged, succeeds.
+	 */
+	private void handleAction(HttpExchange theExchange, String theVersion, String theAction) throws IOException
+	{
+		drain(theExchange.getRequestBody());
+		if(theVersion == null)
+		{
+			respond(theExchange, HttpReportServiceClient.SC_BAD_REQUEST, -1);
+			return;
+		}
+		
+		synchronized(this)
+		{
+			File aStagedFile = getStagedFile(theVersion);
+			if(theAction.equals(HttpReportServiceClient.ABORT_ACTION))
+			{
+				aStagedFile.delete();
+				itsStagedImages.remove(theVersion);
+				log("Aborted version " + theVersion);
+				respond(theExchange, 200, -1);
+			}
+			else if(!theAction.equals(HttpReportServiceClient.ACTIVATE_ACTION))
+			{
+				respond(theExchange, HttpReportServiceClient.SC_BAD_REQUEST, -1);
+			}
+			else if(theVersion.equals(itsActiveVersion))
+			{
+				respond(theExchange, 200, -1);
+			}
+			else if(!aStagedFile.isFile())
+			{
+				log("Cannot activate version " + theVersion + ", nothing is staged for it");
+				respond(theExchange, EasReportTab.BAD_URL, -1);
+			}
+			else
+			{
+				File anXMLFile = new File(itsDirectory, SNAPSHOT_PREFIX + (itsSnapshotCount + 1) + SNAPSHOT_SUFFIX);
+				anXMLFile.delete();
+				if(!aStagedFile.renameTo(anXMLFile))
+				{
+					respond(theExchange, HttpReportServiceClient.SC_INTERNAL_SERVER_ERROR, -1);
+					return;
+				}
+				itsSnapshotCount++;
+				Integer aStagedCount = itsStagedImages.remove(theVersion);
+				itsImageCount += (aStagedCount == null) ? 0 : aStagedCount;
+				itsActiveVersion = theVersion;
+				itsLiveContentDigest = null;
+				log("Activated version " + theVersion + " as " + anXMLFile.getName());
+				respond(theExchange, 200, -1);
+			}
+		}
+	}
+	
+	/**
+	 * Decompress the received snapshot and write the XML to the output directory, or stage it
+	 * @param theFile the compressed snapshot
+	 * @param theVersion the version under which to stage the snapshot, or null to make it live
+	 * @param theContentDigest the content digest sent with the snapshot, or null if none was
+	 * @return true if the snapshot is valid
+	 */
+	private boolean processSnapshot(File theFile, String theVersion, String theContentDigest)
+	{
+		ObjectInputStream anObjectIn = null;
+		Writer anXMLOut = null;
+		try
+		{
+			anObjectIn = new StringInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(theFile), BUFFER_SIZE)));
+			Object aSnapshot = anObjectIn.readObject();
+			if(!(aSnapshot instanceof String))
+			{
+				log("Invalid snapshot: not a String");
+				return false;
+			}
+			String aReportXML = (String)aSnapshot;
+			File anXMLFile;
+			if(theVersion != null)
+			{
+				anXMLFile = getStagedFile(theVersion);
+				if(!itsStagedImages.containsKey(theVersion))
+				{
+					itsStagedImages.put(theVersion, 0);
+				}
+			}
+			else
+			{
+				itsSnapshotCount++;
+				anXMLFile = new File(itsDirectory, SNAPSHOT_PREFIX + itsSnapshotCount + SNAPSHOT_SUFFIX);
+			}
+			anXMLOut = new OutputStreamWriter(new FileOutputStream(anXMLFile), "UTF-8");
+			anXMLOut.write(aReportXML);
+			log("Received snapshot of " + theFile.length() + " bytes, " + aReportXML.length() + " characters, to " + anXMLFile.getName());
+			if(theVersion == null)
+			{
+				itsLiveContentDigest = theContentDigest;
+			}
+			return true;
+		}
+		catch(Exception anEx)
+		{
+			log("Invalid snapshot: " + anEx);
+			return false;
+		}
+		finally
+		{
+			close(anObjectIn);
+			close(anXMLOut);
+		}
+	}
+	
+	/**
+	 * Apply the form login. The login form is posted to j_security_check; with the right user name and password
+	 * a session cookie is set and the client is sent back to the page it came from, otherwise it is shown the 
+	 * login error page. Without a session, a GET is shown the login form and anything else is forbidden.
+	 * @return true if the request has a session and should be handled, false if it has been answered
+	 */
+	private boolean handleFormLogin(HttpExchange theExchange) throws IOException
+	{
+		String aPath = theExchange.getRequestURI().getPath();
+		if(theExchange.getRequestMethod().equals("POST") && aPath.endsWith(LOGIN_ACTION))
+		{
+			Map<String, String> aForm = readForm(theExchange.getRequestBody());
+			if(itsLoginUser.equals(aForm.get(LOGIN_USER_FIELD)) && itsLoginPassword.equals(aForm.get(LOGIN_PASSWORD_FIELD)))
+			{
+				byte[] aSessionBytes = new byte[16];
+				itsSessionRandom.nextBytes(aSessionBytes);
+				String aSession = SnapshotSpool.toHex(aSessionBytes);
+				itsSessions.add(aSession);
+				log("Logged in " + itsLoginUser);
+				theExchange.getResponseHeaders().set("Set-Cookie", SESSION_COOKIE + "=" + aSession + "; Path=/");
+				theExchange.getResponseHeaders().set("Location", aPath.substring(0, aPath.length() - LOGIN_ACTION.length()));
+				sendPage(theExchange, SC_FOUND, PAGE);
+			}
+			else
+			{
+				log("Login refused for " + aForm.get(LOGIN_USER_FIELD));
+				sendPage(theExchange, 200, LOGIN_ERROR_PAGE);
+			}
+			return false;
+		}
+		
+		if(hasSession(theExchange))
+		{
+			return true;
+		}
+		drain(theExchange.getRequestBody());
+		if(theExchange.getRequestMethod().equals("GET"))
+		{
+			sendPage(theExchange, 200, LOGIN_PAGE);
+		}
+		else
+		{
+			sendPage(theExchange, SC_FORBIDDEN, FORBIDDEN_PAGE);
+		}
+		return false;
+	}
+	
+	/**
+	 * @return true if the request carries the cookie of a session that has logged in
+	 */
+	private boolean hasSession(HttpExchange theExchange)
+	{
+		String aCookies = theExchange.getRequestHeaders().getFirst("Cookie");
+		if(aCookies == null)
+		{
+			return false;
+		}
+		for(String aCookie : aCookies.split(";"))
+		{
+			String[] aNameValue = aCookie.trim().split("=", 2);
+			if(aNameValue.length == 2 && aNameValue[0].equals(SESSION_COOKIE) && itsSessions.contains(aNameValue[1]))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Read a URL encoded form from the request body
+	 * @return the fields of the form
+	 */
+	private Map<String, String> readForm(InputStream theInput) throws IOException
+	{
+		ByteArrayOutputStream aBody = new ByteArrayOutputStream();
+		byte[] aBuffer = new byte[BUFFER_SIZE];
+		int aRead;
+		InputStream anInput = throttle(theInput);
+		while((aRead = anInput.read(aBuffer)) >= 0)
+		{
+			aBody.write(aBuffer, 0, aRead);
+		}
+		Map<String, String> aForm = new HashMap<String, String>();
+		for(String aField : aBody.toString("UTF-8").split("&"))
+		{
+			String[] aNameValue = aField.split("=", 2);
+			if(aNameValue.length == 2)
+			{
+				aForm.put(URLDecoder.decode(aNameValue[0], "UTF-8"), URLDecoder.decode(aNameValue[1], "UTF-8"));
+			}
+		}
+		return aForm;
+	}
+	
+	/**
+	 * @return true if this request should be answered with the injected error status
+	 */
+	private boolean isInjectingError()
+	{
+		synchronized(itsErrorLock)
+		{
+			if(itsErrorRate <= 0 || itsErrorRandom.nextDouble() >= itsErrorRate)
+			{
+				return false;
+			}
+			itsInjectedErrorCount++;
+			return true;
+		}
+	}
+	
+	/**
+	 * Wrap a request body so that it is read no faster than the shared bandwidth allows
+	 * @param theInput the request body
+	 * @return the throttled body, or theInput if the bandwidth is not limited
+	 */
+	private InputStream throttle(InputStream theInput)
+	{
+		if(itsBandwidth <= 0 || theInput instanceof ThrottledInputStream)
+		{
+			return theInput;
+		}
+		return new ThrottledInputStream(theInput);
+	}
+	
+	/**
+	 * Wait until the specified number of bytes would have crossed the shared link. Each caller books its 
+	 * bytes onto the end of the link, so that concurrent requests share the bandwidth between them.
+	 * @param theCount the number of bytes read
+	 */
+	private void crossLink(int theCount) throws IOException
+	{
+		long aBandwidth = itsBandwidth;
+		if(aBandwidth <= 0 || theCount <= 0)
+		{
+			return;
+		}
+		long aDoneTime;
+		synchronized(itsLinkLock)
+		{
+			itsLinkFreeTime = Math.max(itsLinkFreeTime, System.nanoTime()) + (theCount * NANOS_PER_SECOND / aBandwidth);
+			aDoneTime = itsLinkFreeTime;
+		}
+		long aWait = aDoneTime - System.nanoTime();
+		if(aWait > 0)
+		{
+			try
+			{
+				Thread.sleep(aWait / 1000000, (int)(aWait % 1000000));
+			}
+			catch(InterruptedException anIntEx)
+			{
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while throttled");
+			}
+		}
+	}
+	
+	/**
+	 * Send an HTML page
+	 */
+	private static void sendPage(HttpExchange theExchange, int theStatusCode, String thePage) throws IOException
+	{
+		byte[] aPage = thePage.getBytes("UTF-8");
+		theExchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+		theExchange.sendResponseHeaders(theStatusCode, aPage.length);
+		theExchange.getResponseBody().write(aPage);
+	}
+	
+	/**
+	 * Send a response with no body, including the upload offset if it is not negative
+	 */
+	private void respond(HttpExchange theExchange, int theStatusCode, long theOffset) throws IOException
+	{
+		if(theOffset >= 0)
+		{
+			theExchange.getResponseHeaders().set(HttpReportServiceClient.UPLOAD_OFFSET_HEADER, String.valueOf(theOffset));
+		}
+		theExchange.sendResponseHeaders(theStatusCode, -1);
+	}
+	
+	/**
+	 * Append up to the specified number of bytes of the request body to a file
+	 * @return the number of bytes appended
+	 */
+	private long copy(InputStream theInput, File theFile, long theLimit) throws IOException
+	{
+		theInput = throttle(theInput);
+		OutputStream anOutput = new FileOutputStream(theFile, true);
+		long aCopied = 0;
+		try
+		{
+			byte[] aBuffer = new byte[BUFFER_SIZE];
+			int aRead;
+			while(aCopied < theLimit && (aRead = theInput.read(aBuffer, 0, (int)Math.min(aBuffer.length, theLimit - aCopied))) >= 0)
+			{
+				anOutput.write(aBuffer, 0, aRead);
+				aCopied += aRead;
+			}
+		}
+		finally
+		{
+			anOutput.close();
+		}
+		return aCopied;
+	}
+	
+	private void drain(InputStream theInput) throws IOException
+	{
+		theInput = throttle(theInput);
+		byte[] aBuffer = new byte[BUFFER_SIZE];
+		while(theInput.read(aBuffer) >= 0)
+		{
+			// discard
+		}
+	}
+	
+	private static String digest(File theFile) throws IOException
+	{
+		MessageDigest aDigest = SnapshotSpool.createDigest();
+		InputStream anInput = new FileInputStream(theFile);
+		try
+		{
+			byte[] aBuffer = new byte[BUFFER_SIZE];
+			int aRead;
+			while((aRead = anInput.read(aBuffer)) >= 0)
+			{
+				aDigest.update(aBuffer, 0, aRead);
+			}
+		}
+		finally
+		{
+			anInput.close();
+		}
+		return SnapshotSpool.toHex(aDigest.digest());
+	}
+	
+	private static long getContentLength(HttpExchange theExchange)
+	{
+		try
+		{
+			return Long.parseLong(theExchange.getRequestHeaders().getFirst("Content-Length"));
+		}
+		catch(NumberFormatException aNumEx)
+		{
+			return 0;
+		}
+	}
+	
+	private static void close(Closeable theCloseable)
+	{
+		if(theCloseable != null)
+		{
+			try
+			{
+				theCloseable.close();
+			}
+			catch(IOException anIOEx)
+			{
+				// ignore
+			}
+		}
+	}
+	
+	private File getStagedFile(String theVersion)
+	{
+		return new File(itsDirectory, STAGED_PREFIX + theVersion + SNAPSHOT_SUFFIX);
+	}
+	
+	private File getPartFile(String theUploadId)
+	{
+		return new File(itsDirectory, theUploadId + PART_SUFFIX);
+	}
+	
+	private void log(String theMessage)
+	{
+		System.out.println("[stand-in] " + theMessage);
+	}
+
+	/**
+	 * @return the itsDropEvery
+	 */
+	public int getItsDropEvery() {
+		return itsDropEvery;
+	}
+
+	/**
+	 * @param itsDropEvery the itsDropEvery to set
+	 */
+	public void setItsDropEvery(int itsDropEvery) {
+		this.itsDropEvery = itsDropEvery;
+	}
+
+	/**
+	 * @return the number of snapshots received
+	 */
+	public synchronized int getItsSnapshotCount() {
+		return itsSnapshotCount;
+	}
+
+	/**
+	 * @return the number of images received, or activated
+	 */
+	public synchronized int getItsImageCount() {
+		return itsImageCount;
+	}
+
+	/**
+	 * @return the number of offset queries answered as unchanged, because the live snapshot had the same content
+	 */
+	public synchronized int getItsUnchangedCount() {
+		return itsUnchangedCount;
+	}
+
+	/**
+	 * @return the version last activated, or null if none has been
+	 */
+	public synchronized String getItsActiveVersion() {
+		return itsActiveVersion;
+	}
+
+	/**
+	 * @return the number of versions staged and neither activated nor aborted
+	 */
+	public synchronized int getItsStagedCount() {
+		return itsStagedImages.size();
+	}
+
+	/**
+	 * Require the form login, or not
+	 * @param theUser the user name, or null for no login
+	 * @param thePassword the password
+	 * @since 1.3
+	 */
+	public void setFormLogin(String theUser, String thePassword) {
+		itsLoginPassword = thePassword;
+		itsLoginUser = theUser;
+		itsSessions.clear();
+	}
+
+	/**
+	 * @return the latency added before handling each request, in milliseconds
+	 * @since 1.3
+	 */
+	public long getItsLatency() {
+		return itsLatency;
+	}
+
+	/**
+	 * @param itsLatency the latency added before handling each request, in milliseconds
+	 * @since 1.3
+	 */
+	public void setItsLatency(long itsLatency) {
+		this.itsLatency = itsLatency;
+	}
+
+	/**
+	 * @return the bandwidth shared by all the request bodies, in bytes per second, 0 for no limit
+	 * @since 1.3
+	 */
+	public long getItsBandwidth() {
+		return itsBandwidth;
+	}
+
+	/**
+	 * @param itsBandwidth the bandwidth shared by all the request bodies, in bytes per second, 0 for no limit
+	 * @since 1.3
+	 */
+	public void setItsBandwidth(long itsBandwidth) {
+		this.itsBandwidth = itsBandwidth;
+	}
+
+	/**
+	 * Answer a proportion of the requests with an error status
+	 * @param theErrorRate the proportion of the requests, from 0 for none to 1 for all
+	 * @param theErrorStatus the HTTP status with which to answer them
+	 * @param theSeed the seed for choosing the requests, so that a test can be repeated, or null for any
+	 * @since 1.3
+	 */
+	public void setErrorInjection(double theErrorRate, int theErrorStatus, Long theSeed) {
+		synchronized(itsErrorLock)
+		{
+			itsErrorRate = theErrorRate;
+			itsErrorStatus = theErrorStatus;
+			itsErrorRandom = (theSeed == null) ? new Random() : new Random(theSeed.longValue());
+		}
+	}
+
+	/**
+	 * @return the number of requests answered with the injected error status
+	 * @since 1.3
+	 */
+	public int getItsInjectedErrorCount() {
+		synchronized(itsErrorLock)
+		{
+			return itsInjectedErrorCount;
+		}
+	}
+	
+	/**
+	 * Reads the serialised snapshot, which is a String. Strings are read without resolving a class, so any 
+	 * class in the stream is rejected before it can be loaded or instantiated.
+	 */
+	private static class StringInputStream extends ObjectInputStream
+	{
+		StringInputStream(InputStream theInput) throws IOException
+		{
+			super(theInput);
+		}
+		
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass theClass) throws IOException, ClassNotFoundException
+		{
+			throw new InvalidClassException(theClass.getName(), "Only a String snapshot is accepted");
+		}
+		
+		@Override
+		protected Class<?> resolveProxyClass(String[] theInterfaces) throws IOException, ClassNotFoundException
+		{
+			throw new InvalidClassException("Proxy", "Only a String snapshot is accepted");
+		}
+	}
+	
+	/**
+	 * A request body that is read no faster than the shared bandwidth allows
+	 */
+	private class ThrottledInputStream extends FilterInputStream
+	{
+		ThrottledInputStream(InputStream theInput)
+		{
+			super(theInput);
+		}
+		
+		@Override
+		public int read() throws IOException
+		{
+			int aByte = super.read();
+			if(aByte >= 0)
+			{
+				crossLink(1);
+			}
+			return aByte;
+		}
+		
+		@Override
+		public int read(byte[] theBytes, int theOffset, int theLength) throws IOException
+		{
+			int aRead = super.read(theBytes, theOffset, theLength);
+			crossLink(aRead);
+			return aRead;
+		}
+	}
+}
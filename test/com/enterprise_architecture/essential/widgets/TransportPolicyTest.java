@@ -0,0 +1,150 @@
+/**
+ * Copyright (c)2026 Enterprise Architecture Solutions Ltd.
+ * This file is part of Essential Architecture Manager, 
+ * the Essential Architecture Meta Model and The Essential Project.
+ *
+ * Essential Architecture Manager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Essential Architecture Manager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Essential Architecture Manager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.enterprise_architecture.essential.widgets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests of the backoff and timeouts of the TransportPolicy
+ * @see com.enterprise_architecture.essential.widgets.TransportPolicy TransportPolicy
+ */
+public class TransportPolicyTest 
+{
+	private static final int INITIAL_BACKOFF = 1000;
+	private static final int MAX_BACKOFF = 8000;
+	private static final int SAMPLES = 200;
+	
+	/**
+	 * The backoff doubles with each retry up to the maximum, less a jitter of up to half
+	 */
+	@Test
+	public void testBackoffBounds()
+	{
+		TransportPolicy aPolicy = createPolicy();
+		for(int aRetry = 1; aRetry <= 8; aRetry++)
+		{
+			long aFullBackoff = Math.min((long)INITIAL_BACKOFF << (aRetry - 1), MAX_BACKOFF);
+			for(int i = 0; i < SAMPLES; i++)
+			{
+				long aBackoff = aPolicy.getBackoff(aRetry);
+				assertTrue("Retry " + aRetry + " backoff " + aBackoff + " above " + aFullBackoff, aBackoff <= aFullBackoff);
+				assertTrue("Retry " + aRetry + " backoff " + aBackoff + " below half of " + aFullBackoff, aBackoff >= aFullBackoff - aFullBackoff / 2);
+			}
+		}
+	}
+	
+	/**
+	 * The jitter differs between calls, so that clients do not retry in step
+	 */
+	@Test
+	public void testBackoffJitter()
+	{
+		TransportPolicy aPolicy = createPolicy();
+		Set<Long> aBackoffs = new HashSet<Long>();
+		for(int i = 0; i < SAMPLES; i++)
+		{
+			aBackoffs.add(Long.valueOf(aPolicy.getBackoff(3)));
+		}
+		assertTrue("Backoff has no jitter", aBackoffs.size() > 1);
+	}
+	
+	/**
+	 * A very large retry number does not overflow the backoff
+	 */
+	@Test
+	public void testBackoffCapped()
+	{
+		TransportPolicy aPolicy = createPolicy();
+		long aBackoff = aPolicy.getBackoff(Integer.MAX_VALUE);
+		assertTrue(aBackoff > 0 && aBackoff <= MAX_BACKOFF);
+	}
+	
+	/**
+	 * The deadline of a request is never shorter than the socket timeout of its phase
+	 */
+	@Test
+	public void testRequestDeadline()
+	{
+		Properties aProperties = new Properties();
+		aProperties.setProperty("reporttab.transport.requesttimeout", "2000");
+		aProperties.setProperty("reporttab.transport.sockettimeout.auth", "1000");
+		aProperties.setProperty("reporttab.transport.sockettimeout.upload", "5000");
+		TransportPolicy aPolicy = TransportPolicy.fromProperties(aProperties);
+		assertEquals(2000, aPolicy.getRequestDeadline(PublishPhase.AUTH));
+		assertEquals(5000, aPolicy.getRequestDeadline(PublishPhase.UPLOAD_XML));
+	}
+	
+	/**
+	 * A socket timeout or request timeout of 0 means no deadline
+	 */
+	@Test
+	public void testNoRequestDeadline()
+	{
+		Properties aProperties = new Properties();
+		aProperties.setProperty("reporttab.transport.sockettimeout.upload", "0");
+		TransportPolicy aPolicy = TransportPolicy.fromProperties(aProperties);
+		assertEquals(0, aPolicy.getRequestDeadline(PublishPhase.UPLOAD_XML));
+		assertEquals(30000, aPolicy.getRequestDeadline(PublishPhase.AUTH));
+		
+		aProperties.setProperty("reporttab.transport.requesttimeout", "0");
+		aPolicy = TransportPolicy.fromProperties(aProperties);
+		assertEquals(0, aPolicy.getRequestDeadline(PublishPhase.AUTH));
+	}
+	
+	/**
+	 * The chunk size read from the properties is not allowed below the minimum
+	 */
+	@Test
+	public void testMinimumChunkSize()
+	{
+		Properties aProperties = new Properties();
+		aProperties.setProperty("reporttab.transport.chunksize", "10");
+		assertEquals(64 * 1024, TransportPolicy.fromProperties(aProperties).getItsChunkSize());
+	}
+	
+	/**
+	 * Only gateway and unavailable responses are retried
+	 */
+	@Test
+	public void testRetryableStatus()
+	{
+		TransportPolicy aPolicy = new TransportPolicy();
+		assertTrue(aPolicy.isRetryableStatus(502));
+		assertTrue(aPolicy.isRetryableStatus(503));
+		assertTrue(aPolicy.isRetryableStatus(504));
+		assertFalse(aPolicy.isRetryableStatus(500));
+		assertFalse(aPolicy.isRetryableStatus(404));
+	}
+	
+	private static TransportPolicy createPolicy()
+	{
+		Properties aProperties = new Properties();
+		aProperties.setProperty("reporttab.transport.backoff.initial", String.valueOf(INITIAL_BACKOFF));
+		aProperties.setProperty("reporttab.transport.backoff.max", String.valueOf(MAX_BACKOFF));
+		return TransportPolicy.fromProperties(aProperties);
+	}
+}